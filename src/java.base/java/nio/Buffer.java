@@ -790,6 +790,11 @@ public abstract class Buffer {
                 public void checkSegment(Buffer buffer) {
                     buffer.checkSegment();
                 }
+
+                @Override
+                public void prefetch(MappedByteBuffer buffer) {
+                    buffer.prefetch();
+                }
             });
     }
 
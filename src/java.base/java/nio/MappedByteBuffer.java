@@ -264,6 +264,22 @@ public abstract class MappedByteBuffer
         return this;
     }
 
+    /**
+     * Advises the operating system that this buffer's content will be
+     * needed soon. Unlike load(), this does not touch the pages, so it
+     * returns without waiting for them to be read.
+     */
+    final void prefetch() {
+        if (fd == null || isSync() || (address == 0) || (capacity() == 0))
+            return;
+        long offset = mappingOffset();
+        try {
+            load0(mappingAddress(offset), mappingLength(offset));
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
     /**
      * Forces any changes made to this buffer's content to be written to the
      * storage device containing the mapped file.
@@ -30,6 +30,7 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.spi.*;
 import java.nio.ByteBuffer;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.ExecutorService;
 import java.util.Set;
@@ -786,4 +787,321 @@ public abstract class AsynchronousFileChannel
      *          If this channel was not opened for writing
      */
     public abstract Future<Integer> write(ByteBuffer src, long position);
+
+    /**
+     * Reads sequences of bytes from this channel into the given buffers, each
+     * starting at the corresponding file position.
+     *
+     * <p> This method initiates a batch of reads, one for each of the given
+     * buffers. The read into {@code dsts[i]} starts at file position {@code
+     * positions[i]} and works in the same manner as the {@link
+     * #read(ByteBuffer,long,Object,CompletionHandler)} method; each read
+     * updates the position of its buffer with the number of bytes read, which
+     * is zero if its file position is greater than or equal to the file's
+     * size at the time that the read is attempted. The reads may be performed
+     * in any order, and concurrently, so a buffer should not appear more than
+     * once in a batch.
+     *
+     * <p> The handler is invoked once, when all the reads have completed. The
+     * result is the total number of bytes read. If any of the reads fails then
+     * the handler is invoked with the exception of one of the failed reads,
+     * to which the exceptions of any others are {@linkplain
+     * Throwable#addSuppressed added as suppressed exceptions}; the other reads
+     * will have completed, and the positions of their buffers updated.
+     *
+     * @implSpec
+     * The default implementation initiates a read for each buffer by invoking
+     * the {@link #read(ByteBuffer,long,Object,CompletionHandler)} method.
+     *
+     * @param   <A>
+     *          The type of the attachment
+     * @param   dsts
+     *          The buffers into which bytes are to be transferred
+     * @param   positions
+     *          The file positions at which the transfers are to begin;
+     *          must be non-negative
+     * @param   attachment
+     *          The object to attach to the I/O operation; can be {@code null}
+     * @param   handler
+     *          The handler for consuming the result
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are not of the same length, or if a position is
+     *          negative or a buffer is read-only
+     * @throws  NullPointerException
+     *          If an element of the buffer array is {@code null}
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @since 15
+     */
+    public <A> void read(ByteBuffer[] dsts,
+                         long[] positions,
+                         A attachment,
+                         CompletionHandler<Long,? super A> handler)
+    {
+        if (handler == null)
+            throw new NullPointerException("'handler' is null");
+        // copy the arrays so that they cannot change once checked
+        dsts = dsts.clone();
+        positions = positions.clone();
+        checkBatch(dsts, positions, true);
+        initiate(dsts, positions, true, new Batch<>(dsts.length, attachment, handler));
+    }
+
+    /**
+     * Reads sequences of bytes from this channel into the given buffers, each
+     * starting at the corresponding file position.
+     *
+     * <p> This method initiates a batch of reads, as by the {@link
+     * #read(ByteBuffer[],long[],Object,CompletionHandler)} method, and returns
+     * a {@code Future} representing the pending result of the batch. The
+     * {@code Future}'s {@link Future#get() get} method returns the total
+     * number of bytes read.
+     *
+     * @implSpec
+     * The default implementation initiates a read for each buffer by invoking
+     * the {@link #read(ByteBuffer,long,Object,CompletionHandler)} method.
+     *
+     * @param   dsts
+     *          The buffers into which bytes are to be transferred
+     * @param   positions
+     *          The file positions at which the transfers are to begin;
+     *          must be non-negative
+     *
+     * @return  A {@code Future} object representing the pending result
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are not of the same length, or if a position is
+     *          negative or a buffer is read-only
+     * @throws  NullPointerException
+     *          If an element of the buffer array is {@code null}
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @since 15
+     */
+    public Future<Long> read(ByteBuffer[] dsts, long[] positions) {
+        // copy the arrays so that they cannot change once checked
+        dsts = dsts.clone();
+        positions = positions.clone();
+        checkBatch(dsts, positions, true);
+        Batch<Void> batch = new Batch<>(dsts.length, null, null);
+        initiate(dsts, positions, true, batch);
+        return batch;
+    }
+
+    /**
+     * Writes sequences of bytes to this channel from the given buffers, each
+     * starting at the corresponding file position.
+     *
+     * <p> This method initiates a batch of writes, one for each of the given
+     * buffers. The write from {@code srcs[i]} starts at file position {@code
+     * positions[i]} and works in the same manner as the {@link
+     * #write(ByteBuffer,long,Object,CompletionHandler)} method. The writes may
+     * be performed in any order, and concurrently, so the result of writes
+     * to overlapping regions of the file is unspecified.
+     *
+     * <p> The handler is invoked once, when all the writes have completed. The
+     * result is the total number of bytes written. If any of the writes fails
+     * then the handler is invoked with the exception of one of the failed
+     * writes, to which the exceptions of any others are {@linkplain
+     * Throwable#addSuppressed added as suppressed exceptions}; the other
+     * writes will have completed, and the positions of their buffers updated.
+     *
+     * @implSpec
+     * The default implementation initiates a write for each buffer by invoking
+     * the {@link #write(ByteBuffer,long,Object,CompletionHandler)} method.
+     *
+     * @param   <A>
+     *          The type of the attachment
+     * @param   srcs
+     *          The buffers from which bytes are to be transferred
+     * @param   positions
+     *          The file positions at which the transfers are to begin;
+     *          must be non-negative
+     * @param   attachment
+     *          The object to attach to the I/O operation; can be {@code null}
+     * @param   handler
+     *          The handler for consuming the result
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are not of the same length, or if a position is
+     *          negative
+     * @throws  NullPointerException
+     *          If an element of the buffer array is {@code null}
+     * @throws  NonWritableChannelException
+     *          If this channel was not opened for writing
+     *
+     * @since 15
+     */
+    public <A> void write(ByteBuffer[] srcs,
+                          long[] positions,
+                          A attachment,
+                          CompletionHandler<Long,? super A> handler)
+    {
+        if (handler == null)
+            throw new NullPointerException("'handler' is null");
+        // copy the arrays so that they cannot change once checked
+        srcs = srcs.clone();
+        positions = positions.clone();
+        checkBatch(srcs, positions, false);
+        initiate(srcs, positions, false, new Batch<>(srcs.length, attachment, handler));
+    }
+
+    /**
+     * Writes sequences of bytes to this channel from the given buffers, each
+     * starting at the corresponding file position.
+     *
+     * <p> This method initiates a batch of writes, as by the {@link
+     * #write(ByteBuffer[],long[],Object,CompletionHandler)} method, and
+     * returns a {@code Future} representing the pending result of the batch.
+     * The {@code Future}'s {@link Future#get() get} method returns the total
+     * number of bytes written.
+     *
+     * @implSpec
+     * The default implementation initiates a write for each buffer by invoking
+     * the {@link #write(ByteBuffer,long,Object,CompletionHandler)} method.
+     *
+     * @param   srcs
+     *          The buffers from which bytes are to be transferred
+     * @param   positions
+     *          The file positions at which the transfers are to begin;
+     *          must be non-negative
+     *
+     * @return  A {@code Future} object representing the pending result
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are not of the same length, or if a position is
+     *          negative
+     * @throws  NullPointerException
+     *          If an element of the buffer array is {@code null}
+     * @throws  NonWritableChannelException
+     *          If this channel was not opened for writing
+     *
+     * @since 15
+     */
+    public Future<Long> write(ByteBuffer[] srcs, long[] positions) {
+        // copy the arrays so that they cannot change once checked
+        srcs = srcs.clone();
+        positions = positions.clone();
+        checkBatch(srcs, positions, false);
+        Batch<Void> batch = new Batch<>(srcs.length, null, null);
+        initiate(srcs, positions, false, batch);
+        return batch;
+    }
+
+    /**
+     * Checks the arguments of a batch of reads or writes.
+     */
+    private static void checkBatch(ByteBuffer[] bufs, long[] positions, boolean read) {
+        if (bufs.length != positions.length)
+            throw new IllegalArgumentException("Arrays of different lengths");
+        for (int i = 0; i < bufs.length; i++) {
+            if (bufs[i] == null)
+                throw new NullPointerException("Null buffer");
+            if (positions[i] < 0)
+                throw new IllegalArgumentException("Negative position");
+            if (read && bufs[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+    }
+
+    /**
+     * Initiates a read or write for each buffer of a batch. If a read or write
+     * cannot be initiated then the exception is thrown if it is the first of
+     * the batch, and is otherwise the failure of the batch.
+     */
+    private void initiate(ByteBuffer[] bufs, long[] positions, boolean read, Batch<?> batch) {
+        for (int i = 0; i < bufs.length; i++) {
+            try {
+                if (read) {
+                    read(bufs[i], positions[i], null, batch);
+                } else {
+                    write(bufs[i], positions[i], null, batch);
+                }
+            } catch (RuntimeException x) {
+                if (i == 0)
+                    throw x;
+                batch.fail(x, bufs.length - i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The result of a batch of reads or writes initiated by the default
+     * implementations, which is the handler of each read or write.
+     */
+    private static final class Batch<A>
+        extends CompletableFuture<Long>
+        implements CompletionHandler<Integer,Object>
+    {
+        private final A attachment;
+        private final CompletionHandler<Long,? super A> handler;
+        private int remaining;
+        private long total;
+        private Throwable exc;
+
+        Batch(int count, A attachment, CompletionHandler<Long,? super A> handler) {
+            this.attachment = attachment;
+            this.handler = handler;
+            this.remaining = count;
+            if (count == 0)
+                done(0L, null);
+        }
+
+        @Override
+        public void completed(Integer result, Object ignore) {
+            update(result, null, 1);
+        }
+
+        @Override
+        public void failed(Throwable x, Object ignore) {
+            update(0, x, 1);
+        }
+
+        /**
+         * Fails the given number of reads or writes that were not initiated.
+         */
+        void fail(Throwable x, int count) {
+            update(0, x, count);
+        }
+
+        private void update(int n, Throwable x, int count) {
+            long total;
+            Throwable exc;
+            synchronized (this) {
+                if (n > 0)
+                    this.total += n;
+                if (x != null) {
+                    if (this.exc == null) {
+                        this.exc = x;
+                    } else {
+                        this.exc.addSuppressed(x);
+                    }
+                }
+                remaining -= count;
+                if (remaining > 0)
+                    return;
+                total = this.total;
+                exc = this.exc;
+            }
+            done(total, exc);
+        }
+
+        private void done(long total, Throwable exc) {
+            if (handler == null) {
+                if (exc == null) {
+                    complete(total);
+                } else {
+                    completeExceptionally(exc);
+                }
+            } else if (exc == null) {
+                handler.completed(total, attachment);
+            } else {
+                handler.failed(exc, attachment);
+            }
+        }
+    }
 }
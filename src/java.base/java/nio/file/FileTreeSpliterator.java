@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileTreeWalker.Event;
+import java.nio.file.FileTreeWalker.EventType;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@code Spliterator} to walk a file tree, generating the same {@link Event
+ * Events} in the same order as a {@link FileTreeIterator} for the same tree,
+ * but which can be split by subtree for parallel traversal.
+ *
+ * <p> A spliterator keeps the files still to be visited, in order. When a
+ * directory is visited it is listed in full, and the attributes of its
+ * entries, which are cached by the directory stream where the file system
+ * provides them, are read; its entries are then visited before the files
+ * that follow it. Splitting gives away a prefix of the files still to be
+ * visited, together with their subtrees; if only one directory remains, it
+ * is listed first so that its entries can be split.
+ *
+ * <p> Errors are reported when the file that caused them is reached, as by
+ * a {@code FileTreeIterator}, so an I/O error is thrown as an {@link
+ * UncheckedIOException}. A spliterator does not hold any directories open.
+ */
+
+final class FileTreeSpliterator implements Spliterator<Event> {
+    private final boolean followLinks;
+    private final int maxDepth;
+
+    // the files to visit, in order
+    private final ArrayDeque<Node> pending;
+
+    // the number of directories in pending that have not been listed
+    private int directories;
+
+    /**
+     * A file to visit.
+     */
+    private static class Node {
+        private final Path file;
+        private final BasicFileAttributes attrs;    // null if ioe is set
+        private final int depth;
+        private final Node parent;
+        private IOException ioe;                    // reported when visited
+        private boolean listed;
+        private boolean skipped;                    // not visited
+
+        Node(Path file, BasicFileAttributes attrs, int depth, Node parent) {
+            this.file = file;
+            this.attrs = attrs;
+            this.depth = depth;
+            this.parent = parent;
+        }
+
+        Node(Path file, IOException ioe, int depth, Node parent) {
+            this(file, (BasicFileAttributes)null, depth, parent);
+            this.ioe = ioe;
+        }
+    }
+
+    /**
+     * Creates a new spliterator to walk the file tree starting at the given
+     * file.
+     *
+     * @throws  IllegalArgumentException
+     *          if {@code maxDepth} is negative
+     * @throws  IOException
+     *          if an I/O errors occurs opening the starting file
+     * @throws  SecurityException
+     *          if the security manager denies access to the starting file
+     * @throws  NullPointerException
+     *          if {@code start} or {@code options} is {@code null} or
+     *          the options array contains a {@code null} element
+     */
+    FileTreeSpliterator(Path start, int maxDepth, FileVisitOption... options)
+        throws IOException
+    {
+        boolean fl = false;
+        for (FileVisitOption option: options) {
+            // will throw NPE if options contains null
+            switch (option) {
+                case FOLLOW_LINKS : fl = true; break;
+                default:
+                    throw new AssertionError("Should not get here");
+            }
+        }
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("'maxDepth' is negative");
+        this.followLinks = fl;
+        this.maxDepth = maxDepth;
+        this.pending = new ArrayDeque<>();
+
+        // IOException if there a problem accessing the starting file
+        Node root = new Node(start,
+                             FileTreeWalker.getAttributes(start, fl, false),
+                             0,
+                             null);
+        if (isDirectory(root)) {
+            list(root);
+            if (root.ioe != null)
+                throw root.ioe;
+        }
+        pending.addFirst(root);
+    }
+
+    private FileTreeSpliterator(FileTreeSpliterator parent,
+                                ArrayDeque<Node> pending,
+                                int directories)
+    {
+        this.followLinks = parent.followLinks;
+        this.maxDepth = parent.maxDepth;
+        this.pending = pending;
+        this.directories = directories;
+    }
+
+    /**
+     * Returns true if the given node is a directory that is walked into.
+     */
+    private boolean isDirectory(Node node) {
+        return node.attrs != null
+            && node.attrs.isDirectory()
+            && node.depth < maxDepth;
+    }
+
+    /**
+     * Returns true if walking into the given directory would result in a
+     * file system loop/cycle.
+     */
+    private static boolean wouldLoop(Node node) {
+        Object key = node.attrs.fileKey();
+        for (Node ancestor = node.parent; ancestor != null; ancestor = ancestor.parent) {
+            Object ancestorKey = ancestor.attrs.fileKey();
+            if (key != null && ancestorKey != null) {
+                if (key.equals(ancestorKey)) {
+                    // cycle detected
+                    return true;
+                }
+            } else {
+                try {
+                    if (Files.isSameFile(node.file, ancestor.file)) {
+                        // cycle detected
+                        return true;
+                    }
+                } catch (IOException | SecurityException x) {
+                    // ignore
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists the given directory, which is at the head of pending or not yet
+     * in it, and inserts its entries at the head of pending. If the
+     * directory cannot be listed then the error is recorded in the node. If
+     * an error occurs while listing then a node recording it follows the
+     * entries which were listed, as the END_DIRECTORY event of a walker.
+     */
+    private void list(Node dir) {
+        dir.listed = true;
+
+        // check for cycles when following links
+        if (followLinks && wouldLoop(dir)) {
+            dir.ioe = new FileSystemLoopException(dir.file.toString());
+            return;
+        }
+
+        // attempt to open the directory; a directory other than the starting
+        // file is skipped if access to it is denied, as by a walker
+        DirectoryStream<Path> stream;
+        try {
+            stream = Files.newDirectoryStream(dir.file);
+        } catch (IOException ioe) {
+            dir.ioe = ioe;
+            return;
+        } catch (SecurityException se) {
+            if (dir.parent == null)
+                throw se;
+            dir.skipped = true;
+            return;
+        }
+
+        ArrayList<Node> entries = new ArrayList<>();
+        IOException ioe = null;
+        try {
+            for (Path entry : stream) {
+                try {
+                    entries.add(new Node(entry,
+                                         FileTreeWalker.getAttributes(entry, followLinks, true),
+                                         dir.depth + 1,
+                                         dir));
+                } catch (IOException x) {
+                    entries.add(new Node(entry, x, dir.depth + 1, dir));
+                } catch (SecurityException x) {
+                    // ignore, as a walker does
+                }
+            }
+        } catch (DirectoryIteratorException x) {
+            ioe = x.getCause();
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException x) {
+                if (ioe == null) {
+                    ioe = x;
+                } else {
+                    ioe.addSuppressed(x);
+                }
+            }
+        }
+        if (ioe != null)
+            entries.add(new Node(dir.file, ioe, dir.depth, dir));
+
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Node node = entries.get(i);
+            if (isDirectory(node))
+                directories++;
+            pending.addFirst(node);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        Node node;
+        boolean isDirectory;
+        do {
+            node = pending.pollFirst();
+            if (node == null)
+                return false;
+            isDirectory = isDirectory(node);
+            if (isDirectory && !node.listed) {
+                directories--;
+                list(node);
+            }
+        } while (node.skipped);
+        if (node.ioe != null)
+            throw new UncheckedIOException(node.ioe);
+        EventType type = isDirectory ? EventType.START_DIRECTORY : EventType.ENTRY;
+        action.accept(new Event(type, node.file, node.attrs));
+        return true;
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        if (pending.size() == 1) {
+            Node node = pending.peekFirst();
+            if (!isDirectory(node) || node.listed)
+                return null;
+            // list the directory so that its entries can be split off
+            pending.pollFirst();
+            directories--;
+            list(node);
+            pending.addFirst(node);
+            if (pending.size() == 1)
+                return null;
+        }
+        if (pending.size() < 2)
+            return null;
+
+        // split off the first half
+        int n = pending.size() / 2;
+        ArrayDeque<Node> prefix = new ArrayDeque<>(n);
+        int dirs = 0;
+        for (int i = 0; i < n; i++) {
+            Node node = pending.pollFirst();
+            if (isDirectory(node) && !node.listed)
+                dirs++;
+            prefix.addLast(node);
+        }
+        directories -= dirs;
+        return new FileTreeSpliterator(this, prefix, dirs);
+    }
+
+    @Override
+    public long estimateSize() {
+        // a directory that has not been listed may be arbitrarily large
+        return (directories > 0) ? Long.MAX_VALUE : pending.size();
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+}
@@ -56,7 +56,6 @@ import sun.nio.fs.BasicFileAttributesHolder;
 
 class FileTreeWalker implements Closeable {
     private final boolean followLinks;
-    private final LinkOption[] linkOptions;
     private final int maxDepth;
     private final ArrayDeque<DirectoryNode> stack = new ArrayDeque<>();
     private boolean closed;
@@ -188,8 +187,6 @@ class FileTreeWalker implements Closeable {
             throw new IllegalArgumentException("'maxDepth' is negative");
 
         this.followLinks = fl;
-        this.linkOptions = (fl) ? new LinkOption[0] :
-            new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.maxDepth = maxDepth;
     }
 
@@ -200,6 +197,18 @@ class FileTreeWalker implements Closeable {
      */
     private BasicFileAttributes getAttributes(Path file, boolean canUseCached)
         throws IOException
+    {
+        return getAttributes(file, followLinks, canUseCached);
+    }
+
+    /**
+     * Returns the attributes of the given file, following links if
+     * {@code followLinks} is true. Also used by {@link FileTreeSpliterator}.
+     */
+    static BasicFileAttributes getAttributes(Path file,
+                                             boolean followLinks,
+                                             boolean canUseCached)
+        throws IOException
     {
         // if attributes are cached then use them if possible
         if (canUseCached &&
@@ -216,7 +225,13 @@ class FileTreeWalker implements Closeable {
         // links then a link target might not exist so get attributes of link
         BasicFileAttributes attrs;
         try {
-            attrs = Files.readAttributes(file, BasicFileAttributes.class, linkOptions);
+            if (followLinks) {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } else {
+                attrs = Files.readAttributes(file,
+                                             BasicFileAttributes.class,
+                                             LinkOption.NOFOLLOW_LINKS);
+            }
         } catch (IOException ioe) {
             if (!followLinks)
                 throw ioe;
@@ -3802,6 +3802,83 @@ public final class Files {
         }
     }
 
+    /**
+     * Return a lazily populated {@code Stream}, the elements of which are
+     * the entries in the directory together with their basic file
+     * attributes.  The listing is not recursive.
+     *
+     * <p> The key of each element of the stream is the {@link Path} of the
+     * entry, as for the elements of the stream returned by {@link
+     * #list(Path) list}, and the value is its {@link BasicFileAttributes}, as
+     * if read by the {@link #readAttributes(Path,Class,LinkOption[])
+     * readAttributes} method. Where the file system provides the attributes
+     * of the entries when reading the directory, as is the case for the
+     * default provider on some platforms, they are used without accessing
+     * each entry; the attributes may therefore be slightly older than if
+     * read separately. If the {@code options} array does not contain the
+     * {@link LinkOption#NOFOLLOW_LINKS NOFOLLOW_LINKS} option then symbolic
+     * links are followed, and the attributes of a symbolic link whose
+     * target does not exist are those of the link itself.
+     *
+     * <p> The stream is <i>weakly consistent</i>, as for the {@code list}
+     * method. An entry that is deleted after it is read from the directory
+     * and before its attributes are read is not included in the stream.
+     *
+     * <p> The returned stream contains a reference to an open directory.
+     * The directory is closed by closing the stream.
+     *
+     * <p> If an {@link IOException} is thrown when accessing the directory
+     * or reading the attributes of an entry after this method has returned,
+     * it is wrapped in an {@link UncheckedIOException} which will be thrown
+     * from the method that caused the access to take place.
+     *
+     * @apiNote
+     * This method must be used within a try-with-resources statement or similar
+     * control structure to ensure that the stream's open directory is closed
+     * promptly after the stream's operations have completed.
+     *
+     * @param   dir  The path to the directory
+     * @param   options
+     *          options indicating how symbolic links are handled
+     *
+     * @return  The {@code Stream} describing the content of the
+     *          directory
+     *
+     * @throws  NotDirectoryException
+     *          if the file could not otherwise be opened because it is not
+     *          a directory <i>(optional specific exception)</i>
+     * @throws  IOException
+     *          if an I/O error occurs when opening the directory
+     * @throws  SecurityException
+     *          In the case of the default provider, and a security manager is
+     *          installed, the {@link SecurityManager#checkRead(String) checkRead}
+     *          method is invoked to check read access to the directory, and
+     *          to each entry.
+     *
+     * @see     #list(Path)
+     * @since   15
+     */
+    public static Stream<Map.Entry<Path,BasicFileAttributes>> listWithAttributes(Path dir,
+                                                                                LinkOption... options)
+        throws IOException
+    {
+        boolean followLinks = followLinks(options);
+        return list(dir)
+            .map(entry -> {
+                try {
+                    BasicFileAttributes attrs =
+                        FileTreeWalker.getAttributes(entry, followLinks, true);
+                    return Map.entry(entry, attrs);
+                } catch (NoSuchFileException e) {
+                    // deleted since it was read from the directory
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .filter(Objects::nonNull);
+    }
+
     /**
      * Return a {@code Stream} that is lazily populated with {@code
      * Path} by walking the file tree rooted at a given starting file.  The
@@ -3945,6 +4022,94 @@ public final class Files {
         return walk(start, Integer.MAX_VALUE, options);
     }
 
+    /**
+     * Return a parallel {@code Stream} that is populated with {@code Path}
+     * by walking the file tree rooted at a given starting file.  The
+     * elements of the stream are the same as the elements of the stream
+     * returned by {@link #walk(Path, int, FileVisitOption...) walk} for the
+     * same arguments, but the file tree is split by subtree so that
+     * subtrees are walked in parallel, in the {@link
+     * java.util.concurrent.ForkJoinPool ForkJoinPool} in which the stream
+     * pipeline is executed.
+     *
+     * <p> Each directory is read in full when it is visited, and the
+     * attributes of its entries are read at the same time, using the
+     * attributes provided by the file system when reading the directory
+     * where available. No directories remain open once they have been read,
+     * so closing the stream is not required.
+     *
+     * <p> If an {@link IOException} is thrown when accessing a file after
+     * this method has returned, it is wrapped in an {@link
+     * UncheckedIOException} which will be thrown from the method that caused
+     * the access to take place.
+     *
+     * @param   start
+     *          the starting file
+     * @param   maxDepth
+     *          the maximum number of directory levels to visit
+     * @param   options
+     *          options to configure the traversal
+     *
+     * @return  the parallel {@link Stream} of {@link Path}
+     *
+     * @throws  IllegalArgumentException
+     *          if the {@code maxDepth} parameter is negative
+     * @throws  SecurityException
+     *          If the security manager denies access to the starting file.
+     *          In the case of the default provider, the {@link
+     *          SecurityManager#checkRead(String) checkRead} method is invoked
+     *          to check read access to the directory.
+     * @throws  IOException
+     *          if an I/O error is thrown when accessing the starting file.
+     *
+     * @see     #walk(Path, int, FileVisitOption...)
+     * @since   15
+     */
+    public static Stream<Path> parallelWalk(Path start,
+                                            int maxDepth,
+                                            FileVisitOption... options)
+        throws IOException
+    {
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
+        return StreamSupport.stream(spliterator, true)
+                            .map(entry -> entry.file());
+    }
+
+    /**
+     * Return a parallel {@code Stream} that is populated with {@code Path}
+     * by walking the file tree rooted at a given starting file.
+     *
+     * <p> This method works as if invoking it were equivalent to evaluating the
+     * expression:
+     * <blockquote><pre>
+     * parallelWalk(start, Integer.MAX_VALUE, options)
+     * </pre></blockquote>
+     * In other words, it visits all levels of the file tree.
+     *
+     * @param   start
+     *          the starting file
+     * @param   options
+     *          options to configure the traversal
+     *
+     * @return  the parallel {@link Stream} of {@link Path}
+     *
+     * @throws  SecurityException
+     *          If the security manager denies access to the starting file.
+     *          In the case of the default provider, the {@link
+     *          SecurityManager#checkRead(String) checkRead} method is invoked
+     *          to check read access to the directory.
+     * @throws  IOException
+     *          if an I/O error is thrown when accessing the starting file.
+     *
+     * @see     #parallelWalk(Path, int, FileVisitOption...)
+     * @since   15
+     */
+    public static Stream<Path> parallelWalk(Path start, FileVisitOption... options)
+        throws IOException
+    {
+        return parallelWalk(start, Integer.MAX_VALUE, options);
+    }
+
     /**
      * Return a {@code Stream} that is lazily populated with {@code
      * Path} by searching for files in a file tree rooted at a given starting
@@ -516,6 +516,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      *
@@ -535,6 +537,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      * @param fromIndex the index of the first element, inclusive, to be sorted
@@ -558,6 +562,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      *
@@ -577,6 +583,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      * @param fromIndex the index of the first element, inclusive, to be sorted
@@ -608,6 +616,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      *
@@ -635,6 +645,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      * @param fromIndex the index of the first element, inclusive, to be sorted
@@ -666,6 +678,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      *
@@ -693,6 +707,8 @@ public class Arrays {
      * Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch. This algorithm
      * offers O(n log(n)) performance on all data sets, and is typically
      * faster than traditional (one-pivot) Quicksort implementations.
+     * When more than one thread is available, large arrays are instead
+     * sorted by a parallel radix sort, which offers O(n) performance.
      *
      * @param a the array to be sorted
      * @param fromIndex the index of the first element, inclusive, to be sorted
@@ -709,6 +725,108 @@ public class Arrays {
         DualPivotQuicksort.sort(a, ForkJoinPool.getCommonPoolParallelism(), fromIndex, toIndex);
     }
 
+    /**
+     * Sorts the specified array into ascending numerical order, and
+     * returns the permutation that was applied to it: the element at
+     * index {@code i} of the sorted array is the element that was at
+     * index {@code p[i]} before sorting, where {@code p} is the returned
+     * array.  The sort is stable: equal elements keep their original
+     * relative order, so that the indices of a run of equal elements
+     * are ascending.  The permutation can be used to reorder other
+     * arrays in the same way, for example to sort the columns of a
+     * table by one of them.
+     *
+     * @implNote The sorting algorithm is a radix sort, parallel for
+     * large arrays, which offers O(n) performance.
+     *
+     * @param a the array to be sorted
+     * @return the permutation, an array of the same length as {@code a}
+     *
+     * @since 15
+     */
+    public static int[] parallelSortIndexed(int[] a) {
+        return RadixSort.sortIndexed(a, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, and
+     * returns the permutation that was applied to it: the element at
+     * index {@code i} of the sorted array is the element that was at
+     * index {@code p[i]} before sorting, where {@code p} is the returned
+     * array.  The sort is stable: equal elements keep their original
+     * relative order, so that the indices of a run of equal elements
+     * are ascending.  The permutation can be used to reorder other
+     * arrays in the same way, for example to sort the columns of a
+     * table by one of them.
+     *
+     * @implNote The sorting algorithm is a radix sort, parallel for
+     * large arrays, which offers O(n) performance.
+     *
+     * @param a the array to be sorted
+     * @return the permutation, an array of the same length as {@code a}
+     *
+     * @since 15
+     */
+    public static int[] parallelSortIndexed(long[] a) {
+        return RadixSort.sortIndexed(a, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, and
+     * returns the permutation that was applied to it: the element at
+     * index {@code i} of the sorted array is the element that was at
+     * index {@code p[i]} before sorting, where {@code p} is the returned
+     * array.  The sort is stable: equal elements keep their original
+     * relative order, so that the indices of a run of equal elements
+     * are ascending.  The permutation can be used to reorder other
+     * arrays in the same way, for example to sort the columns of a
+     * table by one of them.
+     *
+     * <p>This method uses the total order imposed by the method
+     * {@link Float#compareTo}: {@code -0.0f} is treated as less than value
+     * {@code 0.0f} and {@code Float.NaN} is considered greater than any
+     * other value and all {@code Float.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is a radix sort, parallel for
+     * large arrays, which offers O(n) performance.
+     *
+     * @param a the array to be sorted
+     * @return the permutation, an array of the same length as {@code a}
+     *
+     * @since 15
+     */
+    public static int[] parallelSortIndexed(float[] a) {
+        return RadixSort.sortIndexed(a, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, and
+     * returns the permutation that was applied to it: the element at
+     * index {@code i} of the sorted array is the element that was at
+     * index {@code p[i]} before sorting, where {@code p} is the returned
+     * array.  The sort is stable: equal elements keep their original
+     * relative order, so that the indices of a run of equal elements
+     * are ascending.  The permutation can be used to reorder other
+     * arrays in the same way, for example to sort the columns of a
+     * table by one of them.
+     *
+     * <p>This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is a radix sort, parallel for
+     * large arrays, which offers O(n) performance.
+     *
+     * @param a the array to be sorted
+     * @return the permutation, an array of the same length as {@code a}
+     *
+     * @since 15
+     */
+    public static int[] parallelSortIndexed(double[] a) {
+        return RadixSort.sortIndexed(a, ForkJoinPool.getCommonPoolParallelism());
+    }
+
     /**
      * Checks that {@code fromIndex} and {@code toIndex} are in
      * the range and throws an exception if they aren't.
@@ -0,0 +1,1780 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of bits, indexed by nonnegative integers, that
+ * provides the operations of {@link BitSet} while using space
+ * proportional to the number and clustering of the set bits rather
+ * than to the highest set bit.
+ *
+ * <p>The bits are divided into chunks of 65536 consecutive bits, and
+ * each chunk containing at least one set bit is held in the most
+ * compact of three representations:  a sorted array of the indices of
+ * its set bits, for sparse chunks; a bitmap, for dense chunks; or a
+ * sorted list of runs of consecutive set bits, for clustered chunks.
+ * The array and bitmap representations are maintained automatically as
+ * bits are set and cleared.  Runs are produced by range operations such
+ * as {@link #set(int, int)}, and by {@link #optimize()}, which converts
+ * each chunk to whichever representation is smallest.
+ *
+ * <p>Logical operations ({@link #and}, {@link #or}, {@link #xor},
+ * {@link #andNot}) combine two sets chunk by chunk, skipping chunks
+ * absent from either operand where possible, and operate directly on
+ * the compressed representations.  {@link #unionOf(Collection)} and
+ * {@link #intersectionOf(Collection)} combine any number of sets in
+ * one pass, without materializing intermediate results.
+ *
+ * <p>A {@code CompressedBitSet} may be converted to and from a
+ * {@code BitSet} with {@link #toBitSet()} and {@link #valueOf(BitSet)}.
+ * Its set bits may be streamed with {@link #stream()}, and the elements
+ * of an {@code IntStream} may be collected into one with
+ * <pre>{@code
+ *     CompressedBitSet bits = ints.collect(CompressedBitSet::new,
+ *                                          CompressedBitSet::set,
+ *                                          CompressedBitSet::or);
+ * }</pre>
+ *
+ * <p>Unless otherwise noted, passing a null parameter to any of the
+ * methods in a {@code CompressedBitSet} will result in a
+ * {@code NullPointerException}.
+ *
+ * <p>A {@code CompressedBitSet} is not safe for multithreaded use
+ * without external synchronization.
+ *
+ * @see BitSet
+ * @since 15
+ */
+public class CompressedBitSet implements Cloneable, java.io.Serializable {
+    /*
+     * A bit index is split into a 16-bit key, the high bits, and a
+     * 16-bit value, the low bits.  The containers of the set values of
+     * each key are held in a sorted array of keys, searched by binary
+     * search.  A container is never empty; operations emptying one
+     * return null and the key is removed.
+     *
+     * Containers are mutated in place by set and clear, so binary
+     * operations never return one of their operands: every container of
+     * a result is either freshly built or a copy.
+     */
+
+    /** The largest cardinality held in an array container. */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    /** The number of words of a bitmap container. */
+    static final int BITMAP_WORDS = 1 << 10;
+
+    /** The number of bytes of a bitmap container. */
+    static final int BITMAP_BYTES = BITMAP_WORDS * Long.BYTES;
+
+    /** The number of keys of nonnegative bit indices. */
+    private static final int MAX_KEYS = 1 << 15;
+
+    /** The mask of the low bits of a bit index. */
+    private static final int LOW_MASK = 0xFFFF;
+
+    /** The keys of the containers, sorted. */
+    private transient char[] keys;
+
+    /** The containers, in the order of their keys. */
+    private transient Container[] containers;
+
+    /** The number of containers in use. */
+    private transient int size;
+
+    /**
+     * Creates a new, empty compressed bit set.
+     */
+    public CompressedBitSet() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    private CompressedBitSet(int capacity) {
+        keys = new char[Math.max(capacity, 4)];
+        containers = new Container[Math.max(capacity, 4)];
+    }
+
+    /**
+     * Returns a new compressed bit set containing all the bits of the
+     * given bit set.
+     *
+     * @param bs the bit set
+     * @return a {@code CompressedBitSet} containing the bits of the given
+     *         bit set
+     */
+    public static CompressedBitSet valueOf(BitSet bs) {
+        long[] words = bs.toLongArray();
+        CompressedBitSet result = new CompressedBitSet((words.length + BITMAP_WORDS - 1) / BITMAP_WORDS);
+        for (int from = 0, key = 0; from < words.length; from += BITMAP_WORDS, key++) {
+            Container c = fromWords(Arrays.copyOfRange(words, from, from + BITMAP_WORDS));
+            if (c != null)
+                result.append(key, c);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new compressed bit set containing the given bits.
+     *
+     * @param bitIndices the indices of the bits to set
+     * @return a {@code CompressedBitSet} containing the given bits
+     * @throws IndexOutOfBoundsException if any index is negative
+     */
+    public static CompressedBitSet valueOf(int... bitIndices) {
+        CompressedBitSet result = new CompressedBitSet();
+        for (int bitIndex : bitIndices)
+            result.set(bitIndex);
+        return result;
+    }
+
+    /**
+     * Returns a new bit set containing all the bits of this compressed
+     * bit set.
+     *
+     * @return a {@code BitSet} containing the bits of this set
+     */
+    public BitSet toBitSet() {
+        long[] words = new long[(length() + Long.SIZE - 1) >>> 6];
+        for (int i = 0; i < size; i++)
+            containers[i].orInto(words, keys[i] * BITMAP_WORDS);
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns a stream of indices for which this {@code CompressedBitSet}
+     * contains a bit in the set state. The indices are returned
+     * in order, from lowest to highest. The size of the stream
+     * is the number of bits in the set state, equal to the value
+     * returned by the {@link #cardinality()} method.
+     *
+     * <p>The stream splits at chunk boundaries, so that it may be
+     * processed efficiently in parallel.  If the set is modified while
+     * the stream is in progress, the result is undefined.
+     *
+     * @return a stream of integers representing set indices
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(new BitSpliterator(Arrays.copyOf(keys, size),
+                                                          Arrays.copyOf(containers, size),
+                                                          0, size, 0),
+                                       false);
+    }
+
+    // Bit operations
+
+    /**
+     * Returns the value of the bit with the specified index.
+     *
+     * @param  bitIndex the bit index
+     * @return the value of the bit with the specified index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = indexOf(bitIndex >>> 16);
+        return i >= 0 && containers[i].contains(bitIndex & LOW_MASK);
+    }
+
+    /**
+     * Sets the bit at the specified index to {@code true}.
+     *
+     * @param  bitIndex a bit index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void set(int bitIndex) {
+        checkIndex(bitIndex);
+        int key = bitIndex >>> 16, low = bitIndex & LOW_MASK;
+        int i = indexOf(key);
+        if (i >= 0)
+            containers[i] = containers[i].add(low);
+        else
+            insertAt(-i - 1, key, new ArrayContainer(low));
+    }
+
+    /**
+     * Sets the bit at the specified index to the specified value.
+     *
+     * @param  bitIndex a bit index
+     * @param  value a boolean value to set
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void set(int bitIndex, boolean value) {
+        if (value)
+            set(bitIndex);
+        else
+            clear(bitIndex);
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code true}.  Runs of set
+     * bits are held compactly, in space independent of their length.
+     *
+     * @param  fromIndex index of the first bit to be set
+     * @param  toIndex index after the last bit to be set
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void set(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+        int last = toIndex - 1;
+        for (int key = fromIndex >>> 16; key <= last >>> 16; key++) {
+            Container range = rangeOf(key, fromIndex, last);
+            int i = indexOf(key);
+            if (i >= 0)
+                containers[i] = or(containers[i], range);
+            else
+                insertAt(-i - 1, key, range);
+        }
+    }
+
+    /**
+     * Sets the bit specified by the index to {@code false}.
+     *
+     * @param  bitIndex the index of the bit to be cleared
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void clear(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = indexOf(bitIndex >>> 16);
+        if (i >= 0)
+            setAt(i, containers[i].remove(bitIndex & LOW_MASK));
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code false}.
+     *
+     * @param  fromIndex index of the first bit to be cleared
+     * @param  toIndex index after the last bit to be cleared
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void clear(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+        int last = toIndex - 1;
+        for (int key = fromIndex >>> 16; key <= last >>> 16; key++) {
+            int i = indexOf(key);
+            if (i >= 0)
+                setAt(i, andNot(containers[i], rangeOf(key, fromIndex, last)));
+        }
+    }
+
+    /**
+     * Sets all of the bits in this set to {@code false}.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Sets the bit at the specified index to the complement of its
+     * current value.
+     *
+     * @param  bitIndex the index of the bit to flip
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void flip(int bitIndex) {
+        if (get(bitIndex))
+            clear(bitIndex);
+        else
+            set(bitIndex);
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code true}
+     * that occurs on or after the specified starting index. If no such
+     * bit exists then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next set bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @see BitSet#nextSetBit(int)
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        int key = fromIndex >>> 16;
+        int i = indexOf(key);
+        if (i >= 0) {
+            int low = containers[i].nextSetBit(fromIndex & LOW_MASK);
+            if (low >= 0)
+                return (key << 16) | low;
+            i++;
+        } else {
+            i = -i - 1;
+        }
+        return (i < size) ? (keys[i] << 16) | containers[i].nextSetBit(0) : -1;
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code false}
+     * that occurs on or after the specified starting index.  If every
+     * bit from the specified index to {@code Integer.MAX_VALUE} is set,
+     * {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next clear bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @see BitSet#nextClearBit(int)
+     */
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        int key = fromIndex >>> 16, low = fromIndex & LOW_MASK;
+        int i = indexOf(key);
+        if (i < 0)
+            return fromIndex;
+        for (;;) {
+            int clear = containers[i].nextClearBit(low);
+            if (clear <= LOW_MASK)
+                return (key << 16) | clear;
+            // The chunk is set to its end; continue into the next one
+            if (++key == MAX_KEYS)
+                return -1;
+            if (++i == size || keys[i] != key)
+                return key << 16;
+            low = 0;
+        }
+    }
+
+    /**
+     * Returns the index of the nearest bit that is set to {@code true}
+     * that occurs on or before the specified starting index.
+     * If no such bit exists, or if {@code -1} is given as the
+     * starting index, then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the previous set bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is less
+     *         than {@code -1}
+     * @see BitSet#previousSetBit(int)
+     */
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1)
+                return -1;
+            throw new IndexOutOfBoundsException(
+                "fromIndex < -1: " + fromIndex);
+        }
+        int key = fromIndex >>> 16;
+        int i = indexOf(key);
+        if (i >= 0) {
+            int low = containers[i].previousSetBit(fromIndex & LOW_MASK);
+            if (low >= 0)
+                return (key << 16) | low;
+            i--;
+        } else {
+            i = -i - 2;
+        }
+        return (i >= 0) ? (keys[i] << 16) | containers[i].previousSetBit(LOW_MASK) : -1;
+    }
+
+    /**
+     * Returns the "logical size" of this set: the index of the highest
+     * set bit plus one.  Returns zero if the set contains no set bits.
+     *
+     * @return the logical size of this set
+     */
+    public int length() {
+        return (size == 0) ? 0 : previousSetBit(Integer.MAX_VALUE) + 1;
+    }
+
+    /**
+     * Returns true if this set contains no bits that are set
+     * to {@code true}.
+     *
+     * @return boolean indicating whether this set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of bits set to {@code true} in this set.
+     *
+     * @return the number of bits set to {@code true} in this set
+     */
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += containers[i].cardinality();
+        return sum;
+    }
+
+    /**
+     * Converts each chunk of this set to its most compact representation,
+     * including runs of consecutive set bits.  This may considerably
+     * reduce the space used by a set built bit by bit, once it is no
+     * longer expected to change.
+     */
+    public void optimize() {
+        for (int i = 0; i < size; i++)
+            containers[i] = containers[i].optimize();
+    }
+
+    /**
+     * Returns true if the specified set has any bits set to {@code true}
+     * that are also set to {@code true} in this set.
+     *
+     * @param  set the set to intersect with
+     * @return boolean indicating whether this set intersects the
+     *         specified set
+     */
+    public boolean intersects(CompressedBitSet set) {
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            int k1 = keys[i], k2 = set.keys[j];
+            if (k1 < k2) {
+                i++;
+            } else if (k1 > k2) {
+                j++;
+            } else {
+                if (intersects(containers[i++], set.containers[j++]))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs a logical <b>AND</b> of this target set with the argument
+     * set. This set is modified so that each bit in it has the value
+     * {@code true} if and only if it both initially had the value
+     * {@code true} and the corresponding bit in the set argument also
+     * had the value {@code true}.
+     *
+     * @param set a compressed bit set
+     */
+    public void and(CompressedBitSet set) {
+        if (this == set)
+            return;
+        int n = 0;
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            int k1 = keys[i], k2 = set.keys[j];
+            if (k1 < k2) {
+                i++;
+            } else if (k1 > k2) {
+                j++;
+            } else {
+                Container c = and(containers[i++], set.containers[j++]);
+                if (c != null) {
+                    keys[n] = (char) k1;
+                    containers[n++] = c;
+                }
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    /**
+     * Performs a logical <b>OR</b> of this set with the set argument.
+     * This set is modified so that a bit in it has the value {@code true}
+     * if and only if it either already had the value {@code true} or the
+     * corresponding bit in the set argument has the value {@code true}.
+     *
+     * @param set a compressed bit set
+     */
+    public void or(CompressedBitSet set) {
+        if (this == set)
+            return;
+        merge(set, OR);
+    }
+
+    /**
+     * Performs a logical <b>XOR</b> of this set with the set argument.
+     * This set is modified so that a bit in it has the value {@code true}
+     * if and only if one of the following statements holds:
+     * <ul>
+     * <li>The bit initially has the value {@code true}, and the
+     *     corresponding bit in the argument has the value {@code false}.
+     * <li>The bit initially has the value {@code false}, and the
+     *     corresponding bit in the argument has the value {@code true}.
+     * </ul>
+     *
+     * @param  set a compressed bit set
+     */
+    public void xor(CompressedBitSet set) {
+        if (this == set) {
+            clear();
+            return;
+        }
+        merge(set, XOR);
+    }
+
+    /**
+     * Clears all of the bits in this set whose corresponding bit is set
+     * in the specified set.
+     *
+     * @param  set the set with which to mask this set
+     */
+    public void andNot(CompressedBitSet set) {
+        if (this == set) {
+            clear();
+            return;
+        }
+        int n = 0;
+        for (int i = 0, j = 0; i < size; i++) {
+            int key = keys[i];
+            while (j < set.size && set.keys[j] < key)
+                j++;
+            Container c = (j < set.size && set.keys[j] == key)
+                ? andNot(containers[i], set.containers[j])
+                : containers[i];
+            if (c != null) {
+                keys[n] = (char) key;
+                containers[n++] = c;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    private static final int OR = 0, XOR = 1;
+
+    /**
+     * Replaces the containers of this set by their union or symmetric
+     * difference with those of the given set.
+     */
+    private void merge(CompressedBitSet set, int op) {
+        char[] k = new char[size + set.size];
+        Container[] c = new Container[size + set.size];
+        int n = 0, i = 0, j = 0;
+        while (i < size || j < set.size) {
+            int k1 = (i < size) ? keys[i] : MAX_KEYS;
+            int k2 = (j < set.size) ? set.keys[j] : MAX_KEYS;
+            Container r;
+            if (k1 < k2) {
+                r = containers[i++];
+            } else if (k1 > k2) {
+                r = set.containers[j++].copy();
+                k1 = k2;
+            } else {
+                Container a = containers[i++], b = set.containers[j++];
+                r = (op == OR) ? or(a, b) : xor(a, b);
+            }
+            if (r != null) {
+                k[n] = (char) k1;
+                c[n++] = r;
+            }
+        }
+        keys = k;
+        containers = c;
+        size = n;
+    }
+
+    /**
+     * Returns a new set holding the union of the given sets, the bits
+     * set in any of them.  The sets are combined chunk by chunk, each
+     * chunk of the result being computed once from the corresponding
+     * chunks of all the sets.
+     *
+     * @param sets the sets to combine
+     * @return a new {@code CompressedBitSet} holding the union of the sets
+     */
+    public static CompressedBitSet unionOf(Collection<? extends CompressedBitSet> sets) {
+        CompressedBitSet[] all = sets.toArray(new CompressedBitSet[0]);
+        int capacity = 0;
+        for (CompressedBitSet set : all)
+            capacity = Math.max(capacity, set.size);
+        CompressedBitSet result = new CompressedBitSet(capacity);
+        // the next chunk of each set, the sets' keys being ascending
+        int[] next = new int[all.length];
+        // scratch bitmap, cleared between chunks unless the result kept it
+        long[] words = new long[BITMAP_WORDS];
+        for (;;) {
+            int key = MAX_KEYS;
+            for (int s = 0; s < all.length; s++) {
+                if (next[s] < all[s].size)
+                    key = Math.min(key, all[s].keys[next[s]]);
+            }
+            if (key == MAX_KEYS)
+                return result;
+            Container first = null;
+            boolean merged = false;
+            for (int s = 0; s < all.length; s++) {
+                CompressedBitSet set = all[s];
+                if (next[s] < set.size && set.keys[next[s]] == key) {
+                    Container c = set.containers[next[s]++];
+                    if (first == null) {
+                        first = c;
+                    } else {
+                        if (!merged)
+                            first.orInto(words, 0);
+                        c.orInto(words, 0);
+                        merged = true;
+                    }
+                }
+            }
+            if (!merged) {
+                result.append(key, first.copy());
+            } else {
+                Container c = fromWords(words);
+                result.append(key, c);
+                if (c instanceof BitmapContainer)
+                    words = new long[BITMAP_WORDS];
+                else
+                    Arrays.fill(words, 0L);
+            }
+        }
+    }
+
+    /**
+     * Returns a new set holding the union of the given sets.
+     *
+     * @param sets the sets to combine
+     * @return a new {@code CompressedBitSet} holding the union of the sets
+     * @see #unionOf(Collection)
+     */
+    public static CompressedBitSet unionOf(CompressedBitSet... sets) {
+        return unionOf(Arrays.asList(sets));
+    }
+
+    /**
+     * Returns a new set holding the intersection of the given sets, the
+     * bits set in all of them.  Only the chunks present in every set are
+     * examined, and each is intersected starting from the sparsest of its
+     * chunks.  The intersection of no sets is empty.
+     *
+     * @param sets the sets to combine
+     * @return a new {@code CompressedBitSet} holding the intersection of
+     *         the sets
+     */
+    public static CompressedBitSet intersectionOf(Collection<? extends CompressedBitSet> sets) {
+        CompressedBitSet[] all = sets.toArray(new CompressedBitSet[0]);
+        if (all.length == 0)
+            return new CompressedBitSet();
+        CompressedBitSet smallest = all[0];
+        for (CompressedBitSet set : all) {
+            if (set.size < smallest.size)
+                smallest = set;
+        }
+        CompressedBitSet result = new CompressedBitSet(smallest.size);
+        Container[] chunk = new Container[all.length];
+        outer:
+        for (int i = 0; i < smallest.size; i++) {
+            int key = smallest.keys[i];
+            for (int s = 0; s < all.length; s++) {
+                int j = all[s].indexOf(key);
+                if (j < 0)
+                    continue outer;
+                chunk[s] = all[s].containers[j];
+            }
+            Arrays.sort(chunk, Comparator.comparingInt(Container::cardinality));
+            Container c = intersectSorted(chunk);
+            if (c != null)
+                result.append(key, c);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the intersection of the given sets.
+     *
+     * @param sets the sets to combine
+     * @return a new {@code CompressedBitSet} holding the intersection of
+     *         the sets
+     * @see #intersectionOf(Collection)
+     */
+    public static CompressedBitSet intersectionOf(CompressedBitSet... sets) {
+        return intersectionOf(Arrays.asList(sets));
+    }
+
+    /**
+     * Intersects the given containers, sorted by increasing cardinality.
+     */
+    private static Container intersectSorted(Container[] chunk) {
+        if (chunk[0] instanceof ArrayContainer) {
+            ArrayContainer a = (ArrayContainer) chunk[0];
+            char[] values = new char[a.cardinality];
+            int n = 0;
+            outer:
+            for (int i = 0; i < a.cardinality; i++) {
+                char v = a.values[i];
+                for (int s = 1; s < chunk.length; s++) {
+                    if (!chunk[s].contains(v))
+                        continue outer;
+                }
+                values[n++] = v;
+            }
+            return (n == 0) ? null : new ArrayContainer(values, n);
+        }
+        long[] words = chunk[0].toWords();
+        for (int s = 1; s < chunk.length; s++) {
+            chunk[s].andInto(words);
+        }
+        return fromWords(words);
+    }
+
+    // Object methods
+
+    /**
+     * Returns the hash code value for this set.  The hash code depends
+     * only on which bits are set within this set, not on their
+     * representation.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int[] h = { 1234 };
+        forEachSetBit(i -> h[0] = 31 * h[0] + i);
+        return h[0];
+    }
+
+    /**
+     * Compares this object against the specified object.
+     * The result is {@code true} if and only if the argument is
+     * not {@code null} and is a {@code CompressedBitSet} object that has
+     * exactly the same set of bits set to {@code true} as this set.
+     *
+     * @param  obj the object to compare with
+     * @return {@code true} if the objects are the same;
+     *         {@code false} otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof CompressedBitSet))
+            return false;
+        CompressedBitSet set = (CompressedBitSet) obj;
+        if (size != set.size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != set.keys[i] || !equal(containers[i], set.containers[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cloning this {@code CompressedBitSet} produces a new
+     * {@code CompressedBitSet} that is equal to it.
+     *
+     * @return a clone of this bit set
+     */
+    @Override
+    public CompressedBitSet clone() {
+        try {
+            CompressedBitSet result = (CompressedBitSet) super.clone();
+            result.keys = keys.clone();
+            result.containers = containers.clone();
+            for (int i = 0; i < size; i++)
+                result.containers[i] = containers[i].copy();
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this bit set, in the same form
+     * as {@link BitSet#toString()}.
+     *
+     * @return a string representation of this bit set
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEachSetBit(i -> joiner.add(Integer.toString(i)));
+        return joiner.toString();
+    }
+
+    private void forEachSetBit(IntConsumer action) {
+        for (int i = 0; i < size; i++)
+            containers[i].forEach(keys[i] << 16, action);
+    }
+
+    // Serialization
+
+    private static final long serialVersionUID = -4417327946306404658L;
+
+    /**
+     * Saves the state of the {@code CompressedBitSet} instance to a stream.
+     *
+     * @serialData The number of chunks holding set bits ({@code int}),
+     *             followed, for each chunk in increasing order, by its key
+     *             ({@code char}), whether it is held as runs
+     *             ({@code boolean}), its number of set bits ({@code int}),
+     *             and the low 16 bits of the index of each set bit
+     *             ({@code char}), in increasing order.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            s.writeChar(keys[i]);
+            s.writeBoolean(c instanceof RunContainer);
+            s.writeInt(c.cardinality());
+            for (int v = c.nextSetBit(0); v >= 0; v = (v == LOW_MASK) ? -1 : c.nextSetBit(v + 1))
+                s.writeChar(v);
+        }
+    }
+
+    /**
+     * Reconstitutes the {@code CompressedBitSet} instance from a stream.
+     */
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int n = s.readInt();
+        if (n < 0 || n > MAX_KEYS)
+            throw new InvalidObjectException("Illegal number of chunks: " + n);
+        keys = new char[Math.max(n, 4)];
+        containers = new Container[Math.max(n, 4)];
+        size = 0;
+        for (int i = 0; i < n; i++) {
+            int key = s.readChar();
+            boolean runs = s.readBoolean();
+            int cardinality = s.readInt();
+            if ((size > 0 && key <= keys[size - 1]) || key >= MAX_KEYS
+                || cardinality <= 0 || cardinality > LOW_MASK + 1)
+                throw new InvalidObjectException("Illegal chunk: " + key);
+            long[] words = new long[BITMAP_WORDS];
+            for (int j = 0; j < cardinality; j++) {
+                int v = s.readChar();
+                words[v >>> 6] |= 1L << v;
+            }
+            Container c = fromWords(words);
+            if (c == null || c.cardinality() != cardinality)
+                throw new InvalidObjectException("Illegal chunk: " + key);
+            append(key, runs ? c.toRuns() : c);
+        }
+    }
+
+    // Key management
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+    }
+
+    private static void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        if (toIndex < 0)
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+                                                " > toIndex: " + toIndex);
+    }
+
+    /**
+     * Returns the run container of the bits of the given chunk within
+     * {@code [fromIndex, last]}.
+     */
+    private static Container rangeOf(int key, int fromIndex, int last) {
+        int from = (key == fromIndex >>> 16) ? fromIndex & LOW_MASK : 0;
+        int to = (key == last >>> 16) ? last & LOW_MASK : LOW_MASK;
+        RunContainer range = new RunContainer(1);
+        range.appendRun(from, to);
+        return range;
+    }
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, size, (char) key);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.min(Math.max(capacity, keys.length * 2), MAX_KEYS);
+            keys = Arrays.copyOf(keys, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+    }
+
+    private void insertAt(int i, int key, Container c) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = (char) key;
+        containers[i] = c;
+        size++;
+    }
+
+    /**
+     * Replaces the container at the given index, removing its key if the
+     * replacement is null.
+     */
+    private void setAt(int i, Container c) {
+        if (c != null) {
+            containers[i] = c;
+        } else {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+    }
+
+    /** Appends a container whose key is greater than all present. */
+    private void append(int key, Container c) {
+        ensureCapacity(size + 1);
+        keys[size] = (char) key;
+        containers[size++] = c;
+    }
+
+    // Binary operations on containers, neither of which is modified
+
+    static Container and(Container a, Container b) {
+        if (a instanceof ArrayContainer)
+            return ((ArrayContainer) a).filter(b, true);
+        if (b instanceof ArrayContainer)
+            return ((ArrayContainer) b).filter(a, true);
+        if (a instanceof RunContainer && b instanceof RunContainer)
+            return ((RunContainer) a).and((RunContainer) b);
+        long[] words = a.toWords();
+        b.andInto(words);
+        return fromWords(words);
+    }
+
+    static Container or(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer
+            && a.cardinality() + b.cardinality() <= MAX_ARRAY_SIZE)
+            return ((ArrayContainer) a).or((ArrayContainer) b);
+        if (a instanceof RunContainer && b instanceof RunContainer)
+            return ((RunContainer) a).or((RunContainer) b);
+        long[] words = a.toWords();
+        b.orInto(words, 0);
+        return fromWords(words);
+    }
+
+    static Container xor(Container a, Container b) {
+        long[] words = a.toWords();
+        b.xorInto(words);
+        return fromWords(words);
+    }
+
+    static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer)
+            return ((ArrayContainer) a).filter(b, false);
+        long[] words = a.toWords();
+        b.andNotInto(words);
+        return fromWords(words);
+    }
+
+    static boolean intersects(Container a, Container b) {
+        if (b instanceof ArrayContainer) {
+            Container t = a;
+            a = b;
+            b = t;
+        }
+        if (a instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) a;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (b.contains(array.values[i]))
+                    return true;
+            }
+            return false;
+        }
+        long[] words = a.toWords();
+        b.andInto(words);
+        for (long word : words) {
+            if (word != 0)
+                return true;
+        }
+        return false;
+    }
+
+    static boolean equal(Container a, Container b) {
+        if (a.cardinality() != b.cardinality())
+            return false;
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer)
+            return Arrays.equals(((ArrayContainer) a).values, 0, a.cardinality(),
+                                 ((ArrayContainer) b).values, 0, b.cardinality());
+        return Arrays.equals(a.toWords(), b.toWords());
+    }
+
+    /**
+     * Returns the smaller of an array and a bitmap container holding the
+     * given bits, or null if none is set.
+     */
+    static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words)
+            cardinality += Long.bitCount(word);
+        if (cardinality == 0)
+            return null;
+        if (cardinality > MAX_ARRAY_SIZE)
+            return new BitmapContainer(words, cardinality);
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int u = 0; u < BITMAP_WORDS; u++) {
+            for (long word = words[u]; word != 0; word &= word - 1)
+                values[n++] = (char) ((u << 6) + Long.numberOfTrailingZeros(word));
+        }
+        return new ArrayContainer(values, cardinality);
+    }
+
+    // Word range operations, over the inclusive range [from, to]
+
+    static void setRange(long[] words, int offset, int from, int to) {
+        int u = offset + (from >>> 6), v = offset + (to >>> 6);
+        long first = -1L << from, last = -1L >>> ~to;
+        if (u == v) {
+            words[u] |= first & last;
+        } else {
+            words[u] |= first;
+            Arrays.fill(words, u + 1, v, -1L);
+            words[v] |= last;
+        }
+    }
+
+    static void clearRange(long[] words, int from, int to) {
+        int u = from >>> 6, v = to >>> 6;
+        long first = -1L << from, last = -1L >>> ~to;
+        if (u == v) {
+            words[u] &= ~(first & last);
+        } else {
+            words[u] &= ~first;
+            Arrays.fill(words, u + 1, v, 0L);
+            words[v] &= ~last;
+        }
+    }
+
+    static void flipRange(long[] words, int from, int to) {
+        int u = from >>> 6, v = to >>> 6;
+        long first = -1L << from, last = -1L >>> ~to;
+        if (u == v) {
+            words[u] ^= first & last;
+        } else {
+            words[u] ^= first;
+            for (int i = u + 1; i < v; i++)
+                words[i] = ~words[i];
+            words[v] ^= last;
+        }
+    }
+
+    /**
+     * The set bits of one chunk, indexed by the low 16 bits of their
+     * index.  Methods taking or returning a bit index use values in
+     * {@code [0, 65535]}.
+     */
+    abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(int x);
+
+        /** Sets x, returning this container or its replacement. */
+        abstract Container add(int x);
+
+        /**
+         * Clears x, returning this container, its replacement, or null if
+         * it became empty.
+         */
+        abstract Container remove(int x);
+
+        /** Returns the first set bit at or after from, or -1. */
+        abstract int nextSetBit(int from);
+
+        /** Returns the first clear bit at or after from, or 65536. */
+        abstract int nextClearBit(int from);
+
+        /** Returns the last set bit at or before from, or -1. */
+        abstract int previousSetBit(int from);
+
+        /** Returns the number of runs of consecutive set bits. */
+        abstract int numberOfRuns();
+
+        /** Sets the bits of this container in words, from the given word. */
+        abstract void orInto(long[] words, int offset);
+
+        /** Clears the bits of a bitmap that are clear in this container. */
+        abstract void andInto(long[] words);
+
+        /** Flips the bits of a bitmap that are set in this container. */
+        abstract void xorInto(long[] words);
+
+        /** Clears the bits of a bitmap that are set in this container. */
+        abstract void andNotInto(long[] words);
+
+        /** Applies the action to the set bits, offset by base. */
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract Container copy();
+
+        /** Returns a new bitmap of the bits of this container. */
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words, 0);
+            return words;
+        }
+
+        /** Returns a run container holding the bits of this container. */
+        RunContainer toRuns() {
+            RunContainer runs = new RunContainer(numberOfRuns());
+            for (int start = nextSetBit(0); start >= 0; ) {
+                int end = nextClearBit(start) - 1;
+                runs.appendRun(start, end);
+                start = (end == LOW_MASK) ? -1 : nextSetBit(end + 1);
+            }
+            return runs;
+        }
+
+        /** Returns the most compact container holding these bits. */
+        Container optimize() {
+            int cardinality = cardinality();
+            int runBytes = 4 * numberOfRuns();
+            int arrayBytes = (cardinality <= MAX_ARRAY_SIZE) ? 2 * cardinality : Integer.MAX_VALUE;
+            if (runBytes < Math.min(arrayBytes, BITMAP_BYTES))
+                return (this instanceof RunContainer) ? this : toRuns();
+            if (this instanceof RunContainer)
+                return fromWords(toWords());
+            return this;
+        }
+    }
+
+    /**
+     * A container of at most {@link #MAX_ARRAY_SIZE} set bits, held as a
+     * sorted array.
+     */
+    static final class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer(int x) {
+            values = new char[4];
+            values[0] = (char) x;
+            cardinality = 1;
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        private int search(int x) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) x);
+        }
+
+        @Override
+        boolean contains(int x) {
+            return search(x) >= 0;
+        }
+
+        @Override
+        Container add(int x) {
+            int i = search(x);
+            if (i >= 0)
+                return this;
+            if (cardinality == MAX_ARRAY_SIZE)
+                return new BitmapContainer(toWords(), cardinality).add(x);
+            i = -i - 1;
+            if (cardinality == values.length)
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, MAX_ARRAY_SIZE));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = (char) x;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            int i = search(x);
+            if (i < 0)
+                return this;
+            if (--cardinality == 0)
+                return null;
+            System.arraycopy(values, i + 1, values, i, cardinality - i);
+            return this;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int i = search(from);
+            if (i < 0)
+                i = -i - 1;
+            return (i < cardinality) ? values[i] : -1;
+        }
+
+        @Override
+        int nextClearBit(int from) {
+            int i = search(from);
+            if (i < 0)
+                return from;
+            while (i + 1 < cardinality && values[i + 1] == values[i] + 1)
+                i++;
+            return values[i] + 1;
+        }
+
+        @Override
+        int previousSetBit(int from) {
+            int i = search(from);
+            if (i >= 0)
+                return from;
+            i = -i - 2;
+            return (i >= 0) ? values[i] : -1;
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1)
+                    runs++;
+            }
+            return runs;
+        }
+
+        @Override
+        void orInto(long[] words, int offset) {
+            for (int i = 0; i < cardinality; i++) {
+                int v = values[i];
+                words[offset + (v >>> 6)] |= 1L << v;
+            }
+        }
+
+        @Override
+        void andInto(long[] words) {
+            long[] mask = toWords();
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                words[u] &= mask[u];
+        }
+
+        @Override
+        void xorInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                int v = values[i];
+                words[v >>> 6] ^= 1L << v;
+            }
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                int v = values[i];
+                words[v >>> 6] &= ~(1L << v);
+            }
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++)
+                action.accept(base | values[i]);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        /**
+         * Returns the values of this container that are, or are not,
+         * contained in the other.
+         */
+        Container filter(Container other, boolean keep) {
+            char[] result = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == keep)
+                    result[n++] = values[i];
+            }
+            return (n == 0) ? null : new ArrayContainer(result, n);
+        }
+
+        /** Returns the union with another, fitting in an array. */
+        Container or(ArrayContainer other) {
+            char[] result = new char[cardinality + other.cardinality];
+            int n = 0, i = 0, j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                char a = values[i], b = other.values[j];
+                if (a <= b) {
+                    result[n++] = a;
+                    i++;
+                    if (a == b)
+                        j++;
+                } else {
+                    result[n++] = b;
+                    j++;
+                }
+            }
+            while (i < cardinality)
+                result[n++] = values[i++];
+            while (j < other.cardinality)
+                result[n++] = other.values[j++];
+            return new ArrayContainer(result, n);
+        }
+    }
+
+    /**
+     * A container of more than {@link #MAX_ARRAY_SIZE} set bits, held as
+     * a bitmap.
+     */
+    static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        Container add(int x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0) {
+                words[x >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) != 0) {
+                words[x >>> 6] &= ~bit;
+                if (--cardinality <= MAX_ARRAY_SIZE)
+                    return fromWords(words);
+            }
+            return this;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int u = from >>> 6;
+            long word = words[u] & (-1L << from);
+            while (word == 0) {
+                if (++u == BITMAP_WORDS)
+                    return -1;
+                word = words[u];
+            }
+            return (u << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        int nextClearBit(int from) {
+            int u = from >>> 6;
+            long word = ~words[u] & (-1L << from);
+            while (word == 0) {
+                if (++u == BITMAP_WORDS)
+                    return BITMAP_WORDS << 6;
+                word = ~words[u];
+            }
+            return (u << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        int previousSetBit(int from) {
+            int u = from >>> 6;
+            long word = words[u] & (-1L >>> -(from + 1));
+            while (word == 0) {
+                if (u-- == 0)
+                    return -1;
+                word = words[u];
+            }
+            return (u + 1) * 64 - 1 - Long.numberOfLeadingZeros(word);
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            long carry = 0;
+            for (long word : words) {
+                // A run starts at each set bit whose predecessor is clear
+                runs += Long.bitCount(word & ~((word << 1) | carry));
+                carry = word >>> 63;
+            }
+            return runs;
+        }
+
+        @Override
+        void orInto(long[] dst, int offset) {
+            int n = Math.min(BITMAP_WORDS, dst.length - offset);
+            for (int u = 0; u < n; u++)
+                dst[offset + u] |= words[u];
+        }
+
+        @Override
+        void andInto(long[] dst) {
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                dst[u] &= words[u];
+        }
+
+        @Override
+        void xorInto(long[] dst) {
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                dst[u] ^= words[u];
+        }
+
+        @Override
+        void andNotInto(long[] dst) {
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                dst[u] &= ~words[u];
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int u = 0; u < BITMAP_WORDS; u++) {
+                for (long word = words[u]; word != 0; word &= word - 1)
+                    action.accept(base | (u << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+
+    /**
+     * A container of set bits held as sorted, non-adjacent runs, each
+     * given by its first and last bit.
+     */
+    static final class RunContainer extends Container {
+        char[] starts;
+        char[] ends;
+        int runs;
+        int cardinality;
+
+        RunContainer(int capacity) {
+            starts = new char[Math.max(capacity, 1)];
+            ends = new char[Math.max(capacity, 1)];
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        /** Returns the index of the last run starting at or before x, or -1. */
+        private int find(int x) {
+            int i = Arrays.binarySearch(starts, 0, runs, (char) x);
+            return (i >= 0) ? i : -i - 2;
+        }
+
+        @Override
+        boolean contains(int x) {
+            int i = find(x);
+            return i >= 0 && x <= ends[i];
+        }
+
+        /** Appends a run after all present, merging it if adjacent. */
+        void appendRun(int start, int end) {
+            if (runs > 0 && start <= ends[runs - 1] + 1) {
+                int last = ends[runs - 1];
+                if (end > last) {
+                    ends[runs - 1] = (char) end;
+                    cardinality += end - last;
+                }
+                return;
+            }
+            if (runs == starts.length) {
+                starts = Arrays.copyOf(starts, runs * 2);
+                ends = Arrays.copyOf(ends, runs * 2);
+            }
+            starts[runs] = (char) start;
+            ends[runs++] = (char) end;
+            cardinality += end - start + 1;
+        }
+
+        private void insertRun(int i, int start, int end) {
+            if (runs == starts.length) {
+                starts = Arrays.copyOf(starts, runs * 2);
+                ends = Arrays.copyOf(ends, runs * 2);
+            }
+            System.arraycopy(starts, i, starts, i + 1, runs - i);
+            System.arraycopy(ends, i, ends, i + 1, runs - i);
+            starts[i] = (char) start;
+            ends[i] = (char) end;
+            runs++;
+        }
+
+        private void removeRun(int i) {
+            System.arraycopy(starts, i + 1, starts, i, runs - i - 1);
+            System.arraycopy(ends, i + 1, ends, i, runs - i - 1);
+            runs--;
+        }
+
+        @Override
+        Container add(int x) {
+            int i = find(x);
+            if (i >= 0 && x <= ends[i])
+                return this;
+            cardinality++;
+            if (i >= 0 && ends[i] + 1 == x) {
+                if (i + 1 < runs && starts[i + 1] == x + 1) {
+                    ends[i] = ends[i + 1];
+                    removeRun(i + 1);
+                } else {
+                    ends[i] = (char) x;
+                }
+            } else if (i + 1 < runs && starts[i + 1] == x + 1) {
+                starts[i + 1] = (char) x;
+            } else {
+                insertRun(i + 1, x, x);
+                // Isolated bits are held more compactly otherwise
+                if (4 * runs > Math.min(2 * cardinality, BITMAP_BYTES))
+                    return fromWords(toWords());
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            int i = find(x);
+            if (i < 0 || x > ends[i])
+                return this;
+            if (--cardinality == 0)
+                return null;
+            if (starts[i] == ends[i]) {
+                removeRun(i);
+            } else if (x == starts[i]) {
+                starts[i]++;
+            } else if (x == ends[i]) {
+                ends[i]--;
+            } else {
+                insertRun(i + 1, x + 1, ends[i]);
+                ends[i] = (char) (x - 1);
+            }
+            return this;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int i = find(from);
+            if (i >= 0 && from <= ends[i])
+                return from;
+            return (i + 1 < runs) ? starts[i + 1] : -1;
+        }
+
+        @Override
+        int nextClearBit(int from) {
+            int i = find(from);
+            return (i >= 0 && from <= ends[i]) ? ends[i] + 1 : from;
+        }
+
+        @Override
+        int previousSetBit(int from) {
+            int i = find(from);
+            return (i >= 0) ? Math.min(from, ends[i]) : -1;
+        }
+
+        @Override
+        int numberOfRuns() {
+            return runs;
+        }
+
+        @Override
+        void orInto(long[] words, int offset) {
+            for (int i = 0; i < runs; i++)
+                setRange(words, offset, starts[i], ends[i]);
+        }
+
+        @Override
+        void andInto(long[] words) {
+            int from = 0;
+            for (int i = 0; i < runs; i++) {
+                if (starts[i] > from)
+                    clearRange(words, from, starts[i] - 1);
+                from = ends[i] + 1;
+            }
+            if (from <= LOW_MASK)
+                clearRange(words, from, LOW_MASK);
+        }
+
+        @Override
+        void xorInto(long[] words) {
+            for (int i = 0; i < runs; i++)
+                flipRange(words, starts[i], ends[i]);
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < runs; i++)
+                clearRange(words, starts[i], ends[i]);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < runs; i++) {
+                for (int v = starts[i], end = ends[i]; v <= end; v++)
+                    action.accept(base | v);
+            }
+        }
+
+        @Override
+        Container copy() {
+            RunContainer copy = new RunContainer(runs);
+            System.arraycopy(starts, 0, copy.starts, 0, runs);
+            System.arraycopy(ends, 0, copy.ends, 0, runs);
+            copy.runs = runs;
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        /** Returns the intersection with another run container. */
+        Container and(RunContainer other) {
+            RunContainer result = new RunContainer(Math.max(runs, other.runs));
+            for (int i = 0, j = 0; i < runs && j < other.runs; ) {
+                int start = Math.max(starts[i], other.starts[j]);
+                int end = Math.min(ends[i], other.ends[j]);
+                if (start <= end)
+                    result.appendRun(start, end);
+                if (ends[i] < other.ends[j])
+                    i++;
+                else
+                    j++;
+            }
+            return (result.runs == 0) ? null : result;
+        }
+
+        /** Returns the union with another run container. */
+        Container or(RunContainer other) {
+            RunContainer result = new RunContainer(runs + other.runs);
+            int i = 0, j = 0;
+            while (i < runs || j < other.runs) {
+                if (j == other.runs || (i < runs && starts[i] <= other.starts[j])) {
+                    result.appendRun(starts[i], ends[i]);
+                    i++;
+                } else {
+                    result.appendRun(other.starts[j], other.ends[j]);
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Spliterator over the set bits of a range of containers, splitting
+     * at container boundaries.
+     */
+    static final class BitSpliterator implements Spliterator.OfInt {
+        private final char[] keys;
+        private final Container[] containers;
+        private int index;        // current container
+        private final int fence;  // one past the last container
+        private int next;         // low bits at which to resume in the current container
+
+        BitSpliterator(char[] keys, Container[] containers, int index, int fence, int next) {
+            this.keys = keys;
+            this.containers = containers;
+            this.index = index;
+            this.fence = fence;
+            this.next = next;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            while (index < fence) {
+                int v = (next <= LOW_MASK) ? containers[index].nextSetBit(next) : -1;
+                if (v >= 0) {
+                    next = v + 1;
+                    action.accept((keys[index] << 16) | v);
+                    return true;
+                }
+                index++;
+                next = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence && next > 0) {
+                // Finish the partially consumed container
+                Container c = containers[index];
+                int base = keys[index++] << 16;
+                for (int v = (next <= LOW_MASK) ? c.nextSetBit(next) : -1; v >= 0;
+                     v = (v == LOW_MASK) ? -1 : c.nextSetBit(v + 1))
+                    action.accept(base | v);
+            }
+            for (; index < fence; index++)
+                containers[index].forEach(keys[index] << 16, action);
+            next = 0;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index)
+                return null;
+            BitSpliterator prefix = new BitSpliterator(keys, containers, index, mid, next);
+            index = mid;
+            next = 0;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = index; i < fence; i++)
+                size += containers[i].cardinality();
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+}
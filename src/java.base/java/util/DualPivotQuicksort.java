@@ -70,6 +70,11 @@ final class DualPivotQuicksort {
      */
     private static final int MIN_PARALLEL_SORT_SIZE = 4 << 10;
 
+    /**
+     * Min array size to use parallel radix sort.
+     */
+    private static final int MIN_RADIX_SORT_SIZE = 1 << 18;
+
     /**
      * Min array size to try merging of runs.
      */
@@ -138,9 +143,10 @@ final class DualPivotQuicksort {
     }
 
     /**
-     * Sorts the specified range of the array using parallel merge
-     * sort and/or Dual-Pivot Quicksort.
+     * Sorts the specified range of the array using parallel radix
+     * sort, parallel merge sort and/or Dual-Pivot Quicksort.
      *
+     * Large ranges are radix sorted if there is any parallelism.
      * To balance the faster splitting and parallelism of merge sort
      * with the faster element partitioning of Quicksort, ranges are
      * subdivided in tiers such that, if there is enough parallelism,
@@ -155,7 +161,9 @@ final class DualPivotQuicksort {
     static void sort(int[] a, int parallelism, int low, int high) {
         int size = high - low;
 
-        if (parallelism > 1 && size > MIN_PARALLEL_SORT_SIZE) {
+        if (parallelism > 1 && size >= MIN_RADIX_SORT_SIZE) {
+            RadixSort.sort(a, parallelism, low, high);
+        } else if (parallelism > 1 && size > MIN_PARALLEL_SORT_SIZE) {
             int depth = getDepth(parallelism, size >> 12);
             int[] b = depth == 0 ? null : new int[size];
             new Sorter(null, a, b, low, size, low, depth).invoke();
@@ -892,9 +900,10 @@ final class DualPivotQuicksort {
 // [long]
 
     /**
-     * Sorts the specified range of the array using parallel merge
-     * sort and/or Dual-Pivot Quicksort.
+     * Sorts the specified range of the array using parallel radix
+     * sort, parallel merge sort and/or Dual-Pivot Quicksort.
      *
+     * Large ranges are radix sorted if there is any parallelism.
      * To balance the faster splitting and parallelism of merge sort
      * with the faster element partitioning of Quicksort, ranges are
      * subdivided in tiers such that, if there is enough parallelism,
@@ -909,7 +918,9 @@ final class DualPivotQuicksort {
     static void sort(long[] a, int parallelism, int low, int high) {
         int size = high - low;
 
-        if (parallelism > 1 && size > MIN_PARALLEL_SORT_SIZE) {
+        if (parallelism > 1 && size >= MIN_RADIX_SORT_SIZE) {
+            RadixSort.sort(a, parallelism, low, high);
+        } else if (parallelism > 1 && size > MIN_PARALLEL_SORT_SIZE) {
             int depth = getDepth(parallelism, size >> 12);
             long[] b = depth == 0 ? null : new long[size];
             new Sorter(null, a, b, low, size, low, depth).invoke();
@@ -2381,9 +2392,10 @@ final class DualPivotQuicksort {
 // [float]
 
     /**
-     * Sorts the specified range of the array using parallel merge
-     * sort and/or Dual-Pivot Quicksort.
+     * Sorts the specified range of the array using parallel radix
+     * sort, parallel merge sort and/or Dual-Pivot Quicksort.
      *
+     * Large ranges are radix sorted if there is any parallelism.
      * To balance the faster splitting and parallelism of merge sort
      * with the faster element partitioning of Quicksort, ranges are
      * subdivided in tiers such that, if there is enough parallelism,
@@ -2396,6 +2408,14 @@ final class DualPivotQuicksort {
      * @param high the index of the last element, exclusive, to be sorted
      */
     static void sort(float[] a, int parallelism, int low, int high) {
+        /*
+         * Radix sort orders negative zeros and NaNs by itself.
+         */
+        if (parallelism > 1 && high - low >= MIN_RADIX_SORT_SIZE) {
+            RadixSort.sort(a, parallelism, low, high);
+            return;
+        }
+
         /*
          * Phase 1. Count the number of negative zero -0.0f,
          * turn them into positive zero, and move all NaNs
@@ -3187,9 +3207,10 @@ final class DualPivotQuicksort {
 // [double]
 
     /**
-     * Sorts the specified range of the array using parallel merge
-     * sort and/or Dual-Pivot Quicksort.
+     * Sorts the specified range of the array using parallel radix
+     * sort, parallel merge sort and/or Dual-Pivot Quicksort.
      *
+     * Large ranges are radix sorted if there is any parallelism.
      * To balance the faster splitting and parallelism of merge sort
      * with the faster element partitioning of Quicksort, ranges are
      * subdivided in tiers such that, if there is enough parallelism,
@@ -3202,6 +3223,14 @@ final class DualPivotQuicksort {
      * @param high the index of the last element, exclusive, to be sorted
      */
     static void sort(double[] a, int parallelism, int low, int high) {
+        /*
+         * Radix sort orders negative zeros and NaNs by itself.
+         */
+        if (parallelism > 1 && high - low >= MIN_RADIX_SORT_SIZE) {
+            RadixSort.sort(a, parallelism, low, high);
+            return;
+        }
+
         /*
          * Phase 1. Count the number of negative zero -0.0d,
          * turn them into positive zero, and move all NaNs
@@ -0,0 +1,913 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * Hash table based implementation of a map from primitive {@code long}
+ * keys to object values.  Keys are stored unboxed in an open addressing
+ * table, so a mapping costs no key object and no entry object, which makes
+ * this class suited to maps with many millions of entries.
+ *
+ * <p>In addition to the {@code Map<Long,V>} methods, which box and unbox
+ * keys, this class provides methods taking primitive keys, such as
+ * {@link #get(long)} and {@link #putLong(long, Object)}, a primitive key
+ * iterator, and {@link #forEachEntry} which visits every mapping without
+ * boxing.  This class permits {@code null} values.  It makes no guarantees
+ * as to the order of the map; in particular, it does not guarantee that the
+ * order will remain constant over time.
+ *
+ * <p>This implementation provides constant-time performance for the basic
+ * operations ({@code get} and {@code put}).  Keys are scrambled before they
+ * are used to index the table, so that sequential or otherwise regular keys
+ * do not cluster.  The load factor must be less than one, as every mapping
+ * occupies a slot of the table.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a {@code LongHashMap} concurrently, and at least
+ * one of the threads modifies the map structurally, it <i>must</i> be
+ * synchronized externally.  (A structural modification is any operation
+ * that adds or deletes one or more mappings; merely changing the value
+ * associated with a key that an instance already contains is not a
+ * structural modification.)
+ *
+ * <p>The iterators returned by the {@link #keyIterator} method and by the
+ * collections returned by all of this class's "collection view methods"
+ * are <i>fail-fast</i>: if the map is structurally modified at any time
+ * after the iterator is created, in any way except through the iterator's
+ * own {@code remove} method, the iterator will throw a
+ * {@link ConcurrentModificationException}, as for {@link HashMap}.
+ * Fail-fast iterators throw {@code ConcurrentModificationException} on a
+ * best-effort basis, and should be used only to detect bugs.
+ *
+ * <p>Implementation note: This is a <i>linear-probe</i> hash table with
+ * separate arrays for keys and values.  The key {@code 0} marks free slots,
+ * so a mapping for key {@code 0} is kept in an extra slot at the end of the
+ * arrays.  Removals shift the following entries of the probe sequence back
+ * rather than leaving deleted markers, so lookups never slow down as
+ * mappings are removed.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see     HashMap
+ * @see     IntHashMap
+ * @since   15
+ */
+public class LongHashMap<V> extends AbstractMap<Long,V>
+    implements Cloneable, Serializable {
+
+    /**
+     * The default initial capacity.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The maximum capacity of the table, which must be a power of two.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * The keys, indexed by the scrambled hash of the key, followed by the
+     * slot for key {@code 0}.  A {@code 0} key marks a free slot.
+     */
+    transient long[] keys;
+
+    /**
+     * The values, at the same index as their key.
+     */
+    transient Object[] values;
+
+    /**
+     * The table size minus one.  The table size is a power of two, and the
+     * slot for key {@code 0} is at index {@code mask + 1}.
+     */
+    transient int mask;
+
+    /**
+     * Whether the map contains a mapping for key {@code 0}.
+     */
+    transient boolean hasZeroKey;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The size at which the table is resized.
+     */
+    transient int threshold;
+
+    /**
+     * The load factor for the hash table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty {@code LongHashMap} with the specified initial
+     * capacity and load factor.
+     *
+     * @param  initialCapacity the initial capacity
+     * @param  loadFactor      the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative,
+     *         or the load factor is not positive and less than one
+     */
+    public LongHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(initialCapacity, loadFactor));
+    }
+
+    /**
+     * Constructs an empty {@code LongHashMap} with the specified initial
+     * capacity and the default load factor (0.75).
+     *
+     * @param  initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public LongHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty {@code LongHashMap} with the default initial capacity
+     * (16) and the default load factor (0.75).
+     */
+    public LongHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new {@code LongHashMap} with the same mappings as the
+     * specified {@code Map}, and the default load factor (0.75).
+     *
+     * @param   m the map whose mappings are to be placed in this map
+     * @throws  NullPointerException if the specified map is null, or
+     *          contains a null key
+     */
+    public LongHashMap(Map<? extends Long, ? extends V> m) {
+        this(m.size(), DEFAULT_LOAD_FACTOR);
+        putAll(m);
+    }
+
+    /**
+     * Scrambles the bits of a key.  Keys that differ in few bits, such as
+     * consecutive ids, are spread over the whole table.
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    /**
+     * Returns the power of two table size for the given number of mappings.
+     */
+    static int tableSizeFor(int expected, float loadFactor) {
+        long n = Math.max(2, (long) Math.ceil(expected / loadFactor));
+        if (n >= MAXIMUM_CAPACITY)
+            return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit((int) n - 1) << 1;
+    }
+
+    private void allocate(int n) {
+        keys = new long[n + 1];
+        values = new Object[n + 1];
+        mask = n - 1;
+        // keep at least one free slot, which ends every probe sequence
+        threshold = Math.min(n - 1, (int) Math.ceil(n * loadFactor));
+    }
+
+    /**
+     * Returns the index of the given key, or -1 if it is not in the map.
+     */
+    final int find(long key) {
+        if (key == 0)
+            return hasZeroKey ? mask + 1 : -1;
+        long[] ks = keys;
+        int m = mask;
+        for (int i = hash(key) & m; ; i = (i + 1) & m) {
+            long k = ks[i];
+            if (k == 0)
+                return -1;
+            if (k == key)
+                return i;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped,
+     * or {@code null} if this map contains no mapping for the key.
+     *
+     * <p>A return value of {@code null} does not <i>necessarily</i>
+     * indicate that the map contains no mapping for the key; it's also
+     * possible that the map explicitly maps the key to {@code null}.
+     * The {@link #containsKey(long) containsKey} operation may be used to
+     * distinguish these two cases.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or
+     *         {@code null} if this map contains no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = find(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        return (key instanceof Long) ? get(((Long) key).longValue()) : null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the specified key is mapped, or
+     *         {@code defaultValue} if this map contains no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        int i = find(key);
+        return i < 0 ? defaultValue : (V) values[i];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return (key instanceof Long)
+                ? getOrDefault(((Long) key).longValue(), defaultValue)
+                : defaultValue;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the
+     * specified key.
+     *
+     * @param   key   The key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified
+     *         key.
+     */
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof Long) && containsKey(((Long) key).longValue());
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the
+     * specified value.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the
+     *         specified value
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        long[] ks = keys;
+        Object[] vs = values;
+        if (hasZeroKey && Objects.equals(vs[mask + 1], value))
+            return true;
+        for (int i = mask; i >= 0; i--) {
+            if (ks[i] != 0 && Objects.equals(vs[i], value))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old
+     * value is replaced.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}.
+     *         (A {@code null} return can also indicate that the map
+     *         previously associated {@code null} with {@code key}.)
+     */
+    @SuppressWarnings("unchecked")
+    public V putLong(long key, V value) {
+        int i = slotFor(key);
+        if (i < 0) {
+            values[~i] = value;
+            added();
+            return null;
+        }
+        V old = (V) values[i];
+        values[i] = value;
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public V put(Long key, V value) {
+        return putLong(key.longValue(), value);
+    }
+
+    /**
+     * If the specified key is not already associated with a value (or is
+     * mapped to {@code null}), attempts to compute its value using the given
+     * mapping function and enters it into this map unless {@code null}.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param mappingFunction the mapping function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key, or null if the computed value is null
+     * @throws NullPointerException if the mapping function is null
+     * @throws ConcurrentModificationException if it is detected that the
+     *         mapping function modified this map
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key,
+            LongFunction<? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        int i = find(key);
+        if (i >= 0 && values[i] != null)
+            return (V) values[i];
+        int mc = modCount;
+        V v = mappingFunction.apply(key);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        if (v != null) {
+            if (i >= 0) {
+                values[i] = v;
+            } else {
+                i = slotFor(key);
+                values[~i] = v;
+                added();
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Returns the index of the slot holding the given key if present, or
+     * the complement of the free slot where the key has been stored.
+     * The caller stores the value and then calls {@link #added}.
+     */
+    private int slotFor(long key) {
+        if (key == 0) {
+            if (hasZeroKey)
+                return mask + 1;
+            hasZeroKey = true;
+            return ~(mask + 1);
+        }
+        long[] ks = keys;
+        int m = mask;
+        for (int i = hash(key) & m; ; i = (i + 1) & m) {
+            long k = ks[i];
+            if (k == 0) {
+                ks[i] = key;
+                return ~i;
+            }
+            if (k == key)
+                return i;
+        }
+    }
+
+    private void added() {
+        modCount++;
+        if (++size > threshold)
+            resize((mask + 1) << 1);
+    }
+
+    private void resize(int n) {
+        if (n > MAXIMUM_CAPACITY) {
+            // the table cannot grow; it stays usable while a slot is free
+            if (size >= mask)
+                throw new OutOfMemoryError("Map has too many mappings");
+            threshold = mask - 1;
+            return;
+        }
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldMask = mask;
+        allocate(n);
+        long[] ks = keys;
+        Object[] vs = values;
+        int m = mask;
+        for (int j = oldMask; j >= 0; j--) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = hash(k) & m;
+                while (ks[i] != 0)
+                    i = (i + 1) & m;
+                ks[i] = k;
+                vs[i] = oldValues[j];
+            }
+        }
+        vs[m + 1] = oldValues[oldMask + 1];
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map.
+     *
+     * @param m mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null, or
+     *         contains a null key
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<? extends Long, ? extends V> m) {
+        int n = tableSizeFor(size + m.size(), loadFactor);
+        if (n > mask + 1)
+            resize(n);
+        if (m instanceof LongHashMap) {
+            ((LongHashMap<? extends V>) m).forEachEntry(this::putLong);
+        } else {
+            for (Map.Entry<? extends Long, ? extends V> e : m.entrySet())
+                putLong(e.getKey().longValue(), e.getValue());
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}.
+     *         (A {@code null} return can also indicate that the map
+     *         previously associated {@code null} with {@code key}.)
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = find(key);
+        if (i < 0)
+            return null;
+        V old = (V) values[i];
+        removeAt(i, null);
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        return (key instanceof Long) ? remove(((Long) key).longValue()) : null;
+    }
+
+    /**
+     * Removes the mapping at the given index.
+     */
+    final void removeAt(int i, KeyScan scan) {
+        if (i == mask + 1) {
+            hasZeroKey = false;
+            values[i] = null;
+        } else {
+            shiftKeys(i, scan);
+        }
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Frees the given slot by moving back the entries that follow it in
+     * their probe sequence.  An entry that moves from the start of the
+     * table to its end, which a scan in progress has already passed, is
+     * reported to that scan.
+     */
+    private void shiftKeys(int pos, KeyScan scan) {
+        long[] ks = keys;
+        Object[] vs = values;
+        int m = mask;
+        for (;;) {
+            int last = pos;
+            pos = (pos + 1) & m;
+            long k;
+            for (;;) {
+                if ((k = ks[pos]) == 0) {
+                    ks[last] = 0;
+                    vs[last] = null;
+                    return;
+                }
+                int slot = hash(k) & m;
+                if (last <= pos ? last >= slot || slot > pos
+                                : last >= slot && slot > pos)
+                    break;
+                pos = (pos + 1) & m;
+            }
+            if (pos < last && scan != null)
+                scan.wrapped(k);
+            ks[last] = k;
+            vs[last] = vs[pos];
+        }
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            Arrays.fill(keys, (long) 0);
+            Arrays.fill(values, null);
+            hasZeroKey = false;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping in this map until all
+     * mappings have been processed or the action throws an exception.
+     *
+     * @param action The action to be performed for each mapping
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(EntryConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        long[] ks = keys;
+        Object[] vs = values;
+        int mc = modCount;
+        if (hasZeroKey)
+            action.accept(0, (V) vs[mask + 1]);
+        for (int i = mask; i >= 0 && mc == modCount; i--) {
+            long k = ks[i];
+            if (k != 0)
+                action.accept(k, (V) vs[i]);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * An operation that accepts a {@code long} key and its value.
+     *
+     * @param <V> the type of values
+     * @since 15
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(long key, V value);
+    }
+
+    /**
+     * Returns an iterator over the keys of this map, without boxing.
+     * The iterator supports removal.
+     *
+     * @return an iterator over the keys of this map
+     */
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Walks the table from its end to its start, followed by the entries
+     * that removals through the iterator moved from the unvisited start of
+     * the table to its visited end.
+     */
+    abstract class KeyScan {
+        int pos = mask + 1;     // next index is below this one
+        int last = -1;          // index of the last entry returned, or -1
+        int remaining = size;   // entries not returned yet
+        boolean zeroKey = hasZeroKey;
+        long[] wrapped;       // entries moved behind the scan
+        int wrappedCount;
+        long wrappedKey;      // the last entry returned, if wrapped
+        int expectedModCount = modCount;
+
+        public final boolean hasNext() {
+            return remaining != 0;
+        }
+
+        final int nextIndex() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (remaining == 0)
+                throw new NoSuchElementException();
+            remaining--;
+            if (zeroKey) {
+                zeroKey = false;
+                return last = mask + 1;
+            }
+            long[] ks = keys;
+            while (--pos >= 0) {
+                if (ks[pos] != 0)
+                    return last = pos;
+            }
+            wrappedKey = wrapped[--wrappedCount];
+            return last = find(wrappedKey);
+        }
+
+        final void wrapped(long key) {
+            if (wrapped == null)
+                wrapped = new long[2];
+            else if (wrappedCount == wrapped.length)
+                wrapped = Arrays.copyOf(wrapped, wrappedCount * 2);
+            wrapped[wrappedCount++] = key;
+        }
+
+        public final void remove() {
+            if (last < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            // once the table is exhausted, the remaining entries are all
+            // in the wrapped list, so shifting cannot affect the scan
+            removeAt(last, pos >= 0 ? this : null);
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    final class KeyIterator extends KeyScan implements PrimitiveIterator.OfLong {
+        @Override
+        public long nextLong() {
+            int i = nextIndex();
+            return i == mask + 1 ? 0 : pos >= 0 ? keys[i] : wrappedKey;
+        }
+    }
+
+    final class EntryIterator extends KeyScan implements Iterator<Map.Entry<Long,V>> {
+        @Override
+        public Map.Entry<Long,V> next() {
+            int i = nextIndex();
+            long key = i == mask + 1 ? 0 : pos >= 0 ? keys[i] : wrappedKey;
+            return new Entry(key);
+        }
+    }
+
+    /**
+     * A mapping returned by the entry set iterator.  Its value is read
+     * from, and written through to, the map while the key is present.
+     */
+    final class Entry implements Map.Entry<Long,V> {
+        private final long key;
+
+        Entry(long key) {
+            this.key = key;
+        }
+
+        @Override
+        public Long getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return LongHashMap.this.get(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            int i = find(key);
+            if (i < 0)
+                throw new IllegalStateException("Entry was removed");
+            V old = (V) values[i];
+            values[i] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>) o;
+            return e.getKey() instanceof Long
+                    && ((Long) e.getKey()).longValue() == key
+                    && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    transient Set<Map.Entry<Long,V>> entrySet;
+
+    /**
+     * Returns a {@link Set} view of the mappings contained in this map.
+     * The set is backed by the map, so changes to the map are
+     * reflected in the set, and vice-versa.  The set supports element
+     * removal, but not addition.  Its iterator is fail-fast and creates
+     * an entry object for each mapping; use {@link #forEachEntry} to
+     * visit the mappings without allocation.
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public Set<Map.Entry<Long,V>> entrySet() {
+        Set<Map.Entry<Long,V>> es;
+        return (es = entrySet) == null ? (entrySet = new EntrySet()) : es;
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<Long,V>> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            LongHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<Long,V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>) o;
+            if (!(e.getKey() instanceof Long))
+                return false;
+            int i = find(((Long) e.getKey()).longValue());
+            return i >= 0 && Objects.equals(values[i], e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o))
+                return false;
+            LongHashMap.this.remove(((Long) ((Map.Entry<?,?>) o).getKey()).longValue());
+            return true;
+        }
+    }
+
+    /**
+     * Returns a shallow copy of this {@code LongHashMap} instance: the values
+     * themselves are not cloned.
+     *
+     * @return a shallow copy of this map
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public LongHashMap<V> clone() {
+        LongHashMap<V> result;
+        try {
+            result = (LongHashMap<V>) super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        result.keys = keys.clone();
+        result.values = values.clone();
+        result.entrySet = null;
+        return result;
+    }
+
+    private static final long serialVersionUID = -3279451021865418573L;
+
+    /**
+     * Saves this map to a stream (that is, serializes it).
+     *
+     * @param s the stream
+     * @throws IOException if an I/O error occurs
+     * @serialData The number of key-value mappings ({@code int}), followed
+     *             by the key ({@code long}) and value ({@code Object}) of
+     *             each mapping, in no particular order.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        int mc = modCount;
+        s.defaultWriteObject();
+        s.writeInt(size);
+        long[] ks = keys;
+        Object[] vs = values;
+        if (hasZeroKey) {
+            s.writeLong(0);
+            s.writeObject(vs[mask + 1]);
+        }
+        for (int i = mask; i >= 0; i--) {
+            if (ks[i] != 0) {
+                s.writeLong(ks[i]);
+                s.writeObject(vs[i]);
+            }
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Reconstitutes this map from a stream (that is, deserializes it).
+     *
+     * @param s the stream
+     * @throws ClassNotFoundException if the class of a serialized object
+     *         could not be found
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new InvalidObjectException("Illegal load factor: " +
+                                             loadFactor);
+        int mappings = s.readInt();
+        if (mappings < 0)
+            throw new InvalidObjectException("Illegal mappings count: " +
+                                             mappings);
+        allocate(tableSizeFor(mappings, loadFactor));
+        for (int i = 0; i < mappings; i++) {
+            long key = s.readLong();
+            putLong(key, (V) s.readObject());
+        }
+    }
+}
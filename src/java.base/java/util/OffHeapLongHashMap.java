@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import jdk.internal.misc.Unsafe;
+import jdk.internal.ref.CleanerFactory;
+
+/**
+ * A hash map from primitive {@code long} keys to primitive {@code long}
+ * values, stored outside of the Java heap.  The garbage collector neither
+ * scans nor copies the mappings, however many there are, which makes this
+ * class suited to very large indexes whose values are themselves
+ * primitive, such as offsets or ids.
+ *
+ * <p>Like a {@link LongHashMap}, the map is an open addressing table,
+ * here made of consecutive 16 byte entries of native memory.  It may hold
+ * more than {@code Integer.MAX_VALUE} mappings.
+ *
+ * <p>The native memory is released when the map is {@linkplain #close
+ * closed}, or when the map becomes unreachable if it was never closed.
+ * A map is <i>confined</i> to the thread that created it: as for native
+ * memory segments, any access from another thread, or after the map has
+ * been closed, throws {@link IllegalStateException}.
+ *
+ * <p>The {@link #forEachEntry} method is <i>fail-fast</i>: if the map is
+ * structurally modified by the action, a
+ * {@link ConcurrentModificationException} is thrown.
+ *
+ * @see     LongHashMap
+ * @since   15
+ */
+public final class OffHeapLongHashMap implements AutoCloseable {
+
+    private static final Unsafe U = Unsafe.getUnsafe();
+
+    private static final int ENTRY_SIZE = 16;
+    private static final int VALUE_OFFSET = 8;
+    private static final long MAXIMUM_CAPACITY = 1L << 40;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /*
+     * Holds the address of the table, and frees it when run, either by
+     * close() or by the cleaner once the map is unreachable.  The methods
+     * that access the table therefore keep the map reachable until they
+     * return.
+     */
+    private static final class Memory implements Runnable {
+        long address;
+
+        @Override
+        public void run() {
+            if (address != 0) {
+                U.freeMemory(address);
+                address = 0;
+            }
+        }
+    }
+
+    private final Thread owner = Thread.currentThread();
+    private final float loadFactor;
+    private final Memory memory = new Memory();
+    private final Cleaner.Cleanable cleanable;
+    private long mask;
+    private long threshold;
+    private long size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+    private int modCount;
+
+    /**
+     * Constructs an empty map with room for the expected number of
+     * mappings, and the specified load factor.
+     *
+     * @param  expectedSize the expected number of mappings
+     * @param  loadFactor   the load factor
+     * @throws IllegalArgumentException if the expected size is negative,
+     *         or the load factor is not positive and less than one
+     * @throws OutOfMemoryError if the native memory cannot be allocated
+     */
+    public OffHeapLongHashMap(long expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(expectedSize));
+        cleanable = CleanerFactory.cleaner().register(this, memory);
+    }
+
+    /**
+     * Constructs an empty map with room for the expected number of
+     * mappings, and the default load factor (0.75).
+     *
+     * @param  expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if the expected size is negative
+     * @throws OutOfMemoryError if the native memory cannot be allocated
+     */
+    public OffHeapLongHashMap(long expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default load factor (0.75).
+     */
+    public OffHeapLongHashMap() {
+        this(16, DEFAULT_LOAD_FACTOR);
+    }
+
+    private long tableSizeFor(long expected) {
+        double n = Math.max(2, Math.ceil(expected / (double) loadFactor));
+        if (n >= MAXIMUM_CAPACITY)
+            return MAXIMUM_CAPACITY;
+        return Long.highestOneBit((long) n - 1) << 1;
+    }
+
+    private void allocate(long n) {
+        long bytes = n * ENTRY_SIZE;
+        long address = U.allocateMemory(bytes);
+        U.setMemory(address, bytes, (byte) 0);
+        memory.address = address;
+        mask = n - 1;
+        threshold = Math.min(n - 1, (long) Math.ceil(n * (double) loadFactor));
+    }
+
+    private static long hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private void checkAccess() {
+        if (Thread.currentThread() != owner)
+            throw new IllegalStateException("Attempted access outside owning thread");
+        if (memory.address == 0)
+            throw new IllegalStateException("Map is closed");
+    }
+
+    /**
+     * Returns the address of the entry holding the given key, or 0 if it
+     * is not in the table.  Key 0 is never in the table.
+     */
+    private long find(long key) {
+        long base = memory.address;
+        long m = mask;
+        for (long i = hash(key) & m; ; i = (i + 1) & m) {
+            long e = base + i * ENTRY_SIZE;
+            long k = U.getLong(e);
+            if (k == 0)
+                return 0;
+            if (k == key)
+                return e;
+        }
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public long size() {
+        checkAccess();
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no mappings.
+     *
+     * @return {@code true} if this map contains no mappings
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the
+     * specified key.
+     *
+     * @param  key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the key
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public boolean containsKey(long key) {
+        checkAccess();
+        try {
+            return key == 0 ? hasZeroKey : find(key) != 0;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param  key the key whose associated value is to be returned
+     * @param  defaultValue the default mapping of the key
+     * @return the value mapped to the key, or {@code defaultValue}
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        checkAccess();
+        try {
+            if (key == 0)
+                return hasZeroKey ? zeroValue : defaultValue;
+            long e = find(key);
+            return e == 0 ? defaultValue : U.getLong(e + VALUE_OFFSET);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the previous value if any.
+     *
+     * @param  key key with which the specified value is to be associated
+     * @param  value value to be associated with the specified key
+     * @return {@code true} if the map did not already contain a mapping
+     *         for the key
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     * @throws OutOfMemoryError if the table must grow and the native
+     *         memory cannot be allocated
+     */
+    public boolean put(long key, long value) {
+        checkAccess();
+        try {
+            if (key == 0) {
+                zeroValue = value;
+                if (hasZeroKey)
+                    return false;
+                hasZeroKey = true;
+            } else {
+                long base = memory.address;
+                long m = mask;
+                for (long i = hash(key) & m; ; i = (i + 1) & m) {
+                    long e = base + i * ENTRY_SIZE;
+                    long k = U.getLong(e);
+                    if (k == key) {
+                        U.putLong(e + VALUE_OFFSET, value);
+                        return false;
+                    }
+                    if (k == 0) {
+                        if (size >= threshold && resize()) {
+                            // the table has moved; insert into the new one
+                            return put(key, value);
+                        }
+                        U.putLong(e, key);
+                        U.putLong(e + VALUE_OFFSET, value);
+                        break;
+                    }
+                }
+            }
+            size++;
+            modCount++;
+            return true;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Doubles the table, or returns false if it is at its maximum size
+     * and still has a free slot.
+     */
+    private boolean resize() {
+        long oldBase = memory.address;
+        long oldN = mask + 1;
+        if (oldN >= MAXIMUM_CAPACITY) {
+            if (size >= mask)
+                throw new OutOfMemoryError("Map has too many mappings");
+            return false;
+        }
+        long oldMask = mask;
+        allocate(oldN << 1);
+        long base = memory.address;
+        long m = mask;
+        for (long j = 0; j <= oldMask; j++) {
+            long oe = oldBase + j * ENTRY_SIZE;
+            long k = U.getLong(oe);
+            if (k != 0) {
+                long i = hash(k) & m;
+                while (U.getLong(base + i * ENTRY_SIZE) != 0)
+                    i = (i + 1) & m;
+                long e = base + i * ENTRY_SIZE;
+                U.putLong(e, k);
+                U.putLong(e + VALUE_OFFSET, U.getLong(oe + VALUE_OFFSET));
+            }
+        }
+        U.freeMemory(oldBase);
+        return true;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return {@code true} if the map contained a mapping for the key
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public boolean remove(long key) {
+        checkAccess();
+        try {
+            if (key == 0) {
+                if (!hasZeroKey)
+                    return false;
+                hasZeroKey = false;
+                zeroValue = 0;
+            } else {
+                long e = find(key);
+                if (e == 0)
+                    return false;
+                shiftKeys((e - memory.address) / ENTRY_SIZE);
+            }
+            size--;
+            modCount++;
+            return true;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /*
+     * Frees the given slot by moving back the entries that follow it in
+     * their probe sequence.
+     */
+    private void shiftKeys(long pos) {
+        long base = memory.address;
+        long m = mask;
+        for (;;) {
+            long last = pos;
+            pos = (pos + 1) & m;
+            long k;
+            for (;;) {
+                if ((k = U.getLong(base + pos * ENTRY_SIZE)) == 0) {
+                    U.putLong(base + last * ENTRY_SIZE, 0L);
+                    U.putLong(base + last * ENTRY_SIZE + VALUE_OFFSET, 0L);
+                    return;
+                }
+                long slot = hash(k) & m;
+                if (last <= pos ? last >= slot || slot > pos
+                                : last >= slot && slot > pos)
+                    break;
+                pos = (pos + 1) & m;
+            }
+            U.putLong(base + last * ENTRY_SIZE, k);
+            U.putLong(base + last * ENTRY_SIZE + VALUE_OFFSET,
+                      U.getLong(base + pos * ENTRY_SIZE + VALUE_OFFSET));
+        }
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current size.
+     *
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public void clear() {
+        checkAccess();
+        try {
+            if (size > 0) {
+                U.setMemory(memory.address, (mask + 1) * ENTRY_SIZE, (byte) 0);
+                hasZeroKey = false;
+                zeroValue = 0;
+                size = 0;
+                modCount++;
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * An operation that accepts a {@code long} key and its {@code long}
+     * value.
+     *
+     * @since 15
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(long key, long value);
+    }
+
+    /**
+     * Performs the given action for each mapping in this map, in no
+     * particular order.
+     *
+     * @param  action the action to be performed for each mapping
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the action adds or
+     *         removes mappings, or closes the map
+     * @throws IllegalStateException if the map is closed, or accessed
+     *         outside of its owning thread
+     */
+    public void forEachEntry(EntryConsumer action) {
+        Objects.requireNonNull(action);
+        checkAccess();
+        try {
+            int mc = modCount;
+            if (hasZeroKey)
+                action.accept(0, zeroValue);
+            long base = memory.address;
+            for (long i = 0; i <= mask && mc == modCount; i++) {
+                long e = base + i * ENTRY_SIZE;
+                long k = U.getLong(e);
+                if (k != 0)
+                    action.accept(k, U.getLong(e + VALUE_OFFSET));
+            }
+            if (mc != modCount)
+                throw new ConcurrentModificationException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Releases the native memory of this map.  Closing a map that is
+     * already closed has no effect.
+     *
+     * @throws IllegalStateException if called outside of the owning thread
+     */
+    @Override
+    public void close() {
+        if (Thread.currentThread() != owner)
+            throw new IllegalStateException("Attempted access outside owning thread");
+        if (memory.address != 0) {
+            modCount++;
+            cleanable.clean();
+        }
+    }
+}
@@ -0,0 +1,729 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements a stable least-significant-digit radix sort
+ * of int, long, float and double arrays, optionally parallel, and
+ * optionally producing the permutation that sorts the array.
+ *
+ * Each pass distributes the elements by one 8-bit digit of their key,
+ * the key being the value's bits transformed such that unsigned
+ * order of keys is the numerical order of values (with float and
+ * double values ordered as by Float.compareTo and Double.compareTo,
+ * NaNs last). The range is split into chunks, which are histogrammed
+ * and scattered independently, the per-chunk offsets of each digit
+ * being laid out in chunk order so that each pass is stable.
+ *
+ * A first pass over the data computes the histograms of all digits at
+ * once, which also serves to detect ranges that are already sorted,
+ * and passes over digits that are the same for all elements are
+ * skipped.
+ *
+ * @since 15
+ */
+final class RadixSort {
+
+    /**
+     * Prevents instantiation.
+     */
+    private RadixSort() {}
+
+    /**
+     * Number of bits per digit.
+     */
+    private static final int BITS = 8;
+
+    /**
+     * Number of distinct digits.
+     */
+    private static final int RADIX = 1 << BITS;
+
+    /**
+     * Mask of a digit.
+     */
+    private static final int MASK = RADIX - 1;
+
+    /**
+     * Min number of elements per chunk of parallel work.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 15;
+
+    /**
+     * Sorts the specified range of the array.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @param low the index of the first element, inclusive, to be sorted
+     * @param high the index of the last element, exclusive, to be sorted
+     */
+    static void sort(int[] a, int parallelism, int low, int high) {
+        new IntSorter(a, null, parallelism, low, high).sort();
+    }
+
+    /**
+     * Sorts the specified range of the array.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @param low the index of the first element, inclusive, to be sorted
+     * @param high the index of the last element, exclusive, to be sorted
+     */
+    static void sort(long[] a, int parallelism, int low, int high) {
+        new LongSorter(a, null, parallelism, low, high).sort();
+    }
+
+    /**
+     * Sorts the specified range of the array.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @param low the index of the first element, inclusive, to be sorted
+     * @param high the index of the last element, exclusive, to be sorted
+     */
+    static void sort(float[] a, int parallelism, int low, int high) {
+        new FloatSorter(a, null, parallelism, low, high).sort();
+    }
+
+    /**
+     * Sorts the specified range of the array.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @param low the index of the first element, inclusive, to be sorted
+     * @param high the index of the last element, exclusive, to be sorted
+     */
+    static void sort(double[] a, int parallelism, int low, int high) {
+        new DoubleSorter(a, null, parallelism, low, high).sort();
+    }
+
+    /**
+     * Sorts the array, returning the original index of each element.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @return the permutation
+     */
+    static int[] sortIndexed(int[] a, int parallelism) {
+        Sorter s = new IntSorter(a, new int[a.length], parallelism, 0, a.length);
+        s.sort();
+        return s.permSrc;
+    }
+
+    /**
+     * Sorts the array, returning the original index of each element.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @return the permutation
+     */
+    static int[] sortIndexed(long[] a, int parallelism) {
+        Sorter s = new LongSorter(a, new int[a.length], parallelism, 0, a.length);
+        s.sort();
+        return s.permSrc;
+    }
+
+    /**
+     * Sorts the array, returning the original index of each element.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @return the permutation
+     */
+    static int[] sortIndexed(float[] a, int parallelism) {
+        Sorter s = new FloatSorter(a, new int[a.length], parallelism, 0, a.length);
+        s.sort();
+        return s.permSrc;
+    }
+
+    /**
+     * Sorts the array, returning the original index of each element.
+     *
+     * @param a the array to be sorted
+     * @param parallelism the parallelism level
+     * @return the permutation
+     */
+    static int[] sortIndexed(double[] a, int parallelism) {
+        Sorter s = new DoubleSorter(a, new int[a.length], parallelism, 0, a.length);
+        s.sort();
+        return s.permSrc;
+    }
+
+    /**
+     * The common driver of the sorters, which run each phase over all
+     * chunks, in parallel if there are more than one.  Positions within
+     * the range are relative to its start; the values of the source and
+     * destination array at position i are at index i + srcBase and
+     * i + dstBase, and the permutation arrays are indexed by position.
+     */
+    abstract static class Sorter {
+        private static final int HISTOGRAM = 0, COUNT = 1, SCATTER = 2, COPY = 3;
+
+        /**
+         * The start of the range in the array being sorted.
+         */
+        final int low;
+
+        /**
+         * The number of elements to sort.
+         */
+        final int size;
+
+        /**
+         * The number of digits of a key.
+         */
+        final int passes;
+
+        /**
+         * The number of chunks the range is split into.
+         */
+        private final int chunks;
+
+        /**
+         * Histograms of all digits of each chunk.
+         */
+        private final int[][] counts;
+
+        /**
+         * Counts, then scatter offsets, of the current digit of each chunk.
+         */
+        private final int[][] offsets;
+
+        /**
+         * Whether each chunk was found to be sorted.
+         */
+        private final boolean[] sorted;
+
+        /**
+         * Permutation of the source and the destination, or null.
+         */
+        int[] permSrc, permDst;
+
+        /**
+         * Offsets of positions in the source and destination arrays.
+         */
+        int srcBase, dstBase;
+
+        private int phase, shift;
+
+        Sorter(int[] perm, int parallelism, int low, int high, int bits) {
+            this.low = low;
+            this.size = high - low;
+            this.passes = bits / BITS;
+            int n = (parallelism > 1) ? Math.min(parallelism << 2, size / MIN_CHUNK_SIZE) : 1;
+            this.chunks = Math.max(n, 1);
+            this.counts = new int[chunks][passes * RADIX];
+            this.offsets = new int[chunks][RADIX];
+            this.sorted = new boolean[chunks];
+            if (perm != null) {
+                permSrc = perm;
+                permDst = new int[size];
+            }
+            srcBase = low;
+        }
+
+        /**
+         * Accumulates the histograms of all digits of the keys at
+         * positions lo to hi into h, returning true if the keys are
+         * ascending from position lo - 1.
+         */
+        abstract boolean histogram(int[] h, int lo, int hi);
+
+        /**
+         * Accumulates the histogram of the digit at shift of the keys
+         * at positions lo to hi into h.
+         */
+        abstract void count(int[] h, int lo, int hi, int shift);
+
+        /**
+         * Moves the elements at positions lo to hi to the positions given
+         * by the offsets of the digit at shift of their keys.
+         */
+        abstract void scatter(int[] off, int lo, int hi, int shift);
+
+        /**
+         * Copies the elements at positions lo to hi from the buffer back
+         * into the array being sorted.
+         */
+        abstract void copyBack(int lo, int hi);
+
+        /**
+         * Returns true if the sorted elements are in the array being sorted.
+         */
+        abstract boolean inPlace();
+
+        /**
+         * Exchanges source and destination.
+         */
+        void swap() {
+            int[] t = permSrc;
+            permSrc = permDst;
+            permDst = t;
+            int b = srcBase;
+            srcBase = dstBase;
+            dstBase = b;
+        }
+
+        /**
+         * Sorts the range.
+         */
+        final void sort() {
+            runAll(HISTOGRAM);
+            boolean ascending = true;
+            for (boolean s : sorted)
+                ascending &= s;
+            if (ascending)
+                return;
+
+            boolean first = true;
+            for (int p = 0; p < passes; ++p) {
+                int o = p * RADIX;
+                if (isConstant(o))
+                    continue;
+                shift = p * BITS;
+                if (first) {
+                    for (int c = 0; c < chunks; ++c)
+                        System.arraycopy(counts[c], o, offsets[c], 0, RADIX);
+                    first = false;
+                } else {
+                    runAll(COUNT);
+                }
+                for (int d = 0, sum = 0; d < RADIX; ++d) {
+                    for (int[] off : offsets) {
+                        int n = off[d];
+                        off[d] = sum;
+                        sum += n;
+                    }
+                }
+                runAll(SCATTER);
+                swap();
+            }
+            if (!inPlace())
+                runAll(COPY);
+        }
+
+        /**
+         * Returns true if a single digit accounts for all elements in
+         * the histograms at offset o.
+         */
+        private boolean isConstant(int o) {
+            for (int d = o; d < o + RADIX; ++d) {
+                long n = 0;
+                for (int[] h : counts)
+                    n += h[d];
+                if (n != 0)
+                    return n == size;
+            }
+            return true;
+        }
+
+        /**
+         * Runs the phase over all chunks.
+         */
+        private void runAll(int phase) {
+            this.phase = phase;
+            if (chunks == 1)
+                run(0, 0, size);
+            else
+                new Fork(this, 0, chunks).invoke();
+        }
+
+        /**
+         * Runs the current phase over chunk c.
+         */
+        final void run(int c) {
+            run(c, (int) ((long) size * c / chunks),
+                   (int) ((long) size * (c + 1) / chunks));
+        }
+
+        private void run(int c, int lo, int hi) {
+            switch (phase) {
+                case HISTOGRAM:
+                    if (permSrc != null) {
+                        for (int i = lo; i < hi; ++i)
+                            permSrc[i] = i;
+                    }
+                    sorted[c] = histogram(counts[c], lo, hi);
+                    break;
+                case COUNT:
+                    Arrays.fill(offsets[c], 0);
+                    count(offsets[c], lo, hi, shift);
+                    break;
+                case SCATTER:
+                    scatter(offsets[c], lo, hi, shift);
+                    break;
+                default:
+                    copyBack(lo, hi);
+            }
+        }
+    }
+
+    /**
+     * Runs the current phase of a sorter over a range of chunks.
+     */
+    private static final class Fork extends RecursiveAction {
+        private static final long serialVersionUID = 20200101L;
+
+        private final transient Sorter sorter;
+        private final int lo, hi;
+
+        Fork(Sorter sorter, int lo, int hi) {
+            this.sorter = sorter;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                sorter.run(lo);
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Fork(sorter, lo, mid), new Fork(sorter, mid, hi));
+            }
+        }
+    }
+
+    /**
+     * Radix sorter of int values.
+     */
+    static final class IntSorter extends Sorter {
+        private final int[] a;
+        private int[] src, dst;
+
+        IntSorter(int[] a, int[] perm, int parallelism, int low, int high) {
+            super(perm, parallelism, low, high, 32);
+            this.a = src = a;
+            this.dst = new int[high - low];
+        }
+
+        /**
+         * Returns the key of the value, ordered as unsigned.
+         */
+        private static int key(int v) {
+            return v ^ Integer.MIN_VALUE;
+        }
+
+        boolean histogram(int[] h, int lo, int hi) {
+            final int[] a = src;
+            final int base = srcBase;
+            boolean sorted = true;
+            int prev = (lo == 0) ? 0 : key(a[base + lo - 1]);
+            for (int i = lo; i < hi; ++i) {
+                int k = key(a[base + i]);
+                if (Integer.compareUnsigned(prev, k) > 0)
+                    sorted = false;
+                prev = k;
+                for (int p = 0, o = 0; p < passes; ++p, o += RADIX)
+                    h[o + ((k >>> (p * BITS)) & MASK)]++;
+            }
+            return sorted;
+        }
+
+        void count(int[] h, int lo, int hi, int shift) {
+            final int[] a = src;
+            final int base = srcBase;
+            for (int i = lo; i < hi; ++i)
+                h[(key(a[base + i]) >>> shift) & MASK]++;
+        }
+
+        void scatter(int[] off, int lo, int hi, int shift) {
+            final int[] a = src, b = dst;
+            final int sb = srcBase, db = dstBase;
+            final int[] ps = permSrc, pd = permDst;
+            if (ps == null) {
+                for (int i = lo; i < hi; ++i) {
+                    int v = a[sb + i];
+                    b[db + off[(key(v) >>> shift) & MASK]++] = v;
+                }
+            } else {
+                for (int i = lo; i < hi; ++i) {
+                    int v = a[sb + i];
+                    int o = off[(key(v) >>> shift) & MASK]++;
+                    b[db + o] = v;
+                    pd[o] = ps[i];
+                }
+            }
+        }
+
+        void swap() {
+            int[] t = src;
+            src = dst;
+            dst = t;
+            super.swap();
+        }
+
+        void copyBack(int lo, int hi) {
+            System.arraycopy(src, lo, a, low + lo, hi - lo);
+        }
+
+        boolean inPlace() {
+            return src == a;
+        }
+    }
+
+    /**
+     * Radix sorter of long values.
+     */
+    static final class LongSorter extends Sorter {
+        private final long[] a;
+        private long[] src, dst;
+
+        LongSorter(long[] a, int[] perm, int parallelism, int low, int high) {
+            super(perm, parallelism, low, high, 64);
+            this.a = src = a;
+            this.dst = new long[high - low];
+        }
+
+        /**
+         * Returns the key of the value, ordered as unsigned.
+         */
+        private static long key(long v) {
+            return v ^ Long.MIN_VALUE;
+        }
+
+        boolean histogram(int[] h, int lo, int hi) {
+            final long[] a = src;
+            final int base = srcBase;
+            boolean sorted = true;
+            long prev = (lo == 0) ? 0 : key(a[base + lo - 1]);
+            for (int i = lo; i < hi; ++i) {
+                long k = key(a[base + i]);
+                if (Long.compareUnsigned(prev, k) > 0)
+                    sorted = false;
+                prev = k;
+                for (int p = 0, o = 0; p < passes; ++p, o += RADIX)
+                    h[o + ((int)(k >>> (p * BITS)) & MASK)]++;
+            }
+            return sorted;
+        }
+
+        void count(int[] h, int lo, int hi, int shift) {
+            final long[] a = src;
+            final int base = srcBase;
+            for (int i = lo; i < hi; ++i)
+                h[(int)(key(a[base + i]) >>> shift) & MASK]++;
+        }
+
+        void scatter(int[] off, int lo, int hi, int shift) {
+            final long[] a = src, b = dst;
+            final int sb = srcBase, db = dstBase;
+            final int[] ps = permSrc, pd = permDst;
+            if (ps == null) {
+                for (int i = lo; i < hi; ++i) {
+                    long v = a[sb + i];
+                    b[db + off[(int)(key(v) >>> shift) & MASK]++] = v;
+                }
+            } else {
+                for (int i = lo; i < hi; ++i) {
+                    long v = a[sb + i];
+                    int o = off[(int)(key(v) >>> shift) & MASK]++;
+                    b[db + o] = v;
+                    pd[o] = ps[i];
+                }
+            }
+        }
+
+        void swap() {
+            long[] t = src;
+            src = dst;
+            dst = t;
+            super.swap();
+        }
+
+        void copyBack(int lo, int hi) {
+            System.arraycopy(src, lo, a, low + lo, hi - lo);
+        }
+
+        boolean inPlace() {
+            return src == a;
+        }
+    }
+
+    /**
+     * Radix sorter of float values.
+     */
+    static final class FloatSorter extends Sorter {
+        private final float[] a;
+        private float[] src, dst;
+
+        FloatSorter(float[] a, int[] perm, int parallelism, int low, int high) {
+            super(perm, parallelism, low, high, 32);
+            this.a = src = a;
+            this.dst = new float[high - low];
+        }
+
+        /**
+         * Returns the key of the value, ordered as unsigned.
+         */
+        private static int key(float v) {
+            if (v != v) // NaN
+                return -1;
+            int bits = Float.floatToRawIntBits(v);
+            return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+        }
+
+        boolean histogram(int[] h, int lo, int hi) {
+            final float[] a = src;
+            final int base = srcBase;
+            boolean sorted = true;
+            int prev = (lo == 0) ? 0 : key(a[base + lo - 1]);
+            for (int i = lo; i < hi; ++i) {
+                int k = key(a[base + i]);
+                if (Integer.compareUnsigned(prev, k) > 0)
+                    sorted = false;
+                prev = k;
+                for (int p = 0, o = 0; p < passes; ++p, o += RADIX)
+                    h[o + ((k >>> (p * BITS)) & MASK)]++;
+            }
+            return sorted;
+        }
+
+        void count(int[] h, int lo, int hi, int shift) {
+            final float[] a = src;
+            final int base = srcBase;
+            for (int i = lo; i < hi; ++i)
+                h[(key(a[base + i]) >>> shift) & MASK]++;
+        }
+
+        void scatter(int[] off, int lo, int hi, int shift) {
+            final float[] a = src, b = dst;
+            final int sb = srcBase, db = dstBase;
+            final int[] ps = permSrc, pd = permDst;
+            if (ps == null) {
+                for (int i = lo; i < hi; ++i) {
+                    float v = a[sb + i];
+                    b[db + off[(key(v) >>> shift) & MASK]++] = v;
+                }
+            } else {
+                for (int i = lo; i < hi; ++i) {
+                    float v = a[sb + i];
+                    int o = off[(key(v) >>> shift) & MASK]++;
+                    b[db + o] = v;
+                    pd[o] = ps[i];
+                }
+            }
+        }
+
+        void swap() {
+            float[] t = src;
+            src = dst;
+            dst = t;
+            super.swap();
+        }
+
+        void copyBack(int lo, int hi) {
+            System.arraycopy(src, lo, a, low + lo, hi - lo);
+        }
+
+        boolean inPlace() {
+            return src == a;
+        }
+    }
+
+    /**
+     * Radix sorter of double values.
+     */
+    static final class DoubleSorter extends Sorter {
+        private final double[] a;
+        private double[] src, dst;
+
+        DoubleSorter(double[] a, int[] perm, int parallelism, int low, int high) {
+            super(perm, parallelism, low, high, 64);
+            this.a = src = a;
+            this.dst = new double[high - low];
+        }
+
+        /**
+         * Returns the key of the value, ordered as unsigned.
+         */
+        private static long key(double v) {
+            if (v != v) // NaN
+                return -1L;
+            long bits = Double.doubleToRawLongBits(v);
+            return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+        }
+
+        boolean histogram(int[] h, int lo, int hi) {
+            final double[] a = src;
+            final int base = srcBase;
+            boolean sorted = true;
+            long prev = (lo == 0) ? 0 : key(a[base + lo - 1]);
+            for (int i = lo; i < hi; ++i) {
+                long k = key(a[base + i]);
+                if (Long.compareUnsigned(prev, k) > 0)
+                    sorted = false;
+                prev = k;
+                for (int p = 0, o = 0; p < passes; ++p, o += RADIX)
+                    h[o + ((int)(k >>> (p * BITS)) & MASK)]++;
+            }
+            return sorted;
+        }
+
+        void count(int[] h, int lo, int hi, int shift) {
+            final double[] a = src;
+            final int base = srcBase;
+            for (int i = lo; i < hi; ++i)
+                h[(int)(key(a[base + i]) >>> shift) & MASK]++;
+        }
+
+        void scatter(int[] off, int lo, int hi, int shift) {
+            final double[] a = src, b = dst;
+            final int sb = srcBase, db = dstBase;
+            final int[] ps = permSrc, pd = permDst;
+            if (ps == null) {
+                for (int i = lo; i < hi; ++i) {
+                    double v = a[sb + i];
+                    b[db + off[(int)(key(v) >>> shift) & MASK]++] = v;
+                }
+            } else {
+                for (int i = lo; i < hi; ++i) {
+                    double v = a[sb + i];
+                    int o = off[(int)(key(v) >>> shift) & MASK]++;
+                    b[db + o] = v;
+                    pd[o] = ps[i];
+                }
+            }
+        }
+
+        void swap() {
+            double[] t = src;
+            src = dst;
+            dst = t;
+            super.swap();
+        }
+
+        void copyBack(int lo, int hi) {
+            System.arraycopy(src, lo, a, low + lo, hi - lo);
+        }
+
+        boolean inPlace() {
+            return src == a;
+        }
+    }
+}
@@ -0,0 +1,681 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * A hash table from primitive {@code long} keys to object values
+ * supporting full concurrency of retrievals and high expected concurrency
+ * for updates.  It offers the main operations of
+ * {@link ConcurrentHashMap} without boxing keys or allocating a node per
+ * mapping.  Like {@code ConcurrentHashMap}, and unlike
+ * {@link java.util.LongHashMap}, this class does <em>not</em> allow
+ * {@code null} to be used as a value.
+ *
+ * <p>Retrieval operations (including {@code get}) do not block, and
+ * reflect the results of the most recently <em>completed</em> update
+ * operations holding upon their onset.  Bulk operations such as
+ * {@link #forEach} and {@link #clear} are
+ * <a href="package-summary.html#Weakly"><i>weakly consistent</i></a>.
+ * The size is maintained with a
+ * {@link java.util.concurrent.atomic.LongAdder}.
+ *
+ * <p>Implementation note: The table is organized as described for
+ * {@link ConcurrentLongLongHashMap}.  Values are read without looking at
+ * the slot stamp except to detect that the slot has moved, since a
+ * reference is read atomically.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see ConcurrentLongLongHashMap
+ * @see ConcurrentHashMap
+ * @since 15
+ */
+public class ConcurrentLongHashMap<V> {
+
+    /*
+     * See the overview in ConcurrentLongLongHashMap. The differences are
+     * that a slot holds a mapping if and only if its value is not null,
+     * so stamps have no PRESENT bit, and that lookups read the value
+     * first and the stamp second: the value is current unless the slot
+     * had moved, since a slot is only moved while locked.
+     */
+
+    /** The largest possible table capacity. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** The default initial table capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** The load factor, counting keys of removed mappings. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Minimum number of slots a thread transfers at a time. */
+    private static final int MIN_TRANSFER_STRIDE = 16;
+
+    /** Number of CPUS, to place bounds on some sizings */
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    // Slot stamps
+    static final int MOVED   = -1;
+    static final int LOCKED  = 1;
+    static final int VERSION = 2;
+    static final int VERSION_MASK = 0x7ffffffe;
+
+    static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int[] stamps;
+        final int mask;
+        final int threshold;
+        final LongAdder used = new LongAdder();
+        final AtomicInteger transferred = new AtomicInteger();
+        volatile Table next;
+        volatile int resizing;
+        volatile int transferIndex;
+
+        Table(int capacity) {
+            keys = new long[capacity + 1];
+            values = new Object[capacity + 1];
+            stamps = new int[capacity + 1];
+            mask = capacity - 1;
+            threshold = (int) (capacity * LOAD_FACTOR);
+            transferIndex = capacity + 1;
+        }
+    }
+
+    /** The current table. */
+    private volatile Table table;
+
+    /** The number of mappings. */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Creates a new, empty map with the default initial table size (16).
+     */
+    public ConcurrentLongHashMap() {
+        table = new Table(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty map with an initial table size accommodating
+     * the specified number of mappings without the need to dynamically
+     * resize.
+     *
+     * @param initialCapacity the number of mappings to accommodate
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public ConcurrentLongHashMap(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException();
+        table = new Table(ConcurrentLongLongHashMap.tableSizeFor(initialCapacity));
+    }
+
+    static int spread(long key) {
+        return ConcurrentLongLongHashMap.spread(key);
+    }
+
+    /**
+     * Returns the slot of the given key in t, or -1 if it has none.
+     */
+    static int find(Table t, long key) {
+        int m = t.mask;
+        if (key == 0)
+            return m + 1;
+        long[] ks = t.keys;
+        for (int i = spread(key) & m, n = 0; n <= m; i = (i + 1) & m, n++) {
+            long k = (long) LONGS.getAcquire(ks, i);
+            if (k == key)
+                return i;
+            if (k == 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the given key in t, claiming a free slot for it
+     * if it has none, or returns -1 if t is full.  Starts a resize if the
+     * table is getting full.
+     */
+    private int claim(Table t, long key) {
+        int m = t.mask;
+        if (key == 0)
+            return m + 1;
+        long[] ks = t.keys;
+        for (int i = spread(key) & m, n = 0; n <= m; i = (i + 1) & m, n++) {
+            long k = (long) LONGS.getAcquire(ks, i);
+            if (k == 0) {
+                if (LONGS.compareAndSet(ks, i, 0L, key)) {
+                    t.used.increment();
+                    if (n > 0 && t.next == null && t.used.sum() >= t.threshold)
+                        startResize(t);
+                    return i;
+                }
+                k = (long) LONGS.getAcquire(ks, i);
+            }
+            if (k == key)
+                return i;
+        }
+        return -1;
+    }
+
+    // Resizing
+
+    /**
+     * Returns the capacity of the next table of t, or 0 if t cannot grow.
+     * The table doubles unless fewer than half of the slots it may claim
+     * hold live mappings, in which case it is rehashed at the same
+     * capacity, which drops the keys of removed mappings.
+     */
+    private int nextCapacity(Table t) {
+        int capacity = t.mask + 1;
+        if (count.sum() < (t.threshold >>> 1))
+            return capacity;
+        return (capacity < MAXIMUM_CAPACITY) ? capacity << 1 : 0;
+    }
+
+    /**
+     * Allocates the next table of t unless it exists, or t cannot grow.
+     */
+    private void startResize(Table t) {
+        int capacity;
+        if (t.next == null && (capacity = nextCapacity(t)) != 0
+                && RESIZING.compareAndSet(t, 0, 1)) {
+            t.next = new Table(capacity);
+        }
+    }
+
+    /**
+     * Helps transfer t to its next table, waits until the transfer is
+     * complete, and returns the current table.
+     */
+    private Table helpResize(Table t) {
+        Table n;
+        while ((n = t.next) == null) {
+            if (nextCapacity(t) == 0)
+                throw new IllegalStateException("Map is full");
+            startResize(t);
+            Thread.yield();
+        }
+        transfer(t, n);
+        while (table == t)
+            Thread.yield();
+        return table;
+    }
+
+    /**
+     * Moves chunks of slots of t to n until none is left to claim.
+     */
+    private void transfer(Table t, Table n) {
+        int slots = t.mask + 2;
+        int stride = Math.max(MIN_TRANSFER_STRIDE, slots / (NCPU * 8));
+        int hi;
+        while ((hi = t.transferIndex) > 0) {
+            int lo = Math.max(0, hi - stride);
+            if (TRANSFER_INDEX.compareAndSet(t, hi, lo)) {
+                for (int i = lo; i < hi; i++)
+                    moveSlot(t, i, n);
+                if (t.transferred.addAndGet(hi - lo) == slots)
+                    TABLE.compareAndSet(this, t, n);
+            }
+        }
+    }
+
+    private static void moveSlot(Table t, int i, Table n) {
+        int[] st = t.stamps;
+        for (;;) {
+            int s = (int) INTS.getAcquire(st, i);
+            if ((s & LOCKED) != 0) {
+                Thread.onSpinWait();
+            } else if (INTS.compareAndSet(st, i, s, s | LOCKED)) {
+                Object v = t.values[i];
+                if (v != null) {
+                    // until the transfer completes, n only receives
+                    // transferred mappings, at most one per key, and has
+                    // room for all of them
+                    int m = n.mask;
+                    int j = m + 1;
+                    if (i != t.mask + 1) {
+                        long key = t.keys[i];
+                        long[] ks = n.keys;
+                        j = spread(key) & m;
+                        while (!LONGS.compareAndSet(ks, j, 0L, key))
+                            j = (j + 1) & m;
+                        n.used.increment();
+                    }
+                    OBJECTS.setRelease(n.values, j, v);
+                }
+                INTS.setRelease(st, i, MOVED);
+                return;
+            }
+        }
+    }
+
+    // Retrieval
+
+    /**
+     * Returns the value to which the specified key is mapped,
+     * or {@code null} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or
+     *         {@code null} if this map contains no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        for (;;) {
+            int i = find(t, key);
+            if (i < 0) {
+                if ((t = t.next) == null)
+                    return null;
+                continue;
+            }
+            Object v = OBJECTS.getAcquire(t.values, i);
+            if ((int) INTS.getAcquire(t.stamps, i) != MOVED)
+                return (V) v;
+            t = t.next;
+        }
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or the
+     * given default value if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to return if this map contains
+     *        no mapping for the given key
+     * @return the mapping for the key, if present; else the default value
+     */
+    public V getOrDefault(long key, V defaultValue) {
+        V v;
+        return (v = get(key)) == null ? defaultValue : v;
+    }
+
+    /**
+     * Tests if the specified key is a key in this map.
+     *
+     * @param key possible key
+     * @return {@code true} if and only if the specified key is a key
+     *         in this map
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    // Updates
+
+    private static final int PUT = 0;
+    private static final int PUT_IF_ABSENT = 1;
+    private static final int COMPUTE_IF_ABSENT = 2;
+    private static final int REMOVE = 3;
+    private static final int REPLACE = 4;
+
+    /**
+     * Implementation of all updates.  Locks the slot of the key and
+     * applies the update according to mode:
+     * <ul>
+     * <li>PUT and PUT_IF_ABSENT map the key to x, if absent only for the
+     *     latter, and return the previous value;
+     * <li>COMPUTE_IF_ABSENT maps the key to the result of fn if absent,
+     *     and returns the current value;
+     * <li>REMOVE and REPLACE remove the mapping, or replace its value with
+     *     y, if the current value is equal to x or x is null, and return
+     *     the previous value if the map was changed.
+     * </ul>
+     */
+    private Object update(long key, int mode, Object x, Object y,
+                          LongFunction<? extends V> fn) {
+        boolean insert = mode <= COMPUTE_IF_ABSENT;
+        Table t = table;
+        for (;;) {
+            int i = insert ? claim(t, key) : find(t, key);
+            if (i < 0) {
+                if (insert)
+                    t = helpResize(t);
+                else if ((t = t.next) == null)
+                    return null;
+                continue;
+            }
+            int[] st = t.stamps;
+            int s = (int) INTS.getAcquire(st, i);
+            if (s == MOVED) {
+                t = insert ? helpResize(t) : t.next;
+                continue;
+            }
+            if ((s & LOCKED) != 0 || !INTS.compareAndSet(st, i, s, s | LOCKED)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Object[] vs = t.values;
+            Object v = vs[i];
+            Object nv = v;
+            Object result = null;
+            try {
+                switch (mode) {
+                case PUT:
+                    nv = x;
+                    result = v;
+                    break;
+                case PUT_IF_ABSENT:
+                    if (v == null)
+                        nv = x;
+                    result = v;
+                    break;
+                case COMPUTE_IF_ABSENT:
+                    if (v == null)
+                        nv = fn.apply(key);
+                    result = nv;
+                    break;
+                case REMOVE:
+                case REPLACE:
+                    if (v != null && (x == null || x.equals(v))) {
+                        nv = (mode == REMOVE) ? null : y;
+                        result = v;
+                    }
+                    break;
+                }
+            } finally {
+                if (nv != v)
+                    OBJECTS.setRelease(vs, i, nv);
+                INTS.setRelease(st, i, ((s & VERSION_MASK) + VERSION) & VERSION_MASK);
+            }
+            if (v == null && nv != null)
+                count.increment();
+            else if (v != null && nv == null)
+                count.decrement();
+            return result;
+        }
+    }
+
+    /**
+     * Maps the specified key to the specified value in this map.
+     * The value can be retrieved by calling the {@code get} method
+     * with a key that is equal to the original key.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}
+     * @throws NullPointerException if the specified value is null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        return (V) update(key, PUT, value, null, null);
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the specified key,
+     *         or {@code null} if there was no mapping for the key
+     * @throws NullPointerException if the specified value is null
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(long key, V value) {
+        Objects.requireNonNull(value);
+        return (V) update(key, PUT_IF_ABSENT, value, null, null);
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * attempts to compute its value using the given mapping function
+     * and enters it into this map unless {@code null}.  The entire
+     * method invocation is performed atomically.  The supplied
+     * function is invoked exactly once per invocation of this method
+     * if the key is absent, else not at all.  Some attempted update
+     * operations on the same key by other threads may be blocked
+     * while computation is in progress, so the computation should be
+     * short and simple, and must not attempt to update any other
+     * mappings of this map.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key, or null if the computed value is null
+     * @throws NullPointerException if the mappingFunction is null
+     * @throws RuntimeException or Error if the mappingFunction does so,
+     *         in which case the mapping is left unestablished
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        V v = get(key);
+        return (v != null) ? v
+                : (V) update(key, COMPUTE_IF_ABSENT, null, null, mappingFunction);
+    }
+
+    /**
+     * Removes the key (and its corresponding value) from this map.
+     * This method does nothing if the key is not in the map.
+     *
+     * @param key the key that needs to be removed
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        return (V) update(key, REMOVE, null, null, null);
+    }
+
+    /**
+     * Removes the entry for a key only if currently mapped to a given value.
+     *
+     * @param key key with which the specified value is associated
+     * @param value value expected to be associated with the specified key
+     * @return {@code true} if the value was removed
+     */
+    public boolean remove(long key, Object value) {
+        return value != null && update(key, REMOVE, value, null, null) != null;
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to some value.
+     *
+     * @param key key with which the specified value is associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the specified key,
+     *         or {@code null} if there was no mapping for the key
+     * @throws NullPointerException if the specified value is null
+     */
+    @SuppressWarnings("unchecked")
+    public V replace(long key, V value) {
+        Objects.requireNonNull(value);
+        return (V) update(key, REPLACE, null, value, null);
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to a given value.
+     *
+     * @param key key with which the specified value is associated
+     * @param oldValue value expected to be associated with the specified key
+     * @param newValue value to be associated with the specified key
+     * @return {@code true} if the value was replaced
+     * @throws NullPointerException if any of the values is null
+     */
+    public boolean replace(long key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        return update(key, REPLACE, oldValue, newValue, null) != null;
+    }
+
+    // Bulk operations
+
+    /**
+     * Returns the number of mappings, or {@code Integer.MAX_VALUE} if
+     * there are more.  {@link #mappingCount} should be used instead of
+     * this method.
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+        long n = count.sum();
+        return ((n < 0L) ? 0 :
+                (n > (long)Integer.MAX_VALUE) ? Integer.MAX_VALUE :
+                (int)n);
+    }
+
+    /**
+     * Returns the number of mappings.  The value returned is an estimate;
+     * the actual count may differ if there are concurrent insertions or
+     * removals.
+     *
+     * @return the number of mappings
+     */
+    public long mappingCount() {
+        long n = count.sum();
+        return (n < 0L) ? 0L : n; // ignore transient negative values
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return count.sum() <= 0L; // ignore transient negative values
+    }
+
+    /**
+     * An operation that accepts a {@code long} key and its value.
+     *
+     * @param <V> the type of values
+     * @since 15
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(long key, V value);
+    }
+
+    /**
+     * Performs the given action for each mapping.  Mappings added or
+     * removed concurrently may or may not be visited.
+     *
+     * @param action the action
+     * @throws NullPointerException if the action is null
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (action == null) throw new NullPointerException();
+        Table t = table;
+        for (int i = 0; i <= t.mask + 1; i++) {
+            long key = (i == t.mask + 1) ? 0 : (long) LONGS.getAcquire(t.keys, i);
+            if (key == 0 && i <= t.mask)
+                continue;
+            Object v = OBJECTS.getAcquire(t.values, i);
+            if ((int) INTS.getAcquire(t.stamps, i) == MOVED)
+                v = get(key);
+            if (v != null)
+                action.accept(key, (V) v);
+        }
+    }
+
+    /**
+     * Removes all of the mappings from this map.  Mappings added
+     * concurrently may remain.
+     */
+    public void clear() {
+        for (Table t = table; t != null; t = t.next) {
+            int[] st = t.stamps;
+            Object[] vs = t.values;
+            for (int i = 0; i <= t.mask + 1; i++) {
+                for (;;) {
+                    int s = (int) INTS.getAcquire(st, i);
+                    if (s == MOVED || OBJECTS.getAcquire(vs, i) == null)
+                        break;
+                    if ((s & LOCKED) != 0) {
+                        Thread.onSpinWait();
+                    } else if (INTS.compareAndSet(st, i, s, s | LOCKED)) {
+                        boolean removed = vs[i] != null;
+                        OBJECTS.setRelease(vs, i, null);
+                        INTS.setRelease(st, i, ((s & VERSION_MASK) + VERSION) & VERSION_MASK);
+                        if (removed)
+                            count.decrement();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of this map, listing its mappings
+     * in no particular order as in {@link java.util.AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(k).append('=').append(v == this ? "(this Map)" : v);
+        });
+        return sb.append('}').toString();
+    }
+
+    // VarHandle mechanics
+    private static final VarHandle TABLE;
+    private static final VarHandle RESIZING;
+    private static final VarHandle TRANSFER_INDEX;
+    private static final VarHandle LONGS;
+    private static final VarHandle INTS;
+    private static final VarHandle OBJECTS;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            TABLE = l.findVarHandle(ConcurrentLongHashMap.class, "table",
+                                    Table.class);
+            RESIZING = l.findVarHandle(Table.class, "resizing", int.class);
+            TRANSFER_INDEX = l.findVarHandle(Table.class, "transferIndex",
+                                             int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+        INTS = MethodHandles.arrayElementVarHandle(int[].class);
+        OBJECTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    }
+}
@@ -0,0 +1,705 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A hash table from primitive {@code long} keys to primitive {@code long}
+ * values supporting full concurrency of retrievals and high expected
+ * concurrency for updates.  It is intended for maps of counters or ids
+ * that many threads update, such as metrics keyed by a numeric id, where a
+ * {@link ConcurrentHashMap} would box every key and value and allocate a
+ * node per mapping.
+ *
+ * <p>Retrieval operations do not block, and reflect the results of the
+ * most recently <em>completed</em> update operations holding upon their
+ * onset.  Update operations on the same key are atomic with respect to
+ * each other; in particular {@link #addAndGet} may be used to maintain
+ * counters without lost updates.  Bulk operations such as {@link #forEach}
+ * and {@link #clear} are <a href="package-summary.html#Weakly"><i>weakly
+ * consistent</i></a>.
+ *
+ * <p>The size is maintained with a {@link java.util.concurrent.atomic.LongAdder},
+ * so {@link #mappingCount} does not contend with updates, and is an
+ * estimate while updates are in progress.
+ *
+ * <p>Implementation note: This is an open addressing table with linear
+ * probing.  A key, once it has been given a slot, keeps it for the life
+ * of the table, so lookups never observe keys moving.  Each slot has a
+ * stamp, which is set with compare-and-set to lock the slot for an update
+ * and records whether the slot holds a value; lookups read the value
+ * between two reads of the stamp and retry if it changed.  When the table
+ * grows, as in {@code ConcurrentHashMap}, threads that encounter the resize
+ * claim chunks of slots to move to the new table and help complete it.
+ * Updates are therefore not lock-free: an update that needs the new table
+ * waits, once no chunk is left to claim, for the threads that hold chunks
+ * to finish moving them.
+ *
+ * @see ConcurrentLongHashMap
+ * @see ConcurrentHashMap
+ * @since 15
+ */
+public class ConcurrentLongLongHashMap {
+
+    /*
+     * Overview:
+     *
+     * A Table holds keys, values and stamps in parallel arrays, plus one
+     * extra slot at index mask + 1 for key 0, which marks free key slots.
+     *
+     * Slot stamps are:
+     *  - MOVED, once the slot has been transferred to the next table;
+     *  - otherwise a version, with the LOCKED bit set while an update or
+     *    a transfer holds the slot, and the PRESENT bit set when the slot
+     *    holds a mapping.
+     * Versions are kept non-negative so that no stamp, locked or not, can
+     * equal MOVED.
+     *
+     * Insertions claim a free key slot with CAS. A key is never removed
+     * from a table, and removing a mapping only clears PRESENT, so dead
+     * keys occupy slots until the next resize. The number of claimed
+     * slots of each table is counted in a LongAdder, which is summed when
+     * an insertion had to probe past another key, and the table is resized
+     * once it passes the threshold or is full.
+     *
+     * A resize allocates a table twice as large, or a table of the same
+     * capacity when fewer than half of the threshold are live mappings,
+     * so that a map whose mappings are removed as fast as they are added
+     * drops the dead keys instead of growing. Either way the new table
+     * has room for every slot of the old one. The resize transfers slots
+     * to it in chunks of at least MIN_TRANSFER_STRIDE slots, which threads
+     * claim by decrementing transferIndex. A slot is transferred by
+     * locking it, copying its mapping, and setting its stamp to MOVED;
+     * a free slot is just set to MOVED so that no key can be inserted in
+     * it any more. Lookups that find a MOVED slot, or that do not find the
+     * key while a resize is in progress, continue in the next table.
+     * Insertions that find a MOVED slot, or a full table, help the
+     * transfer and wait for it to complete before retrying in the new
+     * table, so the new table only receives transferred mappings until it
+     * becomes the current one. Other updates of a key whose slot has
+     * moved continue in the next table, where the mapping already is.
+     */
+
+    /** The largest possible table capacity. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** The default initial table capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** The load factor, counting keys of removed mappings. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Minimum number of slots a thread transfers at a time. */
+    private static final int MIN_TRANSFER_STRIDE = 16;
+
+    /** Number of CPUS, to place bounds on some sizings */
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    // Slot stamps
+    static final int MOVED   = -1;
+    static final int LOCKED  = 1;
+    static final int PRESENT = 2;
+    static final int VERSION = 4;
+    static final int VERSION_MASK = 0x7ffffffc;
+
+    static final class Table {
+        final long[] keys;
+        final long[] values;
+        final int[] stamps;
+        final int mask;
+        final int threshold;
+        final LongAdder used = new LongAdder();
+        final AtomicInteger transferred = new AtomicInteger();
+        volatile Table next;
+        volatile int resizing;
+        volatile int transferIndex;
+
+        Table(int capacity) {
+            keys = new long[capacity + 1];
+            values = new long[capacity + 1];
+            stamps = new int[capacity + 1];
+            mask = capacity - 1;
+            threshold = (int) (capacity * LOAD_FACTOR);
+            transferIndex = capacity + 1;
+        }
+    }
+
+    /** The current table. */
+    private volatile Table table;
+
+    /** The number of mappings. */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Creates a new, empty map with the default initial table size (16).
+     */
+    public ConcurrentLongLongHashMap() {
+        table = new Table(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty map with an initial table size accommodating
+     * the specified number of mappings without the need to dynamically
+     * resize.
+     *
+     * @param initialCapacity the number of mappings to accommodate
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public ConcurrentLongLongHashMap(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException();
+        table = new Table(tableSizeFor(initialCapacity));
+    }
+
+    static int tableSizeFor(int expected) {
+        long n = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(expected / LOAD_FACTOR) + 1);
+        if (n >= MAXIMUM_CAPACITY)
+            return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit((int) n - 1) << 1;
+    }
+
+    static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the slot of the given key in t, or -1 if it has none.
+     */
+    static int find(Table t, long key) {
+        int m = t.mask;
+        if (key == 0)
+            return m + 1;
+        long[] ks = t.keys;
+        for (int i = spread(key) & m, n = 0; n <= m; i = (i + 1) & m, n++) {
+            long k = (long) LONGS.getAcquire(ks, i);
+            if (k == key)
+                return i;
+            if (k == 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the given key in t, claiming a free slot for it
+     * if it has none, or returns -1 if t is full.  Starts a resize if the
+     * table is getting full.
+     */
+    private int claim(Table t, long key) {
+        int m = t.mask;
+        if (key == 0)
+            return m + 1;
+        long[] ks = t.keys;
+        for (int i = spread(key) & m, n = 0; n <= m; i = (i + 1) & m, n++) {
+            long k = (long) LONGS.getAcquire(ks, i);
+            if (k == 0) {
+                if (LONGS.compareAndSet(ks, i, 0L, key)) {
+                    t.used.increment();
+                    if (n > 0 && t.next == null && t.used.sum() >= t.threshold)
+                        startResize(t);
+                    return i;
+                }
+                k = (long) LONGS.getAcquire(ks, i);
+            }
+            if (k == key)
+                return i;
+        }
+        return -1;
+    }
+
+    // Resizing
+
+    /**
+     * Returns the capacity of the next table of t, or 0 if t cannot grow.
+     * The table doubles unless fewer than half of the slots it may claim
+     * hold live mappings, in which case it is rehashed at the same
+     * capacity, which drops the keys of removed mappings.
+     */
+    private int nextCapacity(Table t) {
+        int capacity = t.mask + 1;
+        if (count.sum() < (t.threshold >>> 1))
+            return capacity;
+        return (capacity < MAXIMUM_CAPACITY) ? capacity << 1 : 0;
+    }
+
+    /**
+     * Allocates the next table of t unless it exists, or t cannot grow.
+     */
+    private void startResize(Table t) {
+        int capacity;
+        if (t.next == null && (capacity = nextCapacity(t)) != 0
+                && RESIZING.compareAndSet(t, 0, 1)) {
+            t.next = new Table(capacity);
+        }
+    }
+
+    /**
+     * Helps transfer t to its next table, waits until the transfer is
+     * complete, and returns the current table.
+     */
+    private Table helpResize(Table t) {
+        Table n;
+        while ((n = t.next) == null) {
+            if (nextCapacity(t) == 0)
+                throw new IllegalStateException("Map is full");
+            startResize(t);
+            Thread.yield();
+        }
+        transfer(t, n);
+        while (table == t)
+            Thread.yield();
+        return table;
+    }
+
+    /**
+     * Moves chunks of slots of t to n until none is left to claim.
+     */
+    private void transfer(Table t, Table n) {
+        int slots = t.mask + 2;
+        int stride = Math.max(MIN_TRANSFER_STRIDE, slots / (NCPU * 8));
+        int hi;
+        while ((hi = t.transferIndex) > 0) {
+            int lo = Math.max(0, hi - stride);
+            if (TRANSFER_INDEX.compareAndSet(t, hi, lo)) {
+                for (int i = lo; i < hi; i++)
+                    moveSlot(t, i, n);
+                if (t.transferred.addAndGet(hi - lo) == slots)
+                    TABLE.compareAndSet(this, t, n);
+            }
+        }
+    }
+
+    private static void moveSlot(Table t, int i, Table n) {
+        int[] st = t.stamps;
+        for (;;) {
+            int s = (int) INTS.getAcquire(st, i);
+            if ((s & LOCKED) != 0) {
+                Thread.onSpinWait();
+            } else if ((s & PRESENT) == 0) {
+                if (INTS.compareAndSet(st, i, s, MOVED))
+                    return;
+            } else if (INTS.compareAndSet(st, i, s, s | LOCKED)) {
+                // until the transfer completes, n only receives transferred
+                // mappings, at most one per key, and has room for all of them
+                int m = n.mask;
+                int j = m + 1;
+                if (i != t.mask + 1) {
+                    long key = t.keys[i];
+                    long[] ks = n.keys;
+                    j = spread(key) & m;
+                    while (!LONGS.compareAndSet(ks, j, 0L, key))
+                        j = (j + 1) & m;
+                    n.used.increment();
+                }
+                n.values[j] = t.values[i];
+                INTS.setRelease(n.stamps, j, PRESENT);
+                INTS.setRelease(st, i, MOVED);
+                return;
+            }
+        }
+    }
+
+    // Retrieval
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to return if there is no mapping
+     * @return the value mapped to the key, or {@code defaultValue}
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        Table t = table;
+        for (;;) {
+            int i = find(t, key);
+            if (i < 0) {
+                if ((t = t.next) == null)
+                    return defaultValue;
+                continue;
+            }
+            int[] st = t.stamps;
+            int s = (int) INTS.getAcquire(st, i);
+            if (s == MOVED) {
+                t = t.next;
+            } else if ((s & LOCKED) != 0) {
+                Thread.onSpinWait();
+            } else {
+                long v = t.values[i];
+                VarHandle.loadLoadFence();
+                if ((int) INTS.getAcquire(st, i) == s)
+                    return (s & PRESENT) != 0 ? v : defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Tests if the specified key is a key in this map.
+     *
+     * @param key possible key
+     * @return {@code true} if and only if the specified key is a key
+     *         in this map
+     */
+    public boolean containsKey(long key) {
+        Table t = table;
+        for (;;) {
+            int i = find(t, key);
+            if (i < 0) {
+                if ((t = t.next) == null)
+                    return false;
+                continue;
+            }
+            int s = (int) INTS.getAcquire(t.stamps, i);
+            if (s == MOVED)
+                t = t.next;
+            else
+                return (s & PRESENT) != 0;
+        }
+    }
+
+    // Updates
+
+    private static final int PUT = 0;
+    private static final int PUT_IF_ABSENT = 1;
+    private static final int ADD = 2;
+    private static final int REMOVE = 3;
+    private static final int REMOVE_IF = 4;
+    private static final int REPLACE = 5;
+
+    /**
+     * Implementation of all updates.  Locks the slot of the key, applies
+     * the update according to mode and arguments x and y, and returns
+     * the new value for ADD, and 1 or 0 for whether the map changed
+     * otherwise.
+     */
+    private long update(long key, int mode, long x, long y) {
+        boolean insert = mode <= ADD;
+        Table t = table;
+        for (;;) {
+            int i = insert ? claim(t, key) : find(t, key);
+            if (i < 0) {
+                if (insert)
+                    t = helpResize(t);
+                else if ((t = t.next) == null)
+                    return 0;
+                continue;
+            }
+            int[] st = t.stamps;
+            int s = (int) INTS.getAcquire(st, i);
+            if (s == MOVED) {
+                t = insert ? helpResize(t) : t.next;
+                continue;
+            }
+            if ((s & LOCKED) != 0 || !INTS.compareAndSet(st, i, s, s | LOCKED)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long[] vs = t.values;
+            boolean present = (s & PRESENT) != 0;
+            long v = vs[i];
+            long result = 0;
+            boolean nowPresent = present;
+            switch (mode) {
+            case PUT:
+                v = x;
+                nowPresent = true;
+                result = 1;
+                break;
+            case PUT_IF_ABSENT:
+                if (!present) {
+                    v = x;
+                    nowPresent = true;
+                    result = 1;
+                }
+                break;
+            case ADD:
+                v = present ? v + x : x;
+                nowPresent = true;
+                result = v;
+                break;
+            case REMOVE:
+                if (present) {
+                    v = 0;
+                    nowPresent = false;
+                    result = 1;
+                }
+                break;
+            case REMOVE_IF:
+                if (present && v == x) {
+                    v = 0;
+                    nowPresent = false;
+                    result = 1;
+                }
+                break;
+            case REPLACE:
+                if (present && v == x) {
+                    v = y;
+                    result = 1;
+                }
+                break;
+            }
+            vs[i] = v;
+            INTS.setRelease(st, i, (((s & VERSION_MASK) + VERSION) & VERSION_MASK)
+                                   | (nowPresent ? PRESENT : 0));
+            if (nowPresent != present)
+                count.add(nowPresent ? 1 : -1);
+            return result;
+        }
+    }
+
+    /**
+     * Maps the specified key to the specified value in this map.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     */
+    public void put(long key, long value) {
+        update(key, PUT, value, 0);
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return {@code true} if the mapping was added
+     */
+    public boolean putIfAbsent(long key, long value) {
+        return update(key, PUT_IF_ABSENT, value, 0) != 0;
+    }
+
+    /**
+     * Atomically adds the given value to the value mapped to the key,
+     * mapping the key to {@code delta} if it had no mapping.
+     *
+     * @param key the key whose value is to be updated
+     * @param delta the value to add
+     * @return the updated value
+     */
+    public long addAndGet(long key, long delta) {
+        return update(key, ADD, delta, 0);
+    }
+
+    /**
+     * Removes the key (and its corresponding value) from this map.
+     * This method does nothing if the key is not in the map.
+     *
+     * @param key the key that needs to be removed
+     * @return {@code true} if the map contained a mapping for the key
+     */
+    public boolean remove(long key) {
+        return update(key, REMOVE, 0, 0) != 0;
+    }
+
+    /**
+     * Removes the entry for a key only if currently mapped to a given
+     * value.
+     *
+     * @param key key with which the specified value is associated
+     * @param value value expected to be associated with the specified key
+     * @return {@code true} if the value was removed
+     */
+    public boolean remove(long key, long value) {
+        return update(key, REMOVE_IF, value, 0) != 0;
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to a given
+     * value.
+     *
+     * @param key key with which the specified value is associated
+     * @param oldValue value expected to be associated with the specified key
+     * @param newValue value to be associated with the specified key
+     * @return {@code true} if the value was replaced
+     */
+    public boolean replace(long key, long oldValue, long newValue) {
+        return update(key, REPLACE, oldValue, newValue) != 0;
+    }
+
+    // Bulk operations
+
+    /**
+     * Returns the number of mappings, or {@code Integer.MAX_VALUE} if
+     * there are more.  {@link #mappingCount} should be used instead of
+     * this method.
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+        long n = count.sum();
+        return ((n < 0L) ? 0 :
+                (n > (long)Integer.MAX_VALUE) ? Integer.MAX_VALUE :
+                (int)n);
+    }
+
+    /**
+     * Returns the number of mappings.  The value returned is an estimate;
+     * the actual count may differ if there are concurrent insertions or
+     * removals.
+     *
+     * @return the number of mappings
+     */
+    public long mappingCount() {
+        long n = count.sum();
+        return (n < 0L) ? 0L : n; // ignore transient negative values
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return count.sum() <= 0L; // ignore transient negative values
+    }
+
+    /**
+     * An operation that accepts a {@code long} key and its {@code long}
+     * value.
+     *
+     * @since 15
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(long key, long value);
+    }
+
+    /**
+     * Performs the given action for each mapping.  Mappings added or
+     * removed concurrently may or may not be visited.
+     *
+     * @param action the action
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(EntryConsumer action) {
+        if (action == null) throw new NullPointerException();
+        Table t = table;
+        for (int i = 0; i <= t.mask + 1; i++) {
+            long key = (i == t.mask + 1) ? 0 : (long) LONGS.getAcquire(t.keys, i);
+            if (key == 0 && i <= t.mask)
+                continue;
+            // the same key may have a slot in the next table, where it is
+            // only reached by way of the MOVED slot here
+            Table u = t;
+            int j = i;
+            for (;;) {
+                int[] st = u.stamps;
+                int s = (int) INTS.getAcquire(st, j);
+                if (s == MOVED) {
+                    u = u.next;
+                    if ((j = find(u, key)) < 0)
+                        break;
+                } else if ((s & LOCKED) != 0) {
+                    Thread.onSpinWait();
+                } else {
+                    long v = u.values[j];
+                    VarHandle.loadLoadFence();
+                    if ((int) INTS.getAcquire(st, j) == s) {
+                        if ((s & PRESENT) != 0)
+                            action.accept(key, v);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all of the mappings from this map.  Mappings added
+     * concurrently may remain.
+     */
+    public void clear() {
+        for (Table t = table; t != null; t = t.next) {
+            int[] st = t.stamps;
+            for (int i = 0; i <= t.mask + 1; i++) {
+                for (;;) {
+                    int s = (int) INTS.getAcquire(st, i);
+                    if (s == MOVED || (s & PRESENT) == 0 && (s & LOCKED) == 0)
+                        break;
+                    if ((s & LOCKED) != 0) {
+                        Thread.onSpinWait();
+                    } else if (INTS.compareAndSet(st, i, s, s | LOCKED)) {
+                        t.values[i] = 0;
+                        INTS.setRelease(st, i, ((s & VERSION_MASK) + VERSION) & VERSION_MASK);
+                        count.decrement();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of this map, listing its mappings
+     * in no particular order as in {@link java.util.AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    // VarHandle mechanics
+    private static final VarHandle TABLE;
+    private static final VarHandle RESIZING;
+    private static final VarHandle TRANSFER_INDEX;
+    private static final VarHandle LONGS;
+    private static final VarHandle INTS;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            TABLE = l.findVarHandle(ConcurrentLongLongHashMap.class, "table",
+                                    Table.class);
+            RESIZING = l.findVarHandle(Table.class, "resizing", int.class);
+            TRANSFER_INDEX = l.findVarHandle(Table.class, "transferIndex",
+                                             int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+        INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    }
+}
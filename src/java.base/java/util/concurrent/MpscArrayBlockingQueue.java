@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+/**
+ * A bounded lock-free {@linkplain BlockingQueue blocking queue} backed
+ * by an array, for use by any number of producer threads and a single
+ * consumer thread.  This queue orders elements FIFO
+ * (first-in-first-out).  Once created, the capacity cannot be changed.
+ * Attempts to {@code put} an element into a full queue will result in
+ * the operation blocking; attempts to {@code take} an element from an
+ * empty queue will similarly block.
+ *
+ * <p>Any number of threads may insert elements concurrently, but
+ * methods that remove elements ({@code poll}, {@code take},
+ * {@code remove()}, {@code drainTo} and {@code clear}) must not be
+ * invoked by more than one thread at a time; doing so has undefined
+ * results.
+ *
+ * <p>Insertion and removal take no locks, and the producer and
+ * consumer indices are kept on separate cache lines.  The
+ * {@link #drainTo(java.util.Collection, int) drainTo} methods transfer
+ * all available elements while publishing their progress only once.
+ * Blocked threads park; a producer only touches the lock that guards
+ * waiting producers when the queue is full.
+ *
+ * <p>Elements can only be removed from the head of the queue: this
+ * class does not support {@code remove(Object)}, {@code removeIf},
+ * {@code removeAll}, {@code retainAll} or removal through its
+ * iterator, which throw {@code UnsupportedOperationException}.  Bulk
+ * operations and {@code size} are only estimates while other threads
+ * are using the queue.
+ *
+ * @since 15
+ * @param <E> the type of elements held in this queue
+ */
+public class MpscArrayBlockingQueue<E> extends RingBlockingQueue<E> {
+
+    /**
+     * Creates a {@code MpscArrayBlockingQueue} with the given (fixed) capacity.
+     *
+     * @param capacity the capacity of this queue
+     * @throws IllegalArgumentException if {@code capacity < 1} or
+     *         {@code capacity > 2^30}
+     */
+    public MpscArrayBlockingQueue(int capacity) {
+        super(capacity);
+    }
+
+    /*
+     * Producers claim slots by CAS on producerIndex, checked against
+     * the cached producerLimit, and then publish their element into
+     * the claimed slot.
+     */
+    boolean insert(E e) {
+        long limit = (long)PRODUCER_LIMIT.getOpaque(this), p;
+        do {
+            if ((p = producerIndex) >= limit) {
+                if (p >= (limit = consumerIndex + capacity))
+                    return false;
+                PRODUCER_LIMIT.setOpaque(this, limit);
+            }
+        } while (!PRODUCER_INDEX.compareAndSet(this, p, p + 1));
+        AA.setRelease(buffer, (int)p & mask, e);
+        return true;
+    }
+}
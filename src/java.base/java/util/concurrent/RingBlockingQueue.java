@@ -0,0 +1,486 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Base class of the lock-free bounded array queues
+ * {@link MpscArrayBlockingQueue} and {@link SpscArrayBlockingQueue},
+ * implementing everything but the claiming of slots by producers.
+ *
+ * @param <E> the type of elements held in this queue
+ */
+abstract class RingBlockingQueue<E> extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+
+    /*
+     * Elements live in a power-of-two sized array indexed by two
+     * ever-increasing counters, producerIndex and consumerIndex,
+     * each padded onto its own cache line.  A producer claims the
+     * slot at producerIndex (see subclasses) once it is known to be
+     * below consumerIndex + capacity, and then publishes the element
+     * into it with a release store.  The single consumer takes the
+     * element at consumerIndex, nulls the slot and then advances
+     * consumerIndex, which frees the slot for producers.  A null
+     * slot below producerIndex means a producer has claimed but not
+     * yet filled it, and the consumer spins until it has.
+     *
+     * Producers cache the last observed consumerIndex + capacity in
+     * producerLimit, so they touch the consumer's cache line only
+     * when the queue appears full.  drainTo advances consumerIndex
+     * once per batch.
+     *
+     * Blocking is only done on the slow paths.  A consumer that finds
+     * the queue empty publishes itself in "waiter" and parks; since
+     * producers write producerIndex before reading waiter, and the
+     * consumer writes waiter before rechecking producerIndex, one of
+     * them is sure to see the other.  Producers that find the queue
+     * full wait on a Condition, advertised by waitingProducers, which
+     * the consumer reads after advancing consumerIndex in the same
+     * Dekker-style handshake.
+     */
+
+    /**
+     * The number of times to spin before parking.  Spinning is
+     * disabled on uniprocessors.
+     */
+    static final int SPINS =
+        (Runtime.getRuntime().availableProcessors() < 2) ? 0 : 1 << 7;
+
+    /** The largest supported capacity. */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** The queued items, length a power of two. */
+    final Object[] buffer;
+
+    /** buffer.length - 1 */
+    final int mask;
+
+    /** The bound on the number of elements. */
+    final int capacity;
+
+    /** Index of the next slot to be claimed by a producer. */
+    @jdk.internal.vm.annotation.Contended("p")
+    volatile long producerIndex;
+
+    /** Cached consumerIndex + capacity, a lower bound of the true limit. */
+    @jdk.internal.vm.annotation.Contended("p")
+    long producerLimit;
+
+    /** Index of the next slot to be taken by the consumer. */
+    @jdk.internal.vm.annotation.Contended("c")
+    volatile long consumerIndex;
+
+    /** The consumer thread if parked or about to park, else null. */
+    private volatile Thread waiter;
+
+    /** Number of producers waiting on notFull. Updated under lock. */
+    private volatile int waitingProducers;
+
+    /** Lock held by producers waiting for space and by their signallers. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Condition for waiting puts. */
+    private final Condition notFull = lock.newCondition();
+
+    RingBlockingQueue(int capacity) {
+        if (capacity < 1 || capacity > MAXIMUM_CAPACITY)
+            throw new IllegalArgumentException();
+        int n = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[n];
+        this.mask = n - 1;
+        this.capacity = capacity;
+        PRODUCER_LIMIT.setOpaque(this, (long)capacity);
+    }
+
+    /**
+     * Claims a slot for e and publishes e into it, or returns false
+     * if the queue is full.
+     */
+    abstract boolean insert(E e);
+
+    /**
+     * Unparks the consumer if it is waiting.  Called by producers
+     * after writing producerIndex.
+     */
+    final void signalNotEmpty() {
+        Thread w = waiter;
+        if (w != null)
+            LockSupport.unpark(w);
+    }
+
+    /**
+     * Wakes up waiting producers.  Called by the consumer after
+     * writing consumerIndex.
+     */
+    private void signalNotFull() {
+        if (waitingProducers != 0) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits until the queue may have space or the given time (if
+     * timed) elapses.
+     *
+     * @return remaining nanos if timed, 0 or less on timeout
+     */
+    private long awaitNotFull(boolean timed, long nanos)
+        throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            waitingProducers++;
+            try {
+                while (producerIndex - consumerIndex >= capacity) {
+                    if (!timed)
+                        notFull.await();
+                    else if (nanos <= 0L)
+                        break;
+                    else
+                        nanos = notFull.awaitNanos(nanos);
+                }
+            } finally {
+                waitingProducers--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return nanos;
+    }
+
+    /**
+     * Waits until the queue may be non-empty or the given time (if
+     * timed) elapses.  Called only by the consumer.
+     *
+     * @return remaining nanos if timed, 0 or less on timeout
+     */
+    private long awaitNotEmpty(boolean timed, long nanos)
+        throws InterruptedException {
+        for (int spins = SPINS; spins > 0; --spins) {
+            if (consumerIndex != producerIndex)
+                return nanos;
+            Thread.onSpinWait();
+        }
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        Thread w = Thread.currentThread();
+        waiter = w;
+        try {
+            while (consumerIndex == producerIndex) {
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                if (!timed)
+                    LockSupport.park(this);
+                else if ((nanos = deadline - System.nanoTime()) <= 0L)
+                    break;
+                else
+                    LockSupport.parkNanos(this, nanos);
+            }
+        } finally {
+            waiter = null;
+        }
+        return nanos;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if it is
+     * possible to do so immediately without exceeding the queue's capacity,
+     * returning {@code true} upon success and {@code false} if this queue
+     * is full.
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        if (!insert(e))
+            return false;
+        signalNotEmpty();
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * for space to become available if the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public void put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        while (!insert(e))
+            awaitNotFull(false, 0L);
+        signalNotEmpty();
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * up to the specified wait time for space to become available if
+     * the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        while (!insert(e)) {
+            if (nanos <= 0L)
+                return false;
+            nanos = awaitNotFull(true, nanos);
+        }
+        signalNotEmpty();
+        return true;
+    }
+
+    /**
+     * Takes the element at consumerIndex c, or returns null if the
+     * queue is empty.  Leaves consumerIndex unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    private E element(long c) {
+        int i = (int)c & mask;
+        Object e = AA.getAcquire(buffer, i);
+        if (e == null) {
+            if (c == producerIndex)
+                return null;
+            // claimed but not yet published
+            while ((e = AA.getAcquire(buffer, i)) == null)
+                Thread.onSpinWait();
+        }
+        buffer[i] = null;
+        return (E)e;
+    }
+
+    public E poll() {
+        long c = consumerIndex;
+        E e = element(c);
+        if (e != null) {
+            consumerIndex = c + 1;
+            signalNotFull();
+        }
+        return e;
+    }
+
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = poll()) == null)
+            awaitNotEmpty(false, 0L);
+        return e;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        E e;
+        while ((e = poll()) == null) {
+            if (nanos <= 0L)
+                return null;
+            nanos = awaitNotEmpty(true, nanos);
+        }
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return (E)AA.getAcquire(buffer, (int)consumerIndex & mask);
+    }
+
+    /**
+     * Returns the number of elements in this queue.  The value is
+     * only an estimate if producers or the consumer are active.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        long after = consumerIndex, before, p;
+        do {
+            before = after;
+            p = producerIndex;
+            after = consumerIndex;
+        } while (before != after);
+        long size = p - after;
+        return (size <= 0L) ? 0 : (size >= capacity) ? capacity : (int)size;
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    /**
+     * Returns the number of additional elements that this queue can
+     * ideally (in the absence of memory or resource constraints) accept
+     * without blocking.  This is always equal to the initial capacity
+     * of this queue less the current {@code size} of this queue.
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Transfers available elements in a single batch, advancing the
+     * consumer index once rather than per element.
+     *
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this)
+            throw new IllegalArgumentException();
+        if (maxElements <= 0)
+            return 0;
+        final Object[] buffer = this.buffer;
+        final long c0 = consumerIndex;
+        int n = 0;
+        try {
+            for (Object e; n < maxElements
+                     && (e = AA.getAcquire(buffer, (int)(c0 + n) & mask))
+                     != null; ) {
+                c.add((E)e);   // In this order, in case add() throws.
+                buffer[(int)(c0 + n) & mask] = null;
+                n++;
+            }
+        } finally {
+            if (n > 0) {
+                consumerIndex = c0 + n;
+                signalNotFull();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Atomically removes all of the elements present in this queue
+     * when the consumer index was read.
+     */
+    public void clear() {
+        final long c0 = consumerIndex;
+        long c = c0;
+        for (long p = producerIndex; c < p; c++)
+            element(c);
+        if (c != c0) {
+            consumerIndex = c;
+            signalNotFull();
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this queue in proper
+     * sequence.  The elements will be returned in order from first
+     * (head) to last (tail).
+     *
+     * <p>The returned iterator is
+     * <a href="package-summary.html#Weakly"><i>weakly consistent</i></a>
+     * and does not support removal.
+     *
+     * @return an iterator over the elements in this queue in proper sequence
+     */
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Weakly consistent iterator reading slots between the indices
+     * observed at construction, stopping early once the consumer
+     * overtakes it.
+     */
+    private final class Itr implements Iterator<E> {
+        private long cursor = consumerIndex;
+        private final long fence = producerIndex;
+        private E nextItem = advance();
+
+        @SuppressWarnings("unchecked")
+        private E advance() {
+            while (cursor < fence) {
+                long i = cursor++;
+                Object e = AA.getAcquire(buffer, (int)i & mask);
+                if (i < consumerIndex)  // slot may have been reused
+                    cursor = consumerIndex;
+                else if (e != null)
+                    return (E)e;
+            }
+            return null;
+        }
+
+        public boolean hasNext() {
+            return nextItem != null;
+        }
+
+        public E next() {
+            E e = nextItem;
+            if (e == null)
+                throw new NoSuchElementException();
+            nextItem = advance();
+            return e;
+        }
+    }
+
+    // VarHandle mechanics
+    static final VarHandle PRODUCER_INDEX;
+    static final VarHandle PRODUCER_LIMIT;
+    static final VarHandle AA;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            PRODUCER_INDEX = l.findVarHandle(RingBlockingQueue.class,
+                                             "producerIndex", long.class);
+            PRODUCER_LIMIT = l.findVarHandle(RingBlockingQueue.class,
+                                             "producerLimit", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        AA = MethodHandles.arrayElementVarHandle(Object[].class);
+    }
+}
@@ -148,6 +148,9 @@ public class ScheduledThreadPoolExecutor
      *    the fact that corePoolSize and maximumPoolSize are
      *    effectively identical simplifies some execution mechanics
      *    (see delayedExecute) compared to ThreadPoolExecutor.
+     *    Pools constructed with a tick duration instead use a
+     *    DelayedWheelQueue, a hierarchical timing wheel trading
+     *    timer resolution for constant-time insertion and removal.
      *
      * 3. Supporting optional run-after-shutdown parameters, which
      *    leads to overrides of shutdown methods to remove and cancel
@@ -207,6 +210,12 @@ public class ScheduledThreadPoolExecutor
          */
         int heapIndex;
 
+        /**
+         * Link into a DelayedWheelQueue, to support constant-time
+         * cancellation; null if not in such a queue.
+         */
+        DelayedWheelQueue.Node wheelNode;
+
         /**
          * Creates a one-shot action with given nanoTime-based trigger time.
          */
@@ -514,6 +523,69 @@ public class ScheduledThreadPoolExecutor
               new DelayedWorkQueue(), threadFactory, handler);
     }
 
+    /**
+     * Creates a new {@code ScheduledThreadPoolExecutor} with the
+     * given core pool size whose delayed tasks are kept in a
+     * hierarchical timing wheel of the given tick duration.
+     *
+     * <p>Each task is enabled at the first tick at or after its
+     * scheduled time, so delays are in effect rounded up to a
+     * multiple of {@code tick}, and tasks scheduled for times within
+     * the same tick may be enabled together. In exchange, scheduling
+     * and removal of a task take constant time regardless of the
+     * number of queued tasks, which suits pools managing very many
+     * timeouts that are mostly cancelled before they expire (see
+     * {@link #setRemoveOnCancelPolicy}). Tasks scheduled for exactly
+     * the same execution time are still enabled in first-in-first-out
+     * order of submission.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle, unless {@code allowCoreThreadTimeOut} is set
+     * @param tick the timer resolution
+     * @param unit the time unit of the {@code tick} argument
+     * @throws IllegalArgumentException if {@code corePoolSize < 0}
+     *         or {@code tick <= 0}
+     * @throws NullPointerException if {@code unit} is null
+     * @since 15
+     */
+    public ScheduledThreadPoolExecutor(int corePoolSize,
+                                       long tick, TimeUnit unit) {
+        super(corePoolSize, Integer.MAX_VALUE,
+              DEFAULT_KEEPALIVE_MILLIS, MILLISECONDS,
+              new DelayedWheelQueue(unit.toNanos(tick)));
+    }
+
+    /**
+     * Creates a new {@code ScheduledThreadPoolExecutor} with the
+     * given initial parameters whose delayed tasks are kept in a
+     * hierarchical timing wheel of the given tick duration, as
+     * described in {@link #ScheduledThreadPoolExecutor(int, long,
+     * TimeUnit)}.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle, unless {@code allowCoreThreadTimeOut} is set
+     * @param tick the timer resolution
+     * @param unit the time unit of the {@code tick} argument
+     * @param threadFactory the factory to use when the executor
+     *        creates a new thread
+     * @param handler the handler to use when execution is blocked
+     *        because the thread bounds and queue capacities are reached
+     * @throws IllegalArgumentException if {@code corePoolSize < 0}
+     *         or {@code tick <= 0}
+     * @throws NullPointerException if {@code unit}, {@code threadFactory}
+     *         or {@code handler} is null
+     * @since 15
+     */
+    public ScheduledThreadPoolExecutor(int corePoolSize,
+                                       long tick, TimeUnit unit,
+                                       ThreadFactory threadFactory,
+                                       RejectedExecutionHandler handler) {
+        super(corePoolSize, Integer.MAX_VALUE,
+              DEFAULT_KEEPALIVE_MILLIS, MILLISECONDS,
+              new DelayedWheelQueue(unit.toNanos(tick)),
+              threadFactory, handler);
+    }
+
     /**
      * Returns the nanoTime-based trigger time of a delayed action.
      */
@@ -1347,4 +1419,666 @@ public class ScheduledThreadPoolExecutor
             }
         }
     }
+
+    /**
+     * Delay queue based on a hierarchical timing wheel, used by pools
+     * constructed with a tick duration.  As with DelayedWorkQueue,
+     * this class must be declared as a BlockingQueue<Runnable> even
+     * though it can only hold RunnableScheduledFutures.
+     */
+    static class DelayedWheelQueue extends AbstractQueue<Runnable>
+        implements BlockingQueue<Runnable> {
+
+        /*
+         * Time is measured in ticks since the queue was created.  The
+         * wheel has LEVELS levels of WHEEL_SIZE slots each, a slot at
+         * level L spanning WHEEL_SIZE^L ticks.  A task due at tick d
+         * is filed at the level of the highest group of SHIFT bits in
+         * which d differs from the current tick, in the slot selected
+         * by that group of d.  So every occupied slot lies ahead of
+         * the current position within its level's rotation, and needs
+         * attention exactly once: when the current tick reaches the
+         * start of the slot's span, a level 0 slot expires into the
+         * ready list, and a higher slot is cascaded, refiling its
+         * tasks at lower levels.  Tasks due 2^(SHIFT*LEVELS) or more
+         * ticks ahead wait in an overflow list that is refiled
+         * whenever the current tick crosses such a boundary.
+         *
+         * Per-level occupancy bitmaps let advance() jump straight to
+         * the next tick at which some slot needs attention, so that
+         * catching up after an idle period costs time proportional to
+         * the number of occupied slots rather than elapsed ticks, and
+         * the leader thread (see DelayedWorkQueue) sleeps until then.
+         *
+         * Each queued task is linked into its slot or the ready list
+         * by a Node, which ScheduledFutureTasks record in wheelNode,
+         * making removal constant-time.  Other RunnableScheduledFutures
+         * fall back to linear search, as in DelayedWorkQueue, and
+         * heapIndex is kept non-negative exactly while a
+         * ScheduledFutureTask is queued, so cancel() works unchanged.
+         * Tasks expiring at the same tick are sorted before being
+         * appended to the ready list, preserving FIFO order among
+         * tied entries even if they were filed at different levels.
+         */
+
+        private static final int SHIFT = 6;
+        private static final int WHEEL_SIZE = 1 << SHIFT;
+        private static final int MASK = WHEEL_SIZE - 1;
+        private static final int LEVELS = 6;
+
+        /** Index of the overflow list in slots. */
+        private static final int OVERFLOW = LEVELS * WHEEL_SIZE;
+
+        /** Slot of nodes in the ready list. */
+        private static final int READY = -1;
+
+        static final class Node implements Comparable<Node> {
+            final DelayedWheelQueue queue;
+            final RunnableScheduledFuture<?> task;
+            final long deadline;
+            int slot;
+            Node prev, next;
+
+            Node(DelayedWheelQueue queue, RunnableScheduledFuture<?> task,
+                 long deadline) {
+                this.queue = queue;
+                this.task = task;
+                this.deadline = deadline;
+            }
+
+            public int compareTo(Node other) {
+                return task.compareTo(other.task);
+            }
+        }
+
+        private final long tickNanos;
+        private final long origin = System.nanoTime();
+        private final Node[] slots = new Node[OVERFLOW + 1];
+        private final long[] occupied = new long[LEVELS];
+        private Node readyHead, readyTail;
+        private long currentTick;
+        private int size;
+        private Node[] batch = new Node[16];
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** Leader thread, as in DelayedWorkQueue. */
+        private Thread leader;
+
+        /** Tick the leader is waiting for, or Long.MAX_VALUE if none. */
+        private long leaderTick = Long.MAX_VALUE;
+
+        /**
+         * Condition signalled when a task becomes ready or is filed
+         * ahead of the leader's tick, or a new thread may need to
+         * become leader.
+         */
+        private final Condition available = lock.newCondition();
+
+        DelayedWheelQueue(long tickNanos) {
+            if (tickNanos <= 0L)
+                throw new IllegalArgumentException();
+            this.tickNanos = tickNanos;
+        }
+
+        /**
+         * Sets f's wheelNode and heapIndex if it is a ScheduledFutureTask.
+         */
+        private static void setNode(RunnableScheduledFuture<?> f, Node node) {
+            if (f instanceof ScheduledFutureTask) {
+                ScheduledFutureTask<?> t = (ScheduledFutureTask<?>)f;
+                t.wheelNode = node;
+                t.heapIndex = (node == null) ? -1 : 0;
+            }
+        }
+
+        /**
+         * Returns the tick at which a task with the given positive
+         * delay, as of the given nanoTime, becomes due.
+         */
+        private long deadline(long delay, long now) {
+            long d = (now - origin) + delay;
+            if (d < 0L) // overflow
+                d = Long.MAX_VALUE;
+            return (d - 1) / tickNanos + 1;
+        }
+
+        /**
+         * Returns the nanoseconds from the given nanoTime until the
+         * given tick starts.
+         */
+        private long delayUntil(long tick, long now) {
+            return (tick <= Long.MAX_VALUE / tickNanos)
+                ? tick * tickNanos - (now - origin)
+                : Long.MAX_VALUE;
+        }
+
+        /**
+         * Files node in the slot for its deadline, or in the ready
+         * list if due.  Call only when holding lock.
+         */
+        private void file(Node node) {
+            long d = node.deadline;
+            if (d <= currentTick) {
+                appendReady(node);
+                return;
+            }
+            int level = (63 - Long.numberOfLeadingZeros(d ^ currentTick))
+                / SHIFT;
+            int i;
+            if (level >= LEVELS)
+                i = OVERFLOW;
+            else {
+                int s = (int)(d >>> (SHIFT * level)) & MASK;
+                occupied[level] |= 1L << s;
+                i = level * WHEEL_SIZE + s;
+            }
+            Node h = slots[i];
+            node.slot = i;
+            node.prev = null;
+            node.next = h;
+            if (h != null)
+                h.prev = node;
+            slots[i] = node;
+        }
+
+        /**
+         * Appends node to the ready list.  Call only when holding lock.
+         */
+        private void appendReady(Node node) {
+            Node t = readyTail;
+            node.slot = READY;
+            node.next = null;
+            node.prev = t;
+            if (t == null)
+                readyHead = node;
+            else
+                t.next = node;
+            readyTail = node;
+        }
+
+        /**
+         * Removes node from the queue.  Call only when holding lock.
+         */
+        private void unlink(Node node) {
+            Node p = node.prev, n = node.next;
+            int i = node.slot;
+            if (i == READY) {
+                if (p == null)
+                    readyHead = n;
+                else
+                    p.next = n;
+                if (n == null)
+                    readyTail = p;
+                else
+                    n.prev = p;
+            } else {
+                if (p != null)
+                    p.next = n;
+                else if ((slots[i] = n) == null && i != OVERFLOW)
+                    occupied[i >>> SHIFT] &= ~(1L << (i & MASK));
+                if (n != null)
+                    n.prev = p;
+            }
+            node.prev = node.next = null;
+            --size;
+            setNode(node.task, null);
+        }
+
+        /**
+         * Empties slot i, returning its former list.  Call only when
+         * holding lock.
+         */
+        private Node detach(int i) {
+            Node h = slots[i];
+            if (h != null) {
+                slots[i] = null;
+                if (i != OVERFLOW)
+                    occupied[i >>> SHIFT] &= ~(1L << (i & MASK));
+            }
+            return h;
+        }
+
+        /**
+         * Returns the index of the occupied slot needing attention
+         * soonest, or -1 if the wheel is empty.  Slots at lower levels
+         * always come due before those at higher levels, so the first
+         * level with an occupied slot ahead of the current position
+         * holds the answer.  Call only when holding lock.
+         */
+        private int nextSlot() {
+            long c = currentTick;
+            for (int level = 0; level < LEVELS; level++) {
+                long m = occupied[level] &
+                    (-2L << ((int)(c >>> (SHIFT * level)) & MASK));
+                if (m != 0L)
+                    return level * WHEEL_SIZE + Long.numberOfTrailingZeros(m);
+            }
+            return (slots[OVERFLOW] != null) ? OVERFLOW : -1;
+        }
+
+        /**
+         * Returns the tick at which slot i next needs attention, or
+         * Long.MAX_VALUE if i is -1.  Call only when holding lock.
+         */
+        private long slotTick(int i) {
+            long c = currentTick;
+            if (i < 0)
+                return Long.MAX_VALUE;
+            if (i == OVERFLOW)
+                return (c | ((1L << (SHIFT * LEVELS)) - 1)) + 1;
+            int shift = SHIFT * (i >>> SHIFT);
+            return (c & (-1L << (shift + SHIFT))) + ((long)(i & MASK) << shift);
+        }
+
+        /**
+         * Advances the wheel to the given tick, cascading and expiring
+         * slots along the way.  Call only when holding lock.
+         */
+        private void advance(long now) {
+            while (currentTick < now) {
+                long t = slotTick(nextSlot());
+                if (t > now) {
+                    currentTick = now;
+                    break;
+                }
+                currentTick = t;
+                if ((t & ((1L << (SHIFT * LEVELS)) - 1)) == 0L)
+                    refile(detach(OVERFLOW));
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    int shift = SHIFT * level;
+                    if ((t & ((1L << shift) - 1)) == 0L)
+                        refile(detach(level * WHEEL_SIZE +
+                                      ((int)(t >>> shift) & MASK)));
+                }
+                expire(detach((int)t & MASK));
+            }
+        }
+
+        /**
+         * Refiles the nodes of a detached list.  Call only when
+         * holding lock.
+         */
+        private void refile(Node h) {
+            for (Node next; h != null; h = next) {
+                next = h.next;
+                file(h);
+            }
+        }
+
+        /**
+         * Moves the nodes of a detached list to the ready list in
+         * queue order.  Call only when holding lock.
+         */
+        private void expire(Node h) {
+            if (h == null)
+                return;
+            Node[] b = batch;
+            int n = 0;
+            for (; h != null; h = h.next) {
+                if (n == b.length)
+                    batch = b = Arrays.copyOf(b, n << 1);
+                b[n++] = h;
+            }
+            if (n > 1)
+                Arrays.sort(b, 0, n);
+            for (int k = 0; k < n; k++) {
+                appendReady(b[k]);
+                b[k] = null;
+            }
+        }
+
+        /**
+         * Advances the wheel to the current time, returning nanoTime.
+         * Call only when holding lock.
+         */
+        private long advance() {
+            long now = System.nanoTime();
+            advance((now - origin) / tickNanos);
+            return now;
+        }
+
+        /**
+         * Finds the node for the given object, or null if absent.
+         * Call only when holding lock.
+         */
+        private Node find(Object x) {
+            if (x != null) {
+                if (x instanceof ScheduledFutureTask) {
+                    Node node = ((ScheduledFutureTask<?>)x).wheelNode;
+                    // Sanity check; x could conceivably be a
+                    // ScheduledFutureTask from some other pool.
+                    if (node != null && node.queue == this)
+                        return node;
+                } else {
+                    for (Node p = readyHead; p != null; p = p.next)
+                        if (x.equals(p.task))
+                            return p;
+                    for (Node h : slots)
+                        for (Node p = h; p != null; p = p.next)
+                            if (x.equals(p.task))
+                                return p;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Copies queued tasks into the given array, which must be
+         * large enough.  Call only when holding lock.
+         */
+        private <T> T[] copyTo(T[] a) {
+            Object[] es = a;
+            int k = 0;
+            for (Node p = readyHead; p != null; p = p.next)
+                es[k++] = p.task;
+            for (Node h : slots)
+                for (Node p = h; p != null; p = p.next)
+                    es[k++] = p.task;
+            return a;
+        }
+
+        public boolean contains(Object x) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return find(x) != null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean remove(Object x) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                Node node = find(x);
+                if (node == null)
+                    return false;
+                unlink(node);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int size() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        public int remainingCapacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        public RunnableScheduledFuture<?> peek() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                advance();
+                Node first = readyHead;
+                if (first == null) {
+                    int i = nextSlot();
+                    if (i >= 0) {
+                        for (Node p = first = slots[i]; p != null; p = p.next)
+                            if (p.compareTo(first) < 0)
+                                first = p;
+                    }
+                }
+                return (first == null) ? null : first.task;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean offer(Runnable x) {
+            if (x == null)
+                throw new NullPointerException();
+            RunnableScheduledFuture<?> e = (RunnableScheduledFuture<?>)x;
+            long now = System.nanoTime();
+            long delay = (e instanceof ScheduledFutureTask)
+                ? ((ScheduledFutureTask<?>)e).time - now
+                : e.getDelay(NANOSECONDS);
+            long deadline = (delay <= 0L) ? 0L : deadline(delay, now);
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                Node node = new Node(this, e, deadline);
+                setNode(e, node);
+                ++size;
+                file(node);
+                if (node.slot == READY || deadline < leaderTick) {
+                    leader = null;
+                    leaderTick = Long.MAX_VALUE;
+                    available.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        }
+
+        public void put(Runnable e) {
+            offer(e);
+        }
+
+        public boolean add(Runnable e) {
+            return offer(e);
+        }
+
+        public boolean offer(Runnable e, long timeout, TimeUnit unit) {
+            return offer(e);
+        }
+
+        public RunnableScheduledFuture<?> poll() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                advance();
+                Node first = readyHead;
+                if (first == null)
+                    return null;
+                unlink(first);
+                return first.task;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public RunnableScheduledFuture<?> take() throws InterruptedException {
+            final ReentrantLock lock = this.lock;
+            lock.lockInterruptibly();
+            try {
+                for (;;) {
+                    long now = advance();
+                    Node first = readyHead;
+                    if (first != null) {
+                        unlink(first);
+                        return first.task;
+                    }
+                    long tick = slotTick(nextSlot());
+                    if (tick == Long.MAX_VALUE || leader != null)
+                        available.await();
+                    else {
+                        Thread thisThread = Thread.currentThread();
+                        leader = thisThread;
+                        leaderTick = tick;
+                        try {
+                            available.awaitNanos(delayUntil(tick, now));
+                        } finally {
+                            if (leader == thisThread) {
+                                leader = null;
+                                leaderTick = Long.MAX_VALUE;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                if (leader == null && size != 0)
+                    available.signal();
+                lock.unlock();
+            }
+        }
+
+        public RunnableScheduledFuture<?> poll(long timeout, TimeUnit unit)
+            throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            final ReentrantLock lock = this.lock;
+            lock.lockInterruptibly();
+            try {
+                for (;;) {
+                    long now = advance();
+                    Node first = readyHead;
+                    if (first != null) {
+                        unlink(first);
+                        return first.task;
+                    }
+                    if (nanos <= 0L)
+                        return null;
+                    long tick = slotTick(nextSlot());
+                    long delay = delayUntil(tick, now);
+                    if (nanos < delay || leader != null)
+                        nanos = available.awaitNanos(nanos);
+                    else {
+                        Thread thisThread = Thread.currentThread();
+                        leader = thisThread;
+                        leaderTick = tick;
+                        try {
+                            long timeLeft = available.awaitNanos(delay);
+                            nanos -= delay - timeLeft;
+                        } finally {
+                            if (leader == thisThread) {
+                                leader = null;
+                                leaderTick = Long.MAX_VALUE;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                if (leader == null && size != 0)
+                    available.signal();
+                lock.unlock();
+            }
+        }
+
+        public void clear() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                for (Node p = readyHead; p != null; p = p.next)
+                    setNode(p.task, null);
+                readyHead = readyTail = null;
+                for (int i = 0; i < slots.length; i++) {
+                    for (Node p = slots[i]; p != null; p = p.next)
+                        setNode(p.task, null);
+                    slots[i] = null;
+                }
+                Arrays.fill(occupied, 0L);
+                size = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int drainTo(Collection<? super Runnable> c) {
+            return drainTo(c, Integer.MAX_VALUE);
+        }
+
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            Objects.requireNonNull(c);
+            if (c == this)
+                throw new IllegalArgumentException();
+            if (maxElements <= 0)
+                return 0;
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                advance();
+                int n = 0;
+                for (Node first;
+                     n < maxElements && (first = readyHead) != null;) {
+                    c.add(first.task);   // In this order, in case add() throws.
+                    unlink(first);
+                    ++n;
+                }
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Object[] toArray() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return copyTo(new Object[size]);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T[] toArray(T[] a) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                if (a.length < size)
+                    a = (T[])java.lang.reflect.Array.newInstance(
+                        a.getClass().getComponentType(), size);
+                else if (a.length > size)
+                    a[size] = null;
+                return copyTo(a);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Iterator<Runnable> iterator() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return new Itr(copyTo(new RunnableScheduledFuture<?>[size]));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Snapshot iterator that works off a copy of the queued tasks.
+         */
+        private class Itr implements Iterator<Runnable> {
+            final RunnableScheduledFuture<?>[] array;
+            int cursor;        // index of next element to return; initially 0
+            int lastRet = -1;  // index of last element returned; -1 if no such
+
+            Itr(RunnableScheduledFuture<?>[] array) {
+                this.array = array;
+            }
+
+            public boolean hasNext() {
+                return cursor < array.length;
+            }
+
+            public Runnable next() {
+                if (cursor >= array.length)
+                    throw new NoSuchElementException();
+                return array[lastRet = cursor++];
+            }
+
+            public void remove() {
+                if (lastRet < 0)
+                    throw new IllegalStateException();
+                DelayedWheelQueue.this.remove(array[lastRet]);
+                lastRet = -1;
+            }
+        }
+    }
 }
@@ -31,6 +31,8 @@ import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Supplier;
 
 // A compilation test for the code snippets in this class-level javadoc can be found at:
@@ -311,6 +313,210 @@ public interface Collector<T, A, R> {
         return new Collectors.CollectorImpl<>(supplier, accumulator, combiner, finisher, cs);
     }
 
+    /**
+     * A {@code Collector} specialized for {@code int} values.  Collected with
+     * {@link IntStream#collect(Collector.OfInt)}, the elements of an
+     * {@code IntStream} are accumulated by the {@link #intAccumulator()}
+     * without being boxed.
+     *
+     * @param <A> the mutable accumulation type of the reduction operation
+     * @param <R> the result type of the reduction operation
+     * @since 15
+     */
+    interface OfInt<A, R> extends Collector<Integer, A, R> {
+        /**
+         * A function that folds an {@code int} value into a mutable result
+         * container.
+         *
+         * @return a function which folds an {@code int} value into a mutable
+         * result container
+         */
+        ObjIntConsumer<A> intAccumulator();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @implSpec
+         * The default implementation unboxes the value and passes it to the
+         * function returned by {@link #intAccumulator()}.
+         *
+         * @return a function which folds a value into a mutable result container
+         */
+        @Override
+        default BiConsumer<A, Integer> accumulator() {
+            ObjIntConsumer<A> accumulator = intAccumulator();
+            return accumulator::accept;
+        }
+
+        /**
+         * Returns a new {@code Collector.OfInt} described by the given
+         * {@code supplier}, {@code accumulator}, and {@code combiner}
+         * functions.  The resulting {@code Collector.OfInt} has the
+         * {@code Collector.Characteristics.IDENTITY_FINISH} characteristic.
+         *
+         * @param supplier The supplier function for the new collector
+         * @param accumulator The accumulator function for the new collector
+         * @param combiner The combiner function for the new collector
+         * @param characteristics The collector characteristics for the new
+         *                        collector
+         * @param <R> The type of intermediate accumulation result, and final
+         *           result, for the new collector
+         * @throws NullPointerException if any argument is null
+         * @return the new {@code Collector.OfInt}
+         */
+        public static <R> OfInt<R, R> of(Supplier<R> supplier,
+                                         ObjIntConsumer<R> accumulator,
+                                         BinaryOperator<R> combiner,
+                                         Characteristics... characteristics) {
+            Objects.requireNonNull(supplier);
+            Objects.requireNonNull(accumulator);
+            Objects.requireNonNull(combiner);
+            Objects.requireNonNull(characteristics);
+            Set<Characteristics> cs = (characteristics.length == 0)
+                                      ? Collectors.CH_ID
+                                      : Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.IDENTITY_FINISH,
+                                                                               characteristics));
+            return new Collectors.IntCollectorImpl<>(supplier, accumulator, combiner, cs);
+        }
+
+        /**
+         * Returns a new {@code Collector.OfInt} described by the given
+         * {@code supplier}, {@code accumulator}, {@code combiner}, and
+         * {@code finisher} functions.
+         *
+         * @param supplier The supplier function for the new collector
+         * @param accumulator The accumulator function for the new collector
+         * @param combiner The combiner function for the new collector
+         * @param finisher The finisher function for the new collector
+         * @param characteristics The collector characteristics for the new
+         *                        collector
+         * @param <A> The intermediate accumulation type of the new collector
+         * @param <R> The final result type of the new collector
+         * @throws NullPointerException if any argument is null
+         * @return the new {@code Collector.OfInt}
+         */
+        public static <A, R> OfInt<A, R> of(Supplier<A> supplier,
+                                            ObjIntConsumer<A> accumulator,
+                                            BinaryOperator<A> combiner,
+                                            Function<A, R> finisher,
+                                            Characteristics... characteristics) {
+            Objects.requireNonNull(supplier);
+            Objects.requireNonNull(accumulator);
+            Objects.requireNonNull(combiner);
+            Objects.requireNonNull(finisher);
+            Objects.requireNonNull(characteristics);
+            Set<Characteristics> cs = Collectors.CH_NOID;
+            if (characteristics.length > 0) {
+                cs = EnumSet.noneOf(Characteristics.class);
+                Collections.addAll(cs, characteristics);
+                cs = Collections.unmodifiableSet(cs);
+            }
+            return new Collectors.IntCollectorImpl<>(supplier, accumulator, combiner, finisher, cs);
+        }
+    }
+
+    /**
+     * A {@code Collector} specialized for {@code long} values.  Collected with
+     * {@link LongStream#collect(Collector.OfLong)}, the elements of a
+     * {@code LongStream} are accumulated by the {@link #longAccumulator()}
+     * without being boxed.
+     *
+     * @param <A> the mutable accumulation type of the reduction operation
+     * @param <R> the result type of the reduction operation
+     * @since 15
+     */
+    interface OfLong<A, R> extends Collector<Long, A, R> {
+        /**
+         * A function that folds a {@code long} value into a mutable result
+         * container.
+         *
+         * @return a function which folds a {@code long} value into a mutable
+         * result container
+         */
+        ObjLongConsumer<A> longAccumulator();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @implSpec
+         * The default implementation unboxes the value and passes it to the
+         * function returned by {@link #longAccumulator()}.
+         *
+         * @return a function which folds a value into a mutable result container
+         */
+        @Override
+        default BiConsumer<A, Long> accumulator() {
+            ObjLongConsumer<A> accumulator = longAccumulator();
+            return accumulator::accept;
+        }
+
+        /**
+         * Returns a new {@code Collector.OfLong} described by the given
+         * {@code supplier}, {@code accumulator}, and {@code combiner}
+         * functions.  The resulting {@code Collector.OfLong} has the
+         * {@code Collector.Characteristics.IDENTITY_FINISH} characteristic.
+         *
+         * @param supplier The supplier function for the new collector
+         * @param accumulator The accumulator function for the new collector
+         * @param combiner The combiner function for the new collector
+         * @param characteristics The collector characteristics for the new
+         *                        collector
+         * @param <R> The type of intermediate accumulation result, and final
+         *           result, for the new collector
+         * @throws NullPointerException if any argument is null
+         * @return the new {@code Collector.OfLong}
+         */
+        public static <R> OfLong<R, R> of(Supplier<R> supplier,
+                                          ObjLongConsumer<R> accumulator,
+                                          BinaryOperator<R> combiner,
+                                          Characteristics... characteristics) {
+            Objects.requireNonNull(supplier);
+            Objects.requireNonNull(accumulator);
+            Objects.requireNonNull(combiner);
+            Objects.requireNonNull(characteristics);
+            Set<Characteristics> cs = (characteristics.length == 0)
+                                      ? Collectors.CH_ID
+                                      : Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.IDENTITY_FINISH,
+                                                                               characteristics));
+            return new Collectors.LongCollectorImpl<>(supplier, accumulator, combiner, cs);
+        }
+
+        /**
+         * Returns a new {@code Collector.OfLong} described by the given
+         * {@code supplier}, {@code accumulator}, {@code combiner}, and
+         * {@code finisher} functions.
+         *
+         * @param supplier The supplier function for the new collector
+         * @param accumulator The accumulator function for the new collector
+         * @param combiner The combiner function for the new collector
+         * @param finisher The finisher function for the new collector
+         * @param characteristics The collector characteristics for the new
+         *                        collector
+         * @param <A> The intermediate accumulation type of the new collector
+         * @param <R> The final result type of the new collector
+         * @throws NullPointerException if any argument is null
+         * @return the new {@code Collector.OfLong}
+         */
+        public static <A, R> OfLong<A, R> of(Supplier<A> supplier,
+                                             ObjLongConsumer<A> accumulator,
+                                             BinaryOperator<A> combiner,
+                                             Function<A, R> finisher,
+                                             Characteristics... characteristics) {
+            Objects.requireNonNull(supplier);
+            Objects.requireNonNull(accumulator);
+            Objects.requireNonNull(combiner);
+            Objects.requireNonNull(finisher);
+            Objects.requireNonNull(characteristics);
+            Set<Characteristics> cs = Collectors.CH_NOID;
+            if (characteristics.length > 0) {
+                cs = EnumSet.noneOf(Characteristics.class);
+                Collections.addAll(cs, characteristics);
+                cs = Collections.unmodifiableSet(cs);
+            }
+            return new Collectors.LongCollectorImpl<>(supplier, accumulator, combiner, finisher, cs);
+        }
+    }
+
     /**
      * Characteristics indicating properties of a {@code Collector}, which can
      * be used to optimize reduction implementations.
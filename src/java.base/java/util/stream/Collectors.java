@@ -34,9 +34,11 @@ import java.util.DoubleSummaryStatistics;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IntHashMap;
 import java.util.IntSummaryStatistics;
 import java.util.Iterator;
 import java.util.List;
+import java.util.LongHashMap;
 import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +52,16 @@ import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
@@ -181,6 +193,26 @@ public final class Collectors {
         };
     }
 
+    /**
+     * {@code KeyedAccumulator} that accumulates (key, value) pairs, the
+     * value being extracted from elements, into the map, throwing
+     * {@code IllegalStateException} if duplicate keys are encountered.
+     *
+     * @param valueMapper a function that maps an element into a value
+     * @param <T> type of elements
+     * @param <K> type of map keys
+     * @param <V> type of map values
+     * @return an accumulating consumer
+     */
+    private static <T, K, V>
+    KeyedAccumulator<Map<K, V>, K, T> uniqKeysMapAccumulator(Function<? super T, ? extends V> valueMapper) {
+        return (map, k, element) -> {
+            V v = Objects.requireNonNull(valueMapper.apply(element));
+            V u = map.putIfAbsent(k, v);
+            if (u != null) throw duplicateKeyException(k, u, v);
+        };
+    }
+
     @SuppressWarnings("unchecked")
     private static <I, R> Function<I, R> castingIdentity() {
         return i -> (R) i;
@@ -244,6 +276,118 @@ public final class Collectors {
         }
     }
 
+    /**
+     * Accumulation of an element into a container under a key derived
+     * from the element.
+     *
+     * @param <A> the type of the container
+     * @param <K> the type of the key
+     * @param <T> the type of the element
+     */
+    @FunctionalInterface
+    interface KeyedAccumulator<A, K, T> {
+        void accept(A container, K key, T t);
+    }
+
+    /**
+     * Implementation class for a {@code Collector} into a container of
+     * entries keyed by a function of the input elements, whose combiner
+     * preserves the keys of both containers.  Parallel streams collect
+     * these by partitioning the keys by hash (see {@link PartitionedOps}).
+     *
+     * @param <T> the type of elements to be collected
+     * @param <K> the type of the keys
+     * @param <R> the type of the result
+     */
+    static class KeyedCollectorImpl<T, K, A, R> extends CollectorImpl<T, A, R> {
+        final Function<? super T, ? extends K> keyMapper;
+        final KeyedAccumulator<A, K, T> keyedAccumulator;
+
+        KeyedCollectorImpl(Supplier<A> supplier,
+                           Function<? super T, ? extends K> keyMapper,
+                           KeyedAccumulator<A, K, T> keyedAccumulator,
+                           BinaryOperator<A> combiner,
+                           Function<A,R> finisher,
+                           Set<Characteristics> characteristics) {
+            super(supplier, (a, t) -> keyedAccumulator.accept(a, keyMapper.apply(t), t),
+                  combiner, finisher, characteristics);
+            this.keyMapper = keyMapper;
+            this.keyedAccumulator = keyedAccumulator;
+        }
+
+        KeyedCollectorImpl(Supplier<A> supplier,
+                           Function<? super T, ? extends K> keyMapper,
+                           KeyedAccumulator<A, K, T> keyedAccumulator,
+                           BinaryOperator<A> combiner,
+                           Set<Characteristics> characteristics) {
+            this(supplier, keyMapper, keyedAccumulator, combiner, castingIdentity(), characteristics);
+        }
+    }
+
+    /**
+     * Simple implementation class for {@code Collector.OfInt}.
+     *
+     * @param <A> the type of the mutable result container
+     * @param <R> the type of the result
+     */
+    static class IntCollectorImpl<A, R> extends CollectorImpl<Integer, A, R>
+            implements Collector.OfInt<A, R> {
+        private final ObjIntConsumer<A> intAccumulator;
+
+        IntCollectorImpl(Supplier<A> supplier,
+                         ObjIntConsumer<A> intAccumulator,
+                         BinaryOperator<A> combiner,
+                         Function<A,R> finisher,
+                         Set<Characteristics> characteristics) {
+            super(supplier, intAccumulator::accept, combiner, finisher, characteristics);
+            this.intAccumulator = intAccumulator;
+        }
+
+        IntCollectorImpl(Supplier<A> supplier,
+                         ObjIntConsumer<A> intAccumulator,
+                         BinaryOperator<A> combiner,
+                         Set<Characteristics> characteristics) {
+            this(supplier, intAccumulator, combiner, castingIdentity(), characteristics);
+        }
+
+        @Override
+        public ObjIntConsumer<A> intAccumulator() {
+            return intAccumulator;
+        }
+    }
+
+    /**
+     * Simple implementation class for {@code Collector.OfLong}.
+     *
+     * @param <A> the type of the mutable result container
+     * @param <R> the type of the result
+     */
+    static class LongCollectorImpl<A, R> extends CollectorImpl<Long, A, R>
+            implements Collector.OfLong<A, R> {
+        private final ObjLongConsumer<A> longAccumulator;
+
+        LongCollectorImpl(Supplier<A> supplier,
+                          ObjLongConsumer<A> longAccumulator,
+                          BinaryOperator<A> combiner,
+                          Function<A,R> finisher,
+                          Set<Characteristics> characteristics) {
+            super(supplier, longAccumulator::accept, combiner, finisher, characteristics);
+            this.longAccumulator = longAccumulator;
+        }
+
+        LongCollectorImpl(Supplier<A> supplier,
+                          ObjLongConsumer<A> longAccumulator,
+                          BinaryOperator<A> combiner,
+                          Set<Characteristics> characteristics) {
+            this(supplier, longAccumulator, combiner, castingIdentity(), characteristics);
+        }
+
+        @Override
+        public ObjLongConsumer<A> longAccumulator() {
+            return longAccumulator;
+        }
+    }
+
     /**
      * Returns a {@code Collector} that accumulates the input elements into a
      * new {@code Collection}, in encounter order.  The {@code Collection} is
@@ -593,6 +737,10 @@ public final class Collectors {
                 characteristics = Collections.unmodifiableSet(characteristics);
             }
         }
+        if (downstream instanceof KeyedCollectorImpl) {
+            return keyedAndThen((KeyedCollectorImpl<T, ?, A, R>) downstream,
+                                finisher, characteristics);
+        }
         return new CollectorImpl<>(downstream.supplier(),
                                    downstream.accumulator(),
                                    downstream.combiner(),
@@ -600,6 +748,18 @@ public final class Collectors {
                                    characteristics);
     }
 
+    private static <T, K, A, R, RR>
+    Collector<T, A, RR> keyedAndThen(KeyedCollectorImpl<T, K, A, R> downstream,
+                                     Function<R, RR> finisher,
+                                     Set<Collector.Characteristics> characteristics) {
+        return new KeyedCollectorImpl<>(downstream.supplier(),
+                                        downstream.keyMapper,
+                                        downstream.keyedAccumulator,
+                                        downstream.combiner(),
+                                        downstream.finisher().andThen(finisher),
+                                        characteristics);
+    }
+
     /**
      * Returns a {@code Collector} accepting elements of type {@code T} that
      * counts the number of input elements.  If no elements are present, the
@@ -1123,8 +1283,8 @@ public final class Collectors {
                                   Collector<? super T, A, D> downstream) {
         Supplier<A> downstreamSupplier = downstream.supplier();
         BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
-        BiConsumer<Map<K, A>, T> accumulator = (m, t) -> {
-            K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+        KeyedAccumulator<Map<K, A>, K, T> accumulator = (m, key, t) -> {
+            Objects.requireNonNull(key, "element cannot be mapped to a null key");
             A container = m.computeIfAbsent(key, k -> downstreamSupplier.get());
             downstreamAccumulator.accept(container, t);
         };
@@ -1133,7 +1293,7 @@ public final class Collectors {
         Supplier<Map<K, A>> mangledFactory = (Supplier<Map<K, A>>) mapFactory;
 
         if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
-            return new CollectorImpl<>(mangledFactory, accumulator, merger, CH_ID);
+            return new KeyedCollectorImpl<>(mangledFactory, classifier, accumulator, merger, CH_ID);
         }
         else {
             @SuppressWarnings("unchecked")
@@ -1144,7 +1304,7 @@ public final class Collectors {
                 M castResult = (M) intermediate;
                 return castResult;
             };
-            return new CollectorImpl<>(mangledFactory, accumulator, merger, finisher, CH_NOID);
+            return new KeyedCollectorImpl<>(mangledFactory, classifier, accumulator, merger, finisher, CH_NOID);
         }
     }
 
@@ -1456,10 +1616,11 @@ public final class Collectors {
     public static <T, K, U>
     Collector<T, ?, Map<K,U>> toMap(Function<? super T, ? extends K> keyMapper,
                                     Function<? super T, ? extends U> valueMapper) {
-        return new CollectorImpl<>(HashMap::new,
-                                   uniqKeysMapAccumulator(keyMapper, valueMapper),
-                                   uniqKeysMapMerger(),
-                                   CH_ID);
+        return new KeyedCollectorImpl<>(HashMap::new,
+                                        keyMapper,
+                                        uniqKeysMapAccumulator(valueMapper),
+                                        uniqKeysMapMerger(),
+                                        CH_ID);
     }
 
     /**
@@ -1654,10 +1815,9 @@ public final class Collectors {
                              Function<? super T, ? extends U> valueMapper,
                              BinaryOperator<U> mergeFunction,
                              Supplier<M> mapFactory) {
-        BiConsumer<M, T> accumulator
-                = (map, element) -> map.merge(keyMapper.apply(element),
-                                              valueMapper.apply(element), mergeFunction);
-        return new CollectorImpl<>(mapFactory, accumulator, mapMerger(mergeFunction), CH_ID);
+        KeyedAccumulator<M, K, T> accumulator
+                = (map, key, element) -> map.merge(key, valueMapper.apply(element), mergeFunction);
+        return new KeyedCollectorImpl<>(mapFactory, keyMapper, accumulator, mapMerger(mergeFunction), CH_ID);
     }
 
     /**
@@ -1980,6 +2140,508 @@ public final class Collectors {
         return new CollectorImpl<>(PairBox::new, PairBox::add, PairBox::combine, PairBox::get, characteristics);
     }
 
+    /**
+     * Returns a {@code Collector.OfInt} that counts the number of input
+     * elements.  If no elements are present, the result is 0.
+     *
+     * @apiNote
+     * The {@code countingInt()} collector is most useful when used as the
+     * downstream of {@link #groupingByInt(IntUnaryOperator, Collector.OfInt)
+     * groupingByInt}; for example, to compute a histogram of an
+     * {@code IntStream} without boxing its elements:
+     * <pre>{@code
+     * IntHashMap<Long> histogram
+     *   = ints.collect(groupingByInt(IntUnaryOperator.identity(), countingInt()));
+     * }</pre>
+     *
+     * @return a {@code Collector.OfInt} that counts the input elements
+     * @since 15
+     */
+    public static Collector.OfInt<?, Long> countingInt() {
+        return new IntCollectorImpl<>(
+                () -> new long[1],
+                (a, t) -> { a[0]++; },
+                (a, b) -> { a[0] += b[0]; return a; },
+                a -> a[0], CH_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} which performs a reduction of its
+     * input elements under a specified {@code IntBinaryOperator} using the
+     * provided identity.
+     *
+     * @param identity the identity value for the reduction (also, the value
+     *                 that is returned when there are no input elements)
+     * @param op an {@code IntBinaryOperator} used to reduce the input elements
+     * @return a {@code Collector.OfInt} which implements the reduction operation
+     * @since 15
+     */
+    public static Collector.OfInt<?, Integer>
+    reducingInt(int identity, IntBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new IntCollectorImpl<>(
+                () -> new int[] { identity },
+                (a, t) -> { a[0] = op.applyAsInt(a[0], t); },
+                (a, b) -> { a[0] = op.applyAsInt(a[0], b[0]); return a; },
+                a -> a[0], CH_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} implementing a cascaded "group by"
+     * operation on {@code int} elements, grouping them by an {@code int} key
+     * computed by a classification function, and then performing a reduction
+     * operation on the elements associated with a given key using the
+     * specified downstream {@code Collector.OfInt}.  Neither the elements nor
+     * the keys are boxed while they are accumulated.
+     *
+     * <p>There are no guarantees on the mutability, serializability, or
+     * thread-safety of the {@code IntHashMap} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code Collector.OfInt} implementing the downstream
+     *                   reduction
+     * @return a {@code Collector.OfInt} implementing the cascaded group-by
+     *         operation
+     * @see #groupingBy(Function, Collector)
+     * @since 15
+     */
+    public static <A, D>
+    Collector.OfInt<?, IntHashMap<D>> groupingByInt(IntUnaryOperator classifier,
+                                                    Collector.OfInt<A, D> downstream) {
+        Objects.requireNonNull(classifier);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjIntConsumer<A> downstreamAccumulator = downstream.intAccumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        ObjIntConsumer<IntHashMap<A>> accumulator = (m, t) -> {
+            int key = classifier.applyAsInt(t);
+            A container = m.get(key);
+            if (container == null)
+                m.putInt(key, container = downstreamSupplier.get());
+            downstreamAccumulator.accept(container, t);
+        };
+        BinaryOperator<IntHashMap<A>> merger = (left, right) -> {
+            right.forEachEntry((key, value) -> {
+                A container = left.get(key);
+                left.putInt(key, (container == null) ? value : downstreamCombiner.apply(container, value));
+            });
+            return left;
+        };
+
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return new IntCollectorImpl<>(IntHashMap::new, accumulator, merger, CH_ID);
+        }
+        else {
+            @SuppressWarnings("unchecked")
+            Function<A, A> downstreamFinisher = (Function<A, A>) downstream.finisher();
+            Function<IntHashMap<A>, IntHashMap<D>> finisher = intermediate -> {
+                intermediate.replaceAll((k, v) -> downstreamFinisher.apply(v));
+                @SuppressWarnings("unchecked")
+                IntHashMap<D> castResult = (IntHashMap<D>) (IntHashMap<?>) intermediate;
+                return castResult;
+            };
+            return new IntCollectorImpl<>(IntHashMap::new, accumulator, merger, finisher, CH_NOID);
+        }
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} which partitions the {@code int}
+     * input elements according to an {@code IntPredicate}, reduces the values
+     * in each partition according to another {@code Collector.OfInt}, and
+     * organizes them into a {@code Map<Boolean, D>} whose values are the
+     * result of the downstream reduction.
+     *
+     * <p>The returned {@code Map} always contains mappings for both
+     * {@code false} and {@code true} keys.
+     * There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param predicate a predicate used for classifying input elements
+     * @param downstream a {@code Collector.OfInt} implementing the downstream
+     *                   reduction
+     * @return a {@code Collector.OfInt} implementing the cascaded partitioning
+     *         operation
+     * @see #partitioningBy(Predicate, Collector)
+     * @since 15
+     */
+    public static <A, D>
+    Collector.OfInt<?, Map<Boolean, D>> partitioningByInt(IntPredicate predicate,
+                                                          Collector.OfInt<A, D> downstream) {
+        Objects.requireNonNull(predicate);
+        ObjIntConsumer<A> downstreamAccumulator = downstream.intAccumulator();
+        ObjIntConsumer<Partition<A>> accumulator = (result, t) ->
+                downstreamAccumulator.accept(predicate.test(t) ? result.forTrue : result.forFalse, t);
+        BinaryOperator<A> op = downstream.combiner();
+        BinaryOperator<Partition<A>> merger = (left, right) ->
+                new Partition<>(op.apply(left.forTrue, right.forTrue),
+                                op.apply(left.forFalse, right.forFalse));
+        Supplier<Partition<A>> supplier = () ->
+                new Partition<>(downstream.supplier().get(),
+                                downstream.supplier().get());
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return new IntCollectorImpl<>(supplier, accumulator, merger, CH_ID);
+        }
+        else {
+            Function<Partition<A>, Map<Boolean, D>> finisher = par ->
+                    new Partition<>(downstream.finisher().apply(par.forTrue),
+                                    downstream.finisher().apply(par.forFalse));
+            return new IntCollectorImpl<>(supplier, accumulator, merger, finisher, CH_NOID);
+        }
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} that accumulates {@code int} elements
+     * into an {@code IntHashMap} whose keys and values are the result of
+     * applying the provided mapping functions to the input elements.
+     *
+     * <p>If the mapped keys contain duplicates, an
+     * {@code IllegalStateException} is thrown when the collection operation is
+     * performed.  If the mapped keys might have duplicates, use
+     * {@link #toIntMap(IntUnaryOperator, IntFunction, BinaryOperator)} instead.
+     *
+     * <p>There are no guarantees on the mutability, serializability, or
+     * thread-safety of the {@code IntHashMap} returned.
+     *
+     * @param <U> the output type of the value mapping function
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @return a {@code Collector.OfInt} which collects elements into an
+     *         {@code IntHashMap} whose keys and values are the result of
+     *         applying mapping functions to the input elements
+     * @see #toMap(Function, Function)
+     * @since 15
+     */
+    public static <U>
+    Collector.OfInt<?, IntHashMap<U>> toIntMap(IntUnaryOperator keyMapper,
+                                               IntFunction<? extends U> valueMapper) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        ObjIntConsumer<IntHashMap<U>> accumulator = (map, t) -> {
+            int k = keyMapper.applyAsInt(t);
+            U v = Objects.requireNonNull(valueMapper.apply(t));
+            U u = map.putInt(k, v);
+            if (u != null) throw duplicateKeyException(k, u, v);
+        };
+        BinaryOperator<IntHashMap<U>> merger = (m1, m2) -> {
+            m2.forEachEntry((k, v) -> {
+                U u = m1.putInt(k, v);
+                if (u != null) throw duplicateKeyException(k, u, v);
+            });
+            return m1;
+        };
+        return new IntCollectorImpl<>(IntHashMap::new, accumulator, merger, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} that accumulates {@code int} elements
+     * into an {@code IntHashMap} whose keys and values are the result of
+     * applying the provided mapping functions to the input elements.
+     *
+     * <p>If the mapped keys contain duplicates, the value mapping function is
+     * applied to each equal element, and the results are merged using the
+     * provided merging function, as by {@link Map#merge(Object, Object, BiFunction)}.
+     *
+     * <p>There are no guarantees on the mutability, serializability, or
+     * thread-safety of the {@code IntHashMap} returned.
+     *
+     * @param <U> the output type of the value mapping function
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @param mergeFunction a merge function, used to resolve collisions between
+     *                      values associated with the same key
+     * @return a {@code Collector.OfInt} which collects elements into an
+     *         {@code IntHashMap} whose keys are the result of applying a key
+     *         mapping function to the input elements, and whose values are the
+     *         result of applying a value mapping function to all input
+     *         elements mapped to the key and combining them using the merge
+     *         function
+     * @see #toMap(Function, Function, BinaryOperator)
+     * @since 15
+     */
+    public static <U>
+    Collector.OfInt<?, IntHashMap<U>> toIntMap(IntUnaryOperator keyMapper,
+                                               IntFunction<? extends U> valueMapper,
+                                               BinaryOperator<U> mergeFunction) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(mergeFunction);
+        ObjIntConsumer<IntHashMap<U>> accumulator = (map, t) ->
+                merge(map, keyMapper.applyAsInt(t), valueMapper.apply(t), mergeFunction);
+        BinaryOperator<IntHashMap<U>> merger = (m1, m2) -> {
+            m2.forEachEntry((k, v) -> merge(m1, k, v, mergeFunction));
+            return m1;
+        };
+        return new IntCollectorImpl<>(IntHashMap::new, accumulator, merger, CH_ID);
+    }
+
+    /**
+     * {@code Map.merge} for an {@code IntHashMap}, without boxing the key.
+     */
+    private static <U> void merge(IntHashMap<U> map, int key, U value,
+                                  BinaryOperator<U> mergeFunction) {
+        Objects.requireNonNull(value);
+        U oldValue = map.get(key);
+        U newValue = (oldValue == null) ? value : mergeFunction.apply(oldValue, value);
+        if (newValue == null)
+            map.remove(key);
+        else
+            map.putInt(key, newValue);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} that counts the number of input
+     * elements.  If no elements are present, the result is 0.
+     *
+     * @apiNote
+     * The {@code countingLong()} collector is most useful when used as the
+     * downstream of {@link #groupingByLong(LongUnaryOperator, Collector.OfLong)
+     * groupingByLong}; for example, to compute a histogram of an
+     * {@code LongStream} without boxing its elements:
+     * <pre>{@code
+     * LongHashMap<Long> histogram
+     *   = longs.collect(groupingByLong(LongUnaryOperator.identity(), countingLong()));
+     * }</pre>
+     *
+     * @return a {@code Collector.OfLong} that counts the input elements
+     * @since 15
+     */
+    public static Collector.OfLong<?, Long> countingLong() {
+        return new LongCollectorImpl<>(
+                () -> new long[1],
+                (a, t) -> { a[0]++; },
+                (a, b) -> { a[0] += b[0]; return a; },
+                a -> a[0], CH_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} which performs a reduction of its
+     * input elements under a specified {@code LongBinaryOperator} using the
+     * provided identity.
+     *
+     * @param identity the identity value for the reduction (also, the value
+     *                 that is returned when there are no input elements)
+     * @param op a {@code LongBinaryOperator} used to reduce the input elements
+     * @return a {@code Collector.OfLong} which implements the reduction operation
+     * @since 15
+     */
+    public static Collector.OfLong<?, Long>
+    reducingLong(long identity, LongBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new LongCollectorImpl<>(
+                () -> new long[] { identity },
+                (a, t) -> { a[0] = op.applyAsLong(a[0], t); },
+                (a, b) -> { a[0] = op.applyAsLong(a[0], b[0]); return a; },
+                a -> a[0], CH_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} implementing a cascaded "group by"
+     * operation on {@code long} elements, grouping them by a {@code long} key
+     * computed by a classification function, and then performing a reduction
+     * operation on the elements associated with a given key using the
+     * specified downstream {@code Collector.OfLong}.  Neither the elements nor
+     * the keys are boxed while they are accumulated.
+     *
+     * <p>There are no guarantees on the mutability, serializability, or
+     * thread-safety of the {@code LongHashMap} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code Collector.OfLong} implementing the downstream
+     *                   reduction
+     * @return a {@code Collector.OfLong} implementing the cascaded group-by
+     *         operation
+     * @see #groupingBy(Function, Collector)
+     * @since 15
+     */
+    public static <A, D>
+    Collector.OfLong<?, LongHashMap<D>> groupingByLong(LongUnaryOperator classifier,
+                                                       Collector.OfLong<A, D> downstream) {
+        Objects.requireNonNull(classifier);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjLongConsumer<A> downstreamAccumulator = downstream.longAccumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        ObjLongConsumer<LongHashMap<A>> accumulator = (m, t) -> {
+            long key = classifier.applyAsLong(t);
+            A container = m.get(key);
+            if (container == null)
+                m.putLong(key, container = downstreamSupplier.get());
+            downstreamAccumulator.accept(container, t);
+        };
+        BinaryOperator<LongHashMap<A>> merger = (left, right) -> {
+            right.forEachEntry((key, value) -> {
+                A container = left.get(key);
+                left.putLong(key, (container == null) ? value : downstreamCombiner.apply(container, value));
+            });
+            return left;
+        };
+
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return new LongCollectorImpl<>(LongHashMap::new, accumulator, merger, CH_ID);
+        }
+        else {
+            @SuppressWarnings("unchecked")
+            Function<A, A> downstreamFinisher = (Function<A, A>) downstream.finisher();
+            Function<LongHashMap<A>, LongHashMap<D>> finisher = intermediate -> {
+                intermediate.replaceAll((k, v) -> downstreamFinisher.apply(v));
+                @SuppressWarnings("unchecked")
+                LongHashMap<D> castResult = (LongHashMap<D>) (LongHashMap<?>) intermediate;
+                return castResult;
+            };
+            return new LongCollectorImpl<>(LongHashMap::new, accumulator, merger, finisher, CH_NOID);
+        }
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} which partitions the {@code long}
+     * input elements according to a {@code LongPredicate}, reduces the values
+     * in each partition according to another {@code Collector.OfLong}, and
+     * organizes them into a {@code Map<Boolean, D>} whose values are the
+     * result of the downstream reduction.
+     *
+     * <p>The returned {@code Map} always contains mappings for both
+     * {@code false} and {@code true} keys.
+     * There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param predicate a predicate used for classifying input elements
+     * @param downstream a {@code Collector.OfLong} implementing the downstream
+     *                   reduction
+     * @return a {@code Collector.OfLong} implementing the cascaded partitioning
+     *         operation
+     * @see #partitioningBy(Predicate, Collector)
+     * @since 15
+     */
+    public static <A, D>
+    Collector.OfLong<?, Map<Boolean, D>> partitioningByLong(LongPredicate predicate,
+                                                            Collector.OfLong<A, D> downstream) {
+        Objects.requireNonNull(predicate);
+        ObjLongConsumer<A> downstreamAccumulator = downstream.longAccumulator();
+        ObjLongConsumer<Partition<A>> accumulator = (result, t) ->
+                downstreamAccumulator.accept(predicate.test(t) ? result.forTrue : result.forFalse, t);
+        BinaryOperator<A> op = downstream.combiner();
+        BinaryOperator<Partition<A>> merger = (left, right) ->
+                new Partition<>(op.apply(left.forTrue, right.forTrue),
+                                op.apply(left.forFalse, right.forFalse));
+        Supplier<Partition<A>> supplier = () ->
+                new Partition<>(downstream.supplier().get(),
+                                downstream.supplier().get());
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return new LongCollectorImpl<>(supplier, accumulator, merger, CH_ID);
+        }
+        else {
+            Function<Partition<A>, Map<Boolean, D>> finisher = par ->
+                    new Partition<>(downstream.finisher().apply(par.forTrue),
+                                    downstream.finisher().apply(par.forFalse));
+            return new LongCollectorImpl<>(supplier, accumulator, merger, finisher, CH_NOID);
+        }
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} that accumulates {@code long} elements
+     * into a {@code LongHashMap} whose keys and values are the result of
+     * applying the provided mapping functions to the input elements.
+     *
+     * <p>If the mapped keys contain duplicates, an
+     * {@code IllegalStateException} is thrown when the collection operation is
+     * performed.  If the mapped keys might have duplicates, use
+     * {@link #toLongMap(LongUnaryOperator, LongFunction, BinaryOperator)} instead.
+     *
+     * <p>There are no guarantees on the mutability, serializability, or
+     * thread-safety of the {@code LongHashMap} returned.
+     *
+     * @param <U> the output type of the value mapping function
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @return a {@code Collector.OfLong} which collects elements into a
+     *         {@code LongHashMap} whose keys and values are the result of
+     *         applying mapping functions to the input elements
+     * @see #toMap(Function, Function)
+     * @since 15
+     */
+    public static <U>
+    Collector.OfLong<?, LongHashMap<U>> toLongMap(LongUnaryOperator keyMapper,
+                                                  LongFunction<? extends U> valueMapper) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        ObjLongConsumer<LongHashMap<U>> accumulator = (map, t) -> {
+            long k = keyMapper.applyAsLong(t);
+            U v = Objects.requireNonNull(valueMapper.apply(t));
+            U u = map.putLong(k, v);
+            if (u != null) throw duplicateKeyException(k, u, v);
+        };
+        BinaryOperator<LongHashMap<U>> merger = (m1, m2) -> {
+            m2.forEachEntry((k, v) -> {
+                U u = m1.putLong(k, v);
+                if (u != null) throw duplicateKeyException(k, u, v);
+            });
+            return m1;
+        };
+        return new LongCollectorImpl<>(LongHashMap::new, accumulator, merger, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} that accumulates {@code long} elements
+     * into a {@code LongHashMap} whose keys and values are the result of
+     * applying the provided mapping functions to the input elements.
+     *
+     * <p>If the mapped keys contain duplicates, the value mapping function is
+     * applied to each equal element, and the results are merged using the
+     * provided merging function, as by {@link Map#merge(Object, Object, BiFunction)}.
+     *
+     * <p>There are no guarantees on the mutability, serializability, or
+     * thread-safety of the {@code LongHashMap} returned.
+     *
+     * @param <U> the output type of the value mapping function
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @param mergeFunction a merge function, used to resolve collisions between
+     *                      values associated with the same key
+     * @return a {@code Collector.OfLong} which collects elements into a
+     *         {@code LongHashMap} whose keys are the result of applying a key
+     *         mapping function to the input elements, and whose values are the
+     *         result of applying a value mapping function to all input
+     *         elements mapped to the key and combining them using the merge
+     *         function
+     * @see #toMap(Function, Function, BinaryOperator)
+     * @since 15
+     */
+    public static <U>
+    Collector.OfLong<?, LongHashMap<U>> toLongMap(LongUnaryOperator keyMapper,
+                                                  LongFunction<? extends U> valueMapper,
+                                                  BinaryOperator<U> mergeFunction) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(mergeFunction);
+        ObjLongConsumer<LongHashMap<U>> accumulator = (map, t) ->
+                merge(map, keyMapper.applyAsLong(t), valueMapper.apply(t), mergeFunction);
+        BinaryOperator<LongHashMap<U>> merger = (m1, m2) -> {
+            m2.forEachEntry((k, v) -> merge(m1, k, v, mergeFunction));
+            return m1;
+        };
+        return new LongCollectorImpl<>(LongHashMap::new, accumulator, merger, CH_ID);
+    }
+
+    /**
+     * {@code Map.merge} for a {@code LongHashMap}, without boxing the key.
+     */
+    private static <U> void merge(LongHashMap<U> map, long key, U value,
+                                  BinaryOperator<U> mergeFunction) {
+        Objects.requireNonNull(value);
+        U oldValue = map.get(key);
+        U newValue = (oldValue == null) ? value : mergeFunction.apply(oldValue, value);
+        if (newValue == null)
+            map.remove(key);
+        else
+            map.putLong(key, newValue);
+    }
+
     /**
      * Implementation class used by partitioningBy.
      */
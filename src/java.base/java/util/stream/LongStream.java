@@ -588,6 +588,37 @@ public interface LongStream extends BaseStream<Long, LongStream> {
                   ObjLongConsumer<R> accumulator,
                   BiConsumer<R, R> combiner);
 
+    /**
+     * Performs a <a href="package-summary.html#MutableReduction">mutable
+     * reduction</a> operation on the elements of this stream using a
+     * {@code Collector.OfLong}, which folds the elements into its result
+     * container without boxing them.  Primitive collectors are provided by
+     * {@link Collectors}; for example, the following counts the occurrences
+     * of each distinct value:
+     * <pre>{@code
+     *     LongHashMap<Long> counts
+     *         = stream.collect(Collectors.groupingByLong(LongUnaryOperator.identity(),
+     *                                                    Collectors.countingLong()));
+     * }</pre>
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">terminal
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation boxes the elements of this stream and
+     * collects them as if by {@code boxed().collect(collector)}.
+     *
+     * @param <A> the intermediate accumulation type of the {@code Collector}
+     * @param <R> the type of the result
+     * @param collector the {@code Collector.OfLong} describing the reduction
+     * @return the result of the reduction
+     * @see Stream#collect(Collector)
+     * @since 15
+     */
+    default <A, R> R collect(Collector.OfLong<A, R> collector) {
+        return boxed().collect(collector);
+    }
+
     /**
      * Returns the sum of elements in this stream.  This is a special case
      * of a <a href="package-summary.html#Reduction">reduction</a>
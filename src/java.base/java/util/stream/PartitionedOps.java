@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Factory methods for evaluating keyed reductions, such as those of
+ * {@link Collectors#groupingBy(Function) groupingBy} and
+ * {@link Collectors#toMap(Function, Function) toMap}, and the
+ * {@code distinct} operation in parallel by partitioning the key space.
+ *
+ * <p>A plain parallel reduction accumulates each leaf of the computation into
+ * its own container and merges the containers pairwise up the computation
+ * tree, so that the final merges, each proportional to the number of distinct
+ * keys, run on a single thread.  Here each leaf instead accumulates into one
+ * container per partition of the key space, selected by the hash of the key.
+ * The containers for each partition are then combined, in encounter order,
+ * by a task per partition, all partitions in parallel.  Since no key occurs in
+ * more than one partition, the per-partition results are finally combined
+ * without any key being merged twice.
+ *
+ * <p>Combining the containers of each partition in encounter order preserves
+ * the encounter order of the elements associated with any one key, as well
+ * as the detection of duplicate keys by
+ * {@link Collectors#toMap(Function, Function) toMap}.  It does not preserve
+ * the encounter order of the keys themselves, and it relies on equal keys
+ * having equal hashes, so the keyed reductions fall back to a plain
+ * reduction unless the result container is exactly a {@link HashMap} or
+ * {@link HashSet}.  Other containers may iterate in insertion order, such as
+ * a {@link java.util.LinkedHashMap}, or may hold keys that are equal under
+ * their ordering but have different hashes, such as a
+ * {@link java.util.TreeMap} of {@link java.math.BigDecimal} keys, even when
+ * ordered by the natural ordering of its keys.
+ *
+ * @since 15
+ */
+final class PartitionedOps {
+
+    private PartitionedOps() { }
+
+    /**
+     * The number of partitions of the key space, a power of two.  There are
+     * several partitions per worker thread so that the combining of partitions
+     * remains balanced when the keys are unevenly distributed.
+     */
+    static final int PARTITIONS =
+            Integer.highestOneBit(Math.max(ForkJoinPool.getCommonPoolParallelism(), 1) << 3);
+
+    /** The shift selecting a partition from the high bits of a mixed hash */
+    private static final int PARTITION_SHIFT = Integer.numberOfLeadingZeros(PARTITIONS) + 1;
+
+    /**
+     * Returns the partition of the given key.  The high bits of the mixed hash
+     * are used, so that the keys of a partition remain well spread within the
+     * hash tables of that partition.
+     *
+     * @param key the key, may be {@code null}
+     * @return the partition, in the range {@code [0, PARTITIONS)}
+     */
+    static int partition(Object key) {
+        int h = (key == null) ? 0 : key.hashCode();
+        return (h * 0x9E3779B9) >>> PARTITION_SHIFT;
+    }
+
+    /**
+     * Constructs a {@code TerminalOp} that evaluates a keyed collector,
+     * partitioning the keys by hash when evaluated in parallel.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param <A> the type of the result container
+     * @param collector the keyed collector
+     * @return a {@code TerminalOp} implementing the reduction
+     */
+    static <T, K, A> TerminalOp<T, A>
+    makeRef(Collectors.KeyedCollectorImpl<? super T, K, A, ?> collector) {
+        Supplier<A> supplier = collector.supplier();
+        BinaryOperator<A> combiner = collector.combiner();
+        TerminalOp<T, A> reduceOp = ReduceOps.<T, A>makeRef(collector);
+        return new TerminalOp<T, A>() {
+            @Override
+            public int getOpFlags() {
+                return collector.characteristics().contains(Collector.Characteristics.UNORDERED)
+                       ? StreamOpFlag.NOT_ORDERED
+                       : 0;
+            }
+
+            @Override
+            public <P_IN> A evaluateSequential(PipelineHelper<T> helper,
+                                               Spliterator<P_IN> spliterator) {
+                return reduceOp.evaluateSequential(helper, spliterator);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <P_IN> A evaluateParallel(PipelineHelper<T> helper,
+                                             Spliterator<P_IN> spliterator) {
+                A container = supplier.get();
+                if (!isHashed(container)) {
+                    // The keys may have to be inserted in encounter order,
+                    // or may be equal without having equal hashes
+                    return reduceOp.evaluateParallel(helper, spliterator);
+                }
+
+                Object[] shards = shards(helper, spliterator, supplier,
+                                         collector.keyMapper, collector.keyedAccumulator,
+                                         combiner);
+                A result = null;
+                for (Object shard : shards) {
+                    if (shard != null)
+                        result = (result == null) ? (A) shard : combiner.apply(result, (A) shard);
+                }
+                return (result == null) ? container : result;
+            }
+        };
+    }
+
+    /**
+     * Returns whether the iteration order of the given container is
+     * independent of the order in which keys were inserted into it, and
+     * the container matches keys by {@code equals} and {@code hashCode}, so
+     * that equal keys are always in the same partition.  A sorted map is
+     * not, since even the natural ordering of its keys need not be
+     * consistent with {@code equals}.
+     */
+    private static boolean isHashed(Object container) {
+        return container.getClass() == HashMap.class
+               || container.getClass() == HashSet.class;
+    }
+
+    /**
+     * Evaluates a {@code distinct} operation in parallel, partitioning the
+     * elements by hash.  If the stream is ordered, the first occurrence of
+     * each element in encounter order is retained, and the result is in
+     * encounter order.
+     *
+     * @param <T> the type of the elements
+     * @param <P_IN> the type of the elements of the source spliterator
+     * @param helper the pipeline helper
+     * @param spliterator the source spliterator
+     * @return a node holding the distinct elements
+     */
+    @SuppressWarnings("unchecked")
+    static <T, P_IN> Node<T> distinct(PipelineHelper<T> helper,
+                                      Spliterator<P_IN> spliterator) {
+        List<Node<T>> nodes = new ArrayList<>();
+        if (!StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+            Object[] shards = shards(helper, spliterator, HashSet<T>::new,
+                                     Function.<T>identity(),
+                                     (set, key, t) -> set.add(t),
+                                     (left, right) -> {
+                                         left.addAll(right);
+                                         return left;
+                                     });
+            for (Object shard : shards) {
+                if (shard != null)
+                    nodes.add(Nodes.node((Collection<T>) shard));
+            }
+        }
+        else {
+            List<DistinctLeaf> leaves
+                    = new ShardTask<P_IN, T, DistinctLeaf>(helper, spliterator,
+                                                           DistinctSink::new).invoke();
+            // Mark, per partition, each element already seen in a leaf
+            // preceding it in encounter order
+            forEachIndex(PARTITIONS, p -> {
+                HashSet<Object> seen = new HashSet<>();
+                for (DistinctLeaf leaf : leaves) {
+                    for (int i = leaf.start[p], end = leaf.start[p + 1]; i < end; i++) {
+                        int index = leaf.order[i];
+                        if (!seen.add(leaf.elements[index]))
+                            leaf.duplicate[index] = true;
+                    }
+                }
+            });
+            Node<T>[] compacted = (Node<T>[]) new Node<?>[leaves.size()];
+            forEachIndex(compacted.length, i -> compacted[i] = leaves.get(i).node());
+            nodes.addAll(Arrays.asList(compacted));
+        }
+        return conc(nodes, 0, nodes.size());
+    }
+
+    /**
+     * Accumulates the elements into one container per partition, in
+     * parallel, and combines the containers of each partition, also in
+     * parallel.
+     *
+     * @return the combined containers indexed by partition, each element
+     *         {@code null} if no key fell into that partition
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, K, A, P_IN> Object[]
+    shards(PipelineHelper<T> helper,
+           Spliterator<P_IN> spliterator,
+           Supplier<A> supplier,
+           Function<? super T, ? extends K> keyMapper,
+           Collectors.KeyedAccumulator<A, K, ? super T> accumulator,
+           BinaryOperator<A> combiner) {
+        List<Object[]> leaves
+                = new ShardTask<P_IN, T, Object[]>(helper, spliterator,
+                                                   () -> new KeyedSink<>(supplier, keyMapper, accumulator))
+                .invoke();
+        Object[] shards = new Object[PARTITIONS];
+        forEachIndex(PARTITIONS, p -> {
+            A shard = null;
+            for (Object[] leaf : leaves) {
+                A a = (A) leaf[p];
+                if (a != null)
+                    shard = (shard == null) ? a : combiner.apply(shard, a);
+            }
+            shards[p] = shard;
+        });
+        return shards;
+    }
+
+    /**
+     * Returns a balanced concatenation of the nodes in the given range.
+     */
+    private static <T> Node<T> conc(List<Node<T>> nodes, int from, int to) {
+        if (from == to)
+            return Nodes.emptyNode(StreamShape.REFERENCE);
+        if (to - from == 1)
+            return nodes.get(from);
+        int mid = (from + to) >>> 1;
+        return Nodes.conc(StreamShape.REFERENCE, conc(nodes, from, mid), conc(nodes, mid, to));
+    }
+
+    /**
+     * Performs the given action for each index in {@code [0, n)}, in
+     * parallel.
+     */
+    private static void forEachIndex(int n, IntConsumer action) {
+        if (n > 0)
+            new IndexTask(action, 0, n).invoke();
+    }
+
+    @SuppressWarnings("serial")
+    private static final class IndexTask extends RecursiveAction {
+        private final IntConsumer action;
+        private final int from, to;
+
+        IndexTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+            }
+            else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new IndexTask(action, from, mid), new IndexTask(action, mid, to));
+            }
+        }
+    }
+
+    /**
+     * A sink producing, once all elements have been received, the result of
+     * a leaf of the computation.
+     *
+     * @param <T> the type of the input elements
+     * @param <L> the type of the leaf result
+     */
+    private interface LeafSink<T, L> extends Sink<T> {
+        L leaf();
+    }
+
+    /**
+     * Sink accumulating elements into one container per partition of their
+     * keys.
+     */
+    private static final class KeyedSink<T, K, A> implements LeafSink<T, Object[]> {
+        private final Supplier<A> supplier;
+        private final Function<? super T, ? extends K> keyMapper;
+        private final Collectors.KeyedAccumulator<A, K, ? super T> accumulator;
+        private final Object[] shards = new Object[PARTITIONS];
+
+        KeyedSink(Supplier<A> supplier,
+                  Function<? super T, ? extends K> keyMapper,
+                  Collectors.KeyedAccumulator<A, K, ? super T> accumulator) {
+            this.supplier = supplier;
+            this.keyMapper = keyMapper;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void accept(T t) {
+            K key = keyMapper.apply(t);
+            int p = partition(key);
+            Object shard = shards[p];
+            if (shard == null)
+                shards[p] = shard = supplier.get();
+            accumulator.accept((A) shard, key, t);
+        }
+
+        @Override
+        public Object[] leaf() {
+            return shards;
+        }
+    }
+
+    /**
+     * Sink retaining the first occurrence of each element of a leaf.
+     */
+    private static final class DistinctSink<T> implements LeafSink<T, DistinctLeaf> {
+        private final LinkedHashSet<T> set = new LinkedHashSet<>();
+
+        @Override
+        public void accept(T t) {
+            set.add(t);
+        }
+
+        @Override
+        public DistinctLeaf leaf() {
+            return new DistinctLeaf(set.toArray());
+        }
+    }
+
+    /**
+     * The distinct elements of a leaf, in encounter order, together with
+     * their indices grouped by partition.
+     */
+    private static final class DistinctLeaf {
+        /** The distinct elements of the leaf, in encounter order */
+        final Object[] elements;
+        /** Whether each element also occurs in a preceding leaf */
+        final boolean[] duplicate;
+        /** Indices of the elements, grouped by partition */
+        final int[] order;
+        /** Start of the indices of each partition in order */
+        final int[] start = new int[PARTITIONS + 1];
+
+        DistinctLeaf(Object[] elements) {
+            int n = elements.length;
+            int[] partitions = new int[n];
+            for (int i = 0; i < n; i++) {
+                int p = partitions[i] = partition(elements[i]);
+                start[p + 1]++;
+            }
+            for (int p = 0; p < PARTITIONS; p++)
+                start[p + 1] += start[p];
+            int[] next = Arrays.copyOf(start, PARTITIONS);
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++)
+                order[next[partitions[i]]++] = i;
+            this.elements = elements;
+            this.duplicate = new boolean[n];
+            this.order = order;
+        }
+
+        /**
+         * Returns a node holding the elements not occurring in a preceding
+         * leaf, in encounter order.
+         */
+        @SuppressWarnings("unchecked")
+        <T> Node<T> node() {
+            Object[] kept = new Object[elements.length];
+            int k = 0;
+            for (int i = 0; i < elements.length; i++) {
+                if (!duplicate[i])
+                    kept[k++] = elements[i];
+            }
+            return Nodes.node((Collection<T>) Arrays.asList(
+                    (k == kept.length) ? kept : Arrays.copyOf(kept, k)));
+        }
+    }
+
+    /**
+     * Task computing the leaf results of a partitioned evaluation, in
+     * encounter order.
+     */
+    @SuppressWarnings("serial")
+    private static final class ShardTask<P_IN, P_OUT, L>
+            extends AbstractTask<P_IN, P_OUT, List<L>, ShardTask<P_IN, P_OUT, L>> {
+        private final Supplier<? extends LeafSink<P_OUT, L>> sinkFactory;
+
+        ShardTask(PipelineHelper<P_OUT> helper,
+                  Spliterator<P_IN> spliterator,
+                  Supplier<? extends LeafSink<P_OUT, L>> sinkFactory) {
+            super(helper, spliterator);
+            this.sinkFactory = sinkFactory;
+        }
+
+        ShardTask(ShardTask<P_IN, P_OUT, L> parent,
+                  Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+            this.sinkFactory = parent.sinkFactory;
+        }
+
+        @Override
+        protected ShardTask<P_IN, P_OUT, L> makeChild(Spliterator<P_IN> spliterator) {
+            return new ShardTask<>(this, spliterator);
+        }
+
+        @Override
+        protected List<L> doLeaf() {
+            List<L> leaves = new ArrayList<>();
+            leaves.add(helper.wrapAndCopyInto(sinkFactory.get(), spliterator).leaf());
+            return leaves;
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (!isLeaf()) {
+                List<L> leftResult = leftChild.getLocalResult();
+                leftResult.addAll(rightChild.getLocalResult());
+                setLocalResult(leftResult);
+            }
+            // GC spliterator, left and right child
+            super.onCompletion(caller);
+        }
+    }
+}
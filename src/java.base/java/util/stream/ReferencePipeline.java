@@ -574,6 +574,10 @@ abstract class ReferencePipeline<P_IN, P_OUT>
             BiConsumer<A, ? super P_OUT> accumulator = collector.accumulator();
             forEach(u -> accumulator.accept(container, u));
         }
+        else if (isParallel() && collector instanceof Collectors.KeyedCollectorImpl) {
+            container = evaluate(PartitionedOps.makeRef(
+                    (Collectors.KeyedCollectorImpl<? super P_OUT, ?, A, ?>) collector));
+        }
         else {
             container = evaluate(ReduceOps.makeRef(collector));
         }
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compresses a stream of bytes into a raw deflate stream (as written by a
+ * {@code Deflater} with {@code nowrap} set) in blocks compressed in
+ * parallel.
+ * <p>
+ * The input is split into blocks of {@code blockSize} bytes, each
+ * compressed by its own {@code Deflater} on a {@code ForkJoinPool}, with
+ * the last 32K bytes of the previous block as its preset dictionary so
+ * that matches may reach back across blocks as they would in a single
+ * deflate stream.  All blocks but the last end with a sync flush, which
+ * aligns them on a byte boundary, so that the compressed blocks written
+ * in order form one valid deflate stream.  The last block is finished.
+ * <p>
+ * The compressed blocks are written to the output stream by the thread
+ * writing the input, in order, at most {@code 2 * parallelism + 1}
+ * blocks being compressed or waiting to be written at any time.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class ParallelDeflater {
+
+    // the size of the deflate window, and so of the preset dictionary
+    private static final int WINDOW_SIZE = 32 * 1024;
+
+    static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final ForkJoinPool pool;
+    private final int maxPending;
+    private final ArrayDeque<Block> pending = new ArrayDeque<>();
+    // Deflaters free for the next block
+    private final ConcurrentLinkedQueue<Deflater> deflaters =
+        new ConcurrentLinkedQueue<>();
+    private volatile int level;
+    private byte[] buf;
+    private int count;
+    private Block previous;
+    private long bytesRead;
+    private long bytesWritten;
+    private boolean finished;
+
+    /**
+     * Creates a parallel deflater writing to the given output stream.
+     *
+     * @param out the output stream
+     * @param level the compression level (0-9), or
+     *              {@code Deflater.DEFAULT_COMPRESSION}
+     * @param blockSize the number of input bytes compressed by each task
+     * @param pool the pool compressing the blocks
+     * @throws IllegalArgumentException if the level is invalid, or the block
+     *         size is not positive
+     */
+    ParallelDeflater(OutputStream out, int level, int blockSize, ForkJoinPool pool) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("invalid block size");
+        }
+        this.out = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.pool = pool;
+        this.maxPending = 2 * pool.getParallelism() + 1;
+        this.buf = new byte[blockSize];
+    }
+
+    /**
+     * Compresses the given bytes.
+     */
+    void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("write beyond end of stream");
+        }
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            bytesRead += n;
+            if (count == blockSize) {
+                submit(false);
+            }
+        }
+    }
+
+    /**
+     * Compresses the bytes written so far, ending the compressed data with
+     * a sync flush, and writes all of it to the output stream.
+     */
+    void flush() throws IOException {
+        if (!finished) {
+            if (count > 0) {
+                submit(false);
+            }
+            while (!pending.isEmpty()) {
+                writeBlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses the remaining bytes, ends the deflate stream and writes
+     * all of it to the output stream.
+     */
+    void finish() throws IOException {
+        if (!finished) {
+            submit(true);
+            finished = true;
+            while (!pending.isEmpty()) {
+                writeBlock();
+            }
+        }
+    }
+
+    boolean finished() {
+        return finished;
+    }
+
+    /**
+     * Returns the number of uncompressed bytes written to this deflater
+     * since it was created or reset.
+     */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the number of compressed bytes written to the output stream
+     * since this deflater was created or reset.
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Resets this deflater to start a new deflate stream with the given
+     * compression level, discarding the data not yet written.
+     */
+    void reset(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        for (Block b : pending) {
+            b.cancel(false);
+        }
+        pending.clear();
+        if (this.level != level) {
+            // deflaters of the old level are ended when released
+            end();
+            this.level = level;
+        }
+        count = 0;
+        previous = null;
+        bytesRead = 0;
+        bytesWritten = 0;
+        finished = false;
+    }
+
+    /**
+     * Releases the native resources of the deflaters.
+     */
+    void end() {
+        Deflater def;
+        while ((def = deflaters.poll()) != null) {
+            def.end();
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        Block b = new Block(this, level, buf, count, previous, last);
+        pool.execute(b);
+        pending.add(b);
+        previous = b;
+        buf = new byte[blockSize];
+        count = 0;
+        while (!pending.isEmpty()
+               && (pending.size() > maxPending || pending.peek().isDone())) {
+            writeBlock();
+        }
+    }
+
+    // Waits for the oldest pending block and writes its compressed bytes.
+    private void writeBlock() throws IOException {
+        Block b = pending.poll();
+        byte[] data = b.join();
+        out.write(data, 0, b.length);
+        bytesWritten += b.length;
+    }
+
+    private Deflater deflater(int level) {
+        Deflater def = deflaters.poll();
+        return def != null ? def : new Deflater(level, true);
+    }
+
+    private void release(Deflater def, int level) {
+        if (level == this.level) {
+            def.reset();
+            deflaters.add(def);
+        } else {
+            def.end();
+        }
+    }
+
+    /*
+     * Compresses a block of input, returning a buffer holding its
+     * compressed bytes in its first length bytes.
+     */
+    @SuppressWarnings("serial") // Not statically typed as Serializable
+    private static final class Block extends RecursiveTask<byte[]> {
+        private final ParallelDeflater owner;
+        private final int level;
+        private final byte[] input;
+        private final int count;
+        private final boolean last;
+        private Block previous;  // cleared when compressed
+        int length;
+
+        Block(ParallelDeflater owner, int level, byte[] input, int count,
+              Block previous, boolean last) {
+            this.owner = owner;
+            this.level = level;
+            this.input = input;
+            this.count = count;
+            this.previous = previous;
+            this.last = last;
+        }
+
+        @Override
+        protected byte[] compute() {
+            Deflater def = owner.deflater(level);
+            try {
+                Block prev = previous;
+                previous = null;
+                if (prev != null) {
+                    int n = Math.min(prev.count, WINDOW_SIZE);
+                    def.setDictionary(prev.input, prev.count - n, n);
+                }
+                def.setInput(input, 0, count);
+                byte[] output = new byte[count + (count >> 3) + 64];
+                int len = 0;
+                if (last) {
+                    def.finish();
+                    while (!def.finished()) {
+                        if (len == output.length) {
+                            output = Arrays.copyOf(output, len * 2);
+                        }
+                        len += def.deflate(output, len, output.length - len);
+                    }
+                } else {
+                    // sync flush until the output is not filled up
+                    do {
+                        if (len == output.length) {
+                            output = Arrays.copyOf(output, len * 2);
+                        }
+                        len += def.deflate(output, len, output.length - len,
+                                           Deflater.SYNC_FLUSH);
+                    } while (len == output.length);
+                }
+                length = len;
+                return output;
+            } finally {
+                owner.release(def, level);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class implements a stream filter for writing compressed data in
+ * the GZIP file format, compressing blocks of the data in parallel.
+ *
+ * <p>The data written is split into blocks that are compressed by tasks
+ * on a {@link ForkJoinPool}.  Each block is compressed with the end of
+ * the previous block as its preset dictionary, so the compression ratio
+ * is close to that of a {@link GZIPOutputStream} at the same level.  The
+ * output is a single GZIP member that any GZIP reader, including
+ * {@link GZIPInputStream}, can decompress.
+ *
+ * <p>The compressed blocks are written in order by the thread writing
+ * to this stream; at most {@code 2 * parallelism + 1} blocks are held
+ * in memory at a time.
+ *
+ * @see GZIPOutputStream
+ * @since 15
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+    /*
+     * GZIP header magic number.
+     */
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * Trailer size in bytes.
+     */
+    private static final int TRAILER_SIZE = 8;
+
+    private final ParallelDeflater def;
+    private final CRC32 crc = new CRC32();
+    private boolean closed;
+
+    /**
+     * Creates a new output stream compressing blocks at the default
+     * compression level on the {@linkplain ForkJoinPool#commonPool()
+     * common pool}.
+     *
+     * @param out the output stream
+     * @throws    IOException If an I/O error has occurred.
+     */
+    public ParallelGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, Deflater.DEFAULT_COMPRESSION,
+             ParallelDeflater.DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new output stream with the specified compression level,
+     * block size and pool.
+     *
+     * @param out the output stream
+     * @param level the compression level (0-9), or
+     *              {@link Deflater#DEFAULT_COMPRESSION}
+     * @param blockSize the number of bytes of data compressed by each task
+     * @param pool the pool on which the blocks are compressed
+     * @throws    IOException If an I/O error has occurred.
+     * @throws    IllegalArgumentException if the compression level is
+     *            invalid or {@code blockSize <= 0}
+     * @throws    NullPointerException if {@code pool} is null
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int level, int blockSize,
+                                    ForkJoinPool pool) throws IOException {
+        super(out);
+        this.def = new ParallelDeflater(out, level, blockSize,
+                                        Objects.requireNonNull(pool));
+        writeHeader();
+    }
+
+    /**
+     * Writes a byte to the compressed output stream.
+     *
+     * @param b the byte to be written
+     * @throws    IOException If an I/O error has occurred.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        byte[] buf = new byte[1];
+        buf[0] = (byte)(b & 0xff);
+        write(buf, 0, 1);
+    }
+
+    /**
+     * Writes array of bytes to the compressed output stream.
+     *
+     * @param buf the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @throws    IOException If an I/O error has occurred.
+     */
+    @Override
+    public synchronized void write(byte[] buf, int off, int len)
+        throws IOException
+    {
+        Objects.checkFromIndexSize(off, len, buf.length);
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        def.write(buf, off, len);
+        crc.update(buf, off, len);
+    }
+
+    /**
+     * Flushes the compressed output stream.
+     *
+     * <p>All the data written so far is compressed and written to the
+     * underlying stream, ending with a sync flush, before it is flushed.
+     *
+     * @throws    IOException If an I/O error has occurred.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!closed) {
+            def.flush();
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without closing
+     * the underlying stream. Use this method when applying multiple filters
+     * in succession to the same output stream.
+     *
+     * @throws    IOException If an I/O error has occurred.
+     */
+    public synchronized void finish() throws IOException {
+        if (!def.finished()) {
+            def.finish();
+            byte[] trailer = new byte[TRAILER_SIZE];
+            writeInt((int)crc.getValue(), trailer, 0);    // CRC-32 of uncompr. data
+            writeInt((int)def.getBytesRead(), trailer, 4); // Number of uncompr. bytes
+            out.write(trailer);
+        }
+    }
+
+    /**
+     * Writes remaining compressed data to the output stream and closes the
+     * underlying stream.
+     *
+     * @throws    IOException If an I/O error has occurred.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                finish();
+            } finally {
+                def.end();
+                out.close();
+            }
+        }
+    }
+
+    /*
+     * Writes GZIP member header.
+     */
+    private void writeHeader() throws IOException {
+        out.write(new byte[] {
+                      (byte) GZIP_MAGIC,        // Magic number (short)
+                      (byte)(GZIP_MAGIC >> 8),  // Magic number (short)
+                      Deflater.DEFLATED,        // Compression method (CM)
+                      0,                        // Flags (FLG)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Extra flags (XFLG)
+                      0                         // Operating system (OS)
+                  });
+    }
+
+    /*
+     * Writes integer in Intel byte order to a byte array, starting at a
+     * given offset.
+     */
+    private static void writeInt(int i, byte[] buf, int offset) {
+        buf[offset] = (byte)i;
+        buf[offset + 1] = (byte)(i >> 8);
+        buf[offset + 2] = (byte)(i >> 16);
+        buf[offset + 3] = (byte)(i >> 24);
+    }
+}
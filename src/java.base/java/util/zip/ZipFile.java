@@ -33,6 +33,8 @@ import java.io.File;
 import java.io.RandomAccessFile;
 import java.io.UncheckedIOException;
 import java.lang.ref.Cleaner.Cleanable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.InvalidPathException;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -45,12 +47,15 @@ import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Objects;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -59,6 +64,7 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import jdk.internal.access.JavaUtilZipFileAccess;
 import jdk.internal.access.SharedSecrets;
+import jdk.internal.misc.Unsafe;
 import jdk.internal.misc.VM;
 import jdk.internal.perf.PerfCounter;
 import jdk.internal.ref.CleanerFactory;
@@ -1077,12 +1083,14 @@ public class ZipFile implements ZipConstants, Closeable {
 
     private static class Source {
         private final Key key;               // the key in files
+        private final boolean toDelete;      // opened with OPEN_DELETE
         private int refs = 1;
 
         private RandomAccessFile zfile;      // zfile of the underlying zip file
         private byte[] cen;                  // CEN & ENDHDR
         private long locpos;                 // position of first LOC header (usually 0)
         private byte[] comment;              // zip file comment
+        private End end;                     // END header the CEN was read from
                                              // list of meta entries in META-INF dir
         private int[] metanames;
         private final boolean startsWithLoc; // true, if zip file starts with LOCSIG (usually true)
@@ -1152,6 +1160,84 @@ public class ZipFile implements ZipConstants, Closeable {
         }
         private static final HashMap<Key, Source> files = new HashMap<>();
 
+        // The central directory and index of a released Source, kept so
+        // that the same unmodified zip file can be opened again without
+        // reading and hashing its central directory. As the key does not
+        // change when a file is rewritten with its modification time kept,
+        // the index is only reused if the file size and END header match.
+        private static class Index {
+            final long fileSize;
+            final End end;
+            final byte[] cen;
+            final long locpos;
+            final byte[] comment;
+            final int[] metanames;
+            final boolean startsWithLoc;
+            final int[] entries;
+            final int total;
+            final int[] table;
+            final int tablelen;
+
+            Index(Source src) {
+                fileSize = src.key.attrs.size();
+                end = src.end;
+                cen = src.cen;
+                locpos = src.locpos;
+                comment = src.comment;
+                metanames = src.metanames;
+                startsWithLoc = src.startsWithLoc;
+                entries = src.entries;
+                total = src.total;
+                table = src.table;
+                tablelen = src.tablelen;
+            }
+
+            long size() {
+                return (cen == null ? 0 : cen.length)
+                    + 4L * (entries.length + (table == null ? 0 : table.length));
+            }
+        }
+
+        // Indexes of released sources in least recently used order, limited
+        // to MAX_RETAINED indexes and to the number of bytes given by the
+        // jdk.util.zip.indexCacheSize system property. No index is retained
+        // unless the property is set, as the memory is otherwise held for
+        // files that may never be opened again.
+        private static final int MAX_RETAINED = 16;
+        private static final long INDEX_CACHE_SIZE = indexCacheSize();
+        private static final LinkedHashMap<Key, Index> retained =
+            new LinkedHashMap<>(16, 0.75f, true);
+        private static long retainedSize;
+
+        private static long indexCacheSize() {
+            String s = VM.getSavedProperty("jdk.util.zip.indexCacheSize");
+            if (s != null) {
+                try {
+                    return Math.max(Long.parseLong(s.trim()), 0);
+                } catch (NumberFormatException nfe) {
+                    // use the default
+                }
+            }
+            return 0;
+        }
+
+        // Must be called with the files lock held.
+        private static void retain(Key key, Index index) {
+            long size = index.size();
+            if (size > INDEX_CACHE_SIZE) {
+                return;
+            }
+            Index old = retained.put(key, index);
+            if (old != null) {
+                retainedSize -= old.size();
+            }
+            retainedSize += size;
+            Iterator<Index> it = retained.values().iterator();
+            while (retainedSize > INDEX_CACHE_SIZE || retained.size() > MAX_RETAINED) {
+                retainedSize -= it.next().size();
+                it.remove();
+            }
+        }
 
         static Source get(File file, boolean toDelete, ZipCoder zc) throws IOException {
             final Key key;
@@ -1162,14 +1248,21 @@ public class ZipFile implements ZipConstants, Closeable {
                 throw new IOException(ipe);
             }
             Source src;
+            Index index;
             synchronized (files) {
                 src = files.get(key);
                 if (src != null) {
                     src.refs++;
                     return src;
                 }
+                index = retained.remove(key);
+                if (index != null) {
+                    retainedSize -= index.size();
+                }
             }
-            src = new Source(key, toDelete, zc);
+            src = (index != null && !toDelete && index.fileSize == key.attrs.size())
+                ? new Source(key, index, zc)
+                : new Source(key, toDelete, zc);
 
             synchronized (files) {
                 if (files.containsKey(key)) {    // someone else put in first
@@ -1187,6 +1280,9 @@ public class ZipFile implements ZipConstants, Closeable {
             synchronized (files) {
                 if (src != null && --src.refs == 0) {
                     files.remove(src.key);
+                    if (!src.toDelete && src.end != null && INDEX_CACHE_SIZE > 0) {
+                        retain(src.key, new Index(src));
+                    }
                     src.close();
                 }
             }
@@ -1194,6 +1290,7 @@ public class ZipFile implements ZipConstants, Closeable {
 
         private Source(Key key, boolean toDelete, ZipCoder zc) throws IOException {
             this.key = key;
+            this.toDelete = toDelete;
             if (toDelete) {
                 if (isWindows) {
                     this.zfile = SharedSecrets.getJavaIORandomAccessFileAccess()
@@ -1218,6 +1315,41 @@ public class ZipFile implements ZipConstants, Closeable {
             }
         }
 
+        // Opens the source with a retained index, or reads the central
+        // directory again if the END header is no longer the one the index
+        // was built from.
+        private Source(Key key, Index index, ZipCoder zc) throws IOException {
+            this.key = key;
+            this.toDelete = false;
+            this.zfile = new RandomAccessFile(key.file, "r");
+            try {
+                End end = findEND();
+                if (end.equals(index.end)) {
+                    this.end = end;
+                    this.cen = index.cen;
+                    this.locpos = index.locpos;
+                    this.comment = index.comment;
+                    this.metanames = index.metanames;
+                    this.startsWithLoc = index.startsWithLoc;
+                    this.entries = index.entries;
+                    this.total = index.total;
+                    this.table = index.table;
+                    this.tablelen = index.tablelen;
+                } else {
+                    this.comment = null;
+                    initCEN(-1, zc);
+                    byte[] buf = new byte[4];
+                    readFullyAt(buf, 0, 4, 0);
+                    this.startsWithLoc = (LOCSIG(buf) == LOCSIG);
+                }
+            } catch (IOException x) {
+                try {
+                    this.zfile.close();
+                } catch (IOException xx) {}
+                throw x;
+            }
+        }
+
         private void close() throws IOException {
             zfile.close();
             zfile = null;
@@ -1244,6 +1376,33 @@ public class ZipFile implements ZipConstants, Closeable {
             }
         }
 
+        // Central directories at least this large are read through a
+        // temporary mapping of the file, rather than BUF_SIZE bytes at a time.
+        private static final int MAP_CEN_THRESHOLD = 1024 * 1024;
+
+        private void readCEN(byte[] buf, long pos) throws IOException {
+            if (buf.length >= MAP_CEN_THRESHOLD && VM.isBooted()) {
+                MappedByteBuffer mbb = null;
+                try {
+                    synchronized (zfile) {
+                        mbb = zfile.getChannel()
+                                   .map(FileChannel.MapMode.READ_ONLY, pos, buf.length);
+                    }
+                    mbb.get(buf);
+                    return;
+                } catch (IOException | InternalError e) {
+                    // cannot be mapped, or truncated meanwhile: read it
+                } finally {
+                    if (mbb != null) {
+                        Unsafe.getUnsafe().invokeCleaner(mbb);
+                    }
+                }
+            }
+            if (readFullyAt(buf, 0, buf.length, pos) != buf.length) {
+                zerror("read CEN tables failed");
+            }
+        }
+
         private final int readAt(byte[] buf, int off, int len, long pos)
             throws IOException
         {
@@ -1296,6 +1455,19 @@ public class ZipFile implements ZipConstants, Closeable {
             long cenlen;     // 4 bytes
             long cenoff;     // 4 bytes
             long endpos;     // 4 bytes
+
+            public int hashCode() {
+                return Long.hashCode(endpos) * 31 + Long.hashCode(cenlen);
+            }
+
+            public boolean equals(Object obj) {
+                if (obj instanceof End) {
+                    End end = (End)obj;
+                    return centot == end.centot && cenlen == end.cenlen
+                        && cenoff == end.cenoff && endpos == end.endpos;
+                }
+                return false;
+            }
         }
 
         /*
@@ -1402,6 +1574,7 @@ public class ZipFile implements ZipConstants, Closeable {
         private void initCEN(int knownTotal, ZipCoder zc) throws IOException {
             if (knownTotal == -1) {
                 End end = findEND();
+                this.end = end;
                 if (end.endpos == 0) {
                     locpos = 0;
                     total = 0;
@@ -1420,10 +1593,14 @@ public class ZipFile implements ZipConstants, Closeable {
                 }
                 // read in the CEN and END
                 cen = new byte[(int)(end.cenlen + ENDHDR)];
-                if (readFullyAt(cen, 0, cen.length, cenpos) != end.cenlen + ENDHDR) {
-                    zerror("read CEN tables failed");
-                }
+                readCEN(cen, cenpos);
                 total = end.centot;
+                if (total >= PARALLEL_CEN_THRESHOLD && zc.isUTF8()
+                        && VM.isBooted()
+                        && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                    initCENParallel(zc);
+                    return;
+                }
             } else {
                 total = knownTotal;
             }
@@ -1452,26 +1629,11 @@ public class ZipFile implements ZipConstants, Closeable {
                     initCEN(countCENHeaders(cen, limit), zc);
                     return;
                 }
-                if (CENSIG(cen, pos) != CENSIG)
-                    zerror("invalid CEN header (bad signature)");
-                int method = CENHOW(cen, pos);
+                hash = checkEntry(pos, limit, zc);
                 int nlen   = CENNAM(cen, pos);
                 int elen   = CENEXT(cen, pos);
                 int clen   = CENCOM(cen, pos);
-                int flag   = CENFLG(cen, pos);
-                if ((flag & 1) != 0)
-                    zerror("invalid CEN header (encrypted entry)");
-                if (method != STORED && method != DEFLATED)
-                    zerror("invalid CEN header (bad compression method: " + method + ")");
-                if (pos + CENHDR + nlen > limit)
-                    zerror("invalid CEN header (bad header size)");
-                if (zc.isUTF8() || (flag & USE_UTF8) != 0) {
-                    checkUTF8(cen, pos + CENHDR, nlen);
-                } else {
-                    checkEncoding(zc, cen, pos + CENHDR, nlen);
-                }
                 // Record the CEN offset and the name hash in our hash cell.
-                hash = hashN(cen, pos + CENHDR, nlen);
                 hsh = (hash & 0x7fffffff) % tablelen;
                 next = table[hsh];
                 table[hsh] = idx;
@@ -1498,6 +1660,145 @@ public class ZipFile implements ZipConstants, Closeable {
             }
         }
 
+        /*
+         * Checks the CEN header at pos, and returns the hash of its name.
+         * The zip coder is only used if it is not UTF-8 and the entry name
+         * is not flagged as UTF-8.
+         */
+        private int checkEntry(int pos, int limit, ZipCoder zc) throws ZipException {
+            if (CENSIG(cen, pos) != CENSIG)
+                zerror("invalid CEN header (bad signature)");
+            int method = CENHOW(cen, pos);
+            int nlen   = CENNAM(cen, pos);
+            int flag   = CENFLG(cen, pos);
+            if ((flag & 1) != 0)
+                zerror("invalid CEN header (encrypted entry)");
+            if (method != STORED && method != DEFLATED)
+                zerror("invalid CEN header (bad compression method: " + method + ")");
+            if (pos + CENHDR + nlen > limit)
+                zerror("invalid CEN header (bad header size)");
+            if (zc.isUTF8() || (flag & USE_UTF8) != 0) {
+                checkUTF8(cen, pos + CENHDR, nlen);
+            } else {
+                checkEncoding(zc, cen, pos + CENHDR, nlen);
+            }
+            return hashN(cen, pos + CENHDR, nlen);
+        }
+
+        // Central directories with at least this many entries are checked
+        // and hashed in parallel, if their names are UTF-8.
+        private static final int PARALLEL_CEN_THRESHOLD = 32 * 1024;
+
+        /*
+         * Reads the central directory of a zip file with UTF-8 names as
+         * initCEN does, checking and hashing the entries in parallel.
+         * The entries are first located by a sequential scan, which stops
+         * after the first entry that has a bad signature or size; the hash
+         * chains and meta names are then built in CEN order, so that the
+         * index, and the first error found, are the same as initCEN's.
+         */
+        private void initCENParallel(ZipCoder zc) throws IOException {
+            final int limit = cen.length - ENDHDR;
+            int[] positions = new int[total];
+            int n = 0;
+            int pos = 0;
+            boolean bad = false;
+            while (pos + CENHDR <= limit) {
+                if (n == positions.length) {
+                    positions = Arrays.copyOf(positions, n + (n >> 1) + 16);
+                }
+                positions[n++] = pos;
+                if (CENSIG(cen, pos) != CENSIG
+                        || pos + CENHDR + CENNAM(cen, pos) > limit) {
+                    bad = true;
+                    break;
+                }
+                pos += CENHDR + CENNAM(cen, pos) + CENEXT(cen, pos) + CENCOM(cen, pos);
+            }
+            entries = new int[n * 3];
+            CheckTask task = new CheckTask(this, zc, positions, 0, n, limit);
+            ForkJoinPool.commonPool().invoke(task);
+            if (task.error != null) {
+                throw task.error;
+            }
+            if (bad) {
+                throw new InternalError("bad CEN header not found");
+            }
+            total = n;
+            tablelen = ((total/2) | 1); // Odd -> fewer collisions
+            table    =  new int[tablelen];
+            Arrays.fill(table, ZIP_ENDCHAIN);
+            ArrayList<Integer> metanamesList = null;
+            for (int idx = 0, len = n * 3; idx < len; idx += 3) {
+                int hsh = (entries[idx] & 0x7fffffff) % tablelen;
+                entries[idx + 1] = table[hsh];
+                table[hsh] = idx;
+                int p = entries[idx + 2];
+                if (isMetaName(cen, p + CENHDR, CENNAM(cen, p))) {
+                    if (metanamesList == null)
+                        metanamesList = new ArrayList<>(4);
+                    metanamesList.add(p);
+                }
+            }
+            if (metanamesList != null) {
+                metanames = new int[metanamesList.size()];
+                for (int j = 0, len = metanames.length; j < len; j++) {
+                    metanames[j] = metanamesList.get(j);
+                }
+            }
+            if (pos + ENDHDR != cen.length) {
+                zerror("invalid CEN header (bad header size)");
+            }
+        }
+
+        /*
+         * Checks and hashes the entries at positions[lo, hi), storing the
+         * hash and position of each in the entries of the source.  Records
+         * the error of the first bad entry, if any.
+         */
+        @SuppressWarnings("serial") // Not statically typed as Serializable
+        private static final class CheckTask extends RecursiveAction {
+            private static final int LEAF_SIZE = 4096;
+            private final Source src;
+            private final ZipCoder zc;
+            private final int[] positions;
+            private final int lo, hi, limit;
+            ZipException error;
+
+            CheckTask(Source src, ZipCoder zc, int[] positions,
+                      int lo, int hi, int limit) {
+                this.src = src;
+                this.zc = zc;
+                this.positions = positions;
+                this.lo = lo;
+                this.hi = hi;
+                this.limit = limit;
+            }
+
+            @Override
+            protected void compute() {
+                if (hi - lo <= LEAF_SIZE) {
+                    int[] entries = src.entries;
+                    for (int i = lo; i < hi; i++) {
+                        int pos = positions[i];
+                        try {
+                            entries[i * 3] = src.checkEntry(pos, limit, zc);
+                        } catch (ZipException e) {
+                            error = e;
+                            return;
+                        }
+                        entries[i * 3 + 2] = pos;
+                    }
+                } else {
+                    int mid = (lo + hi) >>> 1;
+                    CheckTask left = new CheckTask(src, zc, positions, lo, mid, limit);
+                    CheckTask right = new CheckTask(src, zc, positions, mid, hi, limit);
+                    invokeAll(left, right);
+                    error = left.error != null ? left.error : right.error;
+                }
+            }
+        }
+
         private static void zerror(String msg) throws ZipException {
             throw new ZipException(msg);
         }
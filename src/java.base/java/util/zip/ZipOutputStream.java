@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Vector;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
 import static java.util.zip.ZipConstants64.*;
 import static java.util.zip.ZipUtils.*;
 import sun.nio.cs.UTF_8;
@@ -74,8 +75,14 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
     private long locoff = 0;
     private byte[] comment;
     private int method = DEFLATED;
+    private int level = Deflater.DEFAULT_COMPRESSION;
     private boolean finished;
 
+    // compresses DEFLATED entries in parallel when a pool is set
+    private ForkJoinPool pool;
+    private ParallelDeflater pdef;
+    private boolean parallelEntry;     // current entry uses pdef
+
     private boolean closed = false;
 
     private final ZipCoder zc;
@@ -174,6 +181,27 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
      */
     public void setLevel(int level) {
         def.setLevel(level);
+        this.level = level;
+    }
+
+    /**
+     * Sets the pool on which subsequent entries which are DEFLATED are
+     * compressed, or {@code null} to compress them on the thread writing
+     * to this stream, which is the default.
+     *
+     * <p>When a pool is set, the data of each DEFLATED entry is split into
+     * blocks that are compressed in parallel, each with the end of the
+     * previous block as its preset dictionary, as by a {@link
+     * ParallelGZIPOutputStream}.  The entries are written in the same
+     * format, and may be read by any ZIP reader.  The stream's own deflater
+     * is not used for these entries; their blocks are compressed at the
+     * level set by {@link #setLevel}.
+     *
+     * @param     pool the pool, or {@code null}
+     * @since 15
+     */
+    public void setParallelCompression(ForkJoinPool pool) {
+        this.pool = pool;
     }
 
     /**
@@ -236,6 +264,15 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
         current = new XEntry(e, written);
         xentries.add(current);
         writeLOC(current);
+        parallelEntry = e.method == DEFLATED && pool != null;
+        if (parallelEntry) {
+            if (pdef == null) {
+                pdef = new ParallelDeflater(out, level,
+                                            ParallelDeflater.DEFAULT_BLOCK_SIZE, pool);
+            } else {
+                pdef.reset(level);
+            }
+        }
     }
 
     /**
@@ -250,21 +287,30 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
             ZipEntry e = current.entry;
             switch (e.method) {
             case DEFLATED:
-                def.finish();
-                while (!def.finished()) {
-                    deflate();
+                long size, csize;
+                if (parallelEntry) {
+                    pdef.finish();
+                    size = pdef.getBytesRead();
+                    csize = pdef.getBytesWritten();
+                } else {
+                    def.finish();
+                    while (!def.finished()) {
+                        deflate();
+                    }
+                    size = def.getBytesRead();
+                    csize = def.getBytesWritten();
                 }
                 if ((e.flag & 8) == 0) {
                     // verify size, compressed size, and crc-32 settings
-                    if (e.size != def.getBytesRead()) {
+                    if (e.size != size) {
                         throw new ZipException(
                             "invalid entry size (expected " + e.size +
-                            " but got " + def.getBytesRead() + " bytes)");
+                            " but got " + size + " bytes)");
                     }
-                    if (e.csize != def.getBytesWritten()) {
+                    if (e.csize != csize) {
                         throw new ZipException(
                             "invalid entry compressed size (expected " +
-                            e.csize + " but got " + def.getBytesWritten() + " bytes)");
+                            e.csize + " but got " + csize + " bytes)");
                     }
                     if (e.crc != crc.getValue()) {
                         throw new ZipException(
@@ -273,12 +319,14 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
                             Long.toHexString(crc.getValue()) + ")");
                     }
                 } else {
-                    e.size  = def.getBytesRead();
-                    e.csize = def.getBytesWritten();
+                    e.size  = size;
+                    e.csize = csize;
                     e.crc = crc.getValue();
                     writeEXT(e);
                 }
-                def.reset();
+                if (!parallelEntry) {
+                    def.reset();
+                }
                 written += e.csize;
                 break;
             case STORED:
@@ -328,7 +376,11 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
         ZipEntry entry = current.entry;
         switch (entry.method) {
         case DEFLATED:
-            super.write(b, off, len);
+            if (parallelEntry) {
+                pdef.write(b, off, len);
+            } else {
+                super.write(b, off, len);
+            }
             break;
         case STORED:
             written += len;
@@ -374,7 +426,13 @@ public class ZipOutputStream extends DeflaterOutputStream implements ZipConstant
      */
     public void close() throws IOException {
         if (!closed) {
-            super.close();
+            try {
+                super.close();
+            } finally {
+                if (pdef != null) {
+                    pdef.end();
+                }
+            }
             closed = true;
         }
     }
@@ -29,6 +29,7 @@ import jdk.internal.access.foreign.MemorySegmentProxy;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 
 public interface JavaNioAccess {
     /**
@@ -71,4 +72,11 @@ public interface JavaNioAccess {
      * Used by byte buffer var handle views.
      */
     void checkSegment(Buffer buffer);
+
+    /**
+     * Advises the operating system that the content of the given mapped
+     * buffer will be needed soon, without loading it.
+     * Used by {@code sun.nio.ch.FileChannelImpl}.
+     */
+    void prefetch(MappedByteBuffer buffer);
 }
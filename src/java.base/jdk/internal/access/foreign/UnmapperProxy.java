@@ -31,6 +31,23 @@ package jdk.internal.access.foreign;
  * inside the {@code sun.nio.ch} package) to be accessed from the mapped memory segment factory.
  */
 public interface UnmapperProxy {
+    // advice for the advise method
+    int ADVICE_WILLNEED = 0;
+
     long address();
+    int pagePosition();
     void unmap();
+
+    /**
+     * Forces changes to the given range of the mapping to be written to
+     * the storage device containing the mapped file.
+     */
+    void force(long address, long length);
+
+    /**
+     * Advises the operating system of the expected use of the given range
+     * of the mapping. The advice is a hint and may be ignored; the
+     * method returns without waiting for any I/O it causes.
+     */
+    void advise(long address, long length, int advice);
 }
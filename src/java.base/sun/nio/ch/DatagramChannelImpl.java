@@ -540,7 +540,8 @@ class DatagramChannelImpl
         assert readLock.isHeldByCurrentThread()
                 && sm != null && remoteAddress == null;
 
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(dst.remaining());
+        int size = dst.remaining();
+        ByteBuffer bb = Util.getTemporaryDirectBuffer(size);
         try {
             boolean blocking = isBlocking();
             for (;;) {
@@ -560,8 +561,9 @@ class DatagramChannelImpl
                         dst.put(bb);
                         return isa;
                     } catch (SecurityException se) {
-                        // ignore datagram
-                        bb.clear();
+                        // ignore datagram; the capacity of a temporary
+                        // buffer may exceed the size requested
+                        bb.clear().limit(size);
                     }
                 } else {
                     return null;
@@ -872,6 +872,9 @@ public class FileChannelImpl
         // may be required to close file
         private static final NativeDispatcher nd = new FileDispatcherImpl();
 
+        // largest range forced or advised with one mapped byte buffer
+        private static final int MAX_CHUNK = 1 << 30;
+
         private volatile long address;
         protected final long size;
         protected final long cap;
@@ -894,6 +897,38 @@ public class FileChannelImpl
             return address;
         }
 
+        @Override
+        public int pagePosition() {
+            return pagePosition;
+        }
+
+        @Override
+        public void force(long address, long length) {
+            // force in chunks that fit in a mapped byte buffer, which
+            // flushes whole pages
+            boolean isSync = this instanceof SyncUnmapper;
+            while (length > 0) {
+                int n = (int)Math.min(length, MAX_CHUNK);
+                Util.newMappedByteBuffer(n, address, fd, null, isSync).force();
+                address += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void advise(long address, long length, int advice) {
+            if (advice != ADVICE_WILLNEED)
+                return;
+            JavaNioAccess nioAccess = SharedSecrets.getJavaNioAccess();
+            boolean isSync = this instanceof SyncUnmapper;
+            while (length > 0) {
+                int n = (int)Math.min(length, MAX_CHUNK);
+                nioAccess.prefetch(Util.newMappedByteBuffer(n, address, fd, null, isSync));
+                address += n;
+                length -= n;
+            }
+        }
+
         @Override
         public void run() {
             unmap();
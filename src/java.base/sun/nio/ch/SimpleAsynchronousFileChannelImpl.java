@@ -393,4 +393,195 @@ public class SimpleAsynchronousFileChannelImpl
         executor.execute(task);
         return result;
     }
+
+    @Override
+    public <A> void read(ByteBuffer[] dsts,
+                         long[] positions,
+                         A attachment,
+                         CompletionHandler<Long,? super A> handler)
+    {
+        if (handler == null)
+            throw new NullPointerException("'handler' is null");
+        implBatch(dsts.clone(), positions.clone(), true, attachment, handler);
+    }
+
+    @Override
+    public Future<Long> read(ByteBuffer[] dsts, long[] positions) {
+        return implBatch(dsts.clone(), positions.clone(), true, null, null);
+    }
+
+    @Override
+    public <A> void write(ByteBuffer[] srcs,
+                          long[] positions,
+                          A attachment,
+                          CompletionHandler<Long,? super A> handler)
+    {
+        if (handler == null)
+            throw new NullPointerException("'handler' is null");
+        implBatch(srcs.clone(), positions.clone(), false, attachment, handler);
+    }
+
+    @Override
+    public Future<Long> write(ByteBuffer[] srcs, long[] positions) {
+        return implBatch(srcs.clone(), positions.clone(), false, null, null);
+    }
+
+    /**
+     * Reads or writes a batch of buffers. The batch is split into contiguous
+     * chunks, at most one per processor, and each chunk is done by a single
+     * task so that the thread registration and close handshake is done once
+     * per chunk rather than once per buffer. The arrays are copies of those
+     * of the caller, so that they cannot change once checked.
+     */
+    private <A> Future<Long> implBatch(final ByteBuffer[] bufs,
+                                       final long[] positions,
+                                       final boolean read,
+                                       final A attachment,
+                                       final CompletionHandler<Long,? super A> handler)
+    {
+        if (bufs.length != positions.length)
+            throw new IllegalArgumentException("Arrays of different lengths");
+        for (int i = 0; i < bufs.length; i++) {
+            if (bufs[i] == null)
+                throw new NullPointerException("Null buffer");
+            if (positions[i] < 0)
+                throw new IllegalArgumentException("Negative position");
+            if (read && bufs[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        if (read && !reading)
+            throw new NonReadableChannelException();
+        if (!read && !writing)
+            throw new NonWritableChannelException();
+
+        // complete immediately if channel closed or batch is empty
+        int count = bufs.length;
+        if (!isOpen() || count == 0) {
+            Throwable exc = (isOpen()) ? null : new ClosedChannelException();
+            if (handler == null)
+                return CompletedFuture.withResult(0L, exc);
+            Invoker.invokeIndirectly(handler, attachment, 0L, exc, executor);
+            return null;
+        }
+
+        final PendingFuture<Long,A> result = (handler == null) ?
+            new PendingFuture<Long,A>(this) : null;
+        int chunks = Math.min(count, Runtime.getRuntime().availableProcessors());
+        final BatchResult<A> batch =
+            new BatchResult<>(chunks, attachment, handler, result);
+        for (int c = 0; c < chunks; c++) {
+            final int from = (int) ((long) count * c / chunks);
+            final int to = (int) ((long) count * (c + 1) / chunks);
+            Runnable task = new Runnable() {
+                public void run() {
+                    long total = 0;
+                    Throwable exc = null;
+
+                    int ti = threads.add();
+                    try {
+                        begin();
+                        // a failure other than the channel being closed does
+                        // not end the chunk, so that every buffer of the
+                        // batch is read or written while the channel is open
+                        for (int i = from; i < to; i++) {
+                            ByteBuffer buf = bufs[i];
+                            if (!buf.hasRemaining())
+                                continue;
+                            if (!isOpen())
+                                throw new AsynchronousCloseException();
+                            try {
+                                int n;
+                                do {
+                                    n = (read) ? IOUtil.read(fdObj, buf, positions[i], nd)
+                                               : IOUtil.write(fdObj, buf, positions[i], nd);
+                                } while ((n == IOStatus.INTERRUPTED) && isOpen());
+                                if (n < 0 && !isOpen())
+                                    throw new AsynchronousCloseException();
+                                if (n > 0)
+                                    total += n;
+                            } catch (IOException x) {
+                                if (!isOpen())
+                                    throw new AsynchronousCloseException();
+                                if (exc == null) {
+                                    exc = x;
+                                } else {
+                                    exc.addSuppressed(x);
+                                }
+                            }
+                        }
+                    } catch (IOException x) {
+                        // channel closed: the rest of the chunk is not done
+                        if (!isOpen())
+                            x = new AsynchronousCloseException();
+                        if (exc == null) {
+                            exc = x;
+                        } else {
+                            exc.addSuppressed(x);
+                        }
+                    } catch (RuntimeException x) {
+                        // report the failure so that the batch completes
+                        if (exc == null) {
+                            exc = x;
+                        } else {
+                            exc.addSuppressed(x);
+                        }
+                    } finally {
+                        end();
+                        threads.remove(ti);
+                    }
+                    batch.chunkDone(total, exc);
+                }
+            };
+            executor.execute(task);
+        }
+        return result;
+    }
+
+    /**
+     * Accumulates the results of the chunks of a batch and completes the
+     * batch when the last chunk is done.
+     */
+    private static class BatchResult<A> {
+        private final A attachment;
+        private final CompletionHandler<Long,? super A> handler;
+        private final PendingFuture<Long,A> result;
+        private int remaining;
+        private long total;
+        private Throwable exc;
+
+        BatchResult(int chunks,
+                    A attachment,
+                    CompletionHandler<Long,? super A> handler,
+                    PendingFuture<Long,A> result)
+        {
+            this.remaining = chunks;
+            this.attachment = attachment;
+            this.handler = handler;
+            this.result = result;
+        }
+
+        void chunkDone(long n, Throwable x) {
+            long total;
+            Throwable exc;
+            synchronized (this) {
+                this.total += n;
+                if (x != null) {
+                    if (this.exc == null) {
+                        this.exc = x;
+                    } else {
+                        this.exc.addSuppressed(x);
+                    }
+                }
+                if (--remaining > 0)
+                    return;
+                total = this.total;
+                exc = this.exc;
+            }
+            if (handler == null) {
+                result.setResult(total, exc);
+            } else {
+                Invoker.invokeUnchecked(handler, attachment, total, exc);
+            }
+        }
+    }
 }
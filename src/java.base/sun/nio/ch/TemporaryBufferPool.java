@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.nio.ch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.internal.access.JavaNioAccess;
+import jdk.internal.misc.VM;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A pool of the temporary direct buffers used to substitute for heap
+ * buffers in I/O operations, shared by all threads.
+ *
+ * <p> Buffers are pooled in power-of-two size classes from 4K up to the
+ * smaller of the value of the {@code jdk.nio.maxCachedBufferSize} property,
+ * if set, and the bound on the idle buffers below, and no more than 1G.
+ * Larger buffers are allocated at the requested size and are freed when
+ * released. Each class has a small magazine per stripe, a stripe being selected
+ * by the current thread so that threads on different processors rarely
+ * contend, and a shared depot that magazines overflow into and refill
+ * from. The total capacity of the idle buffers in the pool is bounded by
+ * the {@code jdk.nio.temporaryBufferPoolSize} property, by default a
+ * sixteenth of the maximum direct memory but no more than 64M; a buffer
+ * released when the pool is full is freed. Unlike a per-thread cache, an
+ * idle thread pins no native memory.
+ */
+final class TemporaryBufferPool {
+
+    private TemporaryBufferPool() { }
+
+    // smallest size class
+    private static final int MIN_SHIFT = 12;
+
+    // the bound on the total capacity of idle buffers
+    private static final long MAX_IDLE = maxIdle();
+
+    // largest size class, no larger than MAX_IDLE
+    private static final int MAX_SHIFT = maxShift();
+
+    // number of buffers per size class in each magazine
+    private static final int MAGAZINE_SIZE = 4;
+
+    private static final Stripe[] STRIPES = stripes();
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final ConcurrentLinkedDeque<ByteBuffer>[] DEPOTS =
+        new ConcurrentLinkedDeque[MAX_SHIFT - MIN_SHIFT + 1];
+    static {
+        for (int i = 0; i < DEPOTS.length; i++)
+            DEPOTS[i] = new ConcurrentLinkedDeque<>();
+    }
+
+    // total capacity of the idle buffers in the pool
+    private static final AtomicLong IDLE = new AtomicLong();
+
+    // number and total capacity of the buffers allocated by the pool that
+    // have not been freed, whether idle or in use
+    private static final AtomicLong COUNT = new AtomicLong();
+    private static final AtomicLong TOTAL_CAPACITY = new AtomicLong();
+
+    private static int maxShift() {
+        long max = Long.MAX_VALUE;
+        String s = GetPropertyAction
+                .privilegedGetProperty("jdk.nio.maxCachedBufferSize");
+        if (s != null) {
+            try {
+                long m = Long.parseLong(s);
+                if (m >= 0)
+                    max = m;
+            } catch (NumberFormatException e) {
+                // ignore the system property
+            }
+        }
+        // a buffer larger than the bound would be freed on release
+        max = Math.min(max, MAX_IDLE);
+        if (max >= (1 << 30))
+            return 30;
+        // largest power of two that is not larger than max
+        int shift = 63 - Long.numberOfLeadingZeros(Math.max(max, 1));
+        // a shift less than MIN_SHIFT leaves no size classes
+        return Math.max(shift, MIN_SHIFT - 1);
+    }
+
+    private static long maxIdle() {
+        String s = GetPropertyAction
+                .privilegedGetProperty("jdk.nio.temporaryBufferPoolSize");
+        if (s != null) {
+            try {
+                long m = Long.parseLong(s);
+                if (m >= 0)
+                    return m;
+            } catch (NumberFormatException e) {
+                // ignore the system property
+            }
+        }
+        return Math.min(VM.maxDirectMemory() / 16, 64L << 20);
+    }
+
+    private static Stripe[] stripes() {
+        // a power of two that is not less than the number of processors
+        int ncpus = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        Stripe[] stripes = new Stripe[1 << (32 - Integer.numberOfLeadingZeros(ncpus - 1))];
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Stripe();
+        return stripes;
+    }
+
+    /**
+     * The magazines of a stripe, one per size class.
+     */
+    private static final class Stripe {
+        final ByteBuffer[][] buffers =
+            new ByteBuffer[MAX_SHIFT - MIN_SHIFT + 1][MAGAZINE_SIZE];
+        final int[] counts = new int[MAX_SHIFT - MIN_SHIFT + 1];
+
+        synchronized ByteBuffer poll(int sc) {
+            int n = counts[sc];
+            if (n == 0)
+                return null;
+            ByteBuffer buf = buffers[sc][--n];
+            buffers[sc][n] = null;
+            counts[sc] = n;
+            return buf;
+        }
+
+        synchronized boolean offer(int sc, ByteBuffer buf) {
+            int n = counts[sc];
+            if (n == MAGAZINE_SIZE)
+                return false;
+            buffers[sc][n] = buf;
+            counts[sc] = n + 1;
+            return true;
+        }
+    }
+
+    private static Stripe stripe() {
+        int h = System.identityHashCode(Thread.currentThread());
+        h ^= h >>> 16;
+        return STRIPES[h & (STRIPES.length - 1)];
+    }
+
+    /**
+     * Returns the size class of a buffer of the given size, or -1 if
+     * buffers of that size are not pooled.
+     */
+    private static int sizeClass(int size) {
+        if (size <= (1 << MIN_SHIFT))
+            return (MAX_SHIFT >= MIN_SHIFT) ? 0 : -1;
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return (shift <= MAX_SHIFT) ? shift - MIN_SHIFT : -1;
+    }
+
+    /**
+     * Returns a buffer with a limit of the given size and a position of
+     * zero. The capacity of the buffer may be larger than the given size.
+     */
+    static ByteBuffer get(int size) {
+        int sc = sizeClass(size);
+        if (sc < 0)
+            return ByteBuffer.allocateDirect(size);
+        ByteBuffer buf = stripe().poll(sc);
+        if (buf == null)
+            buf = DEPOTS[sc].pollFirst();
+        if (buf == null) {
+            int cap = 1 << (sc + MIN_SHIFT);
+            buf = ByteBuffer.allocateDirect(cap);
+            COUNT.incrementAndGet();
+            TOTAL_CAPACITY.addAndGet(cap);
+        } else {
+            IDLE.addAndGet(-buf.capacity());
+        }
+        buf.clear().limit(size);
+        return buf;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #get} to the pool, or frees it
+     * if the pool is full or it was not allocated by the pool.
+     */
+    static void release(ByteBuffer buf) {
+        int cap = buf.capacity();
+        int sc = sizeClass(cap);
+        DirectBuffer db = (DirectBuffer)buf;
+        if (sc < 0 || cap != (1 << (sc + MIN_SHIFT)) || db.cleaner() == null) {
+            free(buf);
+            return;
+        }
+        for (;;) {
+            long idle = IDLE.get();
+            if (idle + cap > MAX_IDLE) {
+                free(buf);
+                COUNT.decrementAndGet();
+                TOTAL_CAPACITY.addAndGet(-cap);
+                return;
+            }
+            if (IDLE.compareAndSet(idle, idle + cap))
+                break;
+        }
+        if (!stripe().offer(sc, buf))
+            DEPOTS[sc].offerFirst(buf);
+    }
+
+    /**
+     * Frees the memory for the given direct buffer, or for the buffer that
+     * it is a slice of.
+     */
+    private static void free(ByteBuffer buf) {
+        DirectBuffer db = (DirectBuffer)buf;
+        if (db.cleaner() == null && db.attachment() instanceof DirectBuffer)
+            db = (DirectBuffer)db.attachment();
+        if (db.cleaner() != null)
+            db.cleaner().clean();
+    }
+
+    /**
+     * Invoked by sun.management.ManagementFactoryHelper to create the management
+     * interface for the temporary buffers. These buffers are also included in
+     * the "direct" pool.
+     */
+    static JavaNioAccess.BufferPool getBufferPool() {
+        return new JavaNioAccess.BufferPool() {
+            @Override
+            public String getName() {
+                return "temporary";
+            }
+            @Override
+            public long getCount() {
+                return COUNT.get();
+            }
+            @Override
+            public long getTotalCapacity() {
+                return TOTAL_CAPACITY.get();
+            }
+            @Override
+            public long getMemoryUsed() {
+                return TOTAL_CAPACITY.get();
+            }
+        };
+    }
+}
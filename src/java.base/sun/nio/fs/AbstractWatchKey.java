@@ -27,6 +27,7 @@ package sun.nio.fs;
 
 import java.nio.file.*;
 import java.util.*;
+import sun.security.action.GetPropertyAction;
 
 /**
  * Base implementation class for watch keys.
@@ -35,9 +36,26 @@ import java.util.*;
 abstract class AbstractWatchKey implements WatchKey {
 
     /**
-     * Maximum size of event list (in the future this may be tunable)
+     * Maximum size of event list, set by the
+     * jdk.nio.file.WatchService.maxEventsPerPoll property
      */
-    static final int MAX_EVENT_LIST_SIZE    = 512;
+    static final int MAX_EVENT_LIST_SIZE    = maxEventListSize();
+
+    private static int maxEventListSize() {
+        String s = GetPropertyAction
+                .privilegedGetProperty("jdk.nio.file.WatchService.maxEventsPerPoll");
+        if (s != null) {
+            try {
+                int n = Integer.parseInt(s);
+                if (n > 0) {
+                    return n;
+                }
+            } catch (NumberFormatException e) {
+                // ignore the system property
+            }
+        }
+        return 512;
+    }
 
     /**
      * Special event to signal overflow
@@ -59,19 +77,23 @@ abstract class AbstractWatchKey implements WatchKey {
     // key state
     private State state;
 
+    // number of batches of events being added; the key is signalled
+    // when the last one ends rather than as each event is added
+    private int batches;
+
     // pending events
     private List<WatchEvent<?>> events;
 
     // maps a context to the last event for the context (iff the last queued
-    // event for the context is an ENTRY_MODIFY event).
-    private Map<Object,WatchEvent<?>> lastModifyEvents;
+    // event for the context is an ENTRY_CREATE or ENTRY_MODIFY event).
+    private Map<Object,WatchEvent<?>> lastEvents;
 
     protected AbstractWatchKey(Path dir, AbstractWatchService watcher) {
         this.watcher = watcher;
         this.dir = dir;
         this.state = State.READY;
         this.events = new ArrayList<>();
-        this.lastModifyEvents = new HashMap<>();
+        this.lastEvents = new HashMap<>();
     }
 
     final AbstractWatchService watcher() {
@@ -99,7 +121,31 @@ abstract class AbstractWatchKey implements WatchKey {
     }
 
     /**
-     * Adds the event to this key and signals it.
+     * Starts a batch of events. Events added before the matching call to
+     * {@link #endEvents} do not signal this key; it is signalled once, when
+     * the batch ends, if it has pending events.
+     */
+    final void beginEvents() {
+        synchronized (this) {
+            batches++;
+        }
+    }
+
+    /**
+     * Ends a batch of events started by {@link #beginEvents}.
+     */
+    final void endEvents() {
+        synchronized (this) {
+            assert batches > 0;
+            if (--batches == 0 && !events.isEmpty()) {
+                signal();
+            }
+        }
+    }
+
+    /**
+     * Adds the event to this key and signals it, unless a batch of events
+     * is being added.
      */
     @SuppressWarnings("unchecked")
     final void signalEvent(WatchEvent.Kind<?> kind, Object context) {
@@ -119,19 +165,21 @@ abstract class AbstractWatchKey implements WatchKey {
                 }
 
                 // if this is a modify event and the last entry for the context
-                // is a modify event then we simply increment the count
-                if (!lastModifyEvents.isEmpty()) {
+                // is a modify event then we simply increment the count. If the
+                // last entry is a create event then the modification is implied
+                // as the event has not been retrieved yet.
+                if (!lastEvents.isEmpty()) {
                     if (isModify) {
-                        WatchEvent<?> ev = lastModifyEvents.get(context);
+                        WatchEvent<?> ev = lastEvents.get(context);
                         if (ev != null) {
-                            assert ev.kind() == StandardWatchEventKinds.ENTRY_MODIFY;
-                            ((Event<?>)ev).increment();
+                            if (ev.kind() == StandardWatchEventKinds.ENTRY_MODIFY)
+                                ((Event<?>)ev).increment();
                             return;
                         }
                     } else {
                         // not a modify event so remove from the map as the
-                        // last event will no longer be a modify event.
-                        lastModifyEvents.remove(context);
+                        // last event will be this event.
+                        lastEvents.remove(context);
                     }
                 }
 
@@ -147,15 +195,17 @@ abstract class AbstractWatchKey implements WatchKey {
             // non-repeated event
             Event<Object> ev =
                 new Event<>((WatchEvent.Kind<Object>)kind, context);
-            if (isModify) {
-                lastModifyEvents.put(context, ev);
+            if (isModify || kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                lastEvents.put(context, ev);
             } else if (kind == StandardWatchEventKinds.OVERFLOW) {
                 // drop all pending events
                 events.clear();
-                lastModifyEvents.clear();
+                lastEvents.clear();
             }
             events.add(ev);
-            signal();
+            if (batches == 0) {
+                signal();
+            }
         }
     }
 
@@ -164,7 +214,7 @@ abstract class AbstractWatchKey implements WatchKey {
         synchronized (this) {
             List<WatchEvent<?>> result = events;
             events = new ArrayList<>();
-            lastModifyEvents.clear();
+            lastEvents.clear();
             return result;
         }
     }
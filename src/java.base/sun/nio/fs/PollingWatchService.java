@@ -350,6 +350,16 @@ class PollingWatchService
                 return;
             }
 
+            // signal the key once for all the changes found by this poll
+            beginEvents();
+            try {
+                scan(stream);
+            } finally {
+                endEvents();
+            }
+        }
+
+        private void scan(DirectoryStream<Path> stream) {
             // iterate over all entries in directory
             try {
                 for (Path entry: stream) {
@@ -0,0 +1,765 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.MpscArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.internal.misc.Unsafe;
+
+/**
+ * Asynchronous file logging {@code Handler}.
+ * <p>
+ * The {@code AsyncFileHandler} writes to the same files as a
+ * {@link FileHandler} configured with the same pattern, limit, count
+ * and append mode, including rotation and the "%g" and "%u" pattern
+ * components.  Unlike {@code FileHandler}, publishing a record does not
+ * format, encode or write it: the record is placed in a bounded,
+ * lock-free buffer and a background writer thread formats and writes
+ * batches of records, flushing the file when the buffer has been drained.
+ * <p>
+ * When the buffer is full, the handler's {@linkplain OverflowPolicy
+ * overflow policy} decides whether the publishing thread waits for space
+ * ({@code BLOCK}) or the record is discarded ({@code DISCARD}).  Discarded
+ * records are counted; the writer thread reports the number of records
+ * discarded with a {@code WARNING} record written to the log file itself,
+ * and the first discard is also reported to the {@code ErrorManager}.
+ * <p>
+ * Optionally the log files can be written through memory-mapped segments
+ * rather than through a stream.  Each file is mapped a segment at a time
+ * and truncated to the bytes actually written when it is closed or
+ * rotated; if the VM terminates abnormally the last file may be followed
+ * by zero bytes up to the end of its current segment.
+ * <p>
+ * The source class and method of a record are inferred when the record
+ * is published, since the caller is no longer on the stack when the
+ * record is formatted.  Records published to an {@code AsyncFileHandler}
+ * must not be modified afterwards.  Records still buffered are written
+ * when the handler is flushed or closed; as the {@code LogManager} closes
+ * the handlers of its loggers when it is reset, a handler that is not
+ * attached to a logger should be closed explicitly.
+ * <p>
+ * By default the {@code XMLFormatter} class is used for formatting.
+ * <p>
+ * <b>Configuration:</b>
+ * By default each {@code AsyncFileHandler} is initialized using the following
+ * {@code LogManager} configuration properties where {@code <handler-name>}
+ * refers to the fully-qualified class name of the handler.
+ * If properties are not defined
+ * (or have invalid values) then the specified default values are used.
+ * <ul>
+ * <li>   &lt;handler-name&gt;.level
+ *        specifies the default level for the {@code Handler}
+ *        (defaults to {@code Level.ALL}). </li>
+ * <li>   &lt;handler-name&gt;.filter
+ *        specifies the name of a {@code Filter} class to use
+ *        (defaults to no {@code Filter}). </li>
+ * <li>   &lt;handler-name&gt;.formatter
+ *        specifies the name of a {@code Formatter} class to use
+ *        (defaults to {@code java.util.logging.XMLFormatter}) </li>
+ * <li>   &lt;handler-name&gt;.encoding
+ *        the name of the character set encoding to use (defaults to
+ *        the default platform encoding). </li>
+ * <li>   &lt;handler-name&gt;.limit
+ *        specifies an approximate maximum amount to write (in bytes)
+ *        to any one file.  If this is zero, then there is no limit.
+ *        (Defaults to no limit). </li>
+ * <li>   &lt;handler-name&gt;.count
+ *        specifies how many output files to cycle through (defaults to 1). </li>
+ * <li>   &lt;handler-name&gt;.pattern
+ *        specifies a pattern for generating the output file name, as
+ *        described by {@link FileHandler}. (Defaults to "%h/java%u.log"). </li>
+ * <li>   &lt;handler-name&gt;.append
+ *        specifies whether the AsyncFileHandler should append onto
+ *        any existing files (defaults to false). </li>
+ * <li>   &lt;handler-name&gt;.capacity
+ *        specifies how many records the buffer holds (defaults to 8192). </li>
+ * <li>   &lt;handler-name&gt;.overflow
+ *        specifies the overflow policy, {@code BLOCK} or {@code DISCARD}
+ *        (defaults to {@code BLOCK}). </li>
+ * <li>   &lt;handler-name&gt;.mapped
+ *        specifies whether the files are written through memory-mapped
+ *        segments (defaults to false). </li>
+ * </ul>
+ * <p>
+ * For example, the properties for {@code AsyncFileHandler} would be:
+ * <ul>
+ * <li>   java.util.logging.AsyncFileHandler.level=INFO </li>
+ * <li>   java.util.logging.AsyncFileHandler.overflow=DISCARD </li>
+ * </ul>
+ *
+ * @see FileHandler
+ * @since 15
+ */
+public class AsyncFileHandler extends Handler {
+
+    /**
+     * The action taken when a record is published while the buffer of an
+     * {@code AsyncFileHandler} is full.
+     *
+     * @since 15
+     */
+    public enum OverflowPolicy {
+        /**
+         * The publishing thread waits until the writer thread has made
+         * space in the buffer.
+         */
+        BLOCK,
+        /**
+         * The record is discarded and counted.
+         */
+        DISCARD
+    }
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 256;
+    // marker queued by close() to stop the writer thread
+    private static final Object CLOSE = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder discarded = new LongAdder();
+    // number of threads buffering a record; close() waits for it to drop
+    // to zero so that every record buffered while open precedes CLOSE
+    private final AtomicInteger publishing = new AtomicInteger();
+    private volatile boolean closed;
+    private Target target;
+    private final Thread writer;
+
+    /**
+     * Construct a default {@code AsyncFileHandler}.  This will be configured
+     * entirely from {@code LogManager} properties (or their default values).
+     *
+     * @exception  IOException if there are IO problems opening the files.
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control"))}.
+     * @exception  NullPointerException if pattern property is an empty String.
+     */
+    public AsyncFileHandler() throws IOException, SecurityException {
+        this(LogManager.getLogManager(), null, -1, -1, null, -1, null, null);
+    }
+
+    /**
+     * Initialize an {@code AsyncFileHandler} to write to a set of files
+     * with optional append.  The buffer capacity, overflow policy and
+     * mapped mode are configured from {@code LogManager} properties (or
+     * their default values).
+     *
+     * @param pattern  the pattern for naming the output file
+     * @param limit  the maximum number of bytes to write to any one file
+     * @param count  the number of files to use
+     * @param append  specifies append mode
+     * @exception  IOException if there are IO problems opening the files.
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     * @exception  IllegalArgumentException if {@code limit < 0}, or {@code count < 1}.
+     * @exception  IllegalArgumentException if pattern is an empty string
+     */
+    public AsyncFileHandler(String pattern, long limit, int count, boolean append)
+            throws IOException, SecurityException {
+        this(LogManager.getLogManager(), checkPattern(pattern),
+             checkLimit(limit), checkCount(count), append, -1, null, null);
+    }
+
+    /**
+     * Initialize an {@code AsyncFileHandler} to write to a set of files
+     * with optional append, through a buffer of the given capacity.
+     *
+     * @param pattern  the pattern for naming the output file
+     * @param limit  the maximum number of bytes to write to any one file
+     * @param count  the number of files to use
+     * @param append  specifies append mode
+     * @param capacity  the number of records the buffer holds
+     * @param overflowPolicy  the action taken when the buffer is full
+     * @param mapped  whether the files are written through memory-mapped
+     *                segments
+     * @exception  IOException if there are IO problems opening the files.
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     * @exception  IllegalArgumentException if {@code limit < 0},
+     *             {@code count < 1} or {@code capacity < 1}.
+     * @exception  IllegalArgumentException if pattern is an empty string
+     * @exception  NullPointerException if {@code overflowPolicy} is null
+     */
+    public AsyncFileHandler(String pattern, long limit, int count, boolean append,
+                            int capacity, OverflowPolicy overflowPolicy,
+                            boolean mapped)
+            throws IOException, SecurityException {
+        this(LogManager.getLogManager(), checkPattern(pattern),
+             checkLimit(limit), checkCount(count), append,
+             checkCapacity(capacity), Objects.requireNonNull(overflowPolicy),
+             mapped);
+    }
+
+    // Arguments that are null or negative are read from the configuration.
+    private AsyncFileHandler(LogManager manager, String pattern, long limit,
+                             int count, Boolean append, int capacity,
+                             OverflowPolicy overflowPolicy, Boolean mapped)
+            throws IOException {
+        super(Level.ALL, new XMLFormatter(), null);
+        manager.checkPermission();
+        String cname = getClass().getName();
+
+        if (pattern == null) {
+            pattern = manager.getStringProperty(cname + ".pattern", "%h/java%u.log");
+        }
+        if (limit < 0) {
+            limit = Math.max(manager.getLongProperty(cname + ".limit", 0), 0);
+        }
+        if (count < 0) {
+            count = manager.getIntProperty(cname + ".count", 1);
+            if (count <= 0) {
+                count = 1;
+            }
+        }
+        if (append == null) {
+            append = manager.getBooleanProperty(cname + ".append", false);
+        }
+        if (capacity < 0) {
+            capacity = manager.getIntProperty(cname + ".capacity", DEFAULT_CAPACITY);
+            if (capacity <= 0) {
+                capacity = DEFAULT_CAPACITY;
+            }
+        }
+        if (overflowPolicy == null) {
+            String policy = manager.getStringProperty(cname + ".overflow", null);
+            overflowPolicy = OverflowPolicy.BLOCK;
+            if (policy != null) {
+                try {
+                    overflowPolicy = OverflowPolicy.valueOf(
+                            policy.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException ex) {
+                    // invalid value: keep the default
+                }
+            }
+        }
+        if (mapped == null) {
+            mapped = manager.getBooleanProperty(cname + ".mapped", false);
+        }
+
+        this.queue = new MpscArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        Target t = mapped ? new MappedTarget(pattern, limit, count, append)
+                          : new Target(pattern, limit, count, append);
+        t.setFormatter(getFormatter());
+        t.setErrorManager(getErrorManager());
+        try {
+            t.setEncoding(getEncoding());
+        } catch (UnsupportedEncodingException ex) {
+            // already validated by setEncoding
+        }
+        synchronized (this) {
+            target = t;
+        }
+        writer = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            @Override
+            public Thread run() {
+                Thread thread = new Thread(null, AsyncFileHandler.this::writeRecords,
+                                           "AsyncFileHandler", 0, false);
+                thread.setDaemon(true);
+                thread.start();
+                return thread;
+            }
+        });
+    }
+
+    private static String checkPattern(String pattern) {
+        if (pattern.length() < 1) {
+            throw new IllegalArgumentException();
+        }
+        return pattern;
+    }
+
+    private static long checkLimit(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException();
+        }
+        return limit;
+    }
+
+    private static int checkCount(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException();
+        }
+        return count;
+    }
+
+    private static int checkCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+        return capacity;
+    }
+
+    /**
+     * Buffer a {@code LogRecord} to be formatted and written by the
+     * writer thread.
+     * <p>
+     * If the buffer is full the record is either discarded or the caller
+     * waits for space, as determined by the overflow policy.  A record
+     * published by the writer thread itself, for instance while formatting
+     * another record, is discarded if the buffer is full, since the writer
+     * thread cannot wait for itself to make space.
+     *
+     * @param  record  description of the log event. A null record is
+     *                 silently ignored and is not published
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // infer the caller while it is still on the stack
+        record.getSourceClassName();
+        publishing.incrementAndGet();
+        try {
+            if (!closed && buffer(record)) {
+                return;
+            }
+            discarded.increment();
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    /*
+     * Buffers a record as determined by the overflow policy. Returns false
+     * if the record was not buffered.
+     */
+    private boolean buffer(LogRecord record) {
+        if (queue.offer(record)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK
+                && Thread.currentThread() != writer) {
+            try {
+                return offerWhileOpen(record);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Waits for space in the buffer, giving up once the handler is closed
+     * or the writer thread has stopped, as it may then have stopped taking
+     * from it. Returns false if the element was not buffered.
+     */
+    private boolean offerWhileOpen(Object o) throws InterruptedException {
+        while (!closed && writer.isAlive()) {
+            if (queue.offer(o, 100, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flush any buffered records, waiting until they have been written
+     * to the file.
+     */
+    @Override
+    public void flush() {
+        if (closed || Thread.currentThread() == writer) {
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        try {
+            if (!offerWhileOpen(written)) {
+                return;
+            }
+            // the writer may exit without seeing the marker if the
+            // handler is closed concurrently
+            while (!written.await(100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write any buffered records, stop the writer thread and close
+     * the current output file.
+     *
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     */
+    @Override
+    public void close() throws SecurityException {
+        checkPermission();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        // a publisher that saw the handler open is buffering its record;
+        // wait for it, so that the writer takes the record before CLOSE
+        while (publishing.get() != 0) {
+            Thread.yield();
+        }
+        boolean interrupted = false;
+        // stop waiting for space if the writer thread is no longer taking
+        // from the buffer
+        for (;;) {
+            try {
+                if (queue.offer(CLOSE, 100, TimeUnit.MILLISECONDS)
+                        || !writer.isAlive()) {
+                    break;
+                }
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        target.close();
+    }
+
+    /**
+     * Set a {@code Formatter}, used by the writer thread to format
+     * buffered records.
+     *
+     * @param newFormatter the {@code Formatter} to use (may not be null)
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     */
+    @Override
+    public synchronized void setFormatter(Formatter newFormatter)
+            throws SecurityException {
+        super.setFormatter(newFormatter);
+        if (target != null) {
+            target.setFormatter(newFormatter);
+        }
+    }
+
+    /**
+     * Set (or change) the character encoding used by this {@code Handler}.
+     *
+     * @param encoding  The name of a supported character encoding.
+     *        May be null, to indicate the default platform encoding.
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     * @exception  UnsupportedEncodingException if the named encoding is
+     *          not supported.
+     */
+    @Override
+    public synchronized void setEncoding(String encoding)
+            throws SecurityException, UnsupportedEncodingException {
+        super.setEncoding(encoding);
+        if (target != null) {
+            target.setEncoding(encoding);
+        }
+    }
+
+    /**
+     * Define an ErrorManager for this Handler, which is also used for
+     * errors writing the files.
+     *
+     * @param em  the new ErrorManager
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     */
+    @Override
+    public synchronized void setErrorManager(ErrorManager em) {
+        super.setErrorManager(em);
+        if (target != null) {
+            target.setErrorManager(em);
+        }
+    }
+
+    /**
+     * Returns the action taken when a record is published while the
+     * buffer is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Returns the number of records discarded because the buffer was full.
+     *
+     * @return the number of discarded records
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    /*
+     * Body of the writer thread: publishes batches of buffered records to
+     * the target, flushing it when the buffer has been drained, until the
+     * close marker is taken.
+     */
+    private void writeRecords() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH);
+        long reported = 0;
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Object o : batch) {
+                if (o instanceof LogRecord) {
+                    publishRecord((LogRecord) o);
+                } else if (o == CLOSE) {
+                    stop = true;
+                } else {
+                    try {
+                        flushTarget();
+                    } finally {
+                        ((CountDownLatch) o).countDown();
+                    }
+                }
+            }
+            batch.clear();
+            long n = discarded.sum();
+            if (n != reported) {
+                reportDiscarded(n - reported, reported == 0);
+                reported = n;
+            }
+            if (stop || queue.isEmpty()) {
+                flushTarget();
+            }
+        }
+        // release any flush that raced with close
+        Object o;
+        while ((o = queue.poll()) != null) {
+            if (o instanceof CountDownLatch) {
+                ((CountDownLatch) o).countDown();
+            }
+        }
+    }
+
+    private void reportDiscarded(long n, boolean first) {
+        String msg = "AsyncFileHandler buffer full: " + n
+                     + " log records discarded";
+        if (first) {
+            reportError(msg, null, ErrorManager.WRITE_FAILURE);
+        }
+        LogRecord record = new LogRecord(Level.WARNING, msg);
+        record.setLoggerName(AsyncFileHandler.class.getName());
+        record.setSourceClassName(AsyncFileHandler.class.getName());
+        record.setSourceMethodName("publish");
+        publishRecord(record);
+    }
+
+    /*
+     * Publishes a record to the target.  A failure to format or write the
+     * record, including an Error thrown by a formatter or by a parameter's
+     * toString, is reported rather than stopping the writer thread, as it
+     * would only fail the call to publish of a FileHandler.
+     */
+    private void publishRecord(LogRecord record) {
+        try {
+            target.publish(record);
+        } catch (Throwable t) {
+            reportError(null, asException(t), ErrorManager.FORMAT_FAILURE);
+        }
+    }
+
+    /*
+     * Flushes the target, reporting rather than propagating any failure.
+     */
+    private void flushTarget() {
+        try {
+            target.flushNow();
+        } catch (Throwable t) {
+            reportError(null, asException(t), ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    private static Exception asException(Throwable t) {
+        return (t instanceof Exception) ? (Exception) t : new Exception(t);
+    }
+
+    /*
+     * The FileHandler written by the writer thread.  The flush after each
+     * record is deferred until the writer thread has drained the buffer.
+     */
+    private static class Target extends FileHandler {
+        private boolean flushing;
+
+        Target(String pattern, long limit, int count, boolean append)
+                throws IOException {
+            super(pattern, limit, count, append);
+        }
+
+        @Override
+        public synchronized void flush() {
+            if (flushing) {
+                super.flush();
+            }
+        }
+
+        synchronized void flushNow() {
+            flushing = true;
+            try {
+                flush();
+            } finally {
+                flushing = false;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws SecurityException {
+            flushing = true;
+            super.close();
+        }
+    }
+
+    /*
+     * A Target that writes its files through memory-mapped segments.
+     */
+    private static final class MappedTarget extends Target {
+        MappedTarget(String pattern, long limit, int count, boolean append)
+                throws IOException {
+            super(pattern, limit, count, append);
+        }
+
+        @Override
+        OutputStream newOutputStream(File fname, boolean append, long limit)
+                throws IOException {
+            return new MappedOutputStream(fname, append, limit);
+        }
+    }
+
+    /*
+     * An OutputStream over a file that maps successive segments of the
+     * file and copies the written bytes into them.  The file is truncated
+     * to the bytes written when the stream is closed.
+     */
+    private static final class MappedOutputStream extends OutputStream {
+        private static final long MIN_SEGMENT = 64 * 1024;
+        private static final long MAX_SEGMENT = 64 * 1024 * 1024;
+        private static final long DEFAULT_SEGMENT = 16 * 1024 * 1024;
+        private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+        private final FileChannel channel;
+        private final long segmentSize;
+        private MappedByteBuffer segment;
+        private long position;
+
+        MappedOutputStream(File fname, boolean append, long limit)
+                throws IOException {
+            channel = append
+                ? FileChannel.open(fname.toPath(), StandardOpenOption.CREATE,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(fname.toPath(), StandardOpenOption.CREATE,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+            segmentSize = limit > 0
+                ? Math.min(Math.max(limit, MIN_SEGMENT), MAX_SEGMENT)
+                : DEFAULT_SEGMENT;
+            position = append ? channel.size() : 0;
+        }
+
+        // maps the next segment if the current one is full
+        private MappedByteBuffer segment() throws IOException {
+            if (!channel.isOpen()) {
+                throw new IOException("Stream closed");
+            }
+            MappedByteBuffer s = segment;
+            if (s == null || !s.hasRemaining()) {
+                unmap();
+                s = segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                                          position, segmentSize);
+            }
+            return s;
+        }
+
+        private void unmap() {
+            MappedByteBuffer s = segment;
+            if (s != null) {
+                segment = null;
+                UNSAFE.invokeCleaner(s);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            segment().put((byte) b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            while (len > 0) {
+                MappedByteBuffer s = segment();
+                int n = Math.min(len, s.remaining());
+                s.put(b, off, n);
+                off += n;
+                len -= n;
+                position += n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                try {
+                    unmap();
+                    channel.truncate(position);
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+    }
+}
@@ -211,12 +211,25 @@ public class FileHandler extends StreamHandler {
         if (append) {
             len = fname.length();
         }
-        FileOutputStream fout = new FileOutputStream(fname.toString(), append);
-        BufferedOutputStream bout = new BufferedOutputStream(fout);
-        meter = new MeteredStream(bout, len);
+        meter = new MeteredStream(newOutputStream(fname, append, limit), len);
         setOutputStream(meter);
     }
 
+    /**
+     * Opens the stream writing to a log file.  Overridden by the
+     * memory-mapped mode of {@link AsyncFileHandler}.
+     *
+     * @param fname the log file
+     * @param append whether to append to the file rather than truncate it
+     * @param limit the approximate maximum size of the file, or zero
+     * @return the output stream
+     */
+    OutputStream newOutputStream(File fname, boolean append, long limit)
+            throws IOException {
+        FileOutputStream fout = new FileOutputStream(fname.toString(), append);
+        return new BufferedOutputStream(fout);
+    }
+
     /**
      * Configure a FileHandler from LogManager properties and/or default values
      * as specified in the class javadoc.
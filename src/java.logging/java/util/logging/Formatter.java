@@ -138,7 +138,9 @@ public abstract class Formatter {
                 if (index >= fence) break;
                 char digit = format.charAt(index+1);
                 if (digit >= '0' && digit <= '9') {
-                   return java.text.MessageFormat.format(format, parameters);
+                   String s = formatSimple(format, parameters);
+                   return s != null ? s
+                       : java.text.MessageFormat.format(format, parameters);
                 }
             }
             return format;
@@ -148,4 +150,62 @@ public abstract class Formatter {
             return format;
         }
     }
+
+    /*
+     * Formats a java.text style format string whose only format elements
+     * are "{<digit>}" or "{<digit><digit>}" arguments, none of them a Number
+     * or a Date, as MessageFormat would.  Returns null for any other
+     * format, including one with quotes.
+     */
+    private static String formatSimple(String format, Object[] parameters) {
+        if (format.indexOf('\'') >= 0) {
+            return null;
+        }
+        // check the whole format before any parameter is converted
+        int index = -1;
+        while ((index = format.indexOf('{', index + 1)) >= 0) {
+            int arg = argumentIndex(format, index);
+            if (arg < 0) {
+                return null;
+            }
+            if (arg < parameters.length) {
+                Object p = parameters[arg];
+                if (p instanceof Number || p instanceof java.util.Date) {
+                    return null;
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder(format.length() + 32);
+        int start = 0;
+        while ((index = format.indexOf('{', start)) >= 0) {
+            int arg = argumentIndex(format, index);
+            sb.append(format, start, index);
+            if (arg >= parameters.length) {
+                sb.append('{').append(arg).append('}');
+            } else {
+                Object p = parameters[arg];
+                sb.append(p == null ? "null" : p.toString());
+            }
+            start = format.indexOf('}', index) + 1;
+        }
+        return sb.append(format, start, format.length()).toString();
+    }
+
+    // Returns the argument index of the "{<digits>}" element at the given
+    // index of the format, or -1 if it is not such an element.
+    private static int argumentIndex(String format, int index) {
+        int end = format.indexOf('}', index + 1);
+        if (end < 0 || end - index < 2 || end - index > 3) {
+            return -1;
+        }
+        int arg = 0;
+        for (int i = index + 1; i < end; i++) {
+            char c = format.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            arg = arg * 10 + (c - '0');
+        }
+        return arg;
+    }
 }
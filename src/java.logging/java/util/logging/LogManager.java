@@ -2511,6 +2511,12 @@ public class LogManager {
             initializeGlobalHandlers();
             return super.accessCheckedHandlers();
         }
+
+        @Override
+        Iterable<Handler> publishHandlers() {
+            initializeGlobalHandlers();
+            return super.publishHandlers();
+        }
     }
 
 
@@ -230,6 +230,62 @@ public class LogRecord implements java.io.Serializable {
         needToInferCaller = true;
    }
 
+    /**
+     * Construct a LogRecord whose properties are all unset, to be
+     * initialized by {@link #reset reset} before it is published.
+     */
+    LogRecord() {
+    }
+
+    /**
+     * Reinitializes this record as if by {@code new LogRecord(level, msg)},
+     * so that a record which is no longer referenced by any handler can
+     * be published again.
+     *
+     * @param level  a logging level value
+     * @param msg  the raw non-localized logging message (may be null)
+     */
+    void reset(Level level, String msg) {
+        this.level = Objects.requireNonNull(level);
+        message = msg;
+        sequenceNumber = globalSequenceNumber.getAndIncrement();
+        threadID = defaultThreadID();
+        instant = Instant.now();
+        needToInferCaller = true;
+        sourceClassName = null;
+        sourceMethodName = null;
+        thrown = null;
+        loggerName = null;
+        resourceBundleName = null;
+        resourceBundle = null;
+        parameters = null;
+    }
+
+    /**
+     * Returns a new LogRecord with the same properties as this record,
+     * including its sequence number and whether the caller is still to
+     * be inferred.  The parameters array is copied.
+     *
+     * @return a copy of this record
+     */
+    LogRecord copy() {
+        LogRecord r = new LogRecord();
+        r.level = level;
+        r.sequenceNumber = sequenceNumber;
+        r.sourceClassName = sourceClassName;
+        r.sourceMethodName = sourceMethodName;
+        r.message = message;
+        r.threadID = threadID;
+        r.thrown = thrown;
+        r.loggerName = loggerName;
+        r.resourceBundleName = resourceBundleName;
+        r.instant = instant;
+        r.needToInferCaller = needToInferCaller;
+        r.parameters = parameters == null ? null : parameters.clone();
+        r.resourceBundle = resourceBundle;
+        return r;
+    }
+
     /**
      * Get the source Logger's name.
      *
@@ -29,6 +29,7 @@ import java.lang.ref.WeakReference;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.MissingResourceException;
@@ -1003,7 +1004,234 @@ public class Logger {
             lr.setResourceBundleName(ebname);
             lr.setResourceBundle(bundle);
         }
-        log(lr);
+        if (lr instanceof ThreadRecord) {
+            publish((ThreadRecord) lr);
+        } else {
+            log(lr);
+        }
+    }
+
+    //================================================================
+    // Fast path of the convenience methods.
+    //
+    // The convenience methods do not create a record, nor the
+    // parameter array for it, when no handler reachable from this
+    // logger can publish a record of the given level.  Otherwise they
+    // use a LogRecord kept per thread, and publish it directly to the
+    // handlers: handlers that may retain the record are given a copy.
+    // Both are only done for loggers and handlers of the classes of
+    // this package, whose behavior is known, so that subclasses
+    // overriding log(LogRecord) or publish(LogRecord) still see every
+    // record they would otherwise see.
+    //================================================================
+
+    // Loggers that neither override log(LogRecord) nor the methods it
+    // uses to find the handlers.
+    private static final ClassValue<Boolean> STANDARD_LOGGER =
+        new ClassValue<>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return declaredInPackage(type, "log", LogRecord.class)
+                    && declaredInPackage(type, "getHandlers")
+                    && declaredInPackage(type, "getUseParentHandlers")
+                    && declaredInPackage(type, "getParent");
+            }
+        };
+
+    // Handlers that publish a record only if it has at least their level.
+    private static final ClassValue<Boolean> LEVEL_CHECKING_HANDLER =
+        new ClassValue<>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return declaredInPackage(type, "publish", LogRecord.class)
+                    && declaredInPackage(type, "isLoggable", LogRecord.class);
+            }
+        };
+
+    // Handlers that write a record out before publish returns, and so
+    // never hold on to it, provided their filter and formatter do not.
+    private static final ClassValue<Boolean> WRITING_HANDLER =
+        new ClassValue<>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                try {
+                    Class<?> c = type.getMethod("publish", LogRecord.class)
+                                     .getDeclaringClass();
+                    return c == StreamHandler.class || c == ConsoleHandler.class
+                        || c == FileHandler.class || c == SocketHandler.class;
+                } catch (NoSuchMethodException ex) {
+                    return false;
+                }
+            }
+        };
+
+    private static boolean declaredInPackage(Class<?> type, String name,
+                                             Class<?>... parameterTypes) {
+        try {
+            Class<?> c = type.getMethod(name, parameterTypes).getDeclaringClass();
+            return c.getClassLoader() == null
+                && c.getPackageName().equals("java.util.logging");
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /*
+     * The record reused by the convenience methods of the current thread.
+     * It is in use from newRecord until publish returns; a message logged
+     * meanwhile, for instance by the toString method of a parameter, gets
+     * a new record.
+     */
+    private static final class ThreadRecord extends LogRecord {
+        private static final long serialVersionUID = 1L;
+        private static final ThreadLocal<ThreadRecord> CURRENT =
+            ThreadLocal.withInitial(ThreadRecord::new);
+
+        final Object[] params1 = new Object[1];
+        final Object[] params2 = new Object[2];
+        final Object[] params3 = new Object[3];
+        boolean inUse;
+
+        void release() {
+            setMessage(null);
+            setLoggerName(null);
+            setResourceBundle(null);
+            setResourceBundleName(null);
+            setParameters(null);
+            setThrown(null);
+            params1[0] = null;
+            params2[0] = params2[1] = null;
+            params3[0] = params3[1] = params3[2] = null;
+            inUse = false;
+        }
+    }
+
+    /*
+     * Returns whether a record of the given level would be logged by
+     * this logger and may be published by at least one of its handlers
+     * or those of its parents.
+     */
+    private boolean isPublishable(Level level) {
+        if (!isLoggable(level)) {
+            return false;
+        }
+        if (config.filter != null || !STANDARD_LOGGER.get(getClass())) {
+            return true;
+        }
+        final int levelValue = level.intValue();
+        Logger logger = this;
+        while (logger != null) {
+            if (logger != this && !STANDARD_LOGGER.get(logger.getClass())) {
+                return true;
+            }
+            for (Handler handler : logger.publishHandlers()) {
+                if (!LEVEL_CHECKING_HANDLER.get(handler.getClass())) {
+                    return true;
+                }
+                int handlerLevel = handler.getLevel().intValue();
+                if (levelValue >= handlerLevel && handlerLevel != offValue) {
+                    return true;
+                }
+            }
+            if (!logger.config.useParentHandlers) {
+                break;
+            }
+            logger = logger.parent;
+        }
+        return false;
+    }
+
+    /*
+     * Returns this thread's reusable record, initialized to the given
+     * level and message, if it is free and this logger publishes its
+     * records itself; otherwise a new record.
+     */
+    private LogRecord newRecord(Level level, String msg) {
+        if (config.filter == null && STANDARD_LOGGER.get(getClass())) {
+            ThreadRecord tr = ThreadRecord.CURRENT.get();
+            if (!tr.inUse) {
+                tr.inUse = true;
+                tr.reset(level, msg);
+                return tr;
+            }
+        }
+        return new LogRecord(level, msg);
+    }
+
+    private static Object[] parameters(LogRecord lr, Object param1) {
+        Object[] params = lr instanceof ThreadRecord
+                          ? ((ThreadRecord) lr).params1 : new Object[1];
+        params[0] = param1;
+        return params;
+    }
+
+    private static Object[] parameters(LogRecord lr, Object param1,
+                                       Object param2) {
+        Object[] params = lr instanceof ThreadRecord
+                          ? ((ThreadRecord) lr).params2 : new Object[2];
+        params[0] = param1;
+        params[1] = param2;
+        return params;
+    }
+
+    private static Object[] parameters(LogRecord lr, Object param1,
+                                       Object param2, Object param3) {
+        Object[] params = lr instanceof ThreadRecord
+                          ? ((ThreadRecord) lr).params3 : new Object[3];
+        params[0] = param1;
+        params[1] = param2;
+        params[2] = param3;
+        return params;
+    }
+
+    /*
+     * Publishes a reusable record as log(LogRecord) would, giving a copy
+     * to the handlers that might retain it, then releases the record.
+     */
+    private void publish(ThreadRecord tr) {
+        try {
+            if (config.filter != null) {
+                // a filter was set since newRecord
+                log(tr.copy());
+                return;
+            }
+            LogRecord copy = null;
+            Logger logger = this;
+            while (logger != null) {
+                final Iterable<Handler> loggerHandlers =
+                    isSystemLogger || STANDARD_LOGGER.get(logger.getClass())
+                        ? logger.publishHandlers()
+                        : Arrays.asList(logger.getHandlers());
+                for (Handler handler : loggerHandlers) {
+                    if (WRITING_HANDLER.get(handler.getClass())
+                            && handler.getFilter() == null
+                            && isWritingFormatter(handler.getFormatter())) {
+                        handler.publish(tr);
+                    } else {
+                        if (copy == null) {
+                            copy = tr.copy();
+                        }
+                        handler.publish(copy);
+                    }
+                }
+                final boolean useParentHdls =
+                    isSystemLogger || STANDARD_LOGGER.get(logger.getClass())
+                        ? logger.config.useParentHandlers
+                        : logger.getUseParentHandlers();
+                if (!useParentHdls) {
+                    break;
+                }
+                logger = isSystemLogger || STANDARD_LOGGER.get(logger.getClass())
+                         ? logger.parent : logger.getParent();
+            }
+        } finally {
+            tr.release();
+        }
+    }
+
+    private static boolean isWritingFormatter(Formatter formatter) {
+        Class<?> c = formatter == null ? null : formatter.getClass();
+        return c == SimpleFormatter.class || c == XMLFormatter.class;
     }
 
 
@@ -1022,10 +1250,10 @@ public class Logger {
      * @param   msg     The string message (or a key in the message catalog)
      */
     public void log(Level level, String msg) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         doLog(lr);
     }
 
@@ -1044,10 +1272,10 @@ public class Logger {
      * @since 1.8
      */
     public void log(Level level, Supplier<String> msgSupplier) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msgSupplier.get());
+        LogRecord lr = newRecord(level, msgSupplier.get());
         doLog(lr);
     }
 
@@ -1063,12 +1291,61 @@ public class Logger {
      * @param   param1  parameter to the message
      */
     public void log(Level level, String msg, Object param1) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
-        Object params[] = { param1 };
-        lr.setParameters(params);
+        LogRecord lr = newRecord(level, msg);
+        lr.setParameters(parameters(lr, param1));
+        doLog(lr);
+    }
+
+    /**
+     * Log a message, with two object parameters.
+     * <p>
+     * If the logger is currently enabled for the given message
+     * level then a corresponding LogRecord is created and forwarded
+     * to all the registered output Handler objects.  Unlike
+     * {@link #log(Level, String, Object[])}, no parameter array is
+     * created unless a handler may publish the message.
+     *
+     * @param   level   One of the message level identifiers, e.g., SEVERE
+     * @param   msg     The string message (or a key in the message catalog)
+     * @param   param1  first parameter to the message
+     * @param   param2  second parameter to the message
+     * @since 15
+     */
+    public void log(Level level, String msg, Object param1, Object param2) {
+        if (!isPublishable(level)) {
+            return;
+        }
+        LogRecord lr = newRecord(level, msg);
+        lr.setParameters(parameters(lr, param1, param2));
+        doLog(lr);
+    }
+
+    /**
+     * Log a message, with three object parameters.
+     * <p>
+     * If the logger is currently enabled for the given message
+     * level then a corresponding LogRecord is created and forwarded
+     * to all the registered output Handler objects.  Unlike
+     * {@link #log(Level, String, Object[])}, no parameter array is
+     * created unless a handler may publish the message.
+     *
+     * @param   level   One of the message level identifiers, e.g., SEVERE
+     * @param   msg     The string message (or a key in the message catalog)
+     * @param   param1  first parameter to the message
+     * @param   param2  second parameter to the message
+     * @param   param3  third parameter to the message
+     * @since 15
+     */
+    public void log(Level level, String msg, Object param1, Object param2,
+                    Object param3) {
+        if (!isPublishable(level)) {
+            return;
+        }
+        LogRecord lr = newRecord(level, msg);
+        lr.setParameters(parameters(lr, param1, param2, param3));
         doLog(lr);
     }
 
@@ -1084,10 +1361,10 @@ public class Logger {
      * @param   params  array of parameters to the message
      */
     public void log(Level level, String msg, Object params[]) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         lr.setParameters(params);
         doLog(lr);
     }
@@ -1109,10 +1386,10 @@ public class Logger {
      * @param   thrown  Throwable associated with log message.
      */
     public void log(Level level, String msg, Throwable thrown) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         lr.setThrown(thrown);
         doLog(lr);
     }
@@ -1137,10 +1414,10 @@ public class Logger {
      * @since   1.8
      */
     public void log(Level level, Throwable thrown, Supplier<String> msgSupplier) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msgSupplier.get());
+        LogRecord lr = newRecord(level, msgSupplier.get());
         lr.setThrown(thrown);
         doLog(lr);
     }
@@ -1163,10 +1440,10 @@ public class Logger {
      * @param   msg     The string message (or a key in the message catalog)
      */
     public void logp(Level level, String sourceClass, String sourceMethod, String msg) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         lr.setSourceClassName(sourceClass);
         lr.setSourceMethodName(sourceMethod);
         doLog(lr);
@@ -1190,10 +1467,10 @@ public class Logger {
      */
     public void logp(Level level, String sourceClass, String sourceMethod,
                      Supplier<String> msgSupplier) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msgSupplier.get());
+        LogRecord lr = newRecord(level, msgSupplier.get());
         lr.setSourceClassName(sourceClass);
         lr.setSourceMethodName(sourceMethod);
         doLog(lr);
@@ -1215,14 +1492,13 @@ public class Logger {
      */
     public void logp(Level level, String sourceClass, String sourceMethod,
                                                 String msg, Object param1) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         lr.setSourceClassName(sourceClass);
         lr.setSourceMethodName(sourceMethod);
-        Object params[] = { param1 };
-        lr.setParameters(params);
+        lr.setParameters(parameters(lr, param1));
         doLog(lr);
     }
 
@@ -1242,10 +1518,10 @@ public class Logger {
      */
     public void logp(Level level, String sourceClass, String sourceMethod,
                                                 String msg, Object params[]) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         lr.setSourceClassName(sourceClass);
         lr.setSourceMethodName(sourceMethod);
         lr.setParameters(params);
@@ -1273,10 +1549,10 @@ public class Logger {
      */
     public void logp(Level level, String sourceClass, String sourceMethod,
                      String msg, Throwable thrown) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msg);
+        LogRecord lr = newRecord(level, msg);
         lr.setSourceClassName(sourceClass);
         lr.setSourceMethodName(sourceMethod);
         lr.setThrown(thrown);
@@ -1307,10 +1583,10 @@ public class Logger {
      */
     public void logp(Level level, String sourceClass, String sourceMethod,
                      Throwable thrown, Supplier<String> msgSupplier) {
-        if (!isLoggable(level)) {
+        if (!isPublishable(level)) {
             return;
         }
-        LogRecord lr = new LogRecord(level, msgSupplier.get());
+        LogRecord lr = newRecord(level, msgSupplier.get());
         lr.setSourceClassName(sourceClass);
         lr.setSourceMethodName(sourceMethod);
         lr.setThrown(thrown);
@@ -2095,6 +2371,12 @@ public class Logger {
         return config.handlers.toArray(emptyHandlers);
     }
 
+    // The handlers of this logger, without copying them, for publishing
+    // a record.  Overridden by LogManager.RootLogger.
+    Iterable<Handler> publishHandlers() {
+        return config.handlers;
+    }
+
     /**
      * Specify whether or not this logger should send its output
      * to its parent Logger.  This means that any LogRecords will
@@ -27,8 +27,16 @@
 package java.util.logging;
 
 import java.io.*;
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
 import jdk.internal.logger.SurrogateLogger;
 
 /**
@@ -50,6 +58,12 @@ import jdk.internal.logger.SurrogateLogger;
  * If this property is not defined or the given format string
  * is {@linkplain java.util.IllegalFormatException illegal},
  * the default format is implementation-specific.
+ * <p>
+ * Format strings that only use the {@code %n}, {@code %%}, {@code s},
+ * {@code S} and date/time conversions, without flags, width or precision,
+ * as the default format does, are compiled when the formatter is created,
+ * and records are then formatted without a {@link java.util.Formatter}.
+ * The result is the same as that of {@link String#format String.format}.
  *
  * @since 1.4
  * @see java.util.Formatter
@@ -65,6 +79,13 @@ public class SimpleFormatter extends Formatter {
     private final String format =
         SurrogateLogger.getSimpleFormat(SimpleFormatter::getLoggingProperty);
 
+    // the format compiled to literal text and conversions, or null if
+    // it must be formatted by java.util.Formatter
+    private final Part[] parts = compile(format);
+
+    // date/time names for the last locale used to format a record
+    private volatile Symbols symbols;
+
     /**
      * Format the given LogRecord.
      * <p>
@@ -173,12 +194,324 @@ public class SimpleFormatter extends Formatter {
             pw.close();
             throwable = sw.toString();
         }
+        String logger = record.getLoggerName();
+        String level = record.getLevel().getLocalizedLevelName();
+        if (parts != null) {
+            Locale l = Locale.getDefault(Locale.Category.FORMAT);
+            Symbols syms = symbols;
+            if (syms == null || syms.locale != l) {
+                symbols = syms = new Symbols(l);
+            }
+            if (syms.zero == '0') {
+                return formatCompiled(syms, zdt, source, logger, level,
+                                      message, throwable);
+            }
+        }
         return String.format(format,
                              zdt,
                              source,
-                             record.getLoggerName(),
-                             record.getLevel().getLocalizedLevelName(),
+                             logger,
+                             level,
                              message,
                              throwable);
     }
+
+    /*
+     * A literal text, or a conversion of the argument at index (1 to 6).
+     * The conversion is STRING for the string conversion, or a date/time
+     * conversion character.
+     */
+    private static final class Part {
+        final String text;
+        final int index;
+        final char conversion;
+        final boolean upperCase;
+
+        Part(String text) {
+            this.text = text;
+            this.index = 0;
+            this.conversion = 0;
+            this.upperCase = false;
+        }
+
+        Part(int index, char conversion, boolean upperCase) {
+            this.text = null;
+            this.index = index;
+            this.conversion = conversion;
+            this.upperCase = upperCase;
+        }
+    }
+
+    /*
+     * The locale specific data used by the date/time conversions.
+     */
+    private static final class Symbols {
+        final Locale locale;
+        final char zero;
+        final String[] months;
+        final String[] shortMonths;
+        final String[] weekdays;
+        final String[] shortWeekdays;
+        final String[] ampm;
+
+        Symbols(Locale l) {
+            DateFormatSymbols dfs = DateFormatSymbols.getInstance(l);
+            locale = l;
+            zero = DecimalFormatSymbols.getInstance(l).getZeroDigit();
+            months = dfs.getMonths();
+            shortMonths = dfs.getShortMonths();
+            weekdays = dfs.getWeekdays();
+            shortWeekdays = dfs.getShortWeekdays();
+            ampm = l == Locale.US ? new String[] { "AM", "PM" }
+                                  : dfs.getAmPmStrings();
+        }
+    }
+
+    private static final char STRING = 0;
+    private static final String DATE_TIME_CONVERSIONS = "HIklMNLQpsSzZaAbhBCyYdejmTRrcDF";
+
+    /*
+     * Compiles a format string, returning null if it uses anything but
+     * literal text, %n, %%, and s, S or date/time conversions without
+     * flags, width or precision of the six arguments; date/time
+     * conversions are only valid for the first argument.
+     */
+    private static Part[] compile(String format) {
+        List<Part> parts = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int ordinary = 0;
+        int i = 0;
+        int n = format.length();
+        while (i < n) {
+            char c = format.charAt(i++);
+            if (c != '%') {
+                text.append(c);
+                continue;
+            }
+            if (i == n) {
+                return null;
+            }
+            c = format.charAt(i);
+            if (c == 'n' || c == '%') {
+                text.append(c == 'n' ? System.lineSeparator() : "%");
+                i++;
+                continue;
+            }
+            int index;
+            if (c >= '1' && c <= '9') {
+                int start = i;
+                while (i < n && Character.isDigit(format.charAt(i))) {
+                    i++;
+                }
+                if (i == n || format.charAt(i) != '$' || i - start > 1) {
+                    return null;
+                }
+                index = format.charAt(start) - '0';
+                i++;
+            } else {
+                index = ++ordinary;
+            }
+            if (i == n || index > 6) {
+                return null;
+            }
+            c = format.charAt(i++);
+            Part part;
+            if (c == 's' || c == 'S') {
+                part = new Part(index, STRING, c == 'S');
+            } else if ((c == 't' || c == 'T') && index == 1 && i < n
+                       && DATE_TIME_CONVERSIONS.indexOf(format.charAt(i)) >= 0) {
+                part = new Part(index, format.charAt(i++), c == 'T');
+            } else {
+                return null;
+            }
+            if (text.length() > 0) {
+                parts.add(new Part(text.toString()));
+                text.setLength(0);
+            }
+            parts.add(part);
+        }
+        if (text.length() > 0) {
+            parts.add(new Part(text.toString()));
+        }
+        return parts.toArray(new Part[0]);
+    }
+
+    private String formatCompiled(Symbols syms, ZonedDateTime zdt,
+                                  Object... args) {
+        StringBuilder sb = new StringBuilder(128);
+        for (Part part : parts) {
+            if (part.text != null) {
+                sb.append(part.text);
+            } else if (part.conversion == STRING) {
+                Object arg = part.index == 1 ? zdt : args[part.index - 2];
+                String s = String.valueOf(arg);
+                sb.append(part.upperCase ? s.toUpperCase(syms.locale) : s);
+            } else if (part.upperCase) {
+                StringBuilder tsb = new StringBuilder();
+                appendDateTime(tsb, zdt, part.conversion, syms);
+                sb.append(tsb.toString().toUpperCase(syms.locale));
+            } else {
+                appendDateTime(sb, zdt, part.conversion, syms);
+            }
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Appends a date/time conversion as java.util.Formatter would, for
+     * a locale whose zero digit is '0'.
+     */
+    private static void appendDateTime(StringBuilder sb, ZonedDateTime t,
+                                       char c, Symbols syms) {
+        switch (c) {
+        case 'H':
+            appendPadded(sb, t.get(ChronoField.HOUR_OF_DAY), 2);
+            break;
+        case 'k':
+            sb.append(t.get(ChronoField.HOUR_OF_DAY));
+            break;
+        case 'I':
+            appendPadded(sb, t.get(ChronoField.CLOCK_HOUR_OF_AMPM), 2);
+            break;
+        case 'l':
+            sb.append(t.get(ChronoField.CLOCK_HOUR_OF_AMPM));
+            break;
+        case 'M':
+            appendPadded(sb, t.get(ChronoField.MINUTE_OF_HOUR), 2);
+            break;
+        case 'N':
+            appendPadded(sb, t.get(ChronoField.NANO_OF_SECOND), 9);
+            break;
+        case 'L':
+            appendPadded(sb, t.get(ChronoField.MILLI_OF_SECOND), 3);
+            break;
+        case 'Q':
+            sb.append(t.getLong(ChronoField.INSTANT_SECONDS) * 1000L
+                      + t.getLong(ChronoField.MILLI_OF_SECOND));
+            break;
+        case 'p':
+            sb.append(syms.ampm[t.get(ChronoField.AMPM_OF_DAY)]
+                          .toLowerCase(syms.locale));
+            break;
+        case 's':
+            sb.append(t.getLong(ChronoField.INSTANT_SECONDS));
+            break;
+        case 'S':
+            appendPadded(sb, t.get(ChronoField.SECOND_OF_MINUTE), 2);
+            break;
+        case 'z': {
+            int i = t.get(ChronoField.OFFSET_SECONDS);
+            sb.append(i < 0 ? '-' : '+');
+            int min = Math.abs(i) / 60;
+            appendPadded(sb, (min / 60) * 100 + (min % 60), 4);
+            break;
+        }
+        case 'Z': {
+            ZoneId zid = t.getZone();
+            if (zid instanceof ZoneOffset) {
+                sb.append(zid.getId());
+            } else {
+                boolean dst = zid.getRules().isDaylightSavings(t.toInstant());
+                sb.append(TimeZone.getTimeZone(zid.getId())
+                                  .getDisplayName(dst, TimeZone.SHORT, syms.locale));
+            }
+            break;
+        }
+        case 'a':
+            sb.append(syms.shortWeekdays[t.get(ChronoField.DAY_OF_WEEK) % 7 + 1]);
+            break;
+        case 'A':
+            sb.append(syms.weekdays[t.get(ChronoField.DAY_OF_WEEK) % 7 + 1]);
+            break;
+        case 'b':
+        case 'h':
+            sb.append(syms.shortMonths[t.get(ChronoField.MONTH_OF_YEAR) - 1]);
+            break;
+        case 'B':
+            sb.append(syms.months[t.get(ChronoField.MONTH_OF_YEAR) - 1]);
+            break;
+        case 'C':
+            appendPadded(sb, t.get(ChronoField.YEAR_OF_ERA) / 100, 2);
+            break;
+        case 'y':
+            appendPadded(sb, t.get(ChronoField.YEAR_OF_ERA) % 100, 2);
+            break;
+        case 'Y':
+            appendPadded(sb, t.get(ChronoField.YEAR_OF_ERA), 4);
+            break;
+        case 'd':
+            appendPadded(sb, t.get(ChronoField.DAY_OF_MONTH), 2);
+            break;
+        case 'e':
+            sb.append(t.get(ChronoField.DAY_OF_MONTH));
+            break;
+        case 'j':
+            appendPadded(sb, t.get(ChronoField.DAY_OF_YEAR), 3);
+            break;
+        case 'm':
+            appendPadded(sb, t.get(ChronoField.MONTH_OF_YEAR), 2);
+            break;
+        case 'T':
+        case 'R':
+            appendDateTime(sb, t, 'H', syms);
+            sb.append(':');
+            appendDateTime(sb, t, 'M', syms);
+            if (c == 'T') {
+                sb.append(':');
+                appendDateTime(sb, t, 'S', syms);
+            }
+            break;
+        case 'r': {
+            appendDateTime(sb, t, 'I', syms);
+            sb.append(':');
+            appendDateTime(sb, t, 'M', syms);
+            sb.append(':');
+            appendDateTime(sb, t, 'S', syms);
+            sb.append(' ');
+            StringBuilder tsb = new StringBuilder();
+            appendDateTime(tsb, t, 'p', syms);
+            sb.append(tsb.toString().toUpperCase(syms.locale));
+            break;
+        }
+        case 'c':
+            appendDateTime(sb, t, 'a', syms);
+            sb.append(' ');
+            appendDateTime(sb, t, 'b', syms);
+            sb.append(' ');
+            appendDateTime(sb, t, 'd', syms);
+            sb.append(' ');
+            appendDateTime(sb, t, 'T', syms);
+            sb.append(' ');
+            appendDateTime(sb, t, 'Z', syms);
+            sb.append(' ');
+            appendDateTime(sb, t, 'Y', syms);
+            break;
+        case 'D':
+            appendDateTime(sb, t, 'm', syms);
+            sb.append('/');
+            appendDateTime(sb, t, 'd', syms);
+            sb.append('/');
+            appendDateTime(sb, t, 'y', syms);
+            break;
+        case 'F':
+            appendDateTime(sb, t, 'Y', syms);
+            sb.append('-');
+            appendDateTime(sb, t, 'm', syms);
+            sb.append('-');
+            appendDateTime(sb, t, 'd', syms);
+            break;
+        default:
+            throw new InternalError(String.valueOf(c));
+        }
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int width) {
+        for (int v = value, w = 1; w < width; w++) {
+            v /= 10;
+            if (v == 0) {
+                sb.append('0');
+            }
+        }
+        sb.append(value);
+    }
 }
@@ -347,6 +347,8 @@ public class ManagementFactoryHelper {
                 .getMappedBufferPool()));
             bufferPools.add(createBufferPoolMXBean(sun.nio.ch.FileChannelImpl
                 .getSyncMappedBufferPool()));
+            bufferPools.add(createBufferPoolMXBean(sun.nio.ch.Util
+                .getTemporaryBufferPool()));
         }
         return bufferPools;
     }
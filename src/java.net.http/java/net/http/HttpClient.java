@@ -634,4 +634,66 @@ public abstract class HttpClient {
     public WebSocket.Builder newWebSocketBuilder() {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Returns a snapshot of the statistics of this client's pool of idle
+     * HTTP/1.1 connections, if the client keeps such a pool.
+     *
+     * @implSpec The default implementation returns an empty {@code Optional}.
+     *
+     * @return an {@code Optional} containing the connection pool statistics
+     * @since 15
+     */
+    public Optional<ConnectionPoolStats> connectionPoolStats() {
+        return Optional.empty();
+    }
+
+    /**
+     * Statistics of the pool of idle HTTP/1.1 connections of an
+     * {@code HttpClient}. The counts are cumulative from the creation of
+     * the client, except for {@link #idleConnections()}.
+     *
+     * @see HttpClient#connectionPoolStats()
+     * @since 15
+     */
+    public interface ConnectionPoolStats {
+
+        /**
+         * Returns the number of times a pooled connection was reused.
+         *
+         * @return the number of pool hits
+         */
+        long hits();
+
+        /**
+         * Returns the number of times no pooled connection was available
+         * for a request, and a new connection had to be opened.
+         *
+         * @return the number of pool misses
+         */
+        long misses();
+
+        /**
+         * Returns the number of idle connections that the pool closed,
+         * either because their keep-alive timeout elapsed or to stay
+         * within the pool size limits.
+         *
+         * @return the number of evicted connections
+         */
+        long evictions();
+
+        /**
+         * Returns the number of idle connections currently in the pool.
+         *
+         * @return the number of idle connections
+         */
+        int idleConnections();
+
+        /**
+         * Returns the total time spent looking up a pooled connection.
+         *
+         * @return the total checkout time
+         */
+        Duration waitTime();
+    }
 }
@@ -28,26 +28,34 @@ package jdk.internal.net.http;
 import java.io.IOException;
 import java.lang.System.Logger.Level;
 import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Flow;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import jdk.internal.net.http.common.FlowTube;
 import jdk.internal.net.http.common.Logger;
 import jdk.internal.net.http.common.Utils;
 
 /**
  * Http 1.1 connection pool.
+ *
+ * Idle connections are kept per {@link CacheKey}, in a {@link Route}
+ * which has its own lock. Checking out and returning a connection
+ * only locks the route of that connection, so requests to different
+ * destinations do not contend with each other. Within a route the
+ * most recently returned connection is reused first (LIFO), which
+ * lets the least recently used connections reach their keep-alive
+ * timeout and be purged.
  */
 final class ConnectionPool {
 
@@ -55,15 +63,24 @@ final class ConnectionPool {
             "jdk.httpclient.keepalive.timeout", 1200); // seconds
     static final long MAX_POOL_SIZE = Utils.getIntegerNetProperty(
             "jdk.httpclient.connectionPoolSize", 0); // unbounded
+    static final long MAX_ROUTE_POOL_SIZE = Utils.getIntegerNetProperty(
+            "jdk.httpclient.connectionPoolSize.perRoute", 0); // unbounded
     final Logger debug = Utils.getDebugLogger(this::dbgString, Utils.DEBUG);
 
     // Pools of idle connections
 
-    private final HashMap<CacheKey,LinkedList<HttpConnection>> plainPool;
-    private final HashMap<CacheKey,LinkedList<HttpConnection>> sslPool;
-    private final ExpiryList expiryList;
+    private final ConcurrentHashMap<CacheKey,Route> plainPool;
+    private final ConcurrentHashMap<CacheKey,Route> sslPool;
+    // number of idle connections in all routes
+    private final AtomicInteger size = new AtomicInteger();
     private final String dbgTag; // used for debug
-    boolean stopped;
+    volatile boolean stopped;
+
+    // statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder checkoutNanos = new LongAdder();
 
     /**
      * Entries in connection pool are keyed by destination address and/or
@@ -115,16 +132,15 @@ final class ConnectionPool {
      */
     private ConnectionPool(String tag) {
         dbgTag = tag;
-        plainPool = new HashMap<>();
-        sslPool = new HashMap<>();
-        expiryList = new ExpiryList();
+        plainPool = new ConcurrentHashMap<>();
+        sslPool = new ConcurrentHashMap<>();
     }
 
     final String dbgString() {
         return dbgTag;
     }
 
-    synchronized void start() {
+    void start() {
         assert !stopped : "Already stopped";
     }
 
@@ -134,15 +150,23 @@ final class ConnectionPool {
         return new CacheKey(destination, proxy);
     }
 
-    synchronized HttpConnection getConnection(boolean secure,
-                                              InetSocketAddress addr,
-                                              InetSocketAddress proxy) {
+    HttpConnection getConnection(boolean secure,
+                                 InetSocketAddress addr,
+                                 InetSocketAddress proxy) {
         if (stopped) return null;
+        long start = System.nanoTime();
         // for plain (unsecure) proxy connection the destination address is irrelevant.
         addr = secure || proxy == null ? addr : null;
         CacheKey key = new CacheKey(addr, proxy);
-        HttpConnection c = secure ? findConnection(key, sslPool)
-                                  : findConnection(key, plainPool);
+        Route route = (secure ? sslPool : plainPool).get(key);
+        HttpConnection c = route == null ? null : route.pollLatest();
+        if (c != null) {
+            size.decrementAndGet();
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        checkoutNanos.add(System.nanoTime() - start);
         //System.out.println ("getConnection returning: " + c);
         return c;
     }
@@ -164,32 +188,71 @@ final class ConnectionPool {
         CleanupTrigger cleanup = registerCleanupTrigger(conn);
 
         // it's possible that cleanup may have been called.
-        HttpConnection toClose = null;
-        synchronized(this) {
-            if (cleanup.isDone()) {
-                return;
-            } else if (stopped) {
-                conn.close();
-                return;
-            }
-            if (MAX_POOL_SIZE > 0 && expiryList.size() >= MAX_POOL_SIZE) {
-                toClose = expiryList.removeOldest();
-                if (toClose != null) removeFromPool(toClose);
-            }
-            if (conn instanceof PlainHttpConnection) {
-                putConnection(conn, plainPool);
-            } else {
-                assert conn.isSecure();
-                putConnection(conn, sslPool);
+        if (cleanup.isDone()) {
+            return;
+        } else if (stopped) {
+            conn.close();
+            return;
+        }
+        ConcurrentHashMap<CacheKey,Route> pool;
+        if (conn instanceof PlainHttpConnection) {
+            pool = plainPool;
+        } else {
+            assert conn.isSecure();
+            pool = sslPool;
+        }
+        CacheKey key = conn.cacheKey();
+        Instant then = now.truncatedTo(ChronoUnit.SECONDS)
+                .plus(keepAlive, ChronoUnit.SECONDS);
+        HttpConnection evicted = null;
+        boolean closeConn = false;
+        while (true) {
+            Route route = pool.computeIfAbsent(key, Route::new);
+            synchronized (route) {
+                if (route.retired) {
+                    // emptied and removed by a concurrent purge
+                    continue;
+                }
+                if (cleanup.isDone()) {
+                    return;
+                }
+                if (MAX_ROUTE_POOL_SIZE > 0
+                        && route.idle.size() >= MAX_ROUTE_POOL_SIZE) {
+                    evicted = route.pollOldest();
+                    if (evicted != null) size.decrementAndGet();
+                }
+                route.idle.addLast(new ExpiryEntry(conn, then));
+                size.incrementAndGet();
+                if (stopped) {
+                    // stop() may already have drained this route
+                    route.remove(conn);
+                    size.decrementAndGet();
+                    closeConn = true;
+                }
             }
-            expiryList.add(conn, now, keepAlive);
+            break;
         }
-        if (toClose != null) {
+        if (evicted != null) {
             if (debug.on()) {
-                debug.log("Maximum pool size reached: removing oldest connection %s",
-                          toClose.dbgString());
+                debug.log("Maximum route pool size reached: removing oldest connection %s",
+                          evicted.dbgString());
+            }
+            evictions.increment();
+            close(evicted);
+        }
+        if (closeConn) {
+            close(conn);
+        }
+        if (MAX_POOL_SIZE > 0 && size.get() > MAX_POOL_SIZE) {
+            HttpConnection oldest = removeOldest();
+            if (oldest != null) {
+                if (debug.on()) {
+                    debug.log("Maximum pool size reached: removing oldest connection %s",
+                              oldest.dbgString());
+                }
+                evictions.increment();
+                close(oldest);
             }
-            close(toClose);
         }
         //System.out.println("Return to pool: " + conn);
     }
@@ -205,44 +268,38 @@ final class ConnectionPool {
         return cleanup;
     }
 
-    private HttpConnection
-    findConnection(CacheKey key,
-                   HashMap<CacheKey,LinkedList<HttpConnection>> pool) {
-        LinkedList<HttpConnection> l = pool.get(key);
-        if (l == null || l.isEmpty()) {
-            return null;
-        } else {
-            HttpConnection c = l.removeFirst();
-            expiryList.remove(c);
-            return c;
-        }
-    }
-
-    /* called from cache cleaner only  */
-    private boolean
-    removeFromPool(HttpConnection c,
-                   HashMap<CacheKey,LinkedList<HttpConnection>> pool) {
-        //System.out.println("cacheCleaner removing: " + c);
-        assert Thread.holdsLock(this);
-        CacheKey k = c.cacheKey();
-        List<HttpConnection> l = pool.get(k);
-        if (l == null || l.isEmpty()) {
-            pool.remove(k);
-            return false;
+    /**
+     * Removes the connection which has been idle the longest, among
+     * the least recently returned connections of every route.
+     */
+    private HttpConnection removeOldest() {
+        while (true) {
+            Route oldestRoute = null;
+            Instant oldest = null;
+            for (Route route : routes()) {
+                Instant expiry = route.oldestExpiry();
+                if (expiry != null && (oldest == null || expiry.isBefore(oldest))) {
+                    oldest = expiry;
+                    oldestRoute = route;
+                }
+            }
+            if (oldestRoute == null) {
+                return null;
+            }
+            HttpConnection c = oldestRoute.pollOldest();
+            if (c != null) {
+                size.decrementAndGet();
+                return c;
+            }
+            // the route was emptied concurrently: try again
         }
-        return l.remove(c);
     }
 
-    private void
-    putConnection(HttpConnection c,
-                  HashMap<CacheKey,LinkedList<HttpConnection>> pool) {
-        CacheKey key = c.cacheKey();
-        LinkedList<HttpConnection> l = pool.get(key);
-        if (l == null) {
-            l = new LinkedList<>();
-            pool.put(key, l);
-        }
-        l.add(c);
+    private Iterable<Route> routes() {
+        List<Route> routes = new ArrayList<>(plainPool.size() + sslPool.size());
+        routes.addAll(plainPool.values());
+        routes.addAll(sslPool.values());
+        return routes;
     }
 
     /**
@@ -253,40 +310,58 @@ final class ConnectionPool {
      *         expire.
      */
     long purgeExpiredConnectionsAndReturnNextDeadline() {
-        if (!expiryList.purgeMaybeRequired()) return 0;
+        if (!purgeMaybeRequired()) return 0;
         return purgeExpiredConnectionsAndReturnNextDeadline(Instant.now());
     }
 
+    // A loosely accurate boolean which does not require any lock.
+    private boolean purgeMaybeRequired() {
+        return size.get() > 0;
+    }
+
     // Used for whitebox testing
     long purgeExpiredConnectionsAndReturnNextDeadline(Instant now) {
         long nextPurge = 0;
 
         // We may be in the process of adding new elements
-        // to the expiry list - but those elements will not
+        // to the pool - but those elements will not
         // have outlast their keep alive timer yet since we're
         // just adding them.
-        if (!expiryList.purgeMaybeRequired()) return nextPurge;
-
-        List<HttpConnection> closelist;
-        synchronized (this) {
-            closelist = expiryList.purgeUntil(now);
-            for (HttpConnection c : closelist) {
-                if (c instanceof PlainHttpConnection) {
-                    boolean wasPresent = removeFromPool(c, plainPool);
-                    assert wasPresent;
-                } else {
-                    boolean wasPresent = removeFromPool(c, sslPool);
-                    assert wasPresent;
-                }
-            }
-            nextPurge = now.until(
-                    expiryList.nextExpiryDeadline().orElse(now),
-                    ChronoUnit.MILLIS);
+        if (!purgeMaybeRequired()) return nextPurge;
+
+        List<HttpConnection> closelist = new ArrayList<>();
+        Instant next = null;
+        next = purge(plainPool, now, closelist, next);
+        next = purge(sslPool, now, closelist, next);
+        if (next != null) {
+            nextPurge = now.until(next, ChronoUnit.MILLIS);
         }
+        size.addAndGet(-closelist.size());
+        evictions.add(closelist.size());
         closelist.forEach(this::close);
         return nextPurge;
     }
 
+    private static Instant purge(ConcurrentHashMap<CacheKey,Route> pool,
+                                 Instant now,
+                                 List<HttpConnection> closelist,
+                                 Instant next) {
+        for (Route route : pool.values()) {
+            synchronized (route) {
+                Instant deadline = route.purgeUntil(now, closelist);
+                if (deadline == null) {
+                    // retire the empty route so that it doesn't linger
+                    // in the map once its destination is no longer used
+                    route.retired = true;
+                    pool.remove(route.key, route);
+                } else if (next == null || deadline.isBefore(next)) {
+                    next = deadline;
+                }
+            }
+        }
+        return next;
+    }
+
     private void close(HttpConnection c) {
         try {
             c.close();
@@ -294,22 +369,61 @@ final class ConnectionPool {
     }
 
     void stop() {
-        List<HttpConnection> closelist = Collections.emptyList();
+        stopped = true;
+        List<HttpConnection> closelist = new ArrayList<>();
         try {
-            synchronized (this) {
-                stopped = true;
-                closelist = expiryList.stream()
-                    .map(e -> e.connection)
-                    .collect(Collectors.toList());
-                expiryList.clear();
-                plainPool.clear();
-                sslPool.clear();
+            for (Route route : routes()) {
+                synchronized (route) {
+                    for (ExpiryEntry e : route.idle) {
+                        closelist.add(e.connection);
+                    }
+                    route.idle.clear();
+                }
             }
+            plainPool.clear();
+            sslPool.clear();
+            size.set(0);
         } finally {
             closelist.forEach(this::close);
         }
     }
 
+    /**
+     * Returns a snapshot of the statistics of this pool.
+     */
+    HttpClient.ConnectionPoolStats stats() {
+        long h = hits.sum(), m = misses.sum();
+        return new Stats(h, m, evictions.sum(), Math.max(size.get(), 0),
+                         Duration.ofNanos(checkoutNanos.sum()));
+    }
+
+    private static final class Stats implements HttpClient.ConnectionPoolStats {
+        private final long hits, misses, evictions;
+        private final int idle;
+        private final Duration waitTime;
+
+        Stats(long hits, long misses, long evictions, int idle, Duration waitTime) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.idle = idle;
+            this.waitTime = waitTime;
+        }
+
+        @Override public long hits() { return hits; }
+        @Override public long misses() { return misses; }
+        @Override public long evictions() { return evictions; }
+        @Override public int idleConnections() { return idle; }
+        @Override public Duration waitTime() { return waitTime; }
+
+        @Override
+        public String toString() {
+            return "ConnectionPoolStats(hits=" + hits + ", misses=" + misses
+                    + ", evictions=" + evictions + ", idle=" + idle
+                    + ", waitTime=" + waitTime + ")";
+        }
+    }
+
     static final class ExpiryEntry {
         final HttpConnection connection;
         final Instant expiry; // absolute time in seconds of expiry time
@@ -320,152 +434,102 @@ final class ConnectionPool {
     }
 
     /**
-     * Manages a LinkedList of sorted ExpiryEntry. The entry with the closer
-     * deadline is at the tail of the list, and the entry with the farther
-     * deadline is at the head. In the most common situation, new elements
-     * will need to be added at the head (or close to it), and expired elements
-     * will need to be purged from the tail.
+     * The idle connections for one CacheKey, in the order in which they
+     * were returned: the least recently returned connection is at the
+     * head, and the most recently returned one at the tail.
+     * All methods, and the fields, must only be used while holding
+     * the lock on the Route.
      */
-    private static final class ExpiryList {
-        private final LinkedList<ExpiryEntry> list = new LinkedList<>();
-        private volatile boolean mayContainEntries;
-
-        int size() { return list.size(); }
-
-        // A loosely accurate boolean whose value is computed
-        // at the end of each operation performed on ExpiryList;
-        // Does not require synchronizing on the ConnectionPool.
-        boolean purgeMaybeRequired() {
-            return mayContainEntries;
-        }
-
-        // Returns the next expiry deadline
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool
-        Optional<Instant> nextExpiryDeadline() {
-            if (list.isEmpty()) return Optional.empty();
-            else return Optional.of(list.getLast().expiry);
-        }
-
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool
-        HttpConnection removeOldest() {
-            ExpiryEntry entry = list.pollLast();
-            return entry == null ? null : entry.connection;
-        }
-
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool
-        void add(HttpConnection conn) {
-            add(conn, Instant.now(), KEEP_ALIVE);
-        }
-
-        // Used by whitebox test.
-        void add(HttpConnection conn, Instant now, long keepAlive) {
-            Instant then = now.truncatedTo(ChronoUnit.SECONDS)
-                    .plus(keepAlive, ChronoUnit.SECONDS);
-
-            // Elements with the farther deadline are at the head of
-            // the list. It's more likely that the new element will
-            // have the farthest deadline, and will need to be inserted
-            // at the head of the list, so we're using an ascending
-            // list iterator to find the right insertion point.
-            ListIterator<ExpiryEntry> li = list.listIterator();
-            while (li.hasNext()) {
-                ExpiryEntry entry = li.next();
-
-                if (then.isAfter(entry.expiry)) {
-                    li.previous();
-                    // insert here
-                    li.add(new ExpiryEntry(conn, then));
-                    mayContainEntries = true;
-                    return;
-                }
-            }
-            // last (or first) element of list (the last element is
-            // the first when the list is empty)
-            list.add(new ExpiryEntry(conn, then));
-            mayContainEntries = true;
-        }
-
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool
-        void remove(HttpConnection c) {
-            if (c == null || list.isEmpty()) return;
-            ListIterator<ExpiryEntry> li = list.listIterator();
-            while (li.hasNext()) {
-                ExpiryEntry e = li.next();
-                if (e.connection.equals(c)) {
-                    li.remove();
-                    mayContainEntries = !list.isEmpty();
-                    return;
-                }
-            }
+    private static final class Route {
+        final CacheKey key;
+        final ArrayDeque<ExpiryEntry> idle = new ArrayDeque<>();
+        // set when the route has been removed from its pool
+        boolean retired;
+
+        Route(CacheKey key) {
+            this.key = key;
         }
 
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool.
-        // Purge all elements whose deadline is before now (now included).
-        List<HttpConnection> purgeUntil(Instant now) {
-            if (list.isEmpty()) return Collections.emptyList();
+        synchronized HttpConnection pollLatest() {
+            ExpiryEntry e = idle.pollLast();
+            return e == null ? null : e.connection;
+        }
 
-            List<HttpConnection> closelist = new ArrayList<>();
+        synchronized HttpConnection pollOldest() {
+            ExpiryEntry e = idle.pollFirst();
+            return e == null ? null : e.connection;
+        }
 
-            // elements with the closest deadlines are at the tail
-            // of the queue, so we're going to use a descending iterator
-            // to remove them, and stop when we find the first element
-            // that has not expired yet.
-            Iterator<ExpiryEntry> li = list.descendingIterator();
-            while (li.hasNext()) {
-                ExpiryEntry entry = li.next();
-                // use !isAfter instead of isBefore in order to
-                // remove the entry if its expiry == now
-                if (!entry.expiry.isAfter(now)) {
-                    li.remove();
-                    HttpConnection c = entry.connection;
-                    closelist.add(c);
-                } else break; // the list is sorted
+        synchronized Instant oldestExpiry() {
+            ExpiryEntry e = idle.peekFirst();
+            return e == null ? null : e.expiry;
+        }
+
+        synchronized boolean remove(HttpConnection c) {
+            Iterator<ExpiryEntry> it = idle.iterator();
+            while (it.hasNext()) {
+                if (it.next().connection.equals(c)) {
+                    it.remove();
+                    return true;
+                }
             }
-            mayContainEntries = !list.isEmpty();
-            return closelist;
+            return false;
         }
 
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool
-        java.util.stream.Stream<ExpiryEntry> stream() {
-            return list.stream();
+        synchronized boolean contains(HttpConnection c) {
+            for (ExpiryEntry e : idle) {
+                if (e.connection.equals(c)) return true;
+            }
+            return false;
         }
 
-        // should only be called while holding a synchronization
-        // lock on the ConnectionPool
-        void clear() {
-            list.clear();
-            mayContainEntries = false;
+        // Purge all elements whose deadline is before now (now included),
+        // adding them to closelist. Returns the earliest deadline of
+        // the remaining elements, or null if there are none.
+        synchronized Instant purgeUntil(Instant now, List<HttpConnection> closelist) {
+            Instant next = null;
+            Iterator<ExpiryEntry> it = idle.iterator();
+            while (it.hasNext()) {
+                ExpiryEntry entry = it.next();
+                // use !isAfter instead of isBefore in order to
+                // remove the entry if its expiry == now
+                if (!entry.expiry.isAfter(now)) {
+                    it.remove();
+                    closelist.add(entry.connection);
+                } else if (next == null || entry.expiry.isBefore(next)) {
+                    next = entry.expiry;
+                }
+            }
+            return next;
         }
     }
 
     // Remove a connection from the pool.
-    // should only be called while holding a synchronization
-    // lock on the ConnectionPool
-    private void removeFromPool(HttpConnection c) {
-        assert Thread.holdsLock(this);
+    private boolean removeFromPool(HttpConnection c) {
+        ConcurrentHashMap<CacheKey,Route> pool;
         if (c instanceof PlainHttpConnection) {
-            removeFromPool(c, plainPool);
+            pool = plainPool;
         } else {
             assert c.isSecure();
-            removeFromPool(c, sslPool);
+            pool = sslPool;
         }
+        Route route = pool.get(c.cacheKey());
+        if (route != null && route.remove(c)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
     }
 
     // Used by tests
-    synchronized boolean contains(HttpConnection c) {
+    boolean contains(HttpConnection c) {
         final CacheKey key = c.cacheKey();
-        List<HttpConnection> list;
-        if ((list = plainPool.get(key)) != null) {
-            if (list.contains(c)) return true;
+        Route route;
+        if ((route = plainPool.get(key)) != null) {
+            if (route.contains(c)) return true;
         }
-        if ((list = sslPool.get(key)) != null) {
-            if (list.contains(c)) return true;
+        if ((route = sslPool.get(key)) != null) {
+            if (route.contains(c)) return true;
         }
         return false;
     }
@@ -474,10 +538,7 @@ final class ConnectionPool {
         if (debug.on())
             debug.log("%s : ConnectionPool.cleanup(%s)",
                     String.valueOf(c.getConnectionFlow()), error);
-        synchronized(this) {
-            removeFromPool(c);
-            expiryList.remove(c);
-        }
+        removeFromPool(c);
         c.close();
     }
 
@@ -58,8 +58,17 @@ class Http2ClientImpl {
 
     private final HttpClientImpl client;
 
+    // Upper bound for receive windows grown from the estimated
+    // bandwidth-delay product of a connection; 0 if auto-tuning is disabled
+    private final int maxWindowSize;
+
     Http2ClientImpl(HttpClientImpl client) {
         this.client = client;
+        this.maxWindowSize =
+                Utils.getBooleanProperty("jdk.httpclient.windowsize.autotune", true)
+                ? getParameter("jdk.httpclient.windowsize.max",
+                               16 * K, Integer.MAX_VALUE, 64 * K * K)
+                : 0;
     }
 
     /* Map key is "scheme:host:port" */
@@ -240,6 +249,12 @@ class Http2ClientImpl {
                 streamWindow, Integer.MAX_VALUE, defaultValue);
     }
 
+    // the maximum size to which the stream and connection windows of
+    // this client's connections may be grown, 0 if they are never grown.
+    int getMaxWindowSize() {
+        return maxWindowSize;
+    }
+
     SettingsFrame getClientSettings() {
         SettingsFrame frame = new SettingsFrame();
         // default defined for HTTP/2 is 4 K, we use 16 K.
@@ -275,11 +275,21 @@ class Http2Connection  {
     private final FramesController framesController = new FramesController();
     private final Http2TubeSubscriber subscriber;
     final ConnectionWindowUpdateSender windowUpdater;
+    // grows the receive windows when they limit throughput, null if disabled
+    private final WindowSizeEstimator windowEstimator;
+    // initial window size of new streams, as last sent to the server
+    private volatile int streamWindowSize;
+    // current size of the connection window; only updated by the reader
+    private int connectionWindowSize;
     private volatile Throwable cause;
     private volatile Supplier<ByteBuffer> initial;
 
     static final int DEFAULT_FRAME_SIZE = 16 * 1024;
 
+    // Whether the HPACK decoder hands out cached strings for repeated headers
+    static final boolean HPACK_CACHE_STRINGS = Utils.getBooleanProperty(
+            "jdk.httpclient.hpack.cacheStrings", true);
+
 
     // TODO: need list of control frames from other threads
     // that need to be sent
@@ -299,14 +309,21 @@ class Http2Connection  {
         // serverSettings will be updated by server
         this.serverSettings = SettingsFrame.defaultRFCSettings();
         this.hpackOut = new Encoder(serverSettings.getParameter(HEADER_TABLE_SIZE));
-        this.hpackIn = new Decoder(clientSettings.getParameter(HEADER_TABLE_SIZE));
+        this.hpackIn = new Decoder(clientSettings.getParameter(HEADER_TABLE_SIZE),
+                                  HPACK_CACHE_STRINGS);
         if (debugHpack.on()) {
             debugHpack.log("For the record:" + super.toString());
             debugHpack.log("Decoder created: %s", hpackIn);
             debugHpack.log("Encoder created: %s", hpackOut);
         }
+        this.streamWindowSize = clientSettings.getParameter(INITIAL_WINDOW_SIZE);
         this.windowUpdater = new ConnectionWindowUpdateSender(this,
                 client2.getConnectionWindowSize(clientSettings));
+        this.connectionWindowSize = windowUpdater.initialWindowSize;
+        int maxWindowSize = client2.getMaxWindowSize();
+        this.windowEstimator = maxWindowSize > streamWindowSize
+                ? new WindowSizeEstimator(streamWindowSize, maxWindowSize)
+                : null;
     }
 
     /**
@@ -707,6 +724,13 @@ class Http2Connection  {
     void processFrame(Http2Frame frame) throws IOException {
         Log.logFrames(frame, "IN");
         int streamid = frame.streamid();
+        if (windowEstimator != null && frame instanceof DataFrame) {
+            PingFrame ping = windowEstimator.dataReceived(
+                    ((DataFrame) frame).payloadLength());
+            if (ping != null) {
+                sendUnorderedFrame(ping);
+            }
+        }
         if (frame instanceof MalformedFrame) {
             Log.logError(((MalformedFrame) frame).getMessage());
             if (streamid == 0) {
@@ -974,10 +998,57 @@ class Http2Connection  {
     private void handlePing(PingFrame frame)
         throws IOException
     {
+        if (frame.getFlag(PingFrame.ACK)) {
+            if (windowEstimator != null
+                    && WindowSizeEstimator.isEstimatorPing(frame)) {
+                int windowSize = windowEstimator.pingAcknowledged();
+                if (windowSize > 0) {
+                    growWindows(windowSize);
+                }
+            }
+            return;
+        }
         frame.setFlag(PingFrame.ACK);
         sendUnorderedFrame(frame);
     }
 
+    /**
+     * Grows the initial window of streams, and the connection window if it
+     * is smaller, to the given size. The server applies the new stream
+     * window to the streams that are already open, as well as to new ones.
+     */
+    private void growWindows(int windowSize) {
+        int delta = windowSize - streamWindowSize;
+        if (delta > 0) {
+            if (debug.on())
+                debug.log("growing stream window from %d to %d",
+                          streamWindowSize, windowSize);
+            streamWindowSize = windowSize;
+            SettingsFrame sf = new SettingsFrame();
+            sf.setParameter(INITIAL_WINDOW_SIZE, windowSize);
+            sendUnorderedFrame(sf);
+            for (Stream<?> stream : streams.values()) {
+                stream.windowSizeChanged(windowSize);
+            }
+        }
+        delta = windowSize - connectionWindowSize;
+        if (delta > 0) {
+            if (debug.on())
+                debug.log("growing connection window from %d to %d",
+                          connectionWindowSize, windowSize);
+            connectionWindowSize = windowSize;
+            windowUpdater.windowSizeChanged(windowSize);
+            windowUpdater.sendWindowUpdate(delta);
+        }
+    }
+
+    /**
+     * The initial receive window size of new streams.
+     */
+    int getStreamWindowSize() {
+        return streamWindowSize;
+    }
+
     private void handleGoAway(GoAwayFrame frame)
         throws IOException
     {
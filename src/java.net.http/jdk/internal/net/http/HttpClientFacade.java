@@ -110,6 +110,11 @@ final class HttpClientFacade extends HttpClient implements Trackable {
         return impl.executor();
     }
 
+    @Override
+    public Optional<ConnectionPoolStats> connectionPoolStats() {
+        return impl.connectionPoolStats();
+    }
+
     @Override
     public <T> HttpResponse<T>
     send(HttpRequest req, HttpResponse.BodyHandler<T> responseBodyHandler)
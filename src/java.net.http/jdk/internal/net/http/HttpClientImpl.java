@@ -1131,6 +1131,11 @@ final class HttpClientImpl extends HttpClient implements Trackable {
         return connections;
     }
 
+    @Override
+    public Optional<ConnectionPoolStats> connectionPoolStats() {
+        return Optional.of(connections.stats());
+    }
+
     @Override
     public Redirect followRedirects() {
         return followRedirects;
@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -39,6 +41,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.net.http.HttpClient;
@@ -371,9 +374,26 @@ abstract class HttpConnection implements Closeable {
 
     abstract FlowTube getConnectionFlow();
 
+    // Upper bounds on the buffers and bytes gathered from the write queues
+    // into a single list for the connection flow, i.e. a single gathering
+    // write on the socket.
+    static final int MAX_WRITE_BUFFERS = Utils.getIntegerNetProperty(
+            "jdk.httpclient.write.maxBuffers", 256);
+    static final int MAX_WRITE_BYTES = Utils.getIntegerNetProperty(
+            "jdk.httpclient.write.maxBytes", 256 * 1024);
+    // How long, in milliseconds, queued buffers may be held back waiting for
+    // more to gather before they are written. 0 writes them immediately.
+    static final long WRITE_FLUSH_DELAY = Utils.getIntegerNetProperty(
+            "jdk.httpclient.write.flushDelay", 0);
+
     /**
      * A publisher that makes it possible to publish (write) ordered (normal
      * priority) and unordered (high priority) buffers downstream.
+     *
+     * <p> Buffers queued while the downstream subscriber has no demand, for
+     * instance because the socket is not writable, are gathered into a
+     * single list when demand returns, so that the frames of many streams
+     * reach the socket in one write.
      */
     final class PlainHttpPublisher implements HttpPublisher {
         final Object reading;
@@ -385,6 +405,10 @@ abstract class HttpConnection implements Closeable {
         }
         final ConcurrentLinkedDeque<List<ByteBuffer>> queue = new ConcurrentLinkedDeque<>();
         final ConcurrentLinkedDeque<List<ByteBuffer>> priority = new ConcurrentLinkedDeque<>();
+        // number of bytes in queue and priority
+        final AtomicLong queued = new AtomicLong();
+        // the pending flush deadline, if any; only accessed by flush()
+        FlushDeadline deadline;
         volatile Flow.Subscriber<? super List<ByteBuffer>> subscriber;
         volatile HttpWriteSubscription subscription;
         final SequentialScheduler writeScheduler =
@@ -445,9 +469,48 @@ abstract class HttpConnection implements Closeable {
                 return elem == null ? queue.poll() : elem;
             }
 
+            // Gathers queued lists, priority first, until the batch limits
+            // are reached. A list is never split across batches.
+            private List<ByteBuffer> pollBatch() {
+                List<ByteBuffer> first = poll();
+                List<ByteBuffer> batch = first;
+                long bytes = Utils.remaining(first);
+                ConcurrentLinkedDeque<List<ByteBuffer>> from;
+                List<ByteBuffer> next;
+                while ((next = (from = priority.isEmpty() ? queue : priority).peek()) != null) {
+                    long size = Utils.remaining(next);
+                    if (batch.size() + next.size() > MAX_WRITE_BUFFERS
+                            || bytes + size > MAX_WRITE_BYTES) {
+                        break;
+                    }
+                    if (batch == first) batch = new ArrayList<>(first);
+                    // only this method removes elements from the deques,
+                    // so this is the list that was just peeked
+                    batch.addAll(from.poll());
+                    bytes += size;
+                }
+                queued.addAndGet(-bytes);
+                return batch;
+            }
+
+            // Returns true if the queued buffers should be written now,
+            // otherwise arms a deadline after which they will be.
+            private boolean flushDue() {
+                if (WRITE_FLUSH_DELAY <= 0) return true;
+                FlushDeadline d = deadline;
+                if (d != null && d.expired) return true;
+                if (isEmpty() || queued.get() >= MAX_WRITE_BYTES) return true;
+                if (d == null) {
+                    deadline = new FlushDeadline();
+                    client().registerTimer(deadline);
+                }
+                return false;
+            }
+
             void flush() {
+                if (!flushDue()) return;
                 while (!isEmpty() && demand.tryDecrement()) {
-                    List<ByteBuffer> elem = poll();
+                    List<ByteBuffer> elem = pollBatch();
                     if (debug.on())
                         debug.log("HttpPublisher: sending "
                                     + Utils.remaining(elem) + " bytes ("
@@ -455,13 +518,21 @@ abstract class HttpConnection implements Closeable {
                                     + getConnectionFlow());
                     subscriber.onNext(elem);
                 }
+                FlushDeadline d = deadline;
+                if (d != null && isEmpty()) {
+                    // everything was written; the next buffers queued
+                    // start a new delay
+                    if (!d.expired) client().cancelTimer(d);
+                    deadline = null;
+                }
             }
         }
 
         @Override
         public void enqueue(List<ByteBuffer> buffers) throws IOException {
-            queue.add(buffers);
             int bytes = buffers.stream().mapToInt(ByteBuffer::remaining).sum();
+            queued.addAndGet(bytes);
+            queue.add(buffers);
             debug.log("added %d bytes to the write queue", bytes);
         }
 
@@ -469,6 +540,7 @@ abstract class HttpConnection implements Closeable {
         public void enqueueUnordered(List<ByteBuffer> buffers) throws IOException {
             // Unordered frames are sent before existing frames.
             int bytes = buffers.stream().mapToInt(ByteBuffer::remaining).sum();
+            queued.addAndGet(bytes);
             priority.add(buffers);
             debug.log("added %d bytes in the priority write queue", bytes);
         }
@@ -478,6 +550,21 @@ abstract class HttpConnection implements Closeable {
             debug.log("signalling the publisher of the write queue");
             signal();
         }
+
+        // Writes the queued buffers once the flush delay has elapsed
+        final class FlushDeadline extends TimeoutEvent {
+            volatile boolean expired;
+
+            FlushDeadline() {
+                super(Duration.ofMillis(WRITE_FLUSH_DELAY));
+            }
+
+            @Override
+            public void handle() {
+                expired = true;
+                signal();
+            }
+        }
     }
 
     String dbgTag;
@@ -1303,6 +1303,12 @@ class Stream<T> extends ExchangeImpl<T> {
         }
     }
 
+    // Invoked by the connection after it has grown the initial window
+    // size of streams, which the server also applies to open streams.
+    void windowSizeChanged(int windowSize) {
+        windowUpdater.windowSizeChanged(windowSize);
+    }
+
     final class StreamWindowUpdateSender extends WindowUpdateSender {
 
         StreamWindowUpdateSender(Http2Connection connection) {
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package jdk.internal.net.http;
+
+import java.util.Arrays;
+import jdk.internal.net.http.frame.PingFrame;
+
+/**
+ * Estimates the bandwidth-delay product of an HTTP/2 connection, in order
+ * to grow its receive windows when they are too small to keep the link
+ * busy.
+ *
+ * <p> When DATA arrives and no sample is in progress, a PING is sent and
+ * the bytes received until its ACK are counted. The round trip time is
+ * smoothed over successive samples. When a sample shows that the peer
+ * sent close to a full window in one round trip, and the measured
+ * bandwidth is the highest seen so far, the window is assumed to be the
+ * bottleneck and a new size of twice the sample is proposed, up to the
+ * configured maximum. Once the maximum is reached no more PINGs are sent.
+ *
+ * <p> Instances are owned by a single connection and are called from its
+ * reading thread.
+ */
+final class WindowSizeEstimator {
+
+    // Opaque data identifying the PING frames sent by the estimator
+    private static final byte[] PING_DATA = {
+        'w', 'i', 'n', 'd', 'o', 'w', 0, 0
+    };
+
+    // Weight of a new round trip sample, once the first few are averaged
+    private static final double ALPHA = 0.9;
+    // Fraction of the window a sample must reach for the window to grow
+    private static final double BETA = 0.66;
+    // Factor applied to the sample to obtain the new window size
+    private static final int GAMMA = 2;
+
+    private final int maxWindowSize;
+    private int windowSize;
+    private boolean pingSent;
+    private long pingSentAt;
+    private long sample;
+    private int sampleCount;
+    private double rtt;
+    private double maxBandwidth;
+
+    /**
+     * Creates an estimator for windows starting at {@code windowSize}
+     * and growing up to {@code maxWindowSize}.
+     */
+    WindowSizeEstimator(int windowSize, int maxWindowSize) {
+        this.windowSize = windowSize;
+        this.maxWindowSize = Math.max(windowSize, maxWindowSize);
+    }
+
+    /**
+     * Records that {@code bytes} of DATA payload were received.
+     *
+     * @return a PING frame to send in order to start a new sample,
+     *         or null
+     */
+    synchronized PingFrame dataReceived(int bytes) {
+        if (windowSize >= maxWindowSize) {
+            return null;
+        }
+        if (!pingSent) {
+            pingSent = true;
+            pingSentAt = System.nanoTime();
+            sample = bytes;
+            return new PingFrame(0, PING_DATA);
+        }
+        sample += bytes;
+        return null;
+    }
+
+    /**
+     * Returns true if the given PING ACK answers a PING sent by this
+     * estimator.
+     */
+    static boolean isEstimatorPing(PingFrame ack) {
+        return Arrays.equals(ack.getData(), PING_DATA);
+    }
+
+    /**
+     * Completes the current sample when the ACK for its PING is received.
+     *
+     * @return the new window size, or 0 if the window should not change
+     */
+    synchronized int pingAcknowledged() {
+        if (!pingSent) {
+            return 0;
+        }
+        pingSent = false;
+        double rttSample = (System.nanoTime() - pingSentAt) / 1e9;
+        if (sampleCount < 10) {
+            sampleCount++;
+            rtt += (rttSample - rtt) / sampleCount;
+        } else {
+            rtt += (rttSample - rtt) * ALPHA;
+        }
+        if (rtt <= 0) {
+            return 0;
+        }
+        // the sample includes the data that was in flight when the PING
+        // was sent, which is why the round trip time is inflated here
+        double bandwidth = sample / (rtt * 1.5);
+        if (bandwidth > maxBandwidth) {
+            maxBandwidth = bandwidth;
+        }
+        if (sample >= BETA * windowSize && bandwidth == maxBandwidth) {
+            long proposed = Math.min((long) GAMMA * sample, maxWindowSize);
+            if (proposed > windowSize) {
+                windowSize = (int) proposed;
+                return windowSize;
+            }
+        }
+        return 0;
+    }
+}
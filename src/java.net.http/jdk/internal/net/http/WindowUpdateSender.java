@@ -27,7 +27,6 @@ package jdk.internal.net.http;
 
 import jdk.internal.net.http.common.FlowTube;
 import jdk.internal.net.http.common.Logger;
-import jdk.internal.net.http.frame.SettingsFrame;
 import jdk.internal.net.http.frame.WindowUpdateFrame;
 import jdk.internal.net.http.common.Utils;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -37,12 +36,13 @@ abstract class WindowUpdateSender {
     final Logger debug =
             Utils.getDebugLogger(this::dbgString, Utils.DEBUG);
 
-    final int limit;
+    final int maxFrameSize;
+    volatile int limit;
     final Http2Connection connection;
     final AtomicInteger received = new AtomicInteger(0);
 
     WindowUpdateSender(Http2Connection connection) {
-        this(connection, connection.clientSettings.getParameter(SettingsFrame.INITIAL_WINDOW_SIZE));
+        this(connection, connection.getStreamWindowSize());
     }
 
     WindowUpdateSender(Http2Connection connection, int initWindowSize) {
@@ -51,23 +51,39 @@ abstract class WindowUpdateSender {
 
     WindowUpdateSender(Http2Connection connection, int maxFrameSize, int initWindowSize) {
         this.connection = connection;
-        int v0 = Math.max(0, initWindowSize - maxFrameSize);
-        int v1 = (initWindowSize + (maxFrameSize - 1)) / maxFrameSize;
-        v1 = v1 * maxFrameSize / 2;
+        this.maxFrameSize = maxFrameSize;
+        limit = limit(maxFrameSize, initWindowSize);
+        if (debug.on())
+            debug.log("maxFrameSize=%d, initWindowSize=%d, limit=%d",
+                      maxFrameSize, initWindowSize, limit);
+    }
+
+    private static int limit(int maxFrameSize, int windowSize) {
+        int v0 = Math.max(0, windowSize - maxFrameSize);
+        int v1 = (int) (((long) windowSize + (maxFrameSize - 1)) / maxFrameSize);
+        v1 = (int) ((long) v1 * maxFrameSize / 2);
         // send WindowUpdate heuristic:
         // - we got data near half of window size
         //   or
         // - remaining window size reached max frame size.
-        limit = Math.min(v0, v1);
+        return Math.min(v0, v1);
+    }
+
+    /**
+     * Adjusts the threshold for sending updates after the receive window
+     * has been grown to {@code windowSize}.
+     */
+    void windowSizeChanged(int windowSize) {
+        limit = limit(maxFrameSize, windowSize);
         if (debug.on())
-            debug.log("maxFrameSize=%d, initWindowSize=%d, limit=%d",
-                      maxFrameSize, initWindowSize, limit);
+            debug.log("windowSize=%d, limit=%d", windowSize, limit);
     }
 
     abstract int getStreamId();
 
     void update(int delta) {
         int rcv = received.addAndGet(delta);
+        int limit = this.limit;
         if (debug.on()) debug.log("update: %d, received: %d, limit: %d", delta, rcv, limit);
         if (rcv > limit) {
             synchronized (this) {
@@ -67,6 +67,9 @@ public final class Decoder {
     private final Logger logger;
     private static final AtomicLong DECODERS_IDS = new AtomicLong();
 
+    /* Number of slots in a decoder's cache of recently decoded strings */
+    private static final int CACHED_STRINGS = 256;
+
     /* An immutable list of states */
     private static final List<State> states;
 
@@ -107,6 +110,7 @@ public final class Decoder {
     private final StringReader stringReader;
     private final StringBuilder name;
     private final StringBuilder value;
+    private final HeaderStringCache strings;
     private int intValue;
     private boolean firstValueRead;
     private boolean firstValueIndex;
@@ -129,6 +133,29 @@ public final class Decoder {
      *         if capacity is negative
      */
     public Decoder(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Constructs a {@code Decoder} with the specified initial capacity of the
+     * header table, optionally caching the strings it decodes.
+     *
+     * <p> When {@code cacheStrings} is {@code true}, header names and values
+     * are reported to the callback as {@code String}s shared with the static
+     * table or with recently decoded headers, rather than as the decoder's
+     * internal buffers. Repeated headers then cost no new allocation when
+     * the callback converts them with {@code toString()}. Values of headers
+     * that must never be indexed are not cached.
+     *
+     * @param capacity
+     *         a non-negative integer
+     * @param cacheStrings
+     *         whether to cache decoded names and values
+     *
+     * @throws IllegalArgumentException
+     *         if capacity is negative
+     */
+    public Decoder(int capacity, boolean cacheStrings) {
         id = DECODERS_IDS.incrementAndGet();
         logger = HPACK.getLogger().subLogger("Decoder#" + id);
         if (logger.isLoggable(NORMAL)) {
@@ -151,6 +178,7 @@ public final class Decoder {
         stringReader = new StringReader();
         name = new StringBuilder(512);
         value = new StringBuilder(1024);
+        strings = cacheStrings ? new HeaderStringCache(CACHED_STRINGS) : null;
     }
 
     /**
@@ -397,14 +425,14 @@ public final class Decoder {
                             intValue, value, valueHuffmanEncoded));
                 }
                 SimpleHeaderTable.HeaderField f = getHeaderFieldAt(intValue);
-                action.onLiteral(intValue, f.name, value, valueHuffmanEncoded);
+                action.onLiteral(intValue, f.name, string(value), valueHuffmanEncoded);
             } else {
                 if (logger.isLoggable(NORMAL)) {
                     logger.log(NORMAL, () -> format(
                             "literal without indexing ('%s', huffman=%b, '%s', huffman=%b)",
                             name, nameHuffmanEncoded, value, valueHuffmanEncoded));
                 }
-                action.onLiteral(name, nameHuffmanEncoded, value, valueHuffmanEncoded);
+                action.onLiteral(string(name), nameHuffmanEncoded, string(value), valueHuffmanEncoded);
             }
         } finally {
             cleanUpAfterReading();
@@ -448,7 +476,7 @@ public final class Decoder {
             //    Let's create those string beforehand (and only once!) to benefit everyone
             //
             String n;
-            String v = value.toString();
+            String v = string(value).toString();
             if (firstValueIndex) {
                 if (logger.isLoggable(NORMAL)) {
                     logger.log(NORMAL, () -> format(
@@ -459,7 +487,7 @@ public final class Decoder {
                 n = f.name;
                 action.onLiteralWithIndexing(intValue, n, v, valueHuffmanEncoded);
             } else {
-                n = name.toString();
+                n = string(name).toString();
                 if (logger.isLoggable(NORMAL)) {
                     logger.log(NORMAL, () -> format(
                             "literal with incremental indexing ('%s', huffman=%b, '%s', huffman=%b)",
@@ -516,7 +544,7 @@ public final class Decoder {
                             "literal never indexed ('%s', huffman=%b, '%s', huffman=%b)",
                             name, nameHuffmanEncoded, value, valueHuffmanEncoded));
                 }
-                action.onLiteralNeverIndexed(name, nameHuffmanEncoded, value, valueHuffmanEncoded);
+                action.onLiteralNeverIndexed(string(name), nameHuffmanEncoded, value, valueHuffmanEncoded);
             }
         } finally {
             cleanUpAfterReading();
@@ -580,6 +608,14 @@ public final class Decoder {
         return true;
     }
 
+    /*
+     * Returns the cached String for the given buffer's contents if strings
+     * are cached, or the buffer itself otherwise.
+     */
+    private CharSequence string(StringBuilder sb) {
+        return strings == null ? sb : strings.get(sb);
+    }
+
     private void cleanUpAfterReading() {
         name.setLength(0);
         value.setLength(0);
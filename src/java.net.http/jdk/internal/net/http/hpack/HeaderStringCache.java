@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package jdk.internal.net.http.hpack;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Hands out Strings for the header names and values that a Decoder has
+ * decoded into its reusable buffers, without creating a new String when
+ * the same characters were seen recently.
+ *
+ * The names and values of the static table are kept in an index shared by
+ * all decoders. Other strings are kept in a small direct-mapped cache per
+ * decoder, where a newer string simply replaces an older one with the
+ * same slot. A lookup costs one pass over the characters to hash them and
+ * one to compare them.
+ *
+ * Instances are not thread-safe; each one belongs to a single Decoder.
+ */
+final class HeaderStringCache {
+
+    /* Strings longer than this (e.g. cookies) are not cached */
+    static final int MAX_LENGTH = 256;
+
+    /* Open addressing index of the static table's names and values */
+    private static final String[] STATIC_INDEX;
+    private static final int STATIC_MASK;
+
+    static {
+        Set<String> strings = new HashSet<>();
+        for (int i = 1; i <= SimpleHeaderTable.STATIC_TABLE_LENGTH; i++) {
+            SimpleHeaderTable.HeaderField f = SimpleHeaderTable.staticTable.get(i);
+            strings.add(f.name);
+            if (!f.value.isEmpty()) {
+                strings.add(f.value);
+            }
+        }
+        // keep the load factor at or below 1/2
+        int length = Integer.highestOneBit(strings.size() * 2 - 1) << 1;
+        String[] index = new String[length];
+        for (String s : strings) {
+            int i = s.hashCode() & (length - 1);
+            while (index[i] != null) {
+                i = (i + 1) & (length - 1);
+            }
+            index[i] = s;
+        }
+        STATIC_INDEX = index;
+        STATIC_MASK = length - 1;
+    }
+
+    private final String[] entries;
+    private final int mask;
+
+    /*
+     * Creates a cache with the given number of slots, rounded up to a
+     * power of two.
+     */
+    HeaderStringCache(int slots) {
+        int length = Integer.highestOneBit(Math.max(slots - 1, 1)) << 1;
+        entries = new String[length];
+        mask = length - 1;
+    }
+
+    /*
+     * Returns a String with the same characters as the given sequence.
+     */
+    String get(CharSequence cs) {
+        int length = cs.length();
+        if (length == 0) {
+            return "";
+        }
+        if (length > MAX_LENGTH) {
+            return cs.toString();
+        }
+        int h = hash(cs, length);
+        for (int i = h & STATIC_MASK; ; i = (i + 1) & STATIC_MASK) {
+            String s = STATIC_INDEX[i];
+            if (s == null) {
+                break;
+            }
+            if (s.hashCode() == h && s.contentEquals(cs)) {
+                return s;
+            }
+        }
+        int i = (h ^ (h >>> 16)) & mask;
+        String s = entries[i];
+        if (s != null && s.hashCode() == h && s.contentEquals(cs)) {
+            return s;
+        }
+        s = cs.toString();
+        entries[i] = s;
+        return s;
+    }
+
+    /* Same function as String.hashCode() */
+    private static int hash(CharSequence cs, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + cs.charAt(i);
+        }
+        return h;
+    }
+}
@@ -79,6 +79,9 @@ public class Headers implements Map<String,List<String>> {
             if (len == 0) {
                 return key;
             }
+            if (isNormalized (key)) {
+                return key;
+            }
             char[] b = key.toCharArray();
             if (b[0] >= 'a' && b[0] <= 'z') {
                 b[0] = (char)(b[0] - ('a' - 'A'));
@@ -94,6 +97,21 @@ public class Headers implements Map<String,List<String>> {
             return new String(b);
         }
 
+        /* true if key is already in the form produced by normalize */
+        private static boolean isNormalized (String key) {
+            char c = key.charAt(0);
+            if ((c >= 'a' && c <= 'z') || c == '\r' || c == '\n') {
+                return false;
+            }
+            for (int i=1; i<key.length(); i++) {
+                c = key.charAt(i);
+                if ((c >= 'A' && c <= 'Z') || c == '\r' || c == '\n') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         public int size() {return map.size();}
 
         public boolean isEmpty() {return map.isEmpty();}
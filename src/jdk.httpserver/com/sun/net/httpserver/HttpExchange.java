@@ -190,6 +190,84 @@ public abstract class HttpExchange implements AutoCloseable {
      */
     public abstract void sendResponseHeaders (int rCode, long responseLength) throws IOException ;
 
+    /**
+     * Sends the response back to the client, using the given region of a
+     * file as the response body. The response headers are sent as if by
+     * {@link #sendResponseHeaders(int,long) sendResponseHeaders(rCode, count)},
+     * or with a response length of {@code -1} if {@code count} is zero. The
+     * region is then written and the response body stream closed, which
+     * terminates the response.
+     * <p>
+     * If the request method is {@code HEAD}, or the response code is one
+     * that does not allow a response body (1xx, 204 or 304), only the
+     * response headers are sent, with a response length of {@code -1}. A
+     * response to a {@code HEAD} request that would otherwise have a body
+     * includes a {@code Content-length} header of {@code count}, unless one
+     * has already been set.
+     * <p>
+     * The position of the file channel is not changed by this method.
+     * This method must not be called if {@link #sendResponseHeaders(int,long)}
+     * has already been called for this exchange.
+     *
+     * @implSpec The default implementation sends the response headers and
+     * then copies the region to the stream returned by {@link #getResponseBody()}.
+     *
+     * @implNote The default server implementation transfers the region
+     * directly from the file channel to the connection's socket channel
+     * when the response is sent over plain HTTP and the response stream has
+     * not been replaced by {@link #setStreams(InputStream,OutputStream)}.
+     * For HTTPS the region is read through a pooled direct buffer and
+     * encrypted from there.
+     *
+     * @param rCode the response code to send
+     * @param src the file channel to read the response body from
+     * @param position the position in the file of the first byte to send;
+     *        must be non-negative
+     * @param count the number of bytes to send; must be non-negative
+     * @throws IOException if an I/O error occurs, or if the file has fewer
+     *         than {@code position + count} bytes
+     * @throws IllegalArgumentException if {@code position} or
+     *         {@code count} is negative
+     * @throws NullPointerException if {@code src} is {@code null}
+     * @since 15
+     */
+    public void sendResponseFile (int rCode, FileChannel src, long position, long count)
+        throws IOException
+    {
+        Objects.requireNonNull (src);
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException ("negative position or count");
+        }
+        boolean bodyAllowed = rCode >= 200 && rCode != 204 && rCode != 304;
+        if ("HEAD".equals (getRequestMethod()) || !bodyAllowed) {
+            Headers headers = getResponseHeaders();
+            if (bodyAllowed && !headers.containsKey ("Content-length")) {
+                headers.set ("Content-length", Long.toString (count));
+            }
+            sendResponseHeaders (rCode, -1);
+            return;
+        }
+        sendResponseHeaders (rCode, count == 0 ? -1 : count);
+        if (count == 0) {
+            return;
+        }
+        try (OutputStream os = getResponseBody()) {
+            byte[] b = new byte [(int)Math.min (count, 8192)];
+            ByteBuffer bb = ByteBuffer.wrap (b);
+            while (count > 0) {
+                bb.clear();
+                bb.limit ((int)Math.min (count, b.length));
+                int n = src.read (bb, position);
+                if (n < 0) {
+                    throw new EOFException ("end of file reached");
+                }
+                os.write (b, 0, n);
+                position += n;
+                count -= n;
+            }
+        }
+    }
+
     /**
      * Returns the address of the remote entity invoking this request
      * @return the InetSocketAddress of the caller
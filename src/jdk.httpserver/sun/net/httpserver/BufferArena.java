@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.net.httpserver;
+
+import java.io.*;
+
+/**
+ * Scratch buffers which are reused by every exchange on one connection.
+ * The exchanges of a connection, including pipelined ones, are handled
+ * one at a time, and each one is finished before the next request is
+ * read. So the buffers are never used by two threads at the same time.
+ *
+ * The arena is not handed on to other connections when its connection
+ * closes, because a connection can be closed by a timeout while its
+ * exchange thread is still using the buffers.
+ */
+class BufferArena {
+
+    /* request line and header parsing */
+    private char[] line;
+    /* response status line and header encoding */
+    private byte[] header;
+    /* user data of ChunkedOutputStream, plus chunk framing */
+    private byte[] chunk;
+    /* bytes discarded by LeftOverInputStream.drain() */
+    private byte[] drain;
+
+    private BufferedOutputStream headerOut;
+    private OutputStream headerOutTarget;
+
+    /**
+     * returns a char array of at least the given length. Contents
+     * are not preserved
+     */
+    char[] line (int minLength) {
+        if (line == null || line.length < minLength) {
+            line = new char [Math.max (minLength, Request.BUF_LEN)];
+        }
+        return line;
+    }
+
+    /**
+     * returns a char array of at least the given length, which
+     * starts with the first len chars of the current line buffer
+     */
+    char[] growLine (int minLength, int len) {
+        char[] old = line (0);
+        if (old.length >= minLength) {
+            return old;
+        }
+        char[] n = new char [Math.max (minLength, old.length * 2)];
+        System.arraycopy (old, 0, n, 0, len);
+        line = n;
+        return n;
+    }
+
+    byte[] header (int minLength) {
+        if (header == null || header.length < minLength) {
+            header = new byte [Math.max (minLength, 128)];
+        }
+        return header;
+    }
+
+    byte[] chunk (int length) {
+        if (chunk == null || chunk.length < length) {
+            chunk = new byte [length];
+        }
+        return chunk;
+    }
+
+    byte[] drain (int length) {
+        if (drain == null || drain.length < length) {
+            drain = new byte [length];
+        }
+        return drain;
+    }
+
+    /**
+     * returns an empty buffered stream over the given raw stream, used
+     * to send the response headers in one write
+     */
+    BufferedOutputStream headerStream (OutputStream ros) {
+        if (headerOut == null || headerOutTarget != ros) {
+            headerOut = new BufferedOutputStream (ros);
+            headerOutTarget = ros;
+        }
+        return headerOut;
+    }
+}
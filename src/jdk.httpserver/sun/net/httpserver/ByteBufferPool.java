@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.net.httpserver;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of fixed size direct buffers, shared by all
+ * exchanges of the server. Buffers which do not fit in the pool
+ * when released are left to the garbage collector.
+ */
+class ByteBufferPool {
+
+    private final ConcurrentLinkedQueue<ByteBuffer> pool =
+        new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int bufferSize;
+    private final int maxPooled;
+
+    ByteBufferPool (int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    int bufferSize () {
+        return bufferSize;
+    }
+
+    /**
+     * Returns a cleared buffer of bufferSize() bytes
+     */
+    ByteBuffer get () {
+        ByteBuffer b = pool.poll();
+        if (b == null) {
+            return ByteBuffer.allocateDirect (bufferSize);
+        }
+        pooled.decrementAndGet();
+        b.clear();
+        return b;
+    }
+
+    void release (ByteBuffer b) {
+        if (b.capacity() != bufferSize || !b.isDirect()) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        pool.offer (b);
+    }
+}
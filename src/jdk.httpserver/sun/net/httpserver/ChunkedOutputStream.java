@@ -56,12 +56,18 @@ class ChunkedOutputStream extends FilterOutputStream
     final static int OFFSET = 6; /* initial <=4 bytes for len + CRLF */
     private int pos = OFFSET;
     private int count = 0;
-    private byte[] buf = new byte [CHUNK_SIZE+OFFSET+2];
+    private final byte[] buf;
     ExchangeImpl t;
 
+    private static final byte[] HEX_DIGITS = {
+        '0', '1', '2', '3', '4', '5', '6', '7',
+        '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
     ChunkedOutputStream (ExchangeImpl t, OutputStream src) {
         super (src);
         this.t = t;
+        this.buf = t.buffers.chunk (CHUNK_SIZE+OFFSET+2);
     }
 
     public void write (int b) throws IOException {
@@ -111,12 +117,11 @@ class ChunkedOutputStream extends FilterOutputStream
      * count must == number of user bytes (<= CHUNK_SIZE)
      */
     private void writeChunk () throws IOException {
-        char[] c = Integer.toHexString (count).toCharArray();
-        int clen = c.length;
+        int clen = count == 0 ? 1 : (35 - Integer.numberOfLeadingZeros (count)) / 4;
         int startByte = 4 - clen;
         int i;
         for (i=0; i<clen; i++) {
-            buf[startByte+i] = (byte)c[i];
+            buf[startByte+i] = HEX_DIGITS[(count >> (4 * (clen-1-i))) & 0xf];
         }
         buf[startByte + (i++)] = '\r';
         buf[startByte + (i++)] = '\n';
@@ -27,6 +27,8 @@ package sun.net.httpserver;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import javax.net.ssl.*;
 import java.util.*;
 import java.lang.System.Logger;
@@ -81,6 +83,7 @@ class ExchangeImpl {
     int rcode = -1;
     HttpPrincipal principal;
     ServerImpl server;
+    final BufferArena buffers;
 
     ExchangeImpl (
         String m, URI u, Request req, long len, HttpConnection connection
@@ -95,6 +98,7 @@ class ExchangeImpl {
         /* ros only used for headers, body written directly to stream */
         this.ros = req.outputStream();
         this.ris = req.inputStream();
+        this.buffers = connection.getBuffers();
         server = getServerImpl();
         server.startExchange();
     }
@@ -207,7 +211,7 @@ class ExchangeImpl {
         }
         this.rcode = rCode;
         String statusLine = "HTTP/1.1 "+rCode+Code.msg(rCode)+"\r\n";
-        OutputStream tmpout = new BufferedOutputStream (ros);
+        OutputStream tmpout = buffers.headerStream (ros);
         PlaceholderOutputStream o = getPlaceholderResponseBody();
         tmpout.write (bytes(statusLine, 0), 0, statusLine.length());
         boolean noContentToSend = false; // assume there is content
@@ -291,6 +295,56 @@ class ExchangeImpl {
         server.logReply (rCode, req.requestLine(), null);
     }
 
+    void sendResponseFile (int rCode, FileChannel src, long position, long count)
+        throws IOException
+    {
+        Objects.requireNonNull (src);
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException ("negative position or count");
+        }
+        boolean bodyAllowed = rCode >= 200 && rCode != 204 && rCode != 304;
+        if (isHeadRequest() || !bodyAllowed) {
+            /* no response body: send the headers alone. A HEAD response
+             * carries the length the body would have had.
+             */
+            if (bodyAllowed && !rspHdrs.containsKey ("Content-length")) {
+                rspHdrs.set ("Content-length", Long.toString (count));
+            }
+            sendResponseHeaders (rCode, -1);
+            return;
+        }
+        sendResponseHeaders (rCode, count == 0 ? -1 : count);
+        if (closed) {
+            /* no response body to send */
+            return;
+        }
+        OutputStream os = uos;
+        if (os == uos_orig && uos_orig.wrapped instanceof FixedLengthOutputStream) {
+            ((FixedLengthOutputStream)uos_orig.wrapped).transferFrom (
+                src, position, count
+            );
+        } else {
+            /* a filter has wrapped the response stream, so the
+             * bytes have to go through it
+             */
+            byte[] b = new byte [(int)Math.min (count, 8192)];
+            ByteBuffer bb = ByteBuffer.wrap (b);
+            while (count > 0) {
+                bb.clear();
+                bb.limit ((int)Math.min (count, b.length));
+                int n = src.read (bb, position);
+                if (n < 0) {
+                    close();
+                    throw new EOFException ("end of file reached");
+                }
+                os.write (b, 0, n);
+                position += n;
+                count -= n;
+            }
+        }
+        os.close();
+    }
+
     void write (Headers map, OutputStream os) throws IOException {
         Set<Map.Entry<String,List<String>>> entries = map.entrySet();
         for (Map.Entry<String,List<String>> entry : entries) {
@@ -314,23 +368,17 @@ class ExchangeImpl {
         os.write ('\n');
     }
 
-    private byte[] rspbuf = new byte [128]; // used by bytes()
-
     /**
-     * convert string to byte[], using rspbuf
+     * convert string to byte[], using the connection's header buffer
      * Make sure that at least "extra" bytes are free at end
-     * of rspbuf. Reallocate rspbuf if not big enough.
-     * caller must check return value to see if rspbuf moved
+     * of the buffer. The buffer is reallocated if not big enough.
+     * caller must check return value to see if the buffer moved
      */
     private byte[] bytes (String s, int extra) {
         int slen = s.length();
-        if (slen+extra > rspbuf.length) {
-            int diff = slen + extra - rspbuf.length;
-            rspbuf = new byte [2* (rspbuf.length + diff)];
-        }
-        char c[] = s.toCharArray();
-        for (int i=0; i<c.length; i++) {
-            rspbuf[i] = (byte)c[i];
+        byte[] rspbuf = buffers.header (slen + extra);
+        for (int i=0; i<slen; i++) {
+            rspbuf[i] = (byte)s.charAt(i);
         }
         return rspbuf;
     }
@@ -27,6 +27,9 @@ package sun.net.httpserver;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
 import com.sun.net.httpserver.*;
 import com.sun.net.httpserver.spi.*;
 
@@ -45,6 +48,10 @@ class FixedLengthOutputStream extends FilterOutputStream
     private boolean closed = false;
     ExchangeImpl t;
 
+    private static final ByteBufferPool directBuffers = new ByteBufferPool (
+        ServerConfig.getDirectBufferSize(), ServerConfig.getMaxDirectBuffers()
+    );
+
     FixedLengthOutputStream (ExchangeImpl t, OutputStream src, long len) {
         super (src);
         this.t = t;
@@ -79,6 +86,67 @@ class FixedLengthOutputStream extends FilterOutputStream
         remaining -= len;
     }
 
+    /**
+     * writes count bytes of the given file, starting at position,
+     * to the underlying stream. On a plain connection the bytes are
+     * transferred directly from the file to the socket channel.
+     * On an SSL connection they are read into a pooled direct buffer
+     * and encrypted from there.
+     */
+    void transferFrom (FileChannel src, long position, long count)
+        throws IOException
+    {
+        if (closed) {
+            throw new IOException ("stream closed");
+        }
+        eof = (remaining == 0);
+        if (eof) {
+            throw new StreamClosedException();
+        }
+        if (count > remaining) {
+            throw new IOException ("too many bytes to write to stream");
+        }
+        if (out instanceof Request.WriteStream) {
+            SocketChannel chan = ((Request.WriteStream)out).channel;
+            out.flush();
+            while (count > 0) {
+                long n = src.transferTo (position, count, chan);
+                if (n == 0 && position >= src.size()) {
+                    t.close();
+                    throw new EOFException ("end of file reached");
+                }
+                position += n;
+                count -= n;
+                remaining -= n;
+            }
+        } else if (out instanceof SSLStreams.OutputStream) {
+            SSLStreams.OutputStream sslout = (SSLStreams.OutputStream)out;
+            ByteBuffer buf = directBuffers.get();
+            try {
+                while (count > 0) {
+                    buf.clear();
+                    if (count < buf.capacity()) {
+                        buf.limit ((int)count);
+                    }
+                    int n = src.read (buf, position);
+                    if (n < 0) {
+                        t.close();
+                        throw new EOFException ("end of file reached");
+                    }
+                    buf.flip();
+                    sslout.write (buf);
+                    position += n;
+                    count -= n;
+                    remaining -= n;
+                }
+            } finally {
+                directBuffers.release (buf);
+            }
+        } else {
+            throw new InternalError ("unexpected stream: " + out);
+        }
+    }
+
     public void close () throws IOException {
         if (closed) {
             return;
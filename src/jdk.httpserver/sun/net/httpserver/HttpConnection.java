@@ -54,8 +54,13 @@ class HttpConnection {
 
     SocketChannel chan;
     SelectionKey selectionKey;
+    /* the dispatcher whose selector this connection is registered with */
+    ServerImpl.Dispatcher dispatcher;
     String protocol;
-    long time;
+    /* scratch buffers shared by the exchanges of this connection */
+    private BufferArena buffers;
+    /* idle, request or response timeout, created on first use */
+    ServerImpl.ConnectionTimeout timeout;
     volatile long creationTime; // time this connection was created
     volatile long rspStartedTime; // time we started writing the response
     int remaining;
@@ -171,6 +176,17 @@ class HttpConnection {
         return selectionKey;
     }
 
+    BufferArena getBuffers () {
+        if (buffers == null) {
+            buffers = new BufferArena();
+        }
+        return buffers;
+    }
+
+    ServerImpl.Dispatcher getDispatcher () {
+        return dispatcher;
+    }
+
     InputStream getInputStream () {
             return i;
     }
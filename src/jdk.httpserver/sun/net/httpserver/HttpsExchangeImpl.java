@@ -85,6 +85,12 @@ class HttpsExchangeImpl extends HttpsExchange {
         impl.sendResponseHeaders (rCode, contentLen);
     }
 
+    public void sendResponseFile (int rCode, FileChannel src, long position, long count)
+        throws IOException
+    {
+        impl.sendResponseFile (rCode, src, position, count);
+    }
+
     public InetSocketAddress getRemoteAddress (){
         return impl.getRemoteAddress();
     }
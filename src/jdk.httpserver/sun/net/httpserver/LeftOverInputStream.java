@@ -107,7 +107,7 @@ abstract class LeftOverInputStream extends FilterInputStream {
      */
     public boolean drain (long l) throws IOException {
         int bufSize = 2048;
-        byte[] db = new byte [bufSize];
+        byte[] db = t.buffers.drain (bufSize);
         while (l > 0) {
             if (server.isFinishing()) {
                 break;
@@ -42,10 +42,13 @@ class Request {
     private SocketChannel chan;
     private InputStream is;
     private OutputStream os;
+    private final BufferArena buffers;
 
-    Request (InputStream rawInputStream, OutputStream rawout) throws IOException {
+    Request (InputStream rawInputStream, OutputStream rawout,
+             BufferArena buffers) throws IOException {
         is = rawInputStream;
         os = rawout;
+        this.buffers = buffers;
         do {
             startLine = readLine();
             if (startLine == null) {
@@ -56,9 +59,8 @@ class Request {
     }
 
 
-    char[] buf = new char [BUF_LEN];
+    char[] buf;
     int pos;
-    StringBuffer lineBuf;
 
     public InputStream inputStream () {
         return is;
@@ -75,7 +77,7 @@ class Request {
 
     public String readLine () throws IOException {
         boolean gotCR = false, gotLF = false;
-        pos = 0; lineBuf = new StringBuffer();
+        pos = 0; buf = buffers.line (BUF_LEN);
         while (!gotLF) {
             int c = is.read();
             if (c == -1) {
@@ -97,14 +99,12 @@ class Request {
                 }
             }
         }
-        lineBuf.append (buf, 0, pos);
-        return new String (lineBuf);
+        return new String (buf, 0, pos);
     }
 
     private void consume (int c) {
-        if (pos == BUF_LEN) {
-            lineBuf.append (buf);
-            pos = 0;
+        if (pos == buf.length) {
+            buf = buffers.growLine (pos + 1, pos);
         }
         buf[pos++] = (char)c;
     }
@@ -124,7 +124,7 @@ class Request {
         }
         hdrs = new Headers();
 
-        char s[] = new char[10];
+        char s[] = buffers.line (BUF_LEN);
         int len = 0;
 
         int firstc = is.read();
@@ -174,9 +174,7 @@ class Request {
                         break;
                     }
                     if (len >= s.length) {
-                        char ns[] = new char[s.length * 2];
-                        System.arraycopy(s, 0, ns, 0, len);
-                        s = ns;
+                        s = buffers.growLine (len + 1, len);
                     }
                     s[len++] = (char) c;
                 }
@@ -189,7 +187,7 @@ class Request {
                 k = null;
                 keyend = 0;
             } else {
-                k = String.copyValueOf(s, 0, keyend);
+                k = headerName (s, keyend);
                 if (keyend < len && s[keyend] == ':')
                     keyend++;
                 while (keyend < len && s[keyend] <= ' ')
@@ -197,7 +195,7 @@ class Request {
             }
             String v;
             if (keyend >= len)
-                v = new String();
+                v = "";
             else
                 v = String.copyValueOf(s, keyend, len - keyend);
 
@@ -213,6 +211,43 @@ class Request {
         return hdrs;
     }
 
+    /* frequently sent request header names, in the form produced
+     * by Headers.normalize(), so that no String is created for them
+     */
+    private static final String[] COMMON_HEADERS = {
+        "Accept", "Accept-charset", "Accept-encoding", "Accept-language",
+        "Authorization", "Cache-control", "Connection", "Content-length",
+        "Content-type", "Cookie", "Expect", "Host", "If-modified-since",
+        "If-none-match", "Keep-alive", "Origin", "Pragma", "Referer",
+        "Transfer-encoding", "Upgrade", "User-agent", "X-forwarded-for"
+    };
+
+    /**
+     * returns the header name in s[0..len), normalized as by
+     * Headers, reusing a constant for the common names
+     */
+    private static String headerName (char[] s, int len) {
+        for (String h : COMMON_HEADERS) {
+            if (h.length() == len && equalsIgnoreCase (h, s)) {
+                return h;
+            }
+        }
+        return String.copyValueOf (s, 0, len);
+    }
+
+    private static boolean equalsIgnoreCase (String h, char[] s) {
+        for (int i=0; i<h.length(); i++) {
+            char a = h.charAt (i), b = s[i];
+            if (a != b && (a | 0x20) != (b | 0x20)) {
+                return false;
+            }
+            if (a != b && ((a | 0x20) < 'a' || (a | 0x20) > 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Implements blocking reading semantics on top of a non-blocking channel
      */
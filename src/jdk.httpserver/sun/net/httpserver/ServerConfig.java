@@ -36,19 +36,20 @@ import java.security.PrivilegedAction;
 
 class ServerConfig {
 
-    private static final int DEFAULT_CLOCK_TICK = 10000 ; // 10 sec.
-
-    /* These values must be a reasonable multiple of clockTick */
+    /* These values must be a reasonable multiple of timerWheelTick */
     private static final long DEFAULT_IDLE_INTERVAL = 30 ; // 5 min
     private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 200 ;
 
     private static final long DEFAULT_MAX_REQ_TIME = -1; // default: forever
     private static final long DEFAULT_MAX_RSP_TIME = -1; // default: forever
-    private static final long DEFAULT_TIMER_MILLIS = 1000;
     private static final int  DEFAULT_MAX_REQ_HEADERS = 200;
     private static final long DEFAULT_DRAIN_AMOUNT = 64 * 1024;
+    private static final int  DEFAULT_SELECTOR_THREADS = 1;
+    private static final int  DEFAULT_DIRECT_BUFFER_SIZE = 64 * 1024;
+    private static final int  DEFAULT_MAX_DIRECT_BUFFERS = 32;
+    private static final long DEFAULT_TIMER_WHEEL_TICK = 1000; // 1 sec.
+    private static final int  DEFAULT_TIMER_WHEEL_SIZE = 512;
 
-    private static int clockTick;
     private static long idleInterval;
     // The maximum number of bytes to drain from an inputstream
     private static long drainAmount;
@@ -58,7 +59,14 @@ class ServerConfig {
     // max time a request or response is allowed to take
     private static long maxReqTime;
     private static long maxRspTime;
-    private static long timerMillis;
+    // resolution and number of buckets of the connection timeout wheel
+    private static long timerWheelTick;
+    private static int timerWheelSize;
+    // size and number of pooled direct buffers used to send files
+    private static int directBufferSize;
+    private static int maxDirectBuffers;
+    // number of dispatcher threads, each with its own selector
+    private static int selectorThreads;
     private static boolean debug;
 
     // the value of the TCP_NODELAY socket-level option
@@ -72,9 +80,6 @@ class ServerConfig {
                     idleInterval = Long.getLong("sun.net.httpserver.idleInterval",
                             DEFAULT_IDLE_INTERVAL) * 1000;
 
-                    clockTick = Integer.getInteger("sun.net.httpserver.clockTick",
-                            DEFAULT_CLOCK_TICK);
-
                     maxIdleConnections = Integer.getInteger(
                             "sun.net.httpserver.maxIdleConnections",
                             DEFAULT_MAX_IDLE_CONNECTIONS);
@@ -92,8 +97,37 @@ class ServerConfig {
                     maxRspTime = Long.getLong("sun.net.httpserver.maxRspTime",
                             DEFAULT_MAX_RSP_TIME);
 
-                    timerMillis = Long.getLong("sun.net.httpserver.timerMillis",
-                            DEFAULT_TIMER_MILLIS);
+                    timerWheelTick = Long.getLong(
+                            "sun.net.httpserver.timerWheelTick",
+                            DEFAULT_TIMER_WHEEL_TICK);
+                    if (timerWheelTick <= 0) {
+                        timerWheelTick = DEFAULT_TIMER_WHEEL_TICK;
+                    }
+
+                    timerWheelSize = Integer.getInteger(
+                            "sun.net.httpserver.timerWheelSize",
+                            DEFAULT_TIMER_WHEEL_SIZE);
+                    if (timerWheelSize <= 0) {
+                        timerWheelSize = DEFAULT_TIMER_WHEEL_SIZE;
+                    }
+
+                    directBufferSize = Integer.getInteger(
+                            "sun.net.httpserver.directBufferSize",
+                            DEFAULT_DIRECT_BUFFER_SIZE);
+                    if (directBufferSize <= 0) {
+                        directBufferSize = DEFAULT_DIRECT_BUFFER_SIZE;
+                    }
+
+                    maxDirectBuffers = Integer.getInteger(
+                            "sun.net.httpserver.maxDirectBuffers",
+                            DEFAULT_MAX_DIRECT_BUFFERS);
+
+                    selectorThreads = Integer.getInteger(
+                            "sun.net.httpserver.selectorThreads",
+                            DEFAULT_SELECTOR_THREADS);
+                    if (selectorThreads < 1) {
+                        selectorThreads = DEFAULT_SELECTOR_THREADS;
+                    }
 
                     debug = Boolean.getBoolean("sun.net.httpserver.debug");
 
@@ -131,6 +165,24 @@ class ServerConfig {
                             "sun.net.httpserver.maxRspTime instead."
                         );
                     }
+                    if (System.getProperty("sun.net.httpserver.clockTick")
+                                                !=null)
+                    {
+                        logger.log (Level.WARNING,
+                            "sun.net.httpserver.clockTick "+
+                            "property is no longer used. Use "+
+                            "sun.net.httpserver.timerWheelTick instead."
+                        );
+                    }
+                    if (System.getProperty("sun.net.httpserver.timerMillis")
+                                                !=null)
+                    {
+                        logger.log (Level.WARNING,
+                            "sun.net.httpserver.timerMillis "+
+                            "property is no longer used. Use "+
+                            "sun.net.httpserver.timerWheelTick instead."
+                        );
+                    }
                     if (System.getProperty("sun.net.httpserver.selCacheTimeout")
                                                 !=null)
                     {
@@ -153,10 +205,6 @@ class ServerConfig {
         return idleInterval;
     }
 
-    static int getClockTick() {
-        return clockTick;
-    }
-
     static int getMaxIdleConnections() {
         return maxIdleConnections;
     }
@@ -177,8 +225,24 @@ class ServerConfig {
         return maxRspTime;
     }
 
-    static long getTimerMillis() {
-        return timerMillis;
+    static long getTimerWheelTick() {
+        return timerWheelTick;
+    }
+
+    static int getTimerWheelSize() {
+        return timerWheelSize;
+    }
+
+    static int getDirectBufferSize() {
+        return directBufferSize;
+    }
+
+    static int getMaxDirectBuffers() {
+        return maxDirectBuffers;
+    }
+
+    static int getSelectorThreads() {
+        return selectorThreads;
     }
 
     static boolean noDelay() {
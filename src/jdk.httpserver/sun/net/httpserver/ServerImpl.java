@@ -51,38 +51,32 @@ class ServerImpl implements TimeSource {
     private ContextList contexts;
     private InetSocketAddress address;
     private ServerSocketChannel schan;
-    private Selector selector;
     private SelectionKey listenerKey;
-    private Set<HttpConnection> idleConnections;
     private Set<HttpConnection> allConnections;
-    /* following two are used to keep track of the times
-     * when a connection/request is first received
-     * and when we start to send the response
-     */
-    private Set<HttpConnection> reqConnections;
-    private Set<HttpConnection> rspConnections;
-    private List<Event> events;
-    private Object lolock = new Object();
     private volatile boolean finished = false;
     private volatile boolean terminating = false;
     private boolean bound = false;
     private boolean started = false;
     private volatile long time;  /* current time */
-    private volatile long subticks = 0;
-    private volatile long ticks; /* number of clock ticks since server started */
+    private volatile long ticks; /* number of wheel ticks since server started */
     private HttpServer wrapper;
 
-    final static int CLOCK_TICK = ServerConfig.getClockTick();
+    final static long TIMER_WHEEL_TICK = ServerConfig.getTimerWheelTick();
+    final static int TIMER_WHEEL_SIZE = ServerConfig.getTimerWheelSize();
     final static long IDLE_INTERVAL = ServerConfig.getIdleInterval();
     final static int MAX_IDLE_CONNECTIONS = ServerConfig.getMaxIdleConnections();
-    final static long TIMER_MILLIS = ServerConfig.getTimerMillis ();
     final static long MAX_REQ_TIME=getTimeMillis(ServerConfig.getMaxReqTime());
     final static long MAX_RSP_TIME=getTimeMillis(ServerConfig.getMaxRspTime());
-    final static boolean timer1Enabled = MAX_REQ_TIME != -1 || MAX_RSP_TIME != -1;
+    final static int SELECTOR_THREADS = ServerConfig.getSelectorThreads();
 
-    private Timer timer, timer1;
+    private Timer timer;
     private final Logger logger;
-    private Thread dispatcherThread;
+    /* dispatchers[0] also owns the listening channel and hands
+     * accepted connections to the others in round-robin order
+     */
+    private final Dispatcher[] dispatchers;
+    private Thread[] dispatcherThreads;
+    private int nextDispatcher = 0; /* only used by the accepting thread */
 
     ServerImpl (
         HttpServer wrapper, String protocol, InetSocketAddress addr, int backlog
@@ -101,25 +95,21 @@ class ServerImpl implements TimeSource {
             socket.bind (addr, backlog);
             bound = true;
         }
-        selector = Selector.open ();
+        dispatchers = new Dispatcher[SELECTOR_THREADS];
+        for (int i=0; i<dispatchers.length; i++) {
+            dispatchers[i] = new Dispatcher (i);
+        }
+        dispatcher = dispatchers[0];
         schan.configureBlocking (false);
-        listenerKey = schan.register (selector, SelectionKey.OP_ACCEPT);
-        dispatcher = new Dispatcher();
-        idleConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        allConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        reqConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        rspConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
+        listenerKey = schan.register (dispatcher.selector, SelectionKey.OP_ACCEPT);
+        allConnections = ConcurrentHashMap.newKeySet();
         time = System.currentTimeMillis();
         timer = new Timer ("server-timer", true);
-        timer.schedule (new ServerTimerTask(), CLOCK_TICK, CLOCK_TICK);
-        if (timer1Enabled) {
-            timer1 = new Timer ("server-timer1", true);
-            timer1.schedule (new ServerTimerTask1(),TIMER_MILLIS,TIMER_MILLIS);
-            logger.log (Level.DEBUG, "HttpServer timer1 enabled period in ms: ", TIMER_MILLIS);
-            logger.log (Level.DEBUG, "MAX_REQ_TIME:  "+MAX_REQ_TIME);
-            logger.log (Level.DEBUG, "MAX_RSP_TIME:  "+MAX_RSP_TIME);
-        }
-        events = new LinkedList<Event>();
+        timer.schedule (new ServerTimerTask(), TIMER_WHEEL_TICK, TIMER_WHEEL_TICK);
+        logger.log (Level.DEBUG, "HttpServer timer wheel tick in ms: "+TIMER_WHEEL_TICK);
+        logger.log (Level.DEBUG, "MAX_REQ_TIME:  "+MAX_REQ_TIME);
+        logger.log (Level.DEBUG, "MAX_RSP_TIME:  "+MAX_RSP_TIME);
+        logger.log (Level.DEBUG, "HttpServer selector threads: "+SELECTOR_THREADS);
         logger.log (Level.DEBUG, "HttpServer created "+protocol+" "+ addr);
     }
 
@@ -142,9 +132,15 @@ class ServerImpl implements TimeSource {
         if (executor == null) {
             executor = new DefaultExecutor();
         }
-        dispatcherThread = new Thread(null, dispatcher, "HTTP-Dispatcher", 0, false);
+        dispatcherThreads = new Thread[dispatchers.length];
+        for (int i=0; i<dispatchers.length; i++) {
+            Dispatcher d = dispatchers[i];
+            dispatcherThreads[i] = new Thread(null, d, d.threadName(), 0, false);
+        }
         started = true;
-        dispatcherThread.start();
+        for (Thread t : dispatcherThreads) {
+            t.start();
+        }
     }
 
     public void setExecutor (Executor executor) {
@@ -189,7 +185,7 @@ class ServerImpl implements TimeSource {
         }
         terminating = true;
         try { schan.close(); } catch (IOException e) {}
-        selector.wakeup();
+        wakeupAll();
         long latest = System.currentTimeMillis() + delay * 1000;
         while (System.currentTimeMillis() < latest) {
             delay();
@@ -198,28 +194,38 @@ class ServerImpl implements TimeSource {
             }
         }
         finished = true;
-        selector.wakeup();
-        synchronized (allConnections) {
-            for (HttpConnection c : allConnections) {
-                c.close();
-            }
+        wakeupAll();
+        for (HttpConnection c : allConnections) {
+            c.close();
         }
         allConnections.clear();
-        idleConnections.clear();
-        timer.cancel();
-        if (timer1Enabled) {
-            timer1.cancel();
+        for (Dispatcher d : dispatchers) {
+            d.idleConnections.clear();
         }
-        if (dispatcherThread != null && dispatcherThread != Thread.currentThread()) {
-            try {
-                dispatcherThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.log (Level.TRACE, "ServerImpl.stop: ", e);
+        timer.cancel();
+        if (dispatcherThreads != null) {
+            for (Thread t : dispatcherThreads) {
+                if (t == Thread.currentThread()) {
+                    continue;
+                }
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.log (Level.TRACE, "ServerImpl.stop: ", e);
+                    break;
+                }
             }
         }
     }
 
+    private void wakeupAll () {
+        for (Dispatcher d : dispatchers) {
+            d.selector.wakeup();
+        }
+    }
+
+    /* the dispatcher which accepts new connections */
     Dispatcher dispatcher;
 
     public synchronized HttpContextImpl createContext (String path, HttpHandler handler) {
@@ -270,20 +276,71 @@ class ServerImpl implements TimeSource {
     }
 
     Selector getSelector () {
-        return selector;
+        return dispatcher.selector;
     }
 
+    /* events are delivered to the dispatcher that owns the connection */
     void addEvent (Event r) {
-        synchronized (lolock) {
-            events.add (r);
-            selector.wakeup();
+        HttpConnection c = r.exchange.getConnection();
+        Dispatcher d = c.getDispatcher();
+        (d == null ? dispatcher : d).addEvent (r);
+    }
+
+    int idleConnectionCount () {
+        int n = 0;
+        for (Dispatcher d : dispatchers) {
+            n += d.idleConnections.size();
         }
+        return n;
     }
 
-    /* main server listener task */
+    /* main server listener task. There is one Dispatcher per selector
+     * thread. Each one owns the connections registered with its selector,
+     * and the idle, request and response sets that track them. Other
+     * threads hand work to a dispatcher through its lock-free queues
+     * and then wake up its selector.
+     */
 
     class Dispatcher implements Runnable {
 
+        final int id;
+        final Selector selector;
+        final Set<HttpConnection> idleConnections;
+        /* idle, request and response timeouts of this dispatcher's
+         * connections. A connection has at most one timeout armed,
+         * matching its current State
+         */
+        final TimerWheel timeouts;
+        final Queue<Event> events = new ConcurrentLinkedQueue<>();
+        /* channels accepted by dispatchers[0] for this dispatcher */
+        final Queue<HttpConnection> newConnections = new ConcurrentLinkedQueue<>();
+
+        Dispatcher (int id) throws IOException {
+            this.id = id;
+            this.selector = Selector.open ();
+            this.idleConnections = ConcurrentHashMap.newKeySet();
+            this.timeouts = new TimerWheel (
+                TIMER_WHEEL_TICK, TIMER_WHEEL_SIZE, System.currentTimeMillis()
+            );
+        }
+
+        /* the first dispatcher keeps the name of the single dispatcher
+         * thread of earlier releases
+         */
+        String threadName () {
+            return id == 0 ? "HTTP-Dispatcher" : "HTTP-Dispatcher-" + id;
+        }
+
+        void addEvent (Event r) {
+            events.add (r);
+            selector.wakeup();
+        }
+
+        void addConnection (HttpConnection c) {
+            newConnections.add (c);
+            selector.wakeup();
+        }
+
         private void handleEvent (Event r) {
             ExchangeImpl t = r.exchange;
             HttpConnection c = t.getConnection();
@@ -299,17 +356,25 @@ class ServerImpl implements TimeSource {
                     if (!is.isEOF()) {
                         t.close = true;
                     }
-                    if (t.close || idleConnections.size() >= MAX_IDLE_CONNECTIONS) {
+                    if (t.close) {
+                        c.close();
+                        allConnections.remove (c);
+                    } else if (is.isDataBuffered()) {
+                        /* a pipelined request has already been read into
+                         * the connection's buffer. The connection does not
+                         * go idle, so the idle limit does not apply. Don't
+                         * re-enable the interestops, just handle it. The
+                         * next request is only read once this response
+                         * has been completely written, which keeps the
+                         * responses in request order.
+                         */
+                        requestStarted (c);
+                        handle (c.getChannel(), c);
+                    } else if (idleConnectionCount() >= MAX_IDLE_CONNECTIONS) {
                         c.close();
                         allConnections.remove (c);
                     } else {
-                        if (is.isDataBuffered()) {
-                            /* don't re-enable the interestops, just handle it */
-                            requestStarted (c);
-                            handle (c.getChannel(), c);
-                        } else {
-                            connsToRegister.add (c);
-                        }
+                        connsToRegister.add (c);
                     }
                 }
             } catch (IOException e) {
@@ -331,8 +396,8 @@ class ServerImpl implements TimeSource {
                 SelectionKey key = chan.register (selector, SelectionKey.OP_READ);
                 key.attach (c);
                 c.selectionKey = key;
-                c.time = getTime() + IDLE_INTERVAL;
                 idleConnections.add (c);
+                armTimeout (c, State.IDLE, IDLE_INTERVAL);
             } catch (IOException e) {
                 dprint(e);
                 logger.log (Level.TRACE, "Dispatcher(8)", e);
@@ -340,21 +405,54 @@ class ServerImpl implements TimeSource {
             }
         }
 
+        private void register (HttpConnection c) {
+            SocketChannel chan = c.getChannel();
+            try {
+                chan.configureBlocking (false);
+                SelectionKey newkey = chan.register (selector, SelectionKey.OP_READ);
+                c.selectionKey = newkey;
+                newkey.attach (c);
+            } catch (IOException e) {
+                logger.log (Level.TRACE, "Dispatcher(9)", e);
+                closeConnection (c);
+            }
+        }
+
+        private void accept () throws IOException {
+            SocketChannel chan = schan.accept();
+
+            // optimist there's a channel
+            if (chan != null) {
+                // Set TCP_NODELAY, if appropriate
+                if (ServerConfig.noDelay()) {
+                    chan.socket().setTcpNoDelay(true);
+                }
+                Dispatcher d = dispatchers[nextDispatcher];
+                nextDispatcher = (nextDispatcher + 1) % dispatchers.length;
+                HttpConnection c = new HttpConnection ();
+                c.setChannel (chan);
+                c.dispatcher = d;
+                requestStarted (c);
+                allConnections.add (c);
+                if (d == this) {
+                    register (c);
+                } else {
+                    d.addConnection (c);
+                }
+            }
+        }
+
         public void run() {
             while (!finished) {
                 try {
-                    List<Event> list = null;
-                    synchronized (lolock) {
-                        if (events.size() > 0) {
-                            list = events;
-                            events = new LinkedList<Event>();
-                        }
+                    HttpConnection nc;
+                    while ((nc = newConnections.poll()) != null) {
+                        register (nc);
                     }
 
-                    if (list != null) {
-                        for (Event r: list) {
-                            handleEvent (r);
-                        }
+                    Event r;
+                    while ((r = events.poll()) != null) {
+                        handleEvent (r);
                     }
 
                     for (HttpConnection c : connsToRegister) {
@@ -374,24 +472,7 @@ class ServerImpl implements TimeSource {
                             if (terminating) {
                                 continue;
                             }
-                            SocketChannel chan = schan.accept();
-
-                            // optimist there's a channel
-                            if (chan != null) {
-                                // Set TCP_NODELAY, if appropriate
-                                if (ServerConfig.noDelay()) {
-                                    chan.socket().setTcpNoDelay(true);
-                                }
-                                chan.configureBlocking (false);
-                                SelectionKey newkey =
-                                    chan.register (selector, SelectionKey.OP_READ);
-                                HttpConnection c = new HttpConnection ();
-                                c.selectionKey = newkey;
-                                c.setChannel (chan);
-                                newkey.attach (c);
-                                requestStarted (c);
-                                allConnections.add (c);
-                            }
+                            accept();
                         } else {
                             try {
                                 if (key.isReadable()) {
@@ -401,8 +482,8 @@ class ServerImpl implements TimeSource {
                                     key.cancel();
                                     chan.configureBlocking (true);
                                     if (idleConnections.remove(conn)) {
-                                        // was an idle connection so add it
-                                        // to reqConnections set.
+                                        // was an idle connection so start
+                                        // its request timer.
                                         requestStarted (conn);
                                     }
                                     handle (chan, conn);
@@ -475,20 +556,12 @@ class ServerImpl implements TimeSource {
     private void closeConnection(HttpConnection conn) {
         conn.close();
         allConnections.remove(conn);
-        switch (conn.getState()) {
-        case REQUEST:
-            reqConnections.remove(conn);
-            break;
-        case RESPONSE:
-            rspConnections.remove(conn);
-            break;
-        case IDLE:
-            idleConnections.remove(conn);
-            break;
-        }
-        assert !reqConnections.remove(conn);
-        assert !rspConnections.remove(conn);
-        assert !idleConnections.remove(conn);
+        Dispatcher d = conn.getDispatcher();
+        cancelTimeout (conn);
+        if (conn.getState() == State.IDLE) {
+            d.idleConnections.remove(conn);
+        }
+        assert !d.idleConnections.remove(conn);
     }
 
         /* per exchange task */
@@ -548,7 +621,7 @@ class ServerImpl implements TimeSource {
                     connection.raw = rawin;
                     connection.rawout = rawout;
                 }
-                Request req = new Request (rawin, rawout);
+                Request req = new Request (rawin, rawout, connection.getBuffers());
                 requestLine = req.requestLine();
                 if (requestLine == null) {
                     /* connection closed */
@@ -789,7 +862,7 @@ class ServerImpl implements TimeSource {
     void requestStarted (HttpConnection c) {
         c.creationTime = getTime();
         c.setState (State.REQUEST);
-        reqConnections.add (c);
+        armTimeout (c, State.REQUEST, MAX_REQ_TIME);
     }
 
     // called after a request has been completely read
@@ -802,79 +875,95 @@ class ServerImpl implements TimeSource {
     void requestCompleted (HttpConnection c) {
         State s = c.getState();
         assert s == State.REQUEST : "State is not REQUEST ("+s+")";
-        reqConnections.remove (c);
         c.rspStartedTime = getTime();
-        rspConnections.add (c);
         c.setState (State.RESPONSE);
+        armTimeout (c, State.RESPONSE, MAX_RSP_TIME);
     }
 
     // called after response has been sent
     void responseCompleted (HttpConnection c) {
         State s = c.getState();
         assert s == State.RESPONSE : "State is not RESPONSE ("+s+")";
-        rspConnections.remove (c);
+        cancelTimeout (c);
         c.setState (State.IDLE);
     }
 
     /**
-     * TimerTask run every CLOCK_TICK ms
+     * The timeout of a connection in a given state. One of these is
+     * kept per connection and re-armed on its dispatcher's wheel at
+     * each state change. A negative interval means no timeout.
+     * Arming, cancelling and expiring happen under the timeout's
+     * monitor, so that an expiry which raced with a re-arming is
+     * recognised as stale and ignored.
      */
-    class ServerTimerTask extends TimerTask {
-        public void run () {
-            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
-            time = System.currentTimeMillis();
-            ticks ++;
-            synchronized (idleConnections) {
-                for (HttpConnection c : idleConnections) {
-                    if (c.time <= time) {
-                        toClose.add (c);
-                    }
-                }
-                for (HttpConnection c : toClose) {
-                    idleConnections.remove (c);
-                    allConnections.remove (c);
-                    c.close();
+    class ConnectionTimeout extends TimerWheel.Node {
+        final HttpConnection c;
+        State state;
+
+        ConnectionTimeout (HttpConnection c) {
+            this.c = c;
+        }
+
+        synchronized void expired (int generation) {
+            if (!c.getDispatcher().timeouts.isCurrent (this, generation)) {
+                return;
+            }
+            State s = state;
+            if (c.closed || c.getState() != s) {
+                return;
+            }
+            switch (s) {
+            case IDLE:
+                if (!c.getDispatcher().idleConnections.remove (c)) {
+                    return;
                 }
+                break;
+            case REQUEST:
+                logger.log (Level.DEBUG, "closing: no request: " + c);
+                break;
+            case RESPONSE:
+                logger.log (Level.DEBUG, "closing: no response: " + c);
+                break;
             }
+            allConnections.remove (c);
+            c.close();
+        }
+    }
+
+    private void armTimeout (HttpConnection c, State s, long interval) {
+        if (interval < 0) {
+            cancelTimeout (c);
+            return;
+        }
+        ConnectionTimeout t = c.timeout;
+        if (t == null) {
+            t = c.timeout = new ConnectionTimeout (c);
+        }
+        synchronized (t) {
+            t.state = s;
+            c.getDispatcher().timeouts.schedule (t, getTime() + interval);
         }
     }
 
-    class ServerTimerTask1 extends TimerTask {
+    private void cancelTimeout (HttpConnection c) {
+        ConnectionTimeout t = c.timeout;
+        if (t != null) {
+            synchronized (t) {
+                c.getDispatcher().timeouts.cancel (t);
+            }
+        }
+    }
 
-        // runs every TIMER_MILLIS
+    /**
+     * TimerTask run every TIMER_WHEEL_TICK ms. Only the timeouts
+     * which fall due are visited.
+     */
+    class ServerTimerTask extends TimerTask {
         public void run () {
-            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
             time = System.currentTimeMillis();
-            synchronized (reqConnections) {
-                if (MAX_REQ_TIME != -1) {
-                    for (HttpConnection c : reqConnections) {
-                        if (c.creationTime + TIMER_MILLIS + MAX_REQ_TIME <= time) {
-                            toClose.add (c);
-                        }
-                    }
-                    for (HttpConnection c : toClose) {
-                        logger.log (Level.DEBUG, "closing: no request: " + c);
-                        reqConnections.remove (c);
-                        allConnections.remove (c);
-                        c.close();
-                    }
-                }
-            }
-            toClose = new LinkedList<HttpConnection>();
-            synchronized (rspConnections) {
-                if (MAX_RSP_TIME != -1) {
-                    for (HttpConnection c : rspConnections) {
-                        if (c.rspStartedTime + TIMER_MILLIS +MAX_RSP_TIME <= time) {
-                            toClose.add (c);
-                        }
-                    }
-                    for (HttpConnection c : toClose) {
-                        logger.log (Level.DEBUG, "closing: no response: " + c);
-                        rspConnections.remove (c);
-                        allConnections.remove (c);
-                        c.close();
-                    }
-                }
+            ticks ++;
+            for (Dispatcher d : dispatchers) {
+                d.timeouts.advance (time);
             }
         }
     }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.net.httpserver;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timing wheel. Each timeout is kept in the bucket selected by
+ * its deadline tick, in a doubly linked list, so that arming, cancelling
+ * and expiring a timeout each cost O(1). Timeouts further away than one
+ * rotation of the wheel stay in their bucket until a later rotation
+ * reaches their deadline.
+ *
+ * All list manipulation happens under the wheel's monitor. Expired nodes
+ * are unlinked under the monitor and their {@link Node#expired(int)} method
+ * is called after it has been released, with the generation the node had
+ * when it was unlinked. A node that has been re-armed or cancelled in the
+ * meantime has moved on to a later generation; see {@link #isCurrent}.
+ */
+class TimerWheel {
+
+    /**
+     * A timeout that can be armed on at most one wheel at a time.
+     */
+    static abstract class Node {
+        Node prev, next;
+        long deadline;
+        int bucket;
+        boolean armed;
+        int generation;     /* bumped by each schedule and cancel */
+
+        /* called by advance() when the deadline has passed */
+        abstract void expired (int generation);
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final Node[] buckets; /* list heads, null if empty */
+    private long lastTick;        /* last tick processed by advance() */
+
+    /**
+     * @param tickMillis the resolution of the wheel in milliseconds
+     * @param size the number of buckets, rounded up to a power of two
+     * @param now the current time in milliseconds
+     */
+    TimerWheel (long tickMillis, int size, long now) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException ("tick must be positive");
+        }
+        int n = Integer.highestOneBit (Math.max (size - 1, 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = n - 1;
+        this.buckets = new Node[n];
+        this.lastTick = now / tickMillis;
+    }
+
+    long getTickMillis () {
+        return tickMillis;
+    }
+
+    /**
+     * Arms the given node to expire at the given time, first
+     * cancelling it if it is already armed.
+     */
+    synchronized void schedule (Node node, long deadline) {
+        if (node.armed) {
+            unlink (node);
+        }
+        node.generation++;
+        long tick = deadline / tickMillis;
+        if (tick <= lastTick) {
+            /* already due: expire on the next advance */
+            tick = lastTick + 1;
+        }
+        int i = (int)(tick & mask);
+        node.deadline = deadline;
+        node.bucket = i;
+        node.prev = null;
+        node.next = buckets[i];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        buckets[i] = node;
+        node.armed = true;
+    }
+
+    /**
+     * Disarms the given node. Returns true if it was armed.
+     */
+    synchronized boolean cancel (Node node) {
+        if (!node.armed) {
+            return false;
+        }
+        unlink (node);
+        node.generation++;
+        return true;
+    }
+
+    /**
+     * Returns true if the given node has expired in the given generation
+     * and has not been re-armed or cancelled since.
+     */
+    synchronized boolean isCurrent (Node node, int generation) {
+        return !node.armed && node.generation == generation;
+    }
+
+    private void unlink (Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.bucket] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = node.next = null;
+        node.armed = false;
+    }
+
+    /**
+     * Expires every node whose deadline is at or before now, walking
+     * each bucket passed over since the previous call once. The bucket
+     * of the current tick may still hold nodes that fall due later in
+     * the tick, so it is walked again by the next call.
+     */
+    void advance (long now) {
+        Node[] expired = null;
+        int[] generations = null;
+        int count = 0;
+        synchronized (this) {
+            long tick = now / tickMillis;
+            long from = lastTick + 1;
+            if (tick - lastTick > buckets.length) {
+                /* visit every bucket at most once per call */
+                from = tick - buckets.length + 1;
+            }
+            for (long t = from; t <= tick; t++) {
+                int i = (int)(t & mask);
+                Node n = buckets[i];
+                while (n != null) {
+                    Node next = n.next;
+                    if (n.deadline <= now) {
+                        if (n.prev != null) {
+                            n.prev.next = next;
+                        } else {
+                            buckets[i] = next;
+                        }
+                        if (next != null) {
+                            next.prev = n.prev;
+                        }
+                        n.armed = false;
+                        n.prev = n.next = null;
+                        if (expired == null) {
+                            expired = new Node[8];
+                            generations = new int[8];
+                        } else if (count == expired.length) {
+                            expired = Arrays.copyOf (expired, count << 1);
+                            generations = Arrays.copyOf (generations, count << 1);
+                        }
+                        expired[count] = n;
+                        generations[count] = n.generation;
+                        count++;
+                    }
+                    n = next;
+                }
+            }
+            lastTick = Math.max (lastTick, tick - 1);
+        }
+        for (int i = 0; i < count; i++) {
+            expired[i].expired (generations[i]);
+        }
+    }
+}
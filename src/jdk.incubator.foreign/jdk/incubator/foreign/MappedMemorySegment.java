@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *  ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package jdk.incubator.foreign;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * A mapped memory segment, that is, a memory segment backed by a memory-mapped region of a file (see
+ * {@link MemorySegment#mapFromPath(Path, long, long, FileChannel.MapMode)} and
+ * {@link MemorySegment#mapFromChannel(FileChannel, long, long, FileChannel.MapMode)}). Unlike a
+ * {@link java.nio.MappedByteBuffer}, a mapped memory segment can be larger than {@code Integer.MAX_VALUE} bytes,
+ * and the mapping is removed as soon as the segment is closed (see {@link MemorySegment#close()}).
+ * <p>
+ * In addition to the operations of {@link MemorySegment}, a mapped memory segment supports operations which
+ * are specific to mapped memory: advising the operating system of the expected use of the mapped memory (see
+ * {@link #advise(AccessHint)}), and writing changes back to the mapped file (see {@link #force()}). These
+ * operations apply to the region of the file which is mapped by the segment; to apply them to a smaller region,
+ * first obtain a slice of the segment (see {@link #asSlice(long, long)}).
+ *
+ * @apiNote In the future, if the Java language permits, {@link MappedMemorySegment}
+ * may become a {@code sealed} interface, which would prohibit subclassing except by
+ * explicitly permitted types.
+ *
+ * @implSpec
+ * Implementations of this interface are immutable and thread-safe.
+ */
+public interface MappedMemorySegment extends MemorySegment {
+
+    /**
+     * The expected use of the memory of a mapped memory segment, given to {@link #advise(AccessHint)}.
+     */
+    enum AccessHint {
+        /**
+         * The memory is expected to be accessed in the near future, so that it may be read ahead of access.
+         */
+        WILL_NEED
+    }
+
+    @Override
+    MappedMemorySegment acquire();
+
+    @Override
+    MappedMemorySegment asReadOnly();
+
+    @Override
+    MappedMemorySegment asSlice(long offset, long newSize);
+
+    /**
+     * Advises the operating system of the expected use of the memory associated with this segment. This method is a
+     * hint; depending on the operating system, it may have no effect. Unlike {@link java.nio.MappedByteBuffer#load()},
+     * it does not wait for the contents of this segment to be read into physical memory.
+     *
+     * @param hint the expected use.
+     * @return this segment.
+     * @throws IllegalStateException if this segment is not <em>alive</em>, or if access occurs from a thread other than the
+     * thread owning this segment.
+     */
+    MappedMemorySegment advise(AccessHint hint);
+
+    /**
+     * Forces any changes made to the contents of this segment to be written to the storage device containing the
+     * mapped file. The semantics are those of {@link java.nio.MappedByteBuffer#force()}. If this segment was not mapped in
+     * read/write mode then invoking this method may have no effect.
+     *
+     * @implNote When this segment is large, disjoint ranges of it are written back in parallel, using
+     * the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+     *
+     * @throws IllegalStateException if this segment is not <em>alive</em>, or if access occurs from a thread other than the
+     * thread owning this segment.
+     * @throws java.io.UncheckedIOException if an I/O error occurs while writing the contents of this segment.
+     */
+    void force();
+}
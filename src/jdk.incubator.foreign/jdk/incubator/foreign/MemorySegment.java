@@ -66,8 +66,10 @@ import java.nio.file.Path;
  * segment obtained from a byte buffer created with the {@link ByteBuffer#allocateDirect(int)} method will be backed
  * by native memory.
  * <p>
- * Finally, it is also possible to obtain a memory segment backed by a memory-mapped file using the factory method
- * {@link MemorySegment#mapFromPath(Path, long, FileChannel.MapMode)}. Such memory segments are called <em>mapped memory segments</em>.
+ * Finally, it is also possible to obtain a memory segment backed by a memory-mapped file using one of the factory methods
+ * {@link MemorySegment#mapFromPath(Path, long, FileChannel.MapMode)}, {@link MemorySegment#mapFromPath(Path, long, long, FileChannel.MapMode)}
+ * and {@link MemorySegment#mapFromChannel(FileChannel, long, long, FileChannel.MapMode)}. Such memory segments are called
+ * <em>mapped memory segments</em> (see {@link MappedMemorySegment}).
  *
  * <h2>Closing a memory segment</h2>
  *
@@ -382,6 +384,10 @@ public interface MemorySegment extends AutoCloseable {
 
     /**
      * Creates a new mapped memory segment that models a memory-mapped region of a file from a given path.
+     * This is equivalent to the following code:
+     * <blockquote><pre>{@code
+    mapFromPath(path, 0L, bytesSize, mapMode);
+     * }</pre></blockquote>
      *
      * @implNote When obtaining a mapped segment from a newly created file, the initialization state of the contents of the block
      * of mapped memory associated with the returned mapped memory segment is unspecified and should not be relied upon.
@@ -394,8 +400,57 @@ public interface MemorySegment extends AutoCloseable {
      * @throws UnsupportedOperationException if an unsupported map mode is specified.
      * @throws IOException if the specified path does not point to an existing file, or if some other I/O error occurs.
      */
-    static MemorySegment mapFromPath(Path path, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
-        return Utils.makeMappedSegment(path, bytesSize, mapMode);
+    static MappedMemorySegment mapFromPath(Path path, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
+        return Utils.makeMappedSegment(path, 0L, bytesSize, mapMode);
+    }
+
+    /**
+     * Creates a new mapped memory segment that models a memory-mapped region of a file from a given path, starting
+     * at the given offset in the file. The file is extended if it is smaller than {@code offset + bytesSize} bytes,
+     * as by {@link FileChannel#map(FileChannel.MapMode, long, long)}; unlike that method, the region may be larger
+     * than {@code Integer.MAX_VALUE} bytes.
+     *
+     * @implNote When obtaining a mapped segment from a newly created file, the initialization state of the contents of the block
+     * of mapped memory associated with the returned mapped memory segment is unspecified and should not be relied upon.
+     *
+     * @param path the path to the file to memory map.
+     * @param offset the offset (in bytes) in the file at which the mapped region starts.
+     * @param bytesSize the size (in bytes) of the mapped memory backing the memory segment.
+     * @param mapMode a file mapping mode, see {@link FileChannel#map(FileChannel.MapMode, long, long)}.
+     * @return a new mapped memory segment.
+     * @throws IllegalArgumentException if {@code offset < 0} or {@code bytesSize <= 0}.
+     * @throws UnsupportedOperationException if an unsupported map mode is specified.
+     * @throws IOException if the specified path does not point to an existing file, or if some other I/O error occurs.
+     * @since 15
+     */
+    static MappedMemorySegment mapFromPath(Path path, long offset, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
+        return Utils.makeMappedSegment(path, offset, bytesSize, mapMode);
+    }
+
+    /**
+     * Creates a new mapped memory segment that models a memory-mapped region of the file of a given channel, starting
+     * at the given offset in the file. The channel must have been obtained from the default file system provider;
+     * the requirements on the channel and the map mode, and the extension of the file, are as for
+     * {@link FileChannel#map(FileChannel.MapMode, long, long)}, except that the region may be larger than
+     * {@code Integer.MAX_VALUE} bytes. Once established, the mapping does not depend on the channel; closing
+     * the channel does not close the segment.
+     *
+     * @param channel the channel of the file to memory map.
+     * @param offset the offset (in bytes) in the file at which the mapped region starts.
+     * @param bytesSize the size (in bytes) of the mapped memory backing the memory segment.
+     * @param mapMode a file mapping mode, see {@link FileChannel#map(FileChannel.MapMode, long, long)}.
+     * @return a new mapped memory segment.
+     * @throws IllegalArgumentException if {@code offset < 0} or {@code bytesSize <= 0}.
+     * @throws UnsupportedOperationException if an unsupported map mode is specified, or if the channel was not
+     * obtained from the default file system provider.
+     * @throws java.nio.channels.NonReadableChannelException if the channel was not opened for reading.
+     * @throws java.nio.channels.NonWritableChannelException if the map mode requires writing and the channel was not
+     * opened for writing.
+     * @throws IOException if the channel is closed, or if some other I/O error occurs.
+     * @since 15
+     */
+    static MappedMemorySegment mapFromChannel(FileChannel channel, long offset, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
+        return Utils.makeMappedSegment(channel, offset, bytesSize, mapMode);
     }
 
     /**
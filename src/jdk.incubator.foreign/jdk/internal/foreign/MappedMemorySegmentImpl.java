@@ -0,0 +1,100 @@
+/*
+ *  Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *  ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package jdk.internal.foreign;
+
+import jdk.incubator.foreign.MappedMemorySegment;
+import jdk.internal.access.foreign.UnmapperProxy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * Implementation of a mapped memory segment. In addition to the state of a memory segment, a mapped memory segment
+ * keeps the {@link UnmapperProxy} of its mapping, which is shared by all the slices and views of the segment, and
+ * which implements the operations specific to mapped memory.
+ */
+public final class MappedMemorySegmentImpl extends MemorySegmentImpl implements MappedMemorySegment {
+
+    // size of the ranges which are written back in parallel by force
+    private static final long FORCE_CHUNK_SIZE = 64L << 20;
+
+    private final UnmapperProxy unmapper;
+
+    MappedMemorySegmentImpl(long min, UnmapperProxy unmapper, long length, int mask, Thread owner, MemoryScope scope) {
+        super(min, null, length, mask, owner, scope);
+        this.unmapper = unmapper;
+    }
+
+    @Override
+    MappedMemorySegmentImpl dup(long min, long length, int mask, Thread owner, MemoryScope scope) {
+        return new MappedMemorySegmentImpl(min, unmapper, length, mask, owner, scope);
+    }
+
+    // MappedMemorySegment methods
+
+    @Override
+    public MappedMemorySegmentImpl asSlice(long offset, long newSize) {
+        return (MappedMemorySegmentImpl)super.asSlice(offset, newSize);
+    }
+
+    @Override
+    public MappedMemorySegmentImpl acquire() {
+        return (MappedMemorySegmentImpl)super.acquire();
+    }
+
+    @Override
+    public MappedMemorySegmentImpl asReadOnly() {
+        return (MappedMemorySegmentImpl)super.asReadOnly();
+    }
+
+    @Override
+    public MappedMemorySegmentImpl advise(AccessHint hint) {
+        checkValidState();
+        int advice;
+        switch (hint) {
+            case WILL_NEED: advice = UnmapperProxy.ADVICE_WILLNEED; break;
+            default: throw new AssertionError(hint);
+        }
+        unmapper.advise(min, length, advice);
+        return this;
+    }
+
+    @Override
+    public void force() {
+        checkValidState();
+        // the owner thread waits for the forces, so the segment cannot be closed before they complete
+        long chunks = (length + FORCE_CHUNK_SIZE - 1) / FORCE_CHUNK_SIZE;
+        if (chunks <= 1 || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+            unmapper.force(min, length);
+        } else {
+            LongStream.range(0, chunks).parallel().forEach(i -> {
+                long offset = i * FORCE_CHUNK_SIZE;
+                unmapper.force(min + offset, Math.min(FORCE_CHUNK_SIZE, length - offset));
+            });
+        }
+    }
+}
@@ -45,7 +45,7 @@ import java.util.Random;
  * segment is either in an invalid state (e.g. it has already been closed) or if access occurs from a thread other
  * than the owner thread. See {@link MemoryScope} for more details on management of temporal bounds.
  */
-public final class MemorySegmentImpl implements MemorySegment, MemorySegmentProxy {
+public class MemorySegmentImpl implements MemorySegment, MemorySegmentProxy {
 
     private static final Unsafe UNSAFE = Unsafe.getUnsafe();
     private static final int BYTE_ARR_BASE = UNSAFE.arrayBaseOffset(byte[].class);
@@ -72,15 +72,15 @@ public final class MemorySegmentImpl implements MemorySegment, MemorySegmentProx
     // MemorySegment methods
 
     @Override
-    public final MemorySegmentImpl asSlice(long offset, long newSize) {
+    public MemorySegmentImpl asSlice(long offset, long newSize) {
         checkValidState();
         checkBounds(offset, newSize);
-        return new MemorySegmentImpl(min + offset, base, newSize, mask, owner, scope);
+        return dup(min + offset, newSize, mask, owner, scope);
     }
 
     @Override
-    public MemorySegment acquire() {
-        return new MemorySegmentImpl(min, base, length, mask, Thread.currentThread(), scope.acquire());
+    public MemorySegmentImpl acquire() {
+        return dup(min, length, mask, Thread.currentThread(), scope.acquire());
     }
 
     @Override
@@ -94,9 +94,9 @@ public final class MemorySegmentImpl implements MemorySegment, MemorySegmentProx
     }
 
     @Override
-    public final MemorySegmentImpl asReadOnly() {
+    public MemorySegmentImpl asReadOnly() {
         checkValidState();
-        return new MemorySegmentImpl(min, base, length, mask | READ_ONLY, owner, scope);
+        return dup(min, length, mask | READ_ONLY, owner, scope);
     }
 
     @Override
@@ -170,6 +170,14 @@ public final class MemorySegmentImpl implements MemorySegment, MemorySegmentProx
 
     // Helper methods
 
+    /**
+     * Creates a segment of the same kind as this segment, with the same base object. Overridden by subclasses
+     * that carry additional state, so that slices and views of their segments keep it.
+     */
+    MemorySegmentImpl dup(long min, long length, int mask, Thread owner, MemoryScope scope) {
+        return new MemorySegmentImpl(min, base, length, mask, owner, scope);
+    }
+
     void checkRange(long offset, long length, boolean writeAccess) {
         checkValidState();
         if (isReadOnly() && writeAccess) {
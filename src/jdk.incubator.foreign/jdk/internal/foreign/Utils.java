@@ -26,6 +26,7 @@
 
 package jdk.internal.foreign;
 
+import jdk.incubator.foreign.MappedMemorySegment;
 import jdk.incubator.foreign.MemorySegment;
 import jdk.internal.access.JavaNioAccess;
 import jdk.internal.access.SharedSecrets;
@@ -36,6 +37,7 @@ import sun.security.action.GetBooleanAction;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -136,13 +138,32 @@ public final class Utils {
     }
 
     // create and map a file into a fresh segment
-    public static MemorySegment makeMappedSegment(Path path, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
-        if (bytesSize <= 0) throw new IllegalArgumentException("Requested bytes size must be > 0.");
-        try (FileChannelImpl channelImpl = (FileChannelImpl)FileChannel.open(path, openOptions(mapMode))) {
-            UnmapperProxy unmapperProxy = channelImpl.mapInternal(mapMode, 0L, bytesSize);
-            MemoryScope scope = new MemoryScope(null, unmapperProxy::unmap);
-            return new MemorySegmentImpl(unmapperProxy.address(), null, bytesSize, 0, Thread.currentThread(), scope);
+    public static MappedMemorySegment makeMappedSegment(Path path, long offset, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
+        checkMappedSegment(offset, bytesSize);
+        try (FileChannel channel = FileChannel.open(path, openOptions(mapMode))) {
+            return makeMappedSegment(channel, offset, bytesSize, mapMode);
+        }
+    }
+
+    public static MappedMemorySegment makeMappedSegment(FileChannel channel, long offset, long bytesSize, FileChannel.MapMode mapMode) throws IOException {
+        checkMappedSegment(offset, bytesSize);
+        if (!(channel instanceof FileChannelImpl)) {
+            throw new UnsupportedOperationException("Unsupported file channel: " + channel.getClass().getName());
         }
+        UnmapperProxy unmapperProxy = ((FileChannelImpl)channel).mapInternal(mapMode, offset, bytesSize);
+        if (unmapperProxy == null) {
+            // the channel was closed while mapping
+            throw new ClosedChannelException();
+        }
+        MemoryScope scope = new MemoryScope(null, unmapperProxy::unmap);
+        int mask = (mapMode == FileChannel.MapMode.READ_ONLY) ? MemorySegmentImpl.READ_ONLY : 0;
+        return new MappedMemorySegmentImpl(unmapperProxy.address() + unmapperProxy.pagePosition(), unmapperProxy,
+                bytesSize, mask, Thread.currentThread(), scope);
+    }
+
+    private static void checkMappedSegment(long offset, long bytesSize) {
+        if (offset < 0) throw new IllegalArgumentException("Requested offset must be >= 0.");
+        if (bytesSize <= 0) throw new IllegalArgumentException("Requested bytes size must be > 0.");
     }
 
     private static OpenOption[] openOptions(FileChannel.MapMode mapMode) {
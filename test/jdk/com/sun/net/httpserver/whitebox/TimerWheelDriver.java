@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Whitebox tests for the HTTP server's connection timer wheel
+ * @modules jdk.httpserver/sun.net.httpserver
+ * @run testng jdk.httpserver/sun.net.httpserver.TimerWheelTest
+ */
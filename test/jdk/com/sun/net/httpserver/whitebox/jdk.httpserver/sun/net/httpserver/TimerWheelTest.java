@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.net.httpserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class TimerWheelTest {
+
+    static final long TICK = 1000;
+    static final int SIZE = 512;
+
+    static class Timeout extends TimerWheel.Node {
+        final List<Timeout> fired;
+        int firedGeneration;
+        Timeout(List<Timeout> fired) { this.fired = fired; }
+        @Override
+        void expired(int generation) {
+            firedGeneration = generation;
+            fired.add(this);
+        }
+    }
+
+    /*
+     * A deadline in the same tick as the time of an advance must expire on
+     * a later advance in that tick or the next one, not a rotation later.
+     */
+    @Test
+    public void testDeadlineInCurrentTick() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 100);
+        Timeout t = new Timeout(fired);
+        wheel.schedule(t, 30_200);
+        for (long now = 1_100; now <= 30_100; now += TICK) {
+            wheel.advance(now);
+        }
+        assertTrue(fired.isEmpty());
+        wheel.advance(30_100);
+        assertTrue(fired.isEmpty());
+        wheel.advance(30_200);
+        assertEquals(fired, List.of(t));
+    }
+
+    @Test
+    public void testDeadlineInCurrentTickNextAdvance() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 100);
+        Timeout t = new Timeout(fired);
+        wheel.schedule(t, 30_200);
+        for (long now = 1_100; now <= 31_100; now += TICK) {
+            wheel.advance(now);
+            if (now < 30_200) {
+                assertTrue(fired.isEmpty(), "expired early at " + now);
+            }
+        }
+        assertEquals(fired, List.of(t));
+    }
+
+    @Test
+    public void testScheduleInCurrentTick() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 0);
+        wheel.advance(5_100);
+        Timeout t = new Timeout(fired);
+        wheel.schedule(t, 5_500);
+        wheel.advance(5_400);
+        assertTrue(fired.isEmpty());
+        wheel.advance(6_100);
+        assertEquals(fired, List.of(t));
+    }
+
+    @Test
+    public void testAlreadyDue() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 0);
+        wheel.advance(5_100);
+        Timeout t = new Timeout(fired);
+        wheel.schedule(t, 1_000);
+        wheel.advance(5_200);
+        assertEquals(fired, List.of(t));
+    }
+
+    @Test
+    public void testCancel() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 0);
+        Timeout t = new Timeout(fired);
+        wheel.schedule(t, 2_500);
+        assertTrue(wheel.cancel(t));
+        assertFalse(wheel.cancel(t));
+        wheel.advance(3_000);
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    public void testLaterRotation() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 0);
+        Timeout t = new Timeout(fired);
+        long deadline = TICK * SIZE + 1_500;
+        wheel.schedule(t, deadline);
+        for (long now = 500; now < deadline; now += TICK) {
+            wheel.advance(now);
+        }
+        assertTrue(fired.isEmpty());
+        wheel.advance(deadline);
+        assertEquals(fired, List.of(t));
+    }
+
+    /*
+     * An expiry delivered after the node has been re-armed or cancelled
+     * must be recognisable as stale.
+     */
+    @Test
+    public void testStaleExpiry() {
+        List<Timeout> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(TICK, SIZE, 0);
+        Timeout t = new Timeout(fired);
+        wheel.schedule(t, 2_500);
+        wheel.advance(3_100);
+        assertEquals(fired, List.of(t));
+        int generation = t.firedGeneration;
+        assertTrue(wheel.isCurrent(t, generation));
+        wheel.schedule(t, 9_000);
+        assertFalse(wheel.isCurrent(t, generation));
+        assertTrue(wheel.cancel(t));
+        assertFalse(wheel.isCurrent(t, generation));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Check that replacing the mappings of concurrent long-keyed
+ *          maps does not make their tables grow
+ * @modules java.base/java.util.concurrent:open
+ * @run testng ChurnTest
+ */
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentLongHashMap;
+import java.util.concurrent.ConcurrentLongLongHashMap;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ChurnTest {
+
+    private static final int LIVE = 100;
+    private static final int ROUNDS = 1_000_000;
+
+    /** Returns the capacity of the current table of the given map. */
+    private static int capacity(Object map) throws ReflectiveOperationException {
+        Field tableField = map.getClass().getDeclaredField("table");
+        tableField.setAccessible(true);
+        Object table = tableField.get(map);
+        Field maskField = table.getClass().getDeclaredField("mask");
+        maskField.setAccessible(true);
+        return maskField.getInt(table) + 1;
+    }
+
+    @Test
+    public void testObjectValues() throws Exception {
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<>();
+        for (long k = 1; k <= ROUNDS; k++) {
+            map.put(k, k);
+            if (k > LIVE)
+                assertEquals(map.remove(k - LIVE), Long.valueOf(k - LIVE));
+        }
+        assertEquals(map.size(), LIVE);
+        for (long k = ROUNDS - LIVE + 1; k <= ROUNDS; k++)
+            assertEquals(map.get(k), Long.valueOf(k));
+        assertTrue(capacity(map) <= 8 * LIVE, "capacity " + capacity(map));
+    }
+
+    @Test
+    public void testLongValues() throws Exception {
+        ConcurrentLongLongHashMap map = new ConcurrentLongLongHashMap();
+        for (long k = 1; k <= ROUNDS; k++) {
+            map.put(k, -k);
+            if (k > LIVE)
+                assertTrue(map.remove(k - LIVE));
+        }
+        assertEquals(map.size(), LIVE);
+        for (long k = ROUNDS - LIVE + 1; k <= ROUNDS; k++)
+            assertEquals(map.getOrDefault(k, 0L), -k);
+        assertTrue(capacity(map) <= 8 * LIVE, "capacity " + capacity(map));
+    }
+
+    @Test
+    public void testConcurrentChurn() throws Exception {
+        ConcurrentLongLongHashMap map = new ConcurrentLongLongHashMap();
+        int nThreads = 4;
+        Thread[] threads = new Thread[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            long base = (long) t * ROUNDS;
+            threads[t] = new Thread(() -> {
+                for (long k = base + 1; k <= base + ROUNDS / 4; k++) {
+                    map.put(k, k);
+                    if (k > base + LIVE)
+                        map.remove(k - LIVE);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(map.size(), nThreads * LIVE);
+        assertTrue(capacity(map) <= 8 * nThreads * LIVE,
+                   "capacity " + capacity(map));
+    }
+}
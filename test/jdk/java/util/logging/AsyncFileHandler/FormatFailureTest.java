@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Check that a record whose formatting throws an Error is reported
+ *          and does not stop the writer thread of an AsyncFileHandler
+ * @run main/othervm/timeout=60 FormatFailureTest
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.AsyncFileHandler;
+import java.util.logging.ErrorManager;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+public class FormatFailureTest {
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("FormatFailureTest");
+        Path file = dir.resolve("test.log");
+        AsyncFileHandler handler = new AsyncFileHandler(file.toString(), 0, 1, false,
+                4, AsyncFileHandler.OverflowPolicy.BLOCK, false);
+        handler.setFormatter(new SimpleFormatter());
+        AtomicInteger formatFailures = new AtomicInteger();
+        handler.setErrorManager(new ErrorManager() {
+            @Override
+            public void error(String msg, Exception ex, int code) {
+                if (code == ErrorManager.FORMAT_FAILURE)
+                    formatFailures.incrementAndGet();
+            }
+        });
+
+        LogRecord bad = new LogRecord(Level.INFO, "bad {0}");
+        bad.setParameters(new Object[] {
+            new Object() {
+                @Override
+                public String toString() {
+                    throw new NoClassDefFoundError("Missing");
+                }
+            }
+        });
+        handler.publish(bad);
+        // more records than the buffer holds, so that the publisher waits
+        // for the writer thread to make space
+        for (int i = 0; i < 100; i++) {
+            handler.publish(new LogRecord(Level.INFO, "record " + i));
+        }
+        handler.close();
+
+        if (formatFailures.get() != 1)
+            throw new RuntimeException("Format failures reported: " + formatFailures.get());
+        String log = Files.readString(file);
+        if (!log.contains("record 99"))
+            throw new RuntimeException("Records after the failure not written");
+    }
+}
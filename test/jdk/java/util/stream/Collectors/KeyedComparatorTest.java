@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/*
+ * @test
+ * @summary Check that parallel keyed collectors into a map with an ordering
+ *          inconsistent with hashCode give the sequential result
+ * @run testng KeyedComparatorTest
+ */
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+public class KeyedComparatorTest {
+
+    /** Words that are equal ignoring case, in all letter cases. */
+    private static Stream<String> words(boolean parallel) {
+        Stream<String> s = IntStream.range(0, 100_000)
+                .mapToObj(i -> {
+                    String w = "key" + (i % 1000);
+                    return (i % 3 == 0) ? w.toUpperCase() : w;
+                });
+        return parallel ? s.parallel() : s;
+    }
+
+    @Test
+    public void testGroupingBy() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            Map<String, List<String>> expected = words(false)
+                    .collect(Collectors.groupingBy(w -> w,
+                            () -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER),
+                            Collectors.toList()));
+            Stream<String> s = ordered ? words(true) : words(true).unordered();
+            Map<String, List<String>> actual = s
+                    .collect(Collectors.groupingBy(w -> w,
+                            () -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER),
+                            Collectors.toList()));
+            assertEquals(actual.size(), 1000);
+            assertEquals(actual.keySet(), expected.keySet());
+            for (Map.Entry<String, List<String>> e : expected.entrySet()) {
+                List<String> values = actual.get(e.getKey());
+                assertEquals(values.size(), e.getValue().size());
+                if (ordered)
+                    assertEquals(values, e.getValue());
+            }
+        }
+    }
+
+    /** Decimals that compare equal in all scales, but hash differently. */
+    private static Stream<BigDecimal> decimals(boolean parallel) {
+        Stream<BigDecimal> s = IntStream.range(0, 100_000)
+                .mapToObj(i -> BigDecimal.valueOf(i % 1000).setScale(i % 3));
+        return parallel ? s.parallel() : s;
+    }
+
+    @Test
+    public void testGroupingByNaturalOrder() {
+        Map<BigDecimal, List<BigDecimal>> expected = decimals(false)
+                .collect(Collectors.groupingBy(d -> d, TreeMap::new,
+                        Collectors.toList()));
+        Map<BigDecimal, List<BigDecimal>> actual = decimals(true)
+                .collect(Collectors.groupingBy(d -> d, TreeMap::new,
+                        Collectors.toList()));
+        assertEquals(actual.size(), 1000);
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testToMap() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            Map<String, Integer> expected = words(false)
+                    .collect(Collectors.toMap(w -> w, w -> 1, Integer::sum,
+                            () -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER)));
+            Stream<String> s = ordered ? words(true) : words(true).unordered();
+            Map<String, Integer> actual = s
+                    .collect(Collectors.toMap(w -> w, w -> 1, Integer::sum,
+                            () -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER)));
+            assertEquals(actual, expected);
+        }
+    }
+}